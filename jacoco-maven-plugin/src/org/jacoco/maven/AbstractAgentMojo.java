@@ -153,6 +153,16 @@ public abstract class AbstractAgentMojo extends AbstractJacocoMojo {
 	 */
 	@Parameter(property = "jacoco.jmx")
 	Boolean jmx;
+	/**
+	 * If set to true no probes are inserted for control flow edges whose
+	 * execution status can be derived from other probes. Reports and checks
+	 * of the resulting execution data must also set
+	 * <code>reduceProbes</code>.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.reduceProbes")
+	Boolean reduceProbes;
 
 	@Override
 	public void executeMojo() {
@@ -228,6 +238,9 @@ public abstract class AbstractAgentMojo extends AbstractJacocoMojo {
 		if (jmx != null) {
 			agentOptions.setJmx(jmx.booleanValue());
 		}
+		if (reduceProbes != null) {
+			agentOptions.setReduceProbes(reduceProbes.booleanValue());
+		}
 		return agentOptions;
 	}
 
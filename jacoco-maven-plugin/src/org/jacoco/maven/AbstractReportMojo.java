@@ -66,6 +66,36 @@ public abstract class AbstractReportMojo extends AbstractMojo
 	@Parameter
 	String footer;
 
+	/**
+	 * Whether the different report formats are created concurrently from the
+	 * same coverage data.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.parallelFormats", defaultValue = "false")
+	boolean parallelFormats;
+
+	/**
+	 * Whether the analyzed classes are cached in the file
+	 * <code>jacoco-analysis.cache</code> of the build directory. Subsequent
+	 * reports and checks for the same execution data and class files then
+	 * reuse the coverage data instead of analyzing the classes again.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.analysisCache", defaultValue = "false")
+	boolean analysisCache;
+
+	/**
+	 * Whether the classes have been instrumented with
+	 * <code>reduceProbes</code>. Execution data of such classes can only be
+	 * analyzed with the same setting.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.reduceProbes", defaultValue = "false")
+	boolean reduceProbes;
+
 	/**
 	 * Encoding of the source files.
 	 */
@@ -188,9 +218,12 @@ public abstract class AbstractReportMojo extends AbstractMojo
 			throws MavenReportException {
 		try {
 			final ReportSupport support = new ReportSupport(getLog());
+			support.setAnalysisCache(analysisCache);
+			support.setReducedProbes(reduceProbes);
 			loadExecutionData(support);
 			addFormatters(support, locale);
-			final IReportVisitor visitor = support.initRootVisitor();
+			final IReportVisitor visitor = support
+					.initRootVisitor(parallelFormats);
 			createReport(visitor, support);
 			visitor.visitEnd();
 		} catch (final IOException e) {
@@ -123,6 +123,40 @@ public class CheckMojo extends AbstractJacocoMojo implements IViolationsOutput {
 	@Parameter(property = "jacoco.haltOnFailure", defaultValue = "true", required = true)
 	private boolean haltOnFailure;
 
+	/**
+	 * Stop checking with the first violated rule. In this mode the classes
+	 * are analyzed package by package while the rules are checked and
+	 * maximum counts for the bundle are already checked against the packages
+	 * analyzed so far, so that the analysis of the remaining packages can be
+	 * skipped when a rule is violated. Only the first violation is reported.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.failFast", defaultValue = "false")
+	private boolean failFast;
+
+	/**
+	 * Whether the analyzed classes are cached in the file
+	 * <code>jacoco-analysis.cache</code> of the build directory. Subsequent
+	 * checks and reports for the same execution data and class files then
+	 * reuse the coverage data instead of analyzing the classes again.
+	 * The cache is not used together with <code>failFast</code>.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.analysisCache", defaultValue = "false")
+	private boolean analysisCache;
+
+	/**
+	 * Whether the classes have been instrumented with
+	 * <code>reduceProbes</code>. Execution data of such classes can only be
+	 * analyzed with the same setting.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.reduceProbes", defaultValue = "false")
+	private boolean reduceProbes;
+
 	/**
 	 * File with execution data.
 	 */
@@ -178,7 +212,10 @@ public class CheckMojo extends AbstractJacocoMojo implements IViolationsOutput {
 		for (final RuleConfiguration r : rules) {
 			checkerrules.add(r.rule);
 		}
-		support.addRulesChecker(checkerrules, this);
+		support.addRulesChecker(checkerrules, this, failFast);
+		support.setStreaming(failFast);
+		support.setAnalysisCache(analysisCache);
+		support.setReducedProbes(reduceProbes);
 
 		try {
 			final IReportVisitor visitor = support.initRootVisitor();
@@ -72,6 +72,16 @@ public class ReportAggregateMojo extends AbstractReportMojo {
 	@Parameter
 	List<String> dataFileExcludes;
 
+	/**
+	 * Number of modules whose classes are analyzed concurrently. The execution
+	 * data of all modules is loaded once and shared by all analyses. The
+	 * modules are still added to the report in the order of the dependencies.
+	 *
+	 * @since 0.8.8
+	 */
+	@Parameter(property = "jacoco.analysisThreads", defaultValue = "1")
+	int analysisThreads;
+
 	/**
 	 * Output directory for the reports. Note that this parameter is only
 	 * relevant if the goal is run from the command line or from the default
@@ -131,12 +141,10 @@ public class ReportAggregateMojo extends AbstractReportMojo {
 	void createReport(final IReportGroupVisitor visitor,
 			final ReportSupport support) throws IOException {
 		final IReportGroupVisitor group = visitor.visitGroup(title);
-		for (final MavenProject dependency : findDependencies(
-				Artifact.SCOPE_COMPILE, Artifact.SCOPE_RUNTIME,
-				Artifact.SCOPE_PROVIDED)) {
-			support.processProject(group, dependency.getArtifactId(),
-					dependency, getIncludes(), getExcludes(), sourceEncoding);
-		}
+		support.processProjects(group,
+				findDependencies(Artifact.SCOPE_COMPILE,
+						Artifact.SCOPE_RUNTIME, Artifact.SCOPE_PROVIDED),
+				getIncludes(), getExcludes(), sourceEncoding, analysisThreads);
 	}
 
 	public File getReportOutputDirectory() {
@@ -16,13 +16,17 @@ package org.jacoco.maven;
 import static java.lang.String.format;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
@@ -30,10 +34,18 @@ import org.jacoco.core.analysis.Analyzer;
 import org.jacoco.core.analysis.CoverageBuilder;
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.analysis.SharedStringPool;
+import org.jacoco.core.analysis.StreamingBundleCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.internal.ThreadPools;
+import org.jacoco.core.tools.AnalysisCache;
 import org.jacoco.core.tools.ExecFileLoader;
 import org.jacoco.report.IReportGroupVisitor;
 import org.jacoco.report.IReportVisitor;
 import org.jacoco.report.ISourceFileLocator;
+import org.jacoco.report.IndexedSourceFileLocator;
 import org.jacoco.report.MultiReportVisitor;
 import org.jacoco.report.check.IViolationsOutput;
 import org.jacoco.report.check.Rule;
@@ -57,6 +69,11 @@ final class ReportSupport {
 	private final Log log;
 	private final ExecFileLoader loader;
 	private final List<IReportVisitor> formatters;
+	private boolean streaming;
+	private boolean analysisCache;
+	private boolean reducedProbes;
+	private final Set<File> loadedFiles;
+	private final SharedStringPool stringPool;
 
 	/**
 	 * Construct a new instance with the given log output.
@@ -68,10 +85,14 @@ final class ReportSupport {
 		this.log = log;
 		this.loader = new ExecFileLoader();
 		this.formatters = new ArrayList<IReportVisitor>();
+		this.loadedFiles = new HashSet<File>();
+		// Projects may be analyzed in parallel and share equal names
+		this.stringPool = new SharedStringPool();
 	}
 
 	/**
-	 * Loads the given execution data file.
+	 * Loads the given execution data file. Files which have already been
+	 * loaded are skipped.
 	 *
 	 * @param execFile
 	 *            execution data file to load
@@ -79,6 +100,9 @@ final class ReportSupport {
 	 *             if the file can't be loaded
 	 */
 	public void loadExecutionData(final File execFile) throws IOException {
+		if (!loadedFiles.add(execFile.getAbsoluteFile())) {
+			return;
+		}
 		log.info("Loading execution data file " + execFile);
 		loader.load(execFile);
 	}
@@ -89,13 +113,83 @@ final class ReportSupport {
 
 	public void addRulesChecker(final List<Rule> rules,
 			final IViolationsOutput output) {
+		addRulesChecker(rules, output, false);
+	}
+
+	/**
+	 * Adds a checker for the given rules.
+	 *
+	 * @param rules
+	 *            rules to check
+	 * @param output
+	 *            call-back to report violations to
+	 * @param failFast
+	 *            if <code>true</code> checking stops with the first violation
+	 */
+	public void addRulesChecker(final List<Rule> rules,
+			final IViolationsOutput output, final boolean failFast) {
 		final RulesChecker checker = new RulesChecker();
 		checker.setRules(rules);
+		checker.setFailFast(failFast);
 		formatters.add(checker.createVisitor(output));
 	}
 
+	/**
+	 * Sets whether the classes of projects are analyzed package by package
+	 * while the formatters visit the bundle instead of before. Every formatter
+	 * triggers a separate analysis then.
+	 *
+	 * @param streaming
+	 *            <code>true</code> to analyze the classes on demand
+	 */
+	public void setStreaming(final boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	/**
+	 * Sets whether the analyzed classes of projects are cached in the file
+	 * <code>jacoco-analysis.cache</code> of their build directory. Subsequent
+	 * reports and checks for the same execution data and class files read the
+	 * cached coverage data instead of analyzing the classes again.
+	 *
+	 * @param analysisCache
+	 *            <code>true</code> to use the cache
+	 */
+	public void setAnalysisCache(final boolean analysisCache) {
+		this.analysisCache = analysisCache;
+	}
+
+	/**
+	 * Sets whether the classes have been instrumented with reduced probes.
+	 *
+	 * @param reducedProbes
+	 *            <code>true</code> to analyze execution data of reduced
+	 *            probes
+	 * @see Analyzer#setReducedProbes(boolean)
+	 */
+	public void setReducedProbes(final boolean reducedProbes) {
+		this.reducedProbes = reducedProbes;
+	}
+
 	public IReportVisitor initRootVisitor() throws IOException {
-		final IReportVisitor visitor = new MultiReportVisitor(formatters);
+		return initRootVisitor(false);
+	}
+
+	/**
+	 * Creates the root visitor for all added formatters and emits the session
+	 * and execution data to it.
+	 *
+	 * @param parallel
+	 *            if <code>true</code> the formatters visit the bundles
+	 *            concurrently
+	 * @return root visitor
+	 * @throws IOException
+	 *             if the visitor can't be initialized
+	 */
+	public IReportVisitor initRootVisitor(final boolean parallel)
+			throws IOException {
+		final IReportVisitor visitor = new MultiReportVisitor(formatters,
+				parallel);
 		visitor.visitInfo(loader.getSessionInfoStore().getInfos(),
 				loader.getExecutionDataStore().getContents());
 		return visitor;
@@ -147,28 +241,212 @@ final class ReportSupport {
 			final List<String> includes, final List<String> excludes,
 			final String srcEncoding) throws IOException {
 		processProject(visitor, bundleName, project, includes, excludes,
-				new SourceFileCollection(project, srcEncoding));
+				createSourceLocator(project, srcEncoding));
+	}
+
+	/**
+	 * Calculates coverage for the given projects and emits it to the report
+	 * group including source references. The classes of several projects are
+	 * analyzed concurrently, the bundles are emitted in the order of the
+	 * projects.
+	 *
+	 * @param visitor
+	 *            group visitor to emit the projects' coverage to
+	 * @param projects
+	 *            the MavenProjects, the artifact ids are used as bundle names
+	 * @param includes
+	 *            list of includes patterns
+	 * @param excludes
+	 *            list of excludes patterns
+	 * @param srcEncoding
+	 *            encoding of the source files within the projects
+	 * @param threads
+	 *            number of projects analyzed concurrently
+	 * @throws IOException
+	 *             if class files can't be read
+	 */
+	public void processProjects(final IReportGroupVisitor visitor,
+			final List<MavenProject> projects, final List<String> includes,
+			final List<String> excludes, final String srcEncoding,
+			final int threads) throws IOException {
+		if (streaming || threads <= 1 || projects.size() <= 1) {
+			for (final MavenProject project : projects) {
+				processProject(visitor, project.getArtifactId(), project,
+						includes, excludes, srcEncoding);
+			}
+			return;
+		}
+		final ExecutorService executor = ThreadPools.create(threads,
+				"jacoco-analysis");
+		try {
+			// Limit the number of analyzed projects waiting to be emitted
+			final int window = 2 * threads;
+			final List<Future<CoverageBuilder>> analyses = new ArrayList<Future<CoverageBuilder>>();
+			for (int i = 0; i < projects.size(); i++) {
+				while (analyses.size() < Math.min(projects.size(),
+						i + window)) {
+					analyses.add(submit(executor, projects.get(analyses.size()),
+							includes, excludes));
+				}
+				final CoverageBuilder builder = ThreadPools
+						.await(analyses.get(i), "analyzing classes");
+				analyses.set(i, null);
+				final MavenProject project = projects.get(i);
+				final IBundleCoverage bundle = builder
+						.getBundle(project.getArtifactId());
+				logBundleInfo(bundle, builder.getNoMatchClasses());
+				visitor.visitBundle(bundle,
+						createSourceLocator(project, srcEncoding));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Future<CoverageBuilder> submit(final ExecutorService executor,
+			final MavenProject project, final List<String> includes,
+			final List<String> excludes) {
+		return executor.submit(new Callable<CoverageBuilder>() {
+			public CoverageBuilder call() throws IOException {
+				return analyze(project, includes, excludes);
+			}
+		});
 	}
 
 	private void processProject(final IReportGroupVisitor visitor,
 			final String bundleName, final MavenProject project,
 			final List<String> includes, final List<String> excludes,
 			final ISourceFileLocator locator) throws IOException {
-		final CoverageBuilder builder = new CoverageBuilder();
+		if (streaming) {
+			final File classesDir = new File(
+					project.getBuild().getOutputDirectory());
+			processProjectStreaming(visitor, bundleName, classesDir, includes,
+					excludes, locator);
+			return;
+		}
+
+		final CoverageBuilder builder = analyze(project, includes, excludes);
+
+		final IBundleCoverage bundle = builder.getBundle(bundleName);
+		logBundleInfo(bundle, builder.getNoMatchClasses());
+
+		visitor.visitBundle(bundle, locator);
+	}
+
+	private CoverageBuilder analyze(final MavenProject project,
+			final List<String> includes, final List<String> excludes)
+			throws IOException {
 		final File classesDir = new File(
 				project.getBuild().getOutputDirectory());
+		final CoverageBuilder builder = new CoverageBuilder();
 
 		if (classesDir.isDirectory()) {
-			final Analyzer analyzer = new Analyzer(
-					loader.getExecutionDataStore(), builder);
 			final FileFilter filter = new FileFilter(includes, excludes);
-			for (final File file : filter.getFiles(classesDir)) {
-				analyzer.analyzeAll(file);
+			final List<File> files = filter.getFiles(classesDir);
+			final Set<String> names = getClassNames(classesDir, files);
+			final AnalysisCache cache = createCache(project, files, names);
+			if (cache == null || !cache.load(builder)) {
+				final Analyzer analyzer = new Analyzer(
+						loader.getExecutionDataStore(), builder, stringPool);
+				analyzer.setReducedProbes(reducedProbes);
+				for (final File file : files) {
+					analyzer.analyzeAll(file);
+				}
+				if (cache != null && containsAll(names, builder.getClasses())) {
+					cache.store(builder.getClasses());
+				}
 			}
 		}
+		return builder;
+	}
 
-		final IBundleCoverage bundle = builder.getBundle(bundleName);
-		logBundleInfo(bundle, builder.getNoMatchClasses());
+	private AnalysisCache createCache(final MavenProject project,
+			final List<File> files, final Set<String> names) {
+		if (!analysisCache || names == null) {
+			return null;
+		}
+		final AnalysisCache cache = new AnalysisCache(new File(
+				project.getBuild().getDirectory(), "jacoco-analysis.cache"));
+		// Only execution data of the project's classes is relevant, so that
+		// the cache stays valid for other execution data, e.g. in aggregates
+		final ExecutionDataStore executionData = new ExecutionDataStore();
+		for (final ExecutionData data : loader.getExecutionDataStore()
+				.getContents()) {
+			if (names.contains(data.getName())) {
+				executionData.put(data);
+			}
+		}
+		cache.addExecutionData(executionData);
+		// Order of the scanned files is not defined
+		final List<File> sorted = new ArrayList<File>(files);
+		Collections.sort(sorted);
+		for (final File file : sorted) {
+			cache.addClassFiles(file);
+		}
+		if (reducedProbes) {
+			cache.addOption("reduceprobes");
+		}
+		return cache;
+	}
+
+	/**
+	 * Returns the VM names of the classes expected in the given class files
+	 * or <code>null</code> if other files like archives are included.
+	 */
+	private static Set<String> getClassNames(final File classesDir,
+			final List<File> files) {
+		final String root = classesDir.getAbsolutePath() + File.separator;
+		final Set<String> names = new HashSet<String>();
+		for (final File file : files) {
+			final String path = file.getAbsolutePath();
+			if (!path.startsWith(root) || !path.endsWith(".class")) {
+				return null;
+			}
+			names.add(path.substring(root.length(), path.length() - 6)
+					.replace(File.separatorChar, '/'));
+		}
+		return names;
+	}
+
+	/**
+	 * Checks whether all analyzed classes are stored at the expected location.
+	 * Otherwise their execution data has not been considered for the cache.
+	 */
+	private static boolean containsAll(final Set<String> names,
+			final Collection<IClassCoverage> classes) {
+		for (final IClassCoverage c : classes) {
+			if (!names.contains(c.getName())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void processProjectStreaming(final IReportGroupVisitor visitor,
+			final String bundleName, final File classesDir,
+			final List<String> includes, final List<String> excludes,
+			final ISourceFileLocator locator) throws IOException {
+		final StreamingBundleCoverage bundle = new StreamingBundleCoverage(
+				bundleName, loader.getExecutionDataStore()) {
+			@Override
+			protected Analyzer createAnalyzer(
+					final ExecutionDataStore executionData,
+					final ICoverageVisitor visitor) {
+				final Analyzer analyzer = new Analyzer(executionData, visitor);
+				analyzer.setReducedProbes(reducedProbes);
+				return analyzer;
+			}
+		};
+		int count = 0;
+		if (classesDir.isDirectory()) {
+			final FileFilter filter = new FileFilter(includes, excludes);
+			for (final File file : filter.getFiles(classesDir)) {
+				count += bundle.addAll(file);
+			}
+		}
+		log.info(format("Found bundle '%s' with %s class files", bundleName,
+				Integer.valueOf(count)));
+		logNoMatchClasses(bundleName, bundle.getNoMatchClasses());
 
 		visitor.visitBundle(bundle, locator);
 	}
@@ -178,21 +456,30 @@ final class ReportSupport {
 		log.info(format("Analyzed bundle '%s' with %s classes",
 				bundle.getName(),
 				Integer.valueOf(bundle.getClassCounter().getTotalCount())));
+		final List<String> nomatchNames = new ArrayList<String>();
+		for (final IClassCoverage c : nomatch) {
+			nomatchNames.add(c.getName());
+		}
+		logNoMatchClasses(bundle.getName(), nomatchNames);
+		if (bundle.containsCode()
+				&& bundle.getLineCounter().getTotalCount() == 0) {
+			log.warn(
+					"To enable source code annotation class files have to be compiled with debug information.");
+		}
+	}
+
+	private void logNoMatchClasses(final String bundleName,
+			final Collection<String> nomatch) {
 		if (!nomatch.isEmpty()) {
 			log.warn(format(
 					"Classes in bundle '%s' do not match with execution data. "
 							+ "For report generation the same class files must be used as at runtime.",
-					bundle.getName()));
-			for (final IClassCoverage c : nomatch) {
+					bundleName));
+			for (final String c : nomatch) {
 				log.warn(format("Execution data for class %s does not match.",
-						c.getName()));
+						c));
 			}
 		}
-		if (bundle.containsCode()
-				&& bundle.getLineCounter().getTotalCount() == 0) {
-			log.warn(
-					"To enable source code annotation class files have to be compiled with debug information.");
-		}
 	}
 
 	private class NoSourceLocator implements ISourceFileLocator {
@@ -207,38 +494,14 @@ final class ReportSupport {
 		}
 	}
 
-	private class SourceFileCollection implements ISourceFileLocator {
-
-		private final List<File> sourceRoots;
-		private final String encoding;
-
-		public SourceFileCollection(final MavenProject project,
-				final String encoding) {
-			this.sourceRoots = getCompileSourceRoots(project);
-			this.encoding = encoding;
-		}
-
-		public Reader getSourceFile(final String packageName,
-				final String fileName) throws IOException {
-			final String r;
-			if (packageName.length() > 0) {
-				r = packageName + '/' + fileName;
-			} else {
-				r = fileName;
-			}
-			for (final File sourceRoot : sourceRoots) {
-				final File file = new File(sourceRoot, r);
-				if (file.exists() && file.isFile()) {
-					return new InputStreamReader(new FileInputStream(file),
-							encoding);
-				}
-			}
-			return null;
-		}
-
-		public int getTabWidth() {
-			return 4;
+	private static ISourceFileLocator createSourceLocator(
+			final MavenProject project, final String encoding) {
+		final IndexedSourceFileLocator locator = new IndexedSourceFileLocator(
+				encoding, 4);
+		for (final File sourceRoot : getCompileSourceRoots(project)) {
+			locator.addDirectory(sourceRoot);
 		}
+		return locator;
 	}
 
 	private static List<File> getCompileSourceRoots(
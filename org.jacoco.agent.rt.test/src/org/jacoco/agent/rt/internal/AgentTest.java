@@ -152,6 +152,33 @@ public class AgentTest implements IExceptionLogger, IAgentOutput {
 		agent.shutdown();
 	}
 
+	@Test
+	public void registerCache_should_register_mbean_when_enabled()
+			throws Exception {
+		options.setJmx(true);
+		Agent agent = createAgent();
+		agent.startup();
+		final InstrumentedClassCache cache = new InstrumentedClassCache(100);
+		cache.get(1, "Foo");
+
+		agent.registerCache(cache);
+
+		ObjectName objectName = new ObjectName(
+				"org.jacoco:type=InstrumentedClassCache");
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		assertEquals(Long.valueOf(0), server.getAttribute(objectName, "Hits"));
+		assertEquals(Long.valueOf(1),
+				server.getAttribute(objectName, "Misses"));
+
+		// cleanup as MBean is registered globally
+		agent.shutdown();
+		try {
+			server.getMBeanInfo(objectName);
+			fail("InstanceNotFoundException expected");
+		} catch (InstanceNotFoundException e) {
+		}
+	}
+
 	@Test
 	public void startup_should_not_register_mbean_when_disabled()
 			throws Exception {
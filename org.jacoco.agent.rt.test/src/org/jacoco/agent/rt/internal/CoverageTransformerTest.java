@@ -14,7 +14,9 @@ package org.jacoco.agent.rt.internal;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -27,6 +29,7 @@ import java.security.ProtectionDomain;
 import java.security.cert.Certificate;
 
 import org.jacoco.core.JaCoCo;
+import org.jacoco.core.internal.data.CRC64;
 import org.jacoco.core.runtime.AbstractRuntime;
 import org.jacoco.core.runtime.AgentOptions;
 import org.junit.After;
@@ -237,6 +240,62 @@ public class CoverageTransformerTest {
 				protectionDomain, getClassData(target)));
 	}
 
+	@Test
+	public void testTransformWithoutCache() throws Exception {
+		CoverageTransformer t = createTransformer();
+		assertNull(t.getCache());
+		final byte[] bytes = getClassData(JaCoCo.class);
+		assertNotNull(t.transform(classLoader, "org/jacoco/core/JaCoCo", null,
+				protectionDomain, bytes));
+	}
+
+	@Test
+	public void testTransformWithCache() throws Exception {
+		options.setInstrCacheSize(1024 * 1024);
+		CoverageTransformer t = createTransformer();
+		final byte[] bytes = getClassData(JaCoCo.class);
+		final byte[] first = t.transform(classLoader, "org/jacoco/core/JaCoCo",
+				null, protectionDomain, bytes);
+		final byte[] second = t.transform(new ClassLoader(null) {
+		}, "org/jacoco/core/JaCoCo", null, protectionDomain, bytes);
+		assertNotNull(first);
+		assertSame(first, second);
+		assertEquals(1, t.getCache().getHits());
+		assertEquals(1, t.getCache().getMisses());
+	}
+
+	@Test
+	public void testPreInstrument() throws Exception {
+		options.setInstrCacheSize(1024 * 1024);
+		CoverageTransformer t = createTransformer();
+		final byte[] bytes = getClassData(JaCoCo.class);
+		assertTrue(t.preInstrument(classLoader, "org/jacoco/core/JaCoCo",
+				protectionDomain, bytes));
+		final byte[] cached = t.getCache().get(CRC64.classId(bytes),
+				"org/jacoco/core/JaCoCo");
+		assertNotNull(cached);
+		assertSame(cached, t.transform(classLoader, "org/jacoco/core/JaCoCo",
+				null, protectionDomain, bytes));
+	}
+
+	@Test
+	public void testPreInstrumentFilteredBootstrapClass() throws Exception {
+		options.setInstrCacheSize(1024 * 1024);
+		CoverageTransformer t = createTransformer();
+		assertTrue(t.preInstrument(null, "org/jacoco/core/JaCoCo",
+				protectionDomain, getClassData(JaCoCo.class)));
+		assertEquals(0, t.getCache().getSize());
+	}
+
+	@Test
+	public void testPreInstrumentFilteredNoLocationClass() throws Exception {
+		options.setInstrCacheSize(1024 * 1024);
+		CoverageTransformer t = createTransformer();
+		assertTrue(t.preInstrument(classLoader, "org/jacoco/core/JaCoCo",
+				null, getClassData(JaCoCo.class)));
+		assertEquals(0, t.getCache().getSize());
+	}
+
 	private CoverageTransformer createTransformer() {
 		return new CoverageTransformer(runtime, options, recorder);
 	}
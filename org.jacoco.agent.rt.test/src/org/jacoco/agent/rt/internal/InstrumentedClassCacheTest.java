@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link InstrumentedClassCache}.
+ */
+public class InstrumentedClassCacheTest {
+
+	private InstrumentedClassCache cache;
+
+	@Before
+	public void setup() {
+		cache = new InstrumentedClassCache(100);
+	}
+
+	@Test
+	public void get_should_return_stored_class() {
+		final byte[] b = new byte[10];
+		cache.put(1, "Foo", b);
+
+		assertSame(b, cache.get(1, "Foo"));
+		assertEquals(10, cache.getSize());
+		assertEquals(1, cache.getHits());
+		assertEquals(0, cache.getMisses());
+	}
+
+	@Test
+	public void get_should_consider_id_and_name() {
+		cache.put(1, "Foo", new byte[10]);
+
+		assertNull(cache.get(2, "Foo"));
+		assertNull(cache.get(1, "Bar"));
+		assertEquals(0, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void put_should_replace_existing_entry() {
+		cache.put(1, "Foo", new byte[10]);
+		final byte[] b = new byte[20];
+		cache.put(1, "Foo", b);
+
+		assertSame(b, cache.get(1, "Foo"));
+		assertEquals(20, cache.getSize());
+	}
+
+	@Test
+	public void put_should_evict_least_recently_used_entries() {
+		cache.put(1, "A", new byte[40]);
+		cache.put(2, "B", new byte[40]);
+		cache.get(1, "A");
+		cache.put(3, "C", new byte[40]);
+
+		assertNull(cache.get(2, "B"));
+		assertEquals(40, cache.get(1, "A").length);
+		assertEquals(40, cache.get(3, "C").length);
+		assertEquals(80, cache.getSize());
+	}
+
+	@Test
+	public void put_should_ignore_classes_exceeding_limit() {
+		cache.put(1, "A", new byte[40]);
+		cache.put(2, "B", new byte[101]);
+
+		assertNull(cache.get(2, "B"));
+		assertEquals(40, cache.get(1, "A").length);
+		assertEquals(40, cache.getSize());
+	}
+
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jacoco.core.JaCoCo;
+import org.jacoco.core.internal.InputStreams;
+import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.runtime.AgentOptions;
+import org.jacoco.core.runtime.LoggerRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link PreInstrumenter}.
+ */
+public class PreInstrumenterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ExceptionRecorder recorder;
+
+	private AgentOptions options;
+
+	private ClassLoader classLoader;
+
+	private byte[] jacocoClass;
+
+	private byte[] testClass;
+
+	@Before
+	public void setup() throws IOException {
+		recorder = new ExceptionRecorder();
+		options = new AgentOptions();
+		options.setInstrCacheSize(1024 * 1024);
+		classLoader = getClass().getClassLoader();
+		jacocoClass = getClassData(JaCoCo.class);
+		testClass = getClassData(PreInstrumenterTest.class);
+	}
+
+	@After
+	public void teardown() {
+		recorder.assertNoException();
+	}
+
+	@Test
+	public void should_instrument_classes_from_directories_and_archives()
+			throws Exception {
+		final File dir = folder.newFolder("classes");
+		write(new File(dir, "org/jacoco/core/JaCoCo.class"), jacocoClass);
+		final File jar = folder.newFile("test.jar");
+		final ZipOutputStream zip = new ZipOutputStream(
+				new FileOutputStream(jar));
+		zip.putNextEntry(new ZipEntry("META-INF/Foo.class"));
+		zip.write(testClass);
+		zip.putNextEntry(new ZipEntry(
+				"org/jacoco/example/PreInstrumenterTest.class"));
+		zip.write(testClass);
+		zip.close();
+		final CoverageTransformer transformer = createTransformer();
+
+		preInstrument(transformer, dir + File.pathSeparator + jar
+				+ File.pathSeparator + new File(folder.getRoot(), "missing"));
+
+		final InstrumentedClassCache cache = transformer.getCache();
+		assertNotNull(cache.get(CRC64.classId(jacocoClass),
+				"org/jacoco/core/JaCoCo"));
+		assertNotNull(cache.get(CRC64.classId(testClass),
+				"org/jacoco/example/PreInstrumenterTest"));
+		assertEquals(2, cache.getHits());
+	}
+
+	@Test
+	public void transform_should_return_pre_instrumented_class()
+			throws Exception {
+		final File dir = folder.newFolder("classes");
+		write(new File(dir, "org/jacoco/core/JaCoCo.class"), jacocoClass);
+		final CoverageTransformer transformer = createTransformer();
+		preInstrument(transformer, dir.toString());
+
+		final byte[] cached = transformer.getCache()
+				.get(CRC64.classId(jacocoClass), "org/jacoco/core/JaCoCo");
+		assertSame(cached, transformer.transform(classLoader,
+				"org/jacoco/core/JaCoCo", null,
+				getClass().getProtectionDomain(), jacocoClass));
+	}
+
+	@Test
+	public void should_only_instrument_included_classes() throws Exception {
+		options.setExcludes("org.jacoco.core.*");
+		final File dir = folder.newFolder("classes");
+		write(new File(dir, "org/jacoco/core/JaCoCo.class"), jacocoClass);
+		final CoverageTransformer transformer = createTransformer();
+
+		preInstrument(transformer, dir.toString());
+
+		assertEquals(0, transformer.getCache().getSize());
+	}
+
+	@Test
+	public void should_only_instrument_classes_accepted_at_load_time()
+			throws Exception {
+		classLoader = null;
+		final File dir = folder.newFolder("classes");
+		write(new File(dir, "org/jacoco/core/JaCoCo.class"), jacocoClass);
+		final CoverageTransformer transformer = createTransformer();
+
+		preInstrument(transformer, dir.toString());
+
+		assertEquals(0, transformer.getCache().getSize());
+	}
+
+	@Test
+	public void should_not_exceed_cache_size() throws Exception {
+		options.setInstrCacheSize(jacocoClass.length);
+		final File dir = folder.newFolder("classes");
+		write(new File(dir, "org/jacoco/core/JaCoCo.class"), jacocoClass);
+		final CoverageTransformer transformer = createTransformer();
+
+		preInstrument(transformer, dir.toString());
+
+		assertEquals(0, transformer.getCache().getSize());
+	}
+
+	private CoverageTransformer createTransformer() {
+		return new CoverageTransformer(new LoggerRuntime(), options, recorder);
+	}
+
+	private void preInstrument(final CoverageTransformer transformer,
+			final String classPath) {
+		new PreInstrumenter(transformer, classLoader, classPath, 2, recorder)
+				.run();
+	}
+
+	private static void write(final File file, final byte[] contents)
+			throws IOException {
+		file.getParentFile().mkdirs();
+		final OutputStream out = new FileOutputStream(file);
+		out.write(contents);
+		out.close();
+	}
+
+	private static byte[] getClassData(final Class<?> clazz)
+			throws IOException {
+		final String resource = "/" + clazz.getName().replace('.', '/')
+				+ ".class";
+		final InputStream in = clazz.getResourceAsStream(resource);
+		try {
+			return InputStreams.readFully(in);
+		} finally {
+			in.close();
+		}
+	}
+
+}
@@ -89,6 +89,8 @@ public class Agent implements IAgent {
 
 	private Callable<Void> jmxRegistration;
 
+	private Callable<Void> cacheJmxRegistration;
+
 	/**
 	 * Creates a new agent with the given agent options.
 	 *
@@ -136,6 +138,21 @@ public class Agent implements IAgent {
 		}
 	}
 
+	/**
+	 * Exposes the statistics of the given cache for instrumented class files
+	 * via JMX if enabled.
+	 *
+	 * @param cache
+	 *            cache used by the agent
+	 * @throws Exception
+	 *             if the cache can't be registered
+	 */
+	void registerCache(final InstrumentedClassCache cache) throws Exception {
+		if (options.getJmx()) {
+			cacheJmxRegistration = new JmxRegistration(cache);
+		}
+	}
+
 	/**
 	 * Shutdown the agent again.
 	 */
@@ -148,6 +165,9 @@ public class Agent implements IAgent {
 			if (jmxRegistration != null) {
 				jmxRegistration.call();
 			}
+			if (cacheJmxRegistration != null) {
+				cacheJmxRegistration.call();
+			}
 		} catch (final Exception e) {
 			logger.logExeption(e);
 		}
@@ -18,6 +18,7 @@ import java.security.CodeSource;
 import java.security.ProtectionDomain;
 
 import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.internal.data.CRC64;
 import org.jacoco.core.runtime.AgentOptions;
 import org.jacoco.core.runtime.IRuntime;
 import org.jacoco.core.runtime.WildcardMatcher;
@@ -50,6 +51,8 @@ public class CoverageTransformer implements ClassFileTransformer {
 
 	private final boolean inclNoLocationClasses;
 
+	private final InstrumentedClassCache cache;
+
 	/**
 	 * New transformer with the given delegates.
 	 *
@@ -63,6 +66,8 @@ public class CoverageTransformer implements ClassFileTransformer {
 	public CoverageTransformer(final IRuntime runtime,
 			final AgentOptions options, final IExceptionLogger logger) {
 		this.instrumenter = new Instrumenter(runtime);
+		this.instrumenter.setReducedProbes(options.getReduceProbes());
+		this.instrumenter.setCompactProbes(options.getCompactProbes());
 		this.logger = logger;
 		// Class names will be reported in VM notation:
 		includes = new WildcardMatcher(toVMName(options.getIncludes()));
@@ -71,6 +76,8 @@ public class CoverageTransformer implements ClassFileTransformer {
 		classFileDumper = new ClassFileDumper(options.getClassDumpDir());
 		inclBootstrapClasses = options.getInclBootstrapClasses();
 		inclNoLocationClasses = options.getInclNoLocationClasses();
+		final int cacheSize = options.getInstrCacheSize();
+		cache = cacheSize > 0 ? new InstrumentedClassCache(cacheSize) : null;
 	}
 
 	public byte[] transform(final ClassLoader loader, final String classname,
@@ -89,7 +96,17 @@ public class CoverageTransformer implements ClassFileTransformer {
 
 		try {
 			classFileDumper.dump(classname, classfileBuffer);
-			return instrumenter.instrument(classfileBuffer, classname);
+			if (cache == null) {
+				return instrumenter.instrument(classfileBuffer, classname);
+			}
+			final long classId = CRC64.classId(classfileBuffer);
+			byte[] instrumented = cache.get(classId, classname);
+			if (instrumented == null) {
+				instrumented = instrumenter.instrument(classfileBuffer,
+						classname);
+				cache.put(classId, classname, instrumented);
+			}
+			return instrumented;
 		} catch (final Exception ex) {
 			final IllegalClassFormatException wrapper = new IllegalClassFormatException(
 					ex.getMessage());
@@ -100,6 +117,54 @@ public class CoverageTransformer implements ClassFileTransformer {
 		}
 	}
 
+	/**
+	 * Instruments the given class ahead of time and stores the result in the
+	 * cache, so that a later call of {@link #transform} for the same class
+	 * file can be served from memory. Classes which are not accepted by
+	 * {@link #filter(ClassLoader, String, ProtectionDomain)} are ignored, as
+	 * {@link #transform} would never serve them from the cache. Failures are
+	 * ignored as well, they will be reported when the class is actually
+	 * loaded.
+	 *
+	 * @param loader
+	 *            loader which is expected to define the class
+	 * @param classname
+	 *            VM name of the class
+	 * @param protectionDomain
+	 *            protection domain the class is expected to be defined with
+	 * @param classfileBuffer
+	 *            original class file
+	 * @return <code>false</code> if the cache has no space left for further
+	 *         classes
+	 */
+	boolean preInstrument(final ClassLoader loader, final String classname,
+			final ProtectionDomain protectionDomain,
+			final byte[] classfileBuffer) {
+		if (cache == null) {
+			return false;
+		}
+		if (!filter(loader, classname, protectionDomain)) {
+			return true;
+		}
+		final byte[] instrumented;
+		try {
+			instrumented = instrumenter.instrument(classfileBuffer, classname);
+		} catch (final Exception ex) {
+			return true;
+		}
+		return cache.putIfSpace(CRC64.classId(classfileBuffer), classname,
+				instrumented);
+	}
+
+	/**
+	 * Returns the cache for instrumented class files.
+	 *
+	 * @return cache or <code>null</code> if caching is disabled
+	 */
+	InstrumentedClassCache getCache() {
+		return cache;
+	}
+
 	/**
 	 * Checks whether this class should be instrumented.
 	 *
@@ -127,6 +192,10 @@ public class CoverageTransformer implements ClassFileTransformer {
 			}
 		}
 
+		return filter(classname);
+	}
+
+	private boolean filter(final String classname) {
 		return !classname.startsWith(AGENT_PREFIX) &&
 
 				includes.matches(classname) &&
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Internal cache for instrumented class files. The same class file is often
+ * loaded by several class loaders (e.g. in application servers or test
+ * frameworks creating isolated class loaders). As the instrumented version only
+ * depends on the class id and the class name it can be reused for every
+ * further definition of the same class. The total size of the cached class
+ * files is limited, least recently used entries are discarded first. The
+ * statistics of the cache are exposed via JMX if enabled.
+ */
+class InstrumentedClassCache implements InstrumentedClassCacheMBean {
+
+	private final long maxSize;
+
+	private final LinkedHashMap<Key, byte[]> entries;
+
+	private long size;
+
+	private long hits;
+
+	private long misses;
+
+	/**
+	 * Creates a new cache with the given limit.
+	 *
+	 * @param maxSize
+	 *            maximum total size of all cached class files in bytes
+	 */
+	InstrumentedClassCache(final long maxSize) {
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<Key, byte[]>(16, 0.75f, true);
+	}
+
+	/**
+	 * Returns the instrumented class file previously stored for the given
+	 * class.
+	 *
+	 * @param classId
+	 *            id of the original class file
+	 * @param name
+	 *            VM name of the class
+	 * @return instrumented class file or <code>null</code> if not cached
+	 */
+	synchronized byte[] get(final long classId, final String name) {
+		final byte[] instrumented = entries.get(new Key(classId, name));
+		if (instrumented == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return instrumented;
+	}
+
+	/**
+	 * Stores the instrumented class file for the given class. Class files which
+	 * exceed the total size limit on their own are not stored.
+	 *
+	 * @param classId
+	 *            id of the original class file
+	 * @param name
+	 *            VM name of the class
+	 * @param instrumented
+	 *            instrumented class file
+	 */
+	synchronized void put(final long classId, final String name,
+			final byte[] instrumented) {
+		if (instrumented.length > maxSize) {
+			return;
+		}
+		final byte[] previous = entries.put(new Key(classId, name),
+				instrumented);
+		if (previous != null) {
+			size -= previous.length;
+		}
+		size += instrumented.length;
+		final Iterator<Map.Entry<Key, byte[]>> i = entries.entrySet()
+				.iterator();
+		while (size > maxSize) {
+			size -= i.next().getValue().length;
+			i.remove();
+		}
+	}
+
+	/**
+	 * Stores the instrumented class file for the given class only if it fits
+	 * into the remaining space, i.e. no other entry has to be discarded.
+	 *
+	 * @param classId
+	 *            id of the original class file
+	 * @param name
+	 *            VM name of the class
+	 * @param instrumented
+	 *            instrumented class file
+	 * @return <code>false</code> if there was not enough space left
+	 */
+	synchronized boolean putIfSpace(final long classId, final String name,
+			final byte[] instrumented) {
+		final Key key = new Key(classId, name);
+		if (entries.containsKey(key)) {
+			return true;
+		}
+		if (size + instrumented.length > maxSize) {
+			return false;
+		}
+		entries.put(key, instrumented);
+		size += instrumented.length;
+		return true;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getSize() {
+		return size;
+	}
+
+	private static class Key {
+
+		private final long classId;
+
+		private final String name;
+
+		Key(final long classId, final String name) {
+			this.classId = classId;
+			this.name = name;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (classId ^ (classId >>> 32)) * 31 + name.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return classId == other.classId && name.equals(other.name);
+		}
+
+	}
+
+}
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal;
+
+/**
+ * MBean interface for the statistics of the cache for instrumented class
+ * files.
+ */
+public interface InstrumentedClassCacheMBean {
+
+	/**
+	 * Returns the number of lookups which returned a cached class file.
+	 *
+	 * @return number of cache hits
+	 */
+	long getHits();
+
+	/**
+	 * Returns the number of lookups which did not find a cached class file.
+	 *
+	 * @return number of cache misses
+	 */
+	long getMisses();
+
+	/**
+	 * Returns the total size of all cached class files.
+	 *
+	 * @return size in bytes
+	 */
+	long getSize();
+
+}
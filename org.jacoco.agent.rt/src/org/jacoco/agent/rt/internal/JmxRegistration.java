@@ -29,17 +29,30 @@ class JmxRegistration implements Callable<Void> {
 
 	private static final String JMX_NAME = "org.jacoco:type=Runtime";
 
+	private static final String CACHE_JMX_NAME = "org.jacoco:"
+			+ "type=InstrumentedClassCache";
+
 	private final MBeanServer server;
 	private final ObjectName name;
 
 	JmxRegistration(final IAgent agent) throws Exception {
+		this(agent, IAgent.class, JMX_NAME);
+	}
+
+	JmxRegistration(final InstrumentedClassCacheMBean cache)
+			throws Exception {
+		this(cache, InstrumentedClassCacheMBean.class, CACHE_JMX_NAME);
+	}
+
+	private <T> JmxRegistration(final T object, final Class<T> type,
+			final String objectName) throws Exception {
 		server = ManagementFactory.getPlatformMBeanServer();
-		name = new ObjectName(JMX_NAME);
-		server.registerMBean(new StandardMBean(agent, IAgent.class), name);
+		name = new ObjectName(objectName);
+		server.registerMBean(new StandardMBean(object, type), name);
 	}
 
 	/**
-	 * De-register the agent again.
+	 * De-register the MBean again.
 	 */
 	public Void call() throws Exception {
 		server.unregisterMBean(name);
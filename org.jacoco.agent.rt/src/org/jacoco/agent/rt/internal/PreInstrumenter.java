@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.agent.rt.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.security.cert.Certificate;
+import java.util.Enumeration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jacoco.core.internal.InputStreams;
+
+/**
+ * Instruments the classes of a class path in background threads ahead of
+ * time. The instrumented classes are kept in the cache of the
+ * {@link CoverageTransformer}, so that instrumentation does not need to happen
+ * on the thread loading the class. A single thread scans the class path and
+ * hands the class files over to a pool of worker threads. If the workers
+ * cannot keep up the scanning thread instruments classes itself. Scanning
+ * stops as soon as the cache has no space left. Classes are filtered like at
+ * load time, assuming they are defined with the class path entry they have
+ * been found in as code source.
+ */
+class PreInstrumenter implements Runnable {
+
+	private static final String THREAD_NAME = "jacoco-preinstrument";
+
+	private final CoverageTransformer transformer;
+
+	private final ClassLoader loader;
+
+	private final String classPath;
+
+	private final IExceptionLogger logger;
+
+	private final ThreadPoolExecutor executor;
+
+	private volatile boolean full;
+
+	/**
+	 * Creates a new pre-instrumenter.
+	 *
+	 * @param transformer
+	 *            transformer which instruments and caches the classes
+	 * @param loader
+	 *            class loader which is expected to define the classes
+	 * @param classPath
+	 *            class path entries separated by {@link File#pathSeparator}
+	 * @param threads
+	 *            number of worker threads
+	 * @param logger
+	 *            logger for problems while reading the class path
+	 */
+	PreInstrumenter(final CoverageTransformer transformer,
+			final ClassLoader loader, final String classPath,
+			final int threads, final IExceptionLogger logger) {
+		this.transformer = transformer;
+		this.loader = loader;
+		this.classPath = classPath;
+		this.logger = logger;
+		this.executor = new ThreadPoolExecutor(threads, threads, 0,
+				TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(threads * 4),
+				new ThreadFactory() {
+					public Thread newThread(final Runnable r) {
+						final Thread thread = new Thread(r, THREAD_NAME);
+						thread.setDaemon(true);
+						return thread;
+					}
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	/**
+	 * Starts scanning the class path in a new background thread.
+	 */
+	void start() {
+		final Thread thread = new Thread(this, THREAD_NAME);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Scans the class path and returns after all classes have been processed
+	 * by the worker threads.
+	 */
+	public void run() {
+		try {
+			for (final String entry : classPath.split(File.pathSeparator)) {
+				if (full) {
+					break;
+				}
+				if (entry.length() > 0) {
+					scan(new File(entry));
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void scan(final File file) {
+		try {
+			if (file.isDirectory()) {
+				scanDirectory(file, "", getProtectionDomain(file));
+			} else if (file.isFile()) {
+				scanArchive(file, getProtectionDomain(file));
+			}
+		} catch (final IOException e) {
+			logger.logExeption(e);
+		}
+	}
+
+	private static ProtectionDomain getProtectionDomain(final File file)
+			throws IOException {
+		final CodeSource source = new CodeSource(file.toURI().toURL(),
+				(Certificate[]) null);
+		return new ProtectionDomain(source, null);
+	}
+
+	private void scanDirectory(final File dir, final String path,
+			final ProtectionDomain domain) throws IOException {
+		final File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (final File f : files) {
+			if (full) {
+				return;
+			}
+			final String name = path + f.getName();
+			if (f.isDirectory()) {
+				scanDirectory(f, name + "/", domain);
+			} else if (isClassFile(name)) {
+				final InputStream in = new FileInputStream(f);
+				try {
+					submit(name, domain, InputStreams.readFully(in));
+				} finally {
+					in.close();
+				}
+			}
+		}
+	}
+
+	private void scanArchive(final File file, final ProtectionDomain domain)
+			throws IOException {
+		final ZipFile zip = new ZipFile(file);
+		try {
+			final Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements() && !full) {
+				final ZipEntry entry = entries.nextElement();
+				if (!entry.isDirectory() && isClassFile(entry.getName())) {
+					final InputStream in = zip.getInputStream(entry);
+					try {
+						submit(entry.getName(), domain,
+								InputStreams.readFully(in));
+					} finally {
+						in.close();
+					}
+				}
+			}
+		} finally {
+			zip.close();
+		}
+	}
+
+	private static boolean isClassFile(final String name) {
+		return name.endsWith(".class") && !name.startsWith("META-INF/")
+				&& !name.endsWith("module-info.class");
+	}
+
+	private void submit(final String name, final ProtectionDomain domain,
+			final byte[] classfile) {
+		final String classname = name.substring(0,
+				name.length() - ".class".length());
+		executor.execute(new Runnable() {
+			public void run() {
+				if (!transformer.preInstrument(loader, classname, domain,
+						classfile)) {
+					full = true;
+				}
+			}
+		});
+	}
+
+}
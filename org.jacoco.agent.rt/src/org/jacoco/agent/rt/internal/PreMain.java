@@ -51,8 +51,19 @@ public final class PreMain {
 
 		final IRuntime runtime = createRuntime(inst);
 		runtime.startup(agent.getData());
-		inst.addTransformer(new CoverageTransformer(runtime, agentOptions,
-				IExceptionLogger.SYSTEM_ERR));
+		final CoverageTransformer transformer = new CoverageTransformer(runtime,
+				agentOptions, IExceptionLogger.SYSTEM_ERR);
+		inst.addTransformer(transformer);
+		if (transformer.getCache() != null) {
+			agent.registerCache(transformer.getCache());
+		}
+		if (agentOptions.getPreInstrument()) {
+			new PreInstrumenter(transformer,
+					ClassLoader.getSystemClassLoader(),
+					System.getProperty("java.class.path", ""),
+					Runtime.getRuntime().availableProcessors(),
+					IExceptionLogger.SYSTEM_ERR).start();
+		}
 	}
 
 	private static IRuntime createRuntime(final Instrumentation inst)
@@ -211,6 +211,17 @@ public class AbstractCoverageTask extends Task {
 		agentOptions.setJmx(jmx);
 	}
 
+	/**
+	 * Sets whether probes are omitted for control flow edges whose execution
+	 * status can be derived from other probes.
+	 *
+	 * @param reduceProbes
+	 *            <code>true</code> to insert a reduced set of probes
+	 */
+	public void setReduceprobes(final boolean reduceProbes) {
+		agentOptions.setReduceProbes(reduceProbes);
+	}
+
 	/**
 	 * Creates JVM argument to launch with the specified JaCoCo agent jar and
 	 * the current options
@@ -23,9 +23,10 @@ import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.Resource;
 import org.apache.tools.ant.types.ResourceCollection;
+import org.apache.tools.ant.types.resources.FileProvider;
 import org.apache.tools.ant.types.resources.Union;
 import org.apache.tools.ant.util.FileUtils;
-import org.jacoco.core.tools.ExecFileLoader;
+import org.jacoco.core.tools.ExecFileMerger;
 
 /**
  * Task for merging a set of execution data files (*.exec) into a single file
@@ -63,13 +64,13 @@ public class MergeTask extends Task {
 					getLocation());
 		}
 
-		final ExecFileLoader loader = new ExecFileLoader();
+		final ExecFileMerger merger = new ExecFileMerger();
 
-		load(loader);
-		save(loader);
+		load(merger);
+		save(merger);
 	}
 
-	private void load(final ExecFileLoader loader) {
+	private void load(final ExecFileMerger merger) {
 		final Iterator<?> resourceIterator = files.iterator();
 		while (resourceIterator.hasNext()) {
 			final Resource resource = (Resource) resourceIterator.next();
@@ -80,10 +81,17 @@ public class MergeTask extends Task {
 
 			log(format("Loading execution data file %s", resource));
 
+			final FileProvider fileProvider = resource
+					.as(FileProvider.class);
+			if (fileProvider != null) {
+				merger.load(fileProvider.getFile());
+				continue;
+			}
+
 			InputStream resourceStream = null;
 			try {
 				resourceStream = resource.getInputStream();
-				loader.load(resourceStream);
+				merger.load(resourceStream);
 			} catch (final IOException e) {
 				throw new BuildException(format("Unable to read %s", resource),
 						e, getLocation());
@@ -91,13 +99,19 @@ public class MergeTask extends Task {
 				FileUtils.close(resourceStream);
 			}
 		}
+		try {
+			// Wait for all files to be read to report problems separately:
+			merger.isEmpty();
+		} catch (final IOException e) {
+			throw new BuildException(e.getMessage(), e, getLocation());
+		}
 	}
 
-	private void save(final ExecFileLoader loader) {
+	private void save(final ExecFileMerger merger) {
 		log(format("Writing merged execution data to %s",
 				destfile.getAbsolutePath()));
 		try {
-			loader.save(destfile, false);
+			merger.save(destfile, false);
 		} catch (final IOException e) {
 			throw new BuildException(format("Unable to write merged file %s",
 					destfile.getAbsolutePath()), e, getLocation());
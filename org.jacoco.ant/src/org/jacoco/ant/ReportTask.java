@@ -39,6 +39,7 @@ import org.jacoco.core.analysis.IClassCoverage;
 import org.jacoco.core.analysis.ICoverageNode;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.SessionInfoStore;
+import org.jacoco.core.tools.AnalysisCache;
 import org.jacoco.core.tools.ExecFileLoader;
 import org.jacoco.report.FileMultiReportOutput;
 import org.jacoco.report.IMultiReportOutput;
@@ -108,6 +109,8 @@ public class ReportTask extends Task {
 
 		private String name;
 
+		private File cachefile;
+
 		/**
 		 * Sets the name of the group.
 		 *
@@ -118,6 +121,19 @@ public class ReportTask extends Task {
 			this.name = name;
 		}
 
+		/**
+		 * Sets the file to cache the analyzed classes of this group. If the
+		 * execution data and the class files are the same for subsequent
+		 * reports the cached coverage data is used instead of analyzing the
+		 * classes again.
+		 *
+		 * @param cachefile
+		 *            cache file
+		 */
+		public void setCachefile(final File cachefile) {
+			this.cachefile = cachefile;
+		}
+
 		/**
 		 * Creates a new child group.
 		 *
@@ -424,6 +440,34 @@ public class ReportTask extends Task {
 
 	private final List<FormatterElement> formatters = new ArrayList<FormatterElement>();
 
+	private boolean parallel = false;
+
+	private boolean reduceProbes = false;
+
+	/**
+	 * Sets whether the different report formats are created concurrently.
+	 * Default is <code>false</code>.
+	 *
+	 * @param parallel
+	 *            if <code>true</code> the report formats are created in
+	 *            parallel
+	 */
+	public void setParallel(final boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Sets whether the classes have been instrumented with reduced probes.
+	 * Default is <code>false</code>.
+	 *
+	 * @param reduceProbes
+	 *            if <code>true</code> the execution data is analyzed for
+	 *            reduced probes
+	 */
+	public void setReduceprobes(final boolean reduceProbes) {
+		this.reduceProbes = reduceProbes;
+	}
+
 	/**
 	 * Returns the nested resource collection for execution data files.
 	 *
@@ -532,7 +576,7 @@ public class ReportTask extends Task {
 		for (final FormatterElement f : formatters) {
 			visitors.add(f.createVisitor());
 		}
-		return new MultiReportVisitor(visitors);
+		return new MultiReportVisitor(visitors, parallel);
 	}
 
 	private void createReport(final IReportGroupVisitor visitor,
@@ -563,7 +607,22 @@ public class ReportTask extends Task {
 	private IBundleCoverage createBundle(final GroupElement group)
 			throws IOException {
 		final CoverageBuilder builder = new CoverageBuilder();
+		final AnalysisCache cache = createCache(group);
+		if (cache == null || !cache.load(builder)) {
+			analyze(group, builder);
+			if (cache != null) {
+				cache.store(builder.getClasses());
+			}
+		}
+		final IBundleCoverage bundle = builder.getBundle(group.name);
+		logBundleInfo(bundle, builder.getNoMatchClasses());
+		return bundle;
+	}
+
+	private void analyze(final GroupElement group,
+			final CoverageBuilder builder) throws IOException {
 		final Analyzer analyzer = new Analyzer(executionDataStore, builder);
+		analyzer.setReducedProbes(reduceProbes);
 		for (final Iterator<?> i = group.classfiles.iterator(); i.hasNext();) {
 			final Resource resource = (Resource) i.next();
 			if (resource.isDirectory() && resource instanceof FileResource) {
@@ -574,9 +633,27 @@ public class ReportTask extends Task {
 				in.close();
 			}
 		}
-		final IBundleCoverage bundle = builder.getBundle(group.name);
-		logBundleInfo(bundle, builder.getNoMatchClasses());
-		return bundle;
+	}
+
+	private AnalysisCache createCache(final GroupElement group) {
+		if (group.cachefile == null) {
+			return null;
+		}
+		final AnalysisCache cache = new AnalysisCache(group.cachefile);
+		cache.addExecutionData(executionDataStore);
+		for (final Iterator<?> i = group.classfiles.iterator(); i.hasNext();) {
+			final Resource resource = (Resource) i.next();
+			if (resource.isDirectory() && resource instanceof FileResource) {
+				cache.addClassFiles(((FileResource) resource).getFile());
+			} else {
+				cache.addClassFile(resource.toString(), resource.getSize(),
+						resource.getLastModified());
+			}
+		}
+		if (reduceProbes) {
+			cache.addOption("reduceprobes");
+		}
+		return cache;
 	}
 
 	private void logBundleInfo(final IBundleCoverage bundle,
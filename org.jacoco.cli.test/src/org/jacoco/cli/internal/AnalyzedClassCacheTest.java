@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.cli.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.internal.InputStreams;
+import org.jacoco.core.internal.flow.ClassProbesAdapter;
+import org.jacoco.core.internal.flow.ClassProbesVisitor;
+import org.jacoco.core.internal.flow.MethodProbesVisitor;
+import org.jacoco.core.internal.instr.InstrSupport;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link AnalyzedClassCache}.
+ */
+public class AnalyzedClassCacheTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private AnalyzedClassCache cache;
+
+	private ExecutionDataStore executionData;
+
+	private File classes;
+
+	@Before
+	public void setup() throws IOException {
+		cache = new AnalyzedClassCache(10);
+		executionData = new ExecutionDataStore();
+		classes = tmp.newFolder("classes");
+		createClassfile(AnalyzedClassCacheTest.class);
+		createClassfile(CommandTestBase.class);
+	}
+
+	@Test
+	public void analyzeAll_should_reuse_analyzed_classes() throws IOException {
+		final IClassCoverage first = analyze(classes, false);
+		final IClassCoverage second = analyze(classes, false);
+
+		assertSame(first, second);
+		assertEquals(2, cache.getClassCount());
+	}
+
+	@Test
+	public void analyzeAll_should_analyze_again_when_execution_data_changes()
+			throws IOException {
+		final IClassCoverage first = analyze(classes, false);
+		final boolean[] probes = new boolean[getProbeCount(
+				AnalyzedClassCacheTest.class)];
+		Arrays.fill(probes, true);
+		executionData.put(
+				new ExecutionData(first.getId(), first.getName(), probes));
+
+		final IClassCoverage second = analyze(classes, false);
+
+		assertNotSame(first, second);
+		assertTrue(second.getInstructionCounter().getCoveredCount() > 0);
+	}
+
+	@Test
+	public void analyzeAll_should_analyze_again_when_execution_data_does_not_match()
+			throws IOException {
+		final IClassCoverage first = analyze(classes, false);
+		executionData.put(
+				new ExecutionData(0x1234, first.getName(), new boolean[1]));
+
+		final IClassCoverage second = analyze(classes, false);
+
+		assertNotSame(first, second);
+		assertTrue(second.isNoMatch());
+	}
+
+	@Test
+	public void analyzeAll_should_analyze_again_when_file_changes()
+			throws IOException {
+		final IClassCoverage first = analyze(classes, false);
+		final File file = new File(classes,
+				"org/jacoco/cli/internal/AnalyzedClassCacheTest.class");
+		file.setLastModified(file.lastModified() - 2000);
+
+		assertNotSame(first, analyze(classes, false));
+	}
+
+	@Test
+	public void analyzeAll_should_cache_classes_separately_for_reduced_probes()
+			throws IOException {
+		final IClassCoverage first = analyze(classes, false);
+
+		assertNotSame(first, analyze(classes, true));
+		assertSame(first, analyze(classes, false));
+	}
+
+	@Test
+	public void analyzeAll_should_not_cache_classes_when_covered_only()
+			throws IOException {
+		final Analyzer analyzer = cache.createAnalyzer(executionData,
+				new CoverageBuilder());
+		analyzer.setCoveredOnly(true);
+		analyzer.analyzeAll(classes);
+
+		assertEquals(0, cache.getClassCount());
+	}
+
+	@Test
+	public void analyzeAll_should_discard_least_recently_used_classes()
+			throws IOException {
+		cache = new AnalyzedClassCache(2);
+		final IClassCoverage first = analyze(classes, false);
+		analyze(classes, true);
+
+		assertEquals(2, cache.getClassCount());
+		assertNotSame(first, analyze(classes, false));
+	}
+
+	private IClassCoverage analyze(final File file, final boolean reduced)
+			throws IOException {
+		final CoverageBuilder builder = new CoverageBuilder();
+		final Analyzer analyzer = cache.createAnalyzer(executionData, builder);
+		analyzer.setReducedProbes(reduced);
+		assertEquals(2, analyzer.analyzeAll(file));
+		for (final IClassCoverage c : builder.getClasses()) {
+			if (c.getName().equals(
+					"org/jacoco/cli/internal/AnalyzedClassCacheTest")) {
+				return c;
+			}
+		}
+		throw new AssertionError("Class not analyzed");
+	}
+
+	private static int getProbeCount(final Class<?> source)
+			throws IOException {
+		final String name = source.getName().replace('.', '/') + ".class";
+		final InputStream in = source.getResourceAsStream("/" + name);
+		final byte[] bytes;
+		try {
+			bytes = InputStreams.readFully(in);
+		} finally {
+			in.close();
+		}
+		final int[] count = new int[1];
+		InstrSupport.classReaderFor(bytes)
+				.accept(new ClassProbesAdapter(new ClassProbesVisitor() {
+					@Override
+					public MethodProbesVisitor visitMethod(final int access,
+							final String name, final String desc,
+							final String signature,
+							final String[] exceptions) {
+						return null;
+					}
+
+					@Override
+					public void visitTotalProbeCount(final int c) {
+						count[0] = c;
+					}
+				}, false), 0);
+		return count[0];
+	}
+
+	private void createClassfile(final Class<?> source) throws IOException {
+		final String name = source.getName().replace('.', '/') + ".class";
+		final File file = new File(classes, name);
+		file.getParentFile().mkdirs();
+		final InputStream in = source.getResourceAsStream("/" + name);
+		final OutputStream out = new FileOutputStream(file);
+		final byte[] buffer = new byte[1024];
+		int len;
+		while ((len = in.read(buffer)) != -1) {
+			out.write(buffer, 0, len);
+		}
+		out.close();
+		in.close();
+	}
+
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.cli.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link DaemonServer} and {@link DaemonClient}.
+ */
+public class DaemonServerTest extends CommandTestBase {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private String userHome;
+
+	private AnalyzedClassCache cache;
+
+	private DaemonServer server;
+
+	private Thread thread;
+
+	@Before
+	public void startServer() throws IOException {
+		userHome = System.getProperty("user.home");
+		System.setProperty("user.home", tmp.getRoot().getAbsolutePath());
+		final byte[] secret = DaemonSecret.create();
+		cache = new AnalyzedClassCache(1000);
+		server = new DaemonServer(0, cache, secret);
+		DaemonSecret.write(DaemonSecret.getFile(server.getPort()), secret);
+		thread = new Thread(new Runnable() {
+			public void run() {
+				try {
+					server.run();
+				} catch (final IOException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		});
+		thread.start();
+	}
+
+	@After
+	public void stopServer() throws Exception {
+		server.close();
+		thread.join(5000);
+		System.setProperty("user.home", userHome);
+	}
+
+	@Test
+	public void should_execute_command_in_daemon() throws Exception {
+		execute("--daemon", port(), "version");
+
+		assertOk();
+		assertNoOutput(err);
+		final StringWriter daemonOut = out;
+		before();
+		execute("version");
+		assertEquals(out.toString(), daemonOut.toString());
+	}
+
+	@Test
+	public void should_return_exit_code_and_error_output_of_command()
+			throws Exception {
+		execute("--daemon", port(), "classinfo", "--invalid");
+
+		assertFailure();
+		assertContains("\"--invalid\"", err);
+	}
+
+	@Test
+	public void should_keep_analyzed_classes_in_cache() throws Exception {
+		execute("--daemon", port(), "classinfo", getClassPath());
+
+		assertOk();
+		assertContains("org/jacoco/cli/internal/DaemonServerTest", out);
+		final StringWriter expected = out;
+		final int classes = cache.getClassCount();
+		assertTrue(classes > 0);
+
+		before();
+		execute("--daemon", port(), "classinfo", getClassPath());
+
+		assertOk();
+		assertEquals(expected.toString(), out.toString());
+		assertEquals(classes, cache.getClassCount());
+	}
+
+	@Test
+	public void should_ignore_invalid_requests() throws Exception {
+		final Socket socket = new Socket(InetAddress.getByName(null),
+				server.getPort());
+		final DataOutputStream output = new DataOutputStream(
+				socket.getOutputStream());
+		output.writeChar(0x1234);
+		output.flush();
+		assertEquals(-1, socket.getInputStream().read());
+		socket.close();
+
+		execute("--daemon", port(), "version");
+		assertOk();
+	}
+
+	@Test
+	public void should_reject_requests_with_invalid_secret()
+			throws Exception {
+		final Socket socket = new Socket(InetAddress.getByName(null),
+				server.getPort());
+		final DataOutputStream output = new DataOutputStream(
+				socket.getOutputStream());
+		output.writeChar(DaemonServer.MAGIC_NUMBER);
+		output.write(new byte[DaemonSecret.LENGTH]);
+		output.writeUTF(System.getProperty("user.dir"));
+		output.writeInt(1);
+		output.writeUTF("version");
+		output.flush();
+		final DataInputStream in = new DataInputStream(
+				socket.getInputStream());
+		assertEquals(DaemonServer.BLOCK_ERR, in.readByte());
+		assertEquals(String.format("[ERROR] Invalid daemon secret.%n"),
+				in.readUTF());
+		assertEquals(DaemonServer.BLOCK_EXIT, in.readByte());
+		assertEquals(-1, in.readInt());
+		socket.close();
+	}
+
+	@Test
+	public void should_refuse_daemon_command() throws Exception {
+		execute("--daemon", port(), "daemon", "--port", "0");
+
+		assertFailure();
+		assertContains("[ERROR] A daemon can't execute the daemon command.",
+				err);
+	}
+
+	@Test
+	public void should_fail_without_secret_file() throws Exception {
+		DaemonSecret.getFile(server.getPort()).delete();
+
+		try {
+			execute("--daemon", port(), "version");
+			fail("IOException expected");
+		} catch (final IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void write_should_create_secret_file() throws Exception {
+		final File file = new File(tmp.getRoot(), "secrets/test.secret");
+		final byte[] secret = DaemonSecret.create();
+
+		DaemonSecret.write(file, secret);
+
+		assertArrayEquals(secret, DaemonSecret.read(file));
+		assertEquals(DaemonSecret.LENGTH, file.length());
+	}
+
+	private String port() {
+		return String.valueOf(server.getPort());
+	}
+
+}
@@ -26,7 +26,8 @@ public class MainTest extends CommandTestBase {
 		assertFailure();
 		assertNoOutput(out);
 		assertContains("\"<command>\"", err);
-		assertContains("Usage: java -jar jacococli.jar --help | <command>",
+		assertContains(
+				"Usage: java -jar jacococli.jar --help | [--daemon <port>] <command>",
 				err);
 		assertContains("Command line interface for JaCoCo.", err);
 	}
@@ -39,7 +40,8 @@ public class MainTest extends CommandTestBase {
 		assertFailure();
 		assertNoOutput(out);
 		assertContains("\"foo\" is not a valid value for \"<command>\"", err);
-		assertContains("Usage: java -jar jacococli.jar --help | <command>",
+		assertContains(
+				"Usage: java -jar jacococli.jar --help | [--daemon <port>] <command>",
 				err);
 	}
 
@@ -50,7 +52,8 @@ public class MainTest extends CommandTestBase {
 
 		assertOk();
 		assertNoOutput(err);
-		assertContains("Usage: java -jar jacococli.jar --help | <command>",
+		assertContains(
+				"Usage: java -jar jacococli.jar --help | [--daemon <port>] <command>",
 				out);
 		assertContains("<command> : dump|instrument|merge|report", out);
 	}
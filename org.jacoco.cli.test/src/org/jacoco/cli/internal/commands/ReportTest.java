@@ -57,7 +57,7 @@ public class ReportTest extends CommandTestBase {
 		execute("report", "--classfiles", getClassPath());
 
 		assertOk();
-		assertContains("[INFO] Analyzing 14 classes.", out);
+		assertContains("[INFO] Analyzing 17 classes.", out);
 	}
 
 	@Test
@@ -127,6 +127,62 @@ public class ReportTest extends CommandTestBase {
 						.isFile());
 	}
 
+	@Test
+	public void should_create_all_reports_when_parallel_option_is_provided()
+			throws Exception {
+		File xml = new File(tmp.getRoot(), "coverage.xml");
+		File csv = new File(tmp.getRoot(), "coverage.csv");
+		File html = new File(tmp.getRoot(), "coverage");
+
+		execute("report", "--classfiles", getClassPath(), "--parallel",
+				"--xml", xml.getAbsolutePath(), "--csv", csv.getAbsolutePath(),
+				"--html", html.getAbsolutePath());
+
+		assertOk();
+		assertTrue(xml.isFile());
+		assertTrue(csv.isFile());
+		assertTrue(new File(html, "index.html").isFile());
+	}
+
+	@Test
+	public void should_create_reports_when_streaming_option_is_provided()
+			throws Exception {
+		File xml = new File(tmp.getRoot(), "coverage.xml");
+		File html = new File(tmp.getRoot(), "coverage");
+
+		execute("report", "--classfiles", getClassPath(), "--streaming",
+				"--sourcefiles", "./src", "--xml", xml.getAbsolutePath(),
+				"--html", html.getAbsolutePath());
+
+		assertOk();
+		assertContains("[INFO] Streaming analysis of ", out);
+		assertTrue(xml.isFile());
+		assertTrue(new File(html,
+				"org.jacoco.cli.internal.commands/ReportTest.java.html")
+						.isFile());
+	}
+
+	@Test
+	public void should_use_cache_file_when_inputs_are_unchanged()
+			throws Exception {
+		File cache = new File(tmp.getRoot(), "analysis.cache");
+		File xml = new File(tmp.getRoot(), "coverage.xml");
+
+		execute("report", "--classfiles", getClassPath(), "--cachefile",
+				cache.getAbsolutePath());
+		assertOk();
+		assertTrue(cache.isFile());
+
+		execute("report", "--classfiles", getClassPath(), "--cachefile",
+				cache.getAbsolutePath(), "--xml", xml.getAbsolutePath());
+
+		assertOk();
+		assertContains("[INFO] Using analyzed classes from "
+				+ cache.getAbsolutePath(), out);
+		assertContains("[INFO] Analyzing 17 classes.", out);
+		assertTrue(xml.isFile());
+	}
+
 	@Test
 	public void should_use_all_values_when_multiple_classfiles_options_are_provided()
 			throws Exception {
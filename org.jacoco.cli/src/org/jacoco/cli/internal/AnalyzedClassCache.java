@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.cli.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+
+/**
+ * In-memory cache for the analyzed classes of class files which is shared by
+ * all commands executed by the same daemon. A cached class file is only
+ * analyzed again if the file or the execution data of its classes has
+ * changed. The least recently used class files are discarded if the number of
+ * cached classes exceeds the given size.
+ */
+public class AnalyzedClassCache {
+
+	private final int size;
+
+	private final Map<String, Entry> entries;
+
+	private int classes;
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param size
+	 *            maximum number of classes in this cache
+	 */
+	public AnalyzedClassCache(final int size) {
+		this.size = size;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+		this.classes = 0;
+	}
+
+	/**
+	 * Creates an analyzer which uses and updates this cache for every
+	 * analyzed file. Classes from streams or in-memory buffers are not cached.
+	 *
+	 * @param executionData
+	 *            execution data
+	 * @param coverageVisitor
+	 *            visitor to emit the coverage data of every analyzed class to
+	 * @return new analyzer
+	 */
+	public Analyzer createAnalyzer(final ExecutionDataStore executionData,
+			final ICoverageVisitor coverageVisitor) {
+		return new CachingAnalyzer(executionData,
+				new Recorder(coverageVisitor));
+	}
+
+	/**
+	 * @return number of classes currently in this cache
+	 */
+	public synchronized int getClassCount() {
+		return classes;
+	}
+
+	private synchronized Entry get(final String key) {
+		return entries.get(key);
+	}
+
+	private synchronized void put(final String key, final Entry entry) {
+		final Entry previous = entries.put(key, entry);
+		if (previous != null) {
+			classes -= previous.classes.size();
+		}
+		classes += entry.classes.size();
+		final Iterator<Entry> i = entries.values().iterator();
+		while (classes > size && i.hasNext()) {
+			classes -= i.next().classes.size();
+			i.remove();
+		}
+	}
+
+	private class CachingAnalyzer extends Analyzer {
+
+		private final ExecutionDataStore executionData;
+
+		private final Recorder recorder;
+
+		private boolean reducedProbes;
+
+		private boolean coveredOnly;
+
+		CachingAnalyzer(final ExecutionDataStore executionData,
+				final Recorder recorder) {
+			super(executionData, recorder);
+			this.executionData = executionData;
+			this.recorder = recorder;
+		}
+
+		@Override
+		public void setReducedProbes(final boolean flag) {
+			super.setReducedProbes(flag);
+			reducedProbes = flag;
+		}
+
+		@Override
+		public void setCoveredOnly(final boolean flag) {
+			super.setCoveredOnly(flag);
+			coveredOnly = flag;
+		}
+
+		@Override
+		public int analyzeAll(final File file) throws IOException {
+			// Without execution data classes are skipped which can't be
+			// validated later
+			if (coveredOnly || file.isDirectory()) {
+				return super.analyzeAll(file);
+			}
+			final String key = file.getAbsolutePath()
+					+ (reducedProbes ? "#reducedprobes" : "");
+			final Entry cached = get(key);
+			if (cached != null && cached.isValid(file, executionData)) {
+				for (final IClassCoverage c : cached.classes) {
+					recorder.delegate.visitCoverage(c);
+				}
+				return cached.count;
+			}
+			final long length = file.length();
+			final long lastModified = file.lastModified();
+			final List<IClassCoverage> recorded = new ArrayList<IClassCoverage>();
+			recorder.recorded = recorded;
+			try {
+				final int count = super.analyzeAll(file);
+				put(key, new Entry(length, lastModified, count, recorded,
+						executionData));
+				return count;
+			} finally {
+				recorder.recorded = null;
+			}
+		}
+
+	}
+
+	private static class Recorder implements ICoverageVisitor {
+
+		final ICoverageVisitor delegate;
+
+		List<IClassCoverage> recorded;
+
+		Recorder(final ICoverageVisitor delegate) {
+			this.delegate = delegate;
+		}
+
+		public void visitCoverage(final IClassCoverage coverage) {
+			if (recorded != null) {
+				recorded.add(coverage);
+			}
+			delegate.visitCoverage(coverage);
+		}
+
+	}
+
+	private static class Entry {
+
+		final long length;
+
+		final long lastModified;
+
+		final int count;
+
+		final List<IClassCoverage> classes;
+
+		/** Probes of every class when analyzed or <code>null</code> */
+		final boolean[][] probes;
+
+		Entry(final long length, final long lastModified, final int count,
+				final List<IClassCoverage> classes,
+				final ExecutionDataStore executionData) {
+			this.length = length;
+			this.lastModified = lastModified;
+			this.count = count;
+			this.classes = classes;
+			this.probes = new boolean[classes.size()][];
+			for (int i = 0; i < probes.length; i++) {
+				final ExecutionData data = executionData
+						.get(classes.get(i).getId());
+				if (data != null) {
+					probes[i] = data.getProbes().clone();
+				}
+			}
+		}
+
+		boolean isValid(final File file,
+				final ExecutionDataStore executionData) {
+			if (file.length() != length
+					|| file.lastModified() != lastModified) {
+				return false;
+			}
+			for (int i = 0; i < probes.length; i++) {
+				final IClassCoverage c = classes.get(i);
+				final ExecutionData data = executionData.get(c.getId());
+				if (data == null) {
+					if (probes[i] != null || c.isNoMatch() != executionData
+							.contains(c.getName())) {
+						return false;
+					}
+				} else if (!Arrays.equals(probes[i], data.getProbes())) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+}
@@ -15,6 +15,9 @@ package org.jacoco.cli.internal;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.data.ExecutionDataStore;
 import org.kohsuke.args4j.Option;
 
 /**
@@ -39,6 +42,12 @@ public abstract class Command {
 	@Option(name = "--quiet", usage = "suppress all output on stdout")
 	public boolean quiet = false;
 
+	/**
+	 * Cache for analyzed classes if the command is executed by a daemon,
+	 * otherwise <code>null</code>.
+	 */
+	AnalyzedClassCache classCache;
+
 	/**
 	 * @return Short description of the command.
 	 */
@@ -76,6 +85,24 @@ public abstract class Command {
 	public abstract int execute(PrintWriter out, PrintWriter err)
 			throws Exception;
 
+	/**
+	 * Creates an analyzer for the given execution data. If the command is
+	 * executed by a daemon the analyzer reuses previously analyzed classes.
+	 *
+	 * @param executionData
+	 *            execution data
+	 * @param coverageVisitor
+	 *            visitor to emit the coverage data of every analyzed class to
+	 * @return new analyzer
+	 */
+	protected Analyzer createAnalyzer(final ExecutionDataStore executionData,
+			final ICoverageVisitor coverageVisitor) {
+		if (classCache == null) {
+			return new Analyzer(executionData, coverageVisitor);
+		}
+		return classCache.createAnalyzer(executionData, coverageVisitor);
+	}
+
 	/**
 	 * Prints textual help for this command.
 	 *
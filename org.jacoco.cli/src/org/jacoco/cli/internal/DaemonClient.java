@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.cli.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Client which executes a command in a {@link DaemonServer} and prints its
+ * output.
+ */
+final class DaemonClient {
+
+	private DaemonClient() {
+	}
+
+	/**
+	 * Executes the command given by the arguments in the daemon listening on
+	 * the given local port. The request contains the secret of the daemon
+	 * which is read from the secret file for the port.
+	 *
+	 * @param port
+	 *            port of the daemon
+	 * @param args
+	 *            command name and its arguments
+	 * @param out
+	 *            std out
+	 * @param err
+	 *            std err
+	 * @return exit code of the command
+	 * @throws IOException
+	 *             if the secret can't be read or the communication with the
+	 *             daemon fails
+	 */
+	static int execute(final int port, final String[] args,
+			final PrintWriter out, final PrintWriter err) throws IOException {
+		final byte[] secret = DaemonSecret.read(DaemonSecret.getFile(port));
+		final Socket socket = new Socket(InetAddress.getByName(null), port);
+		try {
+			final DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(socket.getOutputStream()));
+			output.writeChar(DaemonServer.MAGIC_NUMBER);
+			output.write(secret);
+			output.writeUTF(System.getProperty("user.dir"));
+			output.writeInt(args.length);
+			for (final String arg : args) {
+				output.writeUTF(arg);
+			}
+			output.flush();
+
+			final DataInputStream in = new DataInputStream(
+					new BufferedInputStream(socket.getInputStream()));
+			while (true) {
+				switch (in.readByte()) {
+				case DaemonServer.BLOCK_OUT:
+					out.print(in.readUTF());
+					out.flush();
+					break;
+				case DaemonServer.BLOCK_ERR:
+					err.print(in.readUTF());
+					err.flush();
+					break;
+				case DaemonServer.BLOCK_EXIT:
+					return in.readInt();
+				default:
+					throw new IOException("Invalid response from daemon.");
+				}
+			}
+		} finally {
+			socket.close();
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.cli.internal;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.security.SecureRandom;
+
+/**
+ * Random secret of a {@link DaemonServer} which clients have to send with
+ * every request. The secret is stored in a file per port within the folder
+ * <code>.jacoco</code> in the home directory of the user. The folder is only
+ * accessible by the user who started the daemon, so other local users can
+ * neither execute commands in the daemon nor read the secret.
+ */
+public final class DaemonSecret {
+
+	/** Length of the secret in bytes. */
+	static final int LENGTH = 32;
+
+	private DaemonSecret() {
+	}
+
+	/**
+	 * Creates a new random secret.
+	 *
+	 * @return new secret
+	 */
+	public static byte[] create() {
+		final byte[] secret = new byte[LENGTH];
+		new SecureRandom().nextBytes(secret);
+		return secret;
+	}
+
+	/**
+	 * Returns the file for the secret of the daemon listening on the given
+	 * port.
+	 *
+	 * @param port
+	 *            local port of the daemon
+	 * @return secret file
+	 */
+	public static File getFile(final int port) {
+		return new File(new File(System.getProperty("user.home"), ".jacoco"),
+				"daemon-" + port + ".secret");
+	}
+
+	/**
+	 * Writes the given secret to the given file. The parent folder of the file
+	 * is created if required and access to it is restricted to the current
+	 * user before the file is written.
+	 *
+	 * @param file
+	 *            secret file
+	 * @param secret
+	 *            secret to write
+	 * @throws IOException
+	 *             if the file can't be written or access to it can't be
+	 *             restricted
+	 */
+	public static void write(final File file, final byte[] secret)
+			throws IOException {
+		final File folder = file.getAbsoluteFile().getParentFile();
+		folder.mkdirs();
+		restrictToOwner(folder, true);
+		file.delete();
+		final OutputStream out = new FileOutputStream(file);
+		try {
+			restrictToOwner(file, false);
+			out.write(secret);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads the secret from the given file.
+	 *
+	 * @param file
+	 *            secret file
+	 * @return secret
+	 * @throws IOException
+	 *             if the file can't be read
+	 */
+	public static byte[] read(final File file) throws IOException {
+		final byte[] secret = new byte[LENGTH];
+		final InputStream in = new FileInputStream(file);
+		try {
+			new DataInputStream(in).readFully(secret);
+		} finally {
+			in.close();
+		}
+		return secret;
+	}
+
+	private static void restrictToOwner(final File file,
+			final boolean executable) throws IOException {
+		// The methods are only available since Java 6. On file systems
+		// without owner permissions removing access for all users fails,
+		// but granting access to the owner succeeds.
+		final boolean restricted = setAccess(file, "setReadable")
+				&& setAccess(file, "setWritable")
+				&& (!executable || setAccess(file, "setExecutable"));
+		if (!restricted) {
+			throw new IOException(
+					String.format("Unable to restrict access to %s.", file));
+		}
+	}
+
+	private static boolean setAccess(final File file, final String name)
+			throws IOException {
+		try {
+			final Method method = File.class.getMethod(name, Boolean.TYPE,
+					Boolean.TYPE);
+			method.invoke(file, Boolean.FALSE, Boolean.FALSE);
+			return Boolean.TRUE
+					.equals(method.invoke(file, Boolean.TRUE, Boolean.TRUE));
+		} catch (final NoSuchMethodException e) {
+			return false;
+		} catch (final IllegalAccessException e) {
+			return false;
+		} catch (final InvocationTargetException e) {
+			final IOException ex = new IOException(
+					String.format("Unable to restrict access to %s.", file));
+			ex.initCause(e.getCause());
+			throw ex;
+		}
+	}
+
+}
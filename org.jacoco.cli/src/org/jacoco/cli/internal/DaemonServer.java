@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.cli.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.MessageDigest;
+
+/**
+ * Server which executes commands on behalf of clients in one long-running
+ * JVM, so that analyzed classes are kept in a {@link AnalyzedClassCache} for
+ * subsequent commands. Clients still run in a JVM of their own, they only
+ * forward their command line. The server only accepts connections on the
+ * loopback interface. Every connection is handled in a separate thread and
+ * executes a single command.
+ *
+ * A request is written with a {@link DataOutputStream} and consists of the
+ * {@link #MAGIC_NUMBER} (char), the secret of the server (bytes), the working
+ * directory of the client (UTF), the number of command line arguments (int)
+ * and the arguments (UTF each).
+ * Requests without the correct secret are rejected before anything else is
+ * read, see {@link DaemonSecret}. The response is a sequence of
+ * {@link #BLOCK_OUT} and {@link #BLOCK_ERR} blocks (byte) with the output of
+ * the command (UTF each), followed by a {@link #BLOCK_EXIT} block (byte) with
+ * its exit code (int).
+ */
+public class DaemonServer {
+
+	/** Magic number in requests to identify the protocol version. */
+	static final char MAGIC_NUMBER = 0xC0D1;
+
+	/** Block identifier for output to std out. */
+	static final byte BLOCK_OUT = 0x01;
+
+	/** Block identifier for output to std err. */
+	static final byte BLOCK_ERR = 0x02;
+
+	/** Block identifier for the exit code of the command. */
+	static final byte BLOCK_EXIT = 0x03;
+
+	/** Maximum number of characters in one output block. */
+	static final int MAX_BLOCK = 0x2000;
+
+	private final ServerSocket serverSocket;
+
+	private final AnalyzedClassCache cache;
+
+	private final byte[] secret;
+
+	/**
+	 * Creates a new server listening on the given local port.
+	 *
+	 * @param port
+	 *            port to listen on, <code>0</code> selects a free port
+	 * @param cache
+	 *            cache shared by all commands
+	 * @param secret
+	 *            secret clients have to send with every request
+	 * @throws IOException
+	 *             if the port can't be opened
+	 */
+	public DaemonServer(final int port, final AnalyzedClassCache cache,
+			final byte[] secret) throws IOException {
+		this.serverSocket = new ServerSocket(port, 0,
+				InetAddress.getByName(null));
+		this.cache = cache;
+		this.secret = secret;
+	}
+
+	/**
+	 * @return the local port of this server
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Accepts connections until the server is closed.
+	 *
+	 * @throws IOException
+	 *             if accepting connections fails
+	 */
+	public void run() throws IOException {
+		while (true) {
+			final Socket socket;
+			try {
+				socket = serverSocket.accept();
+			} catch (final SocketException e) {
+				if (serverSocket.isClosed()) {
+					return;
+				}
+				throw e;
+			}
+			final Thread thread = new Thread(new Runnable() {
+				public void run() {
+					handle(socket);
+				}
+			}, "jacoco-daemon");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Stops accepting connections. Commands which are currently executed are
+	 * not interrupted.
+	 *
+	 * @throws IOException
+	 *             if the server socket can't be closed
+	 */
+	public void close() throws IOException {
+		serverSocket.close();
+	}
+
+	private void handle(final Socket socket) {
+		try {
+			try {
+				execute(socket);
+			} finally {
+				socket.close();
+			}
+		} catch (final IOException e) {
+			// The client has disconnected, there is nobody to report to
+		}
+	}
+
+	private void execute(final Socket socket) throws IOException {
+		final DataInputStream in = new DataInputStream(
+				new BufferedInputStream(socket.getInputStream()));
+		final DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(socket.getOutputStream()));
+		if (in.readChar() != MAGIC_NUMBER) {
+			throw new IOException("Invalid request.");
+		}
+		final byte[] requestSecret = new byte[DaemonSecret.LENGTH];
+		in.readFully(requestSecret);
+
+		final PrintWriter out = new PrintWriter(
+				new BlockWriter(output, BLOCK_OUT), true);
+		final PrintWriter err = new PrintWriter(
+				new BlockWriter(output, BLOCK_ERR), true);
+		if (!MessageDigest.isEqual(secret, requestSecret)) {
+			err.println("[ERROR] Invalid daemon secret.");
+			exit(output, out, err, -1);
+			return;
+		}
+		final String workingDirectory = in.readUTF();
+		final String[] args = new String[in.readInt()];
+		for (int i = 0; i < args.length; i++) {
+			args[i] = in.readUTF();
+		}
+
+		int result;
+		if (!workingDirectory.equals(System.getProperty("user.dir"))) {
+			err.printf(
+					"[ERROR] Working directory %s differs from daemon working directory %s.%n",
+					workingDirectory, System.getProperty("user.dir"));
+			result = -1;
+		} else {
+			try {
+				result = new Main(cache, args).execute(out, err);
+			} catch (final Exception e) {
+				e.printStackTrace(err);
+				result = -1;
+			}
+		}
+		exit(output, out, err, result);
+	}
+
+	private static void exit(final DataOutputStream output,
+			final PrintWriter out, final PrintWriter err, final int result)
+			throws IOException {
+		out.flush();
+		err.flush();
+		output.writeByte(BLOCK_EXIT);
+		output.writeInt(result);
+		output.flush();
+	}
+
+	/**
+	 * Writer which sends the written characters as blocks of the given type.
+	 */
+	private static class BlockWriter extends Writer {
+
+		private final DataOutputStream output;
+
+		private final byte type;
+
+		private final StringBuilder buffer;
+
+		BlockWriter(final DataOutputStream output, final byte type) {
+			this.output = output;
+			this.type = type;
+			this.buffer = new StringBuilder();
+		}
+
+		@Override
+		public void write(final char[] cbuf, final int off, final int len)
+				throws IOException {
+			buffer.append(cbuf, off, len);
+			if (buffer.length() >= MAX_BLOCK) {
+				flush();
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			synchronized (output) {
+				while (buffer.length() > 0) {
+					final int len = Math.min(buffer.length(), MAX_BLOCK);
+					output.writeByte(type);
+					output.writeUTF(buffer.substring(0, len));
+					buffer.delete(0, len);
+				}
+				output.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+
+	}
+
+}
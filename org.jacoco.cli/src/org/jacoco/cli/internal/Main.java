@@ -15,9 +15,12 @@ package org.jacoco.cli.internal;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
+import java.util.Arrays;
 
+import org.jacoco.cli.internal.commands.Daemon;
 import org.kohsuke.args4j.Argument;
 import org.kohsuke.args4j.CmdLineException;
+import org.kohsuke.args4j.Option;
 
 /**
  * Entry point for all command line operations.
@@ -40,12 +43,22 @@ public class Main extends Command {
 		}
 	});
 
+	private final AnalyzedClassCache cache;
+
 	private final String[] args;
 
 	Main(final String... args) {
+		this(null, args);
+	}
+
+	Main(final AnalyzedClassCache cache, final String... args) {
+		this.cache = cache;
 		this.args = args;
 	}
 
+	@Option(name = "--daemon", usage = "execute the command in the daemon listening on the given local port", metaVar = "<port>")
+	Integer daemonPort;
+
 	@Argument(handler = CommandHandler.class, required = true)
 	Command command;
 
@@ -56,7 +69,7 @@ public class Main extends Command {
 
 	@Override
 	public String usage(final CommandParser parser) {
-		return JAVACMD + "--help | <command>";
+		return JAVACMD + "--help | [--daemon <port>] <command>";
 	}
 
 	@Override
@@ -87,6 +100,22 @@ public class Main extends Command {
 			out = NUL;
 		}
 
+		// Commands received by a daemon must not start another daemon
+		if (cache != null && command instanceof Daemon) {
+			err.println("[ERROR] A daemon can't execute the daemon command.");
+			return -1;
+		}
+
+		if (daemonPort != null) {
+			// Only the command and its arguments are passed to the daemon
+			final int start = Arrays.asList(args).indexOf(command.name());
+			final String[] commandArgs = new String[args.length - start];
+			System.arraycopy(args, start, commandArgs, 0, commandArgs.length);
+			return DaemonClient.execute(daemonPort.intValue(), commandArgs,
+					out, err);
+		}
+
+		command.classCache = cache;
 		return command.execute(out, err);
 	}
 
@@ -53,7 +53,7 @@ public class ClassInfo extends Command {
 		if (classfiles.isEmpty()) {
 			out.println("[WARN] No class files provided.");
 		} else {
-			final Analyzer analyzer = new Analyzer(new ExecutionDataStore(),
+			final Analyzer analyzer = createAnalyzer(new ExecutionDataStore(),
 					new Printer(out));
 			for (final File file : classfiles) {
 				analyzer.analyzeAll(file);
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.cli.internal.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.jacoco.cli.internal.AnalyzedClassCache;
+import org.jacoco.cli.internal.Command;
+import org.jacoco.cli.internal.DaemonSecret;
+import org.jacoco.cli.internal.DaemonServer;
+import org.kohsuke.args4j.Option;
+
+/**
+ * The <code>daemon</code> command.
+ */
+public class Daemon extends Command {
+
+	@Option(name = "--port", usage = "the local port to listen on (default: a free port)", metaVar = "<port>")
+	int port = 0;
+
+	@Option(name = "--cachesize", usage = "maximum number of analyzed classes kept in memory (default 50000)", metaVar = "<n>")
+	int cachesize = 50000;
+
+	@Override
+	public String description() {
+		return "Execute commands of clients invoked with --daemon <port> and keep analyzed classes in memory.";
+	}
+
+	@Override
+	public int execute(final PrintWriter out, final PrintWriter err)
+			throws IOException {
+		final byte[] secret = DaemonSecret.create();
+		final DaemonServer server = new DaemonServer(port,
+				new AnalyzedClassCache(cachesize), secret);
+		final File secretFile = DaemonSecret.getFile(server.getPort());
+		// A daemon is usually stopped by a signal, which terminates the JVM
+		// without executing the finally block below
+		final Thread shutdownHook = new Thread() {
+			@Override
+			public void run() {
+				shutdown(server, secretFile);
+			}
+		};
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+		try {
+			DaemonSecret.write(secretFile, secret);
+			out.printf("[INFO] Listening on localhost:%s.%n",
+					Integer.valueOf(server.getPort()));
+			out.flush();
+			server.run();
+		} finally {
+			shutdown(server, secretFile);
+			try {
+				Runtime.getRuntime().removeShutdownHook(shutdownHook);
+			} catch (final IllegalStateException e) {
+				// The JVM is already shutting down and executes the hook
+			}
+		}
+		return 0;
+	}
+
+	private static void shutdown(final DaemonServer server,
+			final File secretFile) {
+		try {
+			server.close();
+		} catch (final IOException e) {
+			// The server does not accept further connections in any case
+		}
+		secretFile.delete();
+	}
+
+}
@@ -40,6 +40,12 @@ public class Instrument extends Command {
 	@Argument(usage = "list of folder or files to instrument recusively", metaVar = "<sourcefiles>")
 	List<File> source = new ArrayList<File>();
 
+	@Option(name = "--reduceprobes", usage = "omit probes whose execution status can be derived from other probes")
+	boolean reduceProbes = false;
+
+	@Option(name = "--compactprobes", usage = "insert probes as calls of a static method to keep methods small")
+	boolean compactProbes = false;
+
 	private Instrumenter instrumenter;
 
 	@Override
@@ -53,6 +59,8 @@ public class Instrument extends Command {
 		final File absoluteDest = dest.getAbsoluteFile();
 		instrumenter = new Instrumenter(
 				new OfflineInstrumentationAccessGenerator());
+		instrumenter.setReducedProbes(reduceProbes);
+		instrumenter.setCompactProbes(compactProbes);
 		int total = 0;
 		for (final File s : source) {
 			if (s.isFile()) {
@@ -19,7 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.jacoco.cli.internal.Command;
-import org.jacoco.core.tools.ExecFileLoader;
+import org.jacoco.core.tools.ExecFileMerger;
 import org.kohsuke.args4j.Argument;
 import org.kohsuke.args4j.Option;
 
@@ -42,26 +42,25 @@ public class Merge extends Command {
 	@Override
 	public int execute(final PrintWriter out, final PrintWriter err)
 			throws IOException {
-		final ExecFileLoader loader = loadExecutionData(out);
+		final ExecFileMerger merger = loadExecutionData(out);
 		out.printf("[INFO] Writing execution data to %s.%n",
 				destfile.getAbsolutePath());
-		loader.save(destfile, true);
+		merger.save(destfile, true);
 		return 0;
 	}
 
-	private ExecFileLoader loadExecutionData(final PrintWriter out)
-			throws IOException {
-		final ExecFileLoader loader = new ExecFileLoader();
+	private ExecFileMerger loadExecutionData(final PrintWriter out) {
+		final ExecFileMerger merger = new ExecFileMerger();
 		if (execfiles.isEmpty()) {
 			out.println("[WARN] No execution data files provided.");
 		} else {
 			for (final File file : execfiles) {
 				out.printf("[INFO] Loading execution data file %s.%n",
 						file.getAbsolutePath());
-				loader.load(file);
+				merger.load(file);
 			}
 		}
-		return loader;
+		return merger;
 	}
 
 }
@@ -26,14 +26,16 @@ import org.jacoco.core.analysis.Analyzer;
 import org.jacoco.core.analysis.CoverageBuilder;
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.analysis.StreamingBundleCoverage;
 import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.tools.AnalysisCache;
 import org.jacoco.core.tools.ExecFileLoader;
-import org.jacoco.report.DirectorySourceFileLocator;
 import org.jacoco.report.FileMultiReportOutput;
 import org.jacoco.report.IReportVisitor;
 import org.jacoco.report.ISourceFileLocator;
+import org.jacoco.report.IndexedSourceFileLocator;
 import org.jacoco.report.MultiReportVisitor;
-import org.jacoco.report.MultiSourceFileLocator;
 import org.jacoco.report.csv.CSVFormatter;
 import org.jacoco.report.html.HTMLFormatter;
 import org.jacoco.report.xml.XMLFormatter;
@@ -72,6 +74,18 @@ public class Report extends Command {
 	@Option(name = "--html", usage = "output directory for the HTML report", metaVar = "<dir>")
 	File html;
 
+	@Option(name = "--reduceprobes", usage = "class files have been instrumented with --reduceprobes")
+	boolean reduceProbes = false;
+
+	@Option(name = "--parallel", usage = "create the report formats concurrently")
+	boolean parallel = false;
+
+	@Option(name = "--streaming", usage = "analyze the classes package by package while the reports are written")
+	boolean streaming = false;
+
+	@Option(name = "--cachefile", usage = "file to cache the analyzed classes for subsequent reports with the same inputs", metaVar = "<file>")
+	File cachefile;
+
 	@Override
 	public String description() {
 		return "Generate reports in different formats by reading exec and Java class files.";
@@ -81,8 +95,12 @@ public class Report extends Command {
 	public int execute(final PrintWriter out, final PrintWriter err)
 			throws IOException {
 		final ExecFileLoader loader = loadExecutionData(out);
-		final IBundleCoverage bundle = analyze(loader.getExecutionDataStore(),
-				out);
+		final IBundleCoverage bundle;
+		if (streaming) {
+			bundle = analyzeStreaming(loader.getExecutionDataStore(), out);
+		} else {
+			bundle = analyze(loader.getExecutionDataStore(), out);
+		}
 		writeReports(bundle, loader, out);
 		return 0;
 	}
@@ -105,25 +123,80 @@ public class Report extends Command {
 	private IBundleCoverage analyze(final ExecutionDataStore data,
 			final PrintWriter out) throws IOException {
 		final CoverageBuilder builder = new CoverageBuilder();
-		final Analyzer analyzer = new Analyzer(data, builder);
+		final AnalysisCache cache = createCache(data);
+		if (cache != null && cache.load(builder)) {
+			out.printf("[INFO] Using analyzed classes from %s.%n",
+					cachefile.getAbsolutePath());
+		} else {
+			final Analyzer analyzer = createAnalyzer(data, builder);
+			analyzer.setReducedProbes(reduceProbes);
+			for (final File f : classfiles) {
+				analyzer.analyzeAll(f);
+			}
+			if (cache != null) {
+				cache.store(builder.getClasses());
+			}
+		}
+		final List<String> nomatch = new ArrayList<String>();
+		for (final IClassCoverage c : builder.getNoMatchClasses()) {
+			nomatch.add(c.getName());
+		}
+		printNoMatchWarning(nomatch, out);
+		final IBundleCoverage bundle = builder.getBundle(name);
+		out.printf("[INFO] Analyzing %s classes.%n",
+				Integer.valueOf(bundle.getClassCounter().getTotalCount()));
+		return bundle;
+	}
+
+	private AnalysisCache createCache(final ExecutionDataStore data) {
+		if (cachefile == null) {
+			return null;
+		}
+		final AnalysisCache cache = new AnalysisCache(cachefile);
+		cache.addExecutionData(data);
+		for (final File f : classfiles) {
+			cache.addClassFiles(f);
+		}
+		if (reduceProbes) {
+			cache.addOption("reduceprobes");
+		}
+		return cache;
+	}
+
+	private IBundleCoverage analyzeStreaming(final ExecutionDataStore data,
+			final PrintWriter out) throws IOException {
+		final StreamingBundleCoverage bundle = new StreamingBundleCoverage(
+				name, data) {
+			@Override
+			protected Analyzer createAnalyzer(
+					final ExecutionDataStore executionData,
+					final ICoverageVisitor visitor) {
+				final Analyzer analyzer = new Analyzer(executionData, visitor);
+				analyzer.setReducedProbes(reduceProbes);
+				return analyzer;
+			}
+		};
+		int count = 0;
 		for (final File f : classfiles) {
-			analyzer.analyzeAll(f);
+			count += bundle.addAll(f);
 		}
-		printNoMatchWarning(builder.getNoMatchClasses(), out);
-		return builder.getBundle(name);
+		printNoMatchWarning(bundle.getNoMatchClasses(), out);
+		out.printf("[INFO] Streaming analysis of %s class files.%n",
+				Integer.valueOf(count));
+		return bundle;
 	}
 
-	private void printNoMatchWarning(final Collection<IClassCoverage> nomatch,
+	private void printNoMatchWarning(final Collection<String> nomatch,
 			final PrintWriter out) {
 		if (!nomatch.isEmpty()) {
 			out.println(
 					"[WARN] Some classes do not match with execution data.");
 			out.println(
 					"[WARN] For report generation the same class files must be used as at runtime.");
-			for (final IClassCoverage c : nomatch) {
+			for (final String c : nomatch) {
 				out.printf(
 						"[WARN] Execution data for class %s does not match.%n",
-						c.getName());
+						c);
 			}
 		}
 	}
@@ -131,8 +204,6 @@ public class Report extends Command {
 	private void writeReports(final IBundleCoverage bundle,
 			final ExecFileLoader loader, final PrintWriter out)
 			throws IOException {
-		out.printf("[INFO] Analyzing %s classes.%n",
-				Integer.valueOf(bundle.getClassCounter().getTotalCount()));
 		final IReportVisitor visitor = createReportVisitor();
 		visitor.visitInfo(loader.getSessionInfoStore().getInfos(),
 				loader.getExecutionDataStore().getContents());
@@ -159,16 +230,16 @@ public class Report extends Command {
 					formatter.createVisitor(new FileMultiReportOutput(html)));
 		}
 
-		return new MultiReportVisitor(visitors);
+		return new MultiReportVisitor(visitors, parallel);
 	}
 
 	private ISourceFileLocator getSourceLocator() {
-		final MultiSourceFileLocator multi = new MultiSourceFileLocator(
-				tabwidth);
+		final IndexedSourceFileLocator locator = new IndexedSourceFileLocator(
+				encoding, tabwidth);
 		for (final File f : sourcefiles) {
-			multi.add(new DirectorySourceFileLocator(f, encoding, tabwidth));
+			locator.addDirectory(f);
 		}
-		return multi;
+		return locator;
 	}
 
 }
@@ -16,6 +16,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -40,6 +41,10 @@ import org.jacoco.core.JaCoCo;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.internal.Pack200Streams;
 import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.internal.flow.ClassProbesAdapter;
+import org.jacoco.core.internal.flow.ClassProbesVisitor;
+import org.jacoco.core.internal.flow.MethodProbesVisitor;
+import org.jacoco.core.internal.instr.InstrSupport;
 import org.jacoco.core.test.TargetLoader;
 import org.junit.AssumptionViolatedException;
 import org.junit.Before;
@@ -120,6 +125,46 @@ public class AnalyzerTest {
 		assertEquals(expectedClassId, classes.get("Foo").getId());
 	}
 
+	@Test
+	public void should_share_strings_between_instances_with_shared_pool()
+			throws Exception {
+		final SharedStringPool pool = new SharedStringPool();
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+		new Analyzer(executionData, new EmptyStructureVisitor(), pool)
+				.analyzeClass(bytes, "");
+		final IClassCoverage first = classes.remove(
+				"org/jacoco/core/analysis/AnalyzerTest");
+
+		new Analyzer(executionData, new EmptyStructureVisitor(), pool)
+				.analyzeClass(bytes, "");
+		final IClassCoverage second = classes
+				.get("org/jacoco/core/analysis/AnalyzerTest");
+
+		assertSame(first.getSourceFileName(), second.getSourceFileName());
+		assertSame(first.getSuperName(), second.getSuperName());
+	}
+
+	private static int getProbeCount(final byte[] bytes) {
+		final int[] count = new int[1];
+		InstrSupport.classReaderFor(bytes)
+				.accept(new ClassProbesAdapter(new ClassProbesVisitor() {
+					@Override
+					public MethodProbesVisitor visitMethod(final int access,
+							final String name, final String desc,
+							final String signature,
+							final String[] exceptions) {
+						return null;
+					}
+
+					@Override
+					public void visitTotalProbeCount(final int c) {
+						count[0] = c;
+					}
+				}, false), 0);
+		return count[0];
+	}
+
 	private static byte[] createClass(final int version) {
 		final ClassWriter cw = new ClassWriter(0);
 		cw.visit(version, 0, "Foo", null, "java/lang/Object", null);
@@ -164,12 +209,29 @@ public class AnalyzerTest {
 		final byte[] bytes = TargetLoader
 				.getClassDataAsBytes(AnalyzerTest.class);
 		executionData.get(Long.valueOf(CRC64.classId(bytes)),
-				"org/jacoco/core/analysis/AnalyzerTest", 400);
+				"org/jacoco/core/analysis/AnalyzerTest", getProbeCount(bytes));
 		analyzer.analyzeClass(bytes, "Test");
 		assertFalse(classes.get("org/jacoco/core/analysis/AnalyzerTest")
 				.isNoMatch());
 	}
 
+	@Test
+	public void should_reject_execution_data_with_different_probe_count()
+			throws IOException {
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+		executionData.get(Long.valueOf(CRC64.classId(bytes)),
+				"org/jacoco/core/analysis/AnalyzerTest",
+				getProbeCount(bytes) + 1);
+		try {
+			analyzer.analyzeClass(bytes, "Test");
+			fail("exception expected");
+		} catch (final IOException e) {
+			assertTrue(e.getCause().getMessage().startsWith(
+					"Incompatible execution data for class org/jacoco/core/analysis/AnalyzerTest:"));
+		}
+	}
+
 	@Test
 	public void testAnalyzeClassNoIdMatch() throws IOException {
 		executionData.get(Long.valueOf(0),
@@ -180,6 +242,74 @@ public class AnalyzerTest {
 				.isNoMatch());
 	}
 
+	@Test
+	public void should_skip_classes_without_execution_data_when_covered_only()
+			throws IOException {
+		analyzer.setCoveredOnly(true);
+		analyzer.analyzeClass(
+				TargetLoader.getClassDataAsBytes(AnalyzerTest.class), "Test");
+		assertTrue(classes.isEmpty());
+	}
+
+	@Test
+	public void should_skip_classes_without_hits_when_covered_only()
+			throws IOException {
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+		executionData.get(Long.valueOf(CRC64.classId(bytes)),
+				"org/jacoco/core/analysis/AnalyzerTest", getProbeCount(bytes));
+		analyzer.setCoveredOnly(true);
+		analyzer.analyzeClass(bytes, "Test");
+		assertTrue(classes.isEmpty());
+	}
+
+	@Test
+	public void should_analyze_classes_with_hits_when_covered_only()
+			throws IOException {
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+		executionData.get(Long.valueOf(CRC64.classId(bytes)),
+				"org/jacoco/core/analysis/AnalyzerTest", getProbeCount(bytes))
+				.getProbes()[0] = true;
+		analyzer.setCoveredOnly(true);
+		analyzer.analyzeClass(bytes, "Test");
+		final IClassCoverage coverage = classes
+				.get("org/jacoco/core/analysis/AnalyzerTest");
+		assertFalse(coverage.getMethods().isEmpty());
+		assertEquals(1, coverage.getMethodCounter().getCoveredCount());
+	}
+
+	@Test
+	public void should_report_skipped_classes_when_requested()
+			throws IOException {
+		final byte[] bytes = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+		executionData.get(Long.valueOf(0),
+				"org/jacoco/core/analysis/AnalyzerTest", 400);
+		analyzer.setCoveredOnly(true);
+		analyzer.setReportSkippedClasses(true);
+		analyzer.analyzeClass(bytes, "Test");
+		final IClassCoverage coverage = classes
+				.get("org/jacoco/core/analysis/AnalyzerTest");
+		assertEquals(CRC64.classId(bytes), coverage.getId());
+		assertTrue(coverage.isNoMatch());
+		assertTrue(coverage.getMethods().isEmpty());
+		assertEquals(0, coverage.getInstructionCounter().getTotalCount());
+	}
+
+	@Test
+	public void should_not_report_skipped_synthetic_classes()
+			throws IOException {
+		final ClassWriter cw = new ClassWriter(0);
+		cw.visit(Opcodes.V1_5, Opcodes.ACC_SYNTHETIC, "Foo", null,
+				"java/lang/Object", null);
+		cw.visitEnd();
+		analyzer.setCoveredOnly(true);
+		analyzer.setReportSkippedClasses(true);
+		analyzer.analyzeClass(cw.toByteArray(), "");
+		assertTrue(classes.isEmpty());
+	}
+
 	@Test
 	public void testAnalyzeClass_Broken() throws IOException {
 		final byte[] brokenclass = TargetLoader
@@ -363,6 +493,147 @@ public class AnalyzerTest {
 				"org/jacoco/core/analysis/AnalyzerTest");
 	}
 
+	@Test
+	public void testAnalyzeAll_ZipFile() throws IOException {
+		final ByteArrayOutputStream nested = new ByteArrayOutputStream();
+		final ZipOutputStream nestedZip = new ZipOutputStream(nested);
+		nestedZip.putNextEntry(
+				new ZipEntry("org/jacoco/core/analysis/Analyzer.class"));
+		nestedZip.write(TargetLoader.getClassDataAsBytes(Analyzer.class));
+		nestedZip.finish();
+
+		final File file = new File(folder.getRoot(), "test.jar");
+		final ZipOutputStream zip = new ZipOutputStream(
+				new FileOutputStream(file));
+		zip.putNextEntry(new ZipEntry("org/jacoco/core/analysis/"));
+		zip.putNextEntry(
+				new ZipEntry("org/jacoco/core/analysis/AnalyzerTest.class"));
+		zip.write(TargetLoader.getClassDataAsBytes(AnalyzerTest.class));
+		zip.putNextEntry(new ZipEntry("lib/nested.jar"));
+		zip.write(nested.toByteArray());
+		zip.close();
+
+		final int count = analyzer.analyzeAll(file);
+		assertEquals(2, count);
+		assertClasses("org/jacoco/core/analysis/Analyzer",
+				"org/jacoco/core/analysis/AnalyzerTest");
+	}
+
+	@Test
+	public void visitClassFile_should_be_called_with_origin_of_class_files()
+			throws IOException {
+		final ByteArrayOutputStream nested = new ByteArrayOutputStream();
+		final ZipOutputStream nestedZip = new ZipOutputStream(nested);
+		nestedZip.putNextEntry(new ZipEntry("Nested.class"));
+		nestedZip.write(TargetLoader.getClassDataAsBytes(Analyzer.class));
+		nestedZip.finish();
+		final File jar = new File(folder.getRoot(), "test.jar");
+		final ZipOutputStream zip = new ZipOutputStream(
+				new FileOutputStream(jar));
+		zip.putNextEntry(new ZipEntry("Entry.class"));
+		zip.write(TargetLoader.getClassDataAsBytes(AnalyzerTest.class));
+		zip.putNextEntry(new ZipEntry("nested.jar"));
+		zip.write(nested.toByteArray());
+		zip.close();
+		createClassfile("bin", AnalyzerTest.class);
+		final File classFile = new File(folder.getRoot(), "bin/some.class");
+		final StringBuilder visited = new StringBuilder();
+		analyzer = new Analyzer(executionData, new EmptyStructureVisitor()) {
+			@Override
+			protected void visitClassFile(final byte[] buffer,
+					final String location, final File file,
+					final String entryName) {
+				visited.append(file == null ? null : file.getName())
+						.append(':').append(entryName).append(';');
+			}
+		};
+
+		analyzer.analyzeAll(jar);
+		analyzer.analyzeAll(classFile);
+
+		assertEquals("test.jar:Entry.class;null:null;some.class:null;",
+				visited.toString());
+		assertTrue(classes.isEmpty());
+	}
+
+	@Test
+	public void acceptEntry_should_filter_entries_of_zip_files()
+			throws IOException {
+		final ByteArrayOutputStream nested = new ByteArrayOutputStream();
+		final ZipOutputStream nestedZip = new ZipOutputStream(nested);
+		nestedZip.putNextEntry(
+				new ZipEntry("org/jacoco/core/analysis/Analyzer.class"));
+		nestedZip.write(TargetLoader.getClassDataAsBytes(Analyzer.class));
+		nestedZip.putNextEntry(new ZipEntry("skip/Analyzer.class"));
+		nestedZip.write(TargetLoader.getClassDataAsBytes(Analyzer.class));
+		nestedZip.finish();
+		final File file = new File(folder.getRoot(), "test.jar");
+		final ZipOutputStream zip = new ZipOutputStream(
+				new FileOutputStream(file));
+		zip.putNextEntry(new ZipEntry("skip/AnalyzerTest.class"));
+		zip.write(TargetLoader.getClassDataAsBytes(AnalyzerTest.class));
+		zip.putNextEntry(new ZipEntry("lib/nested.jar"));
+		zip.write(nested.toByteArray());
+		zip.close();
+		final StringBuilder names = new StringBuilder();
+		analyzer = new Analyzer(executionData, new EmptyStructureVisitor()) {
+			@Override
+			protected boolean acceptEntry(final String name) {
+				names.append(name).append(';');
+				return !name.startsWith("skip/");
+			}
+		};
+
+		final int count = analyzer.analyzeAll(file);
+
+		assertEquals(1, count);
+		assertClasses("org/jacoco/core/analysis/Analyzer");
+		assertEquals("skip/AnalyzerTest.class;lib/nested.jar;"
+				+ "org/jacoco/core/analysis/Analyzer.class;"
+				+ "skip/Analyzer.class;", names.toString());
+	}
+
+	@Test
+	public void testAnalyzeAll_ZipFileWithoutCentralDirectory()
+			throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final ZipOutputStream zip = new ZipOutputStream(buffer);
+		zip.putNextEntry(
+				new ZipEntry("org/jacoco/core/analysis/AnalyzerTest.class"));
+		zip.write(TargetLoader.getClassDataAsBytes(AnalyzerTest.class));
+		zip.closeEntry();
+		final File file = new File(folder.getRoot(), "truncated.jar");
+		final OutputStream out = new FileOutputStream(file);
+		out.write(buffer.toByteArray());
+		out.close();
+
+		final int count = analyzer.analyzeAll(file);
+		assertEquals(1, count);
+		assertClasses("org/jacoco/core/analysis/AnalyzerTest");
+	}
+
+	@Test
+	public void testAnalyzeAll_BrokenClassFileInZipFile() throws IOException {
+		final File file = new File(folder.getRoot(), "test.jar");
+		final ZipOutputStream zip = new ZipOutputStream(
+				new FileOutputStream(file));
+		zip.putNextEntry(
+				new ZipEntry("org/jacoco/core/analysis/AnalyzerTest.class"));
+		final byte[] brokenclass = TargetLoader
+				.getClassDataAsBytes(AnalyzerTest.class);
+		brokenclass[10] = 0x23;
+		zip.write(brokenclass);
+		zip.close();
+
+		try {
+			analyzer.analyzeAll(file);
+			fail("expected exception");
+		} catch (IOException e) {
+			assertExceptionMessage(file.getPath()
+					+ "@org/jacoco/core/analysis/AnalyzerTest.class", e);
+		}
+	}
+
 	/**
 	 * Triggers exception in
 	 * {@link Analyzer#nextEntry(java.util.zip.ZipInputStream, String)}.
@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jacoco.core.JaCoCo;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.internal.analysis.CounterImpl;
+import org.jacoco.core.test.TargetLoader;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link StreamingBundleCoverage}.
+ */
+public class StreamingBundleCoverageTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ExecutionDataStore executionData;
+
+	private StreamingBundleCoverage bundle;
+
+	@Before
+	public void setup() {
+		executionData = new ExecutionDataStore();
+		bundle = new StreamingBundleCoverage("bundle", executionData);
+	}
+
+	@Test
+	public void should_create_same_packages_as_coverage_builder()
+			throws IOException {
+		createClassfile("bin", Analyzer.class);
+		createClassfile("bin", StreamingBundleCoverage.class);
+		createClassfile("bin", StreamingBundleCoverageTest.class);
+		createClassfile("bin", ExecutionDataStore.class);
+
+		assertEquals(4, bundle.addAll(new File(folder.getRoot(), "bin")));
+
+		final CoverageBuilder builder = new CoverageBuilder();
+		new Analyzer(executionData, builder)
+				.analyzeAll(new File(folder.getRoot(), "bin"));
+		final IBundleCoverage expected = builder.getBundle("bundle");
+
+		final List<IPackageCoverage> actualPackages = sortedPackages(bundle);
+		final List<IPackageCoverage> expectedPackages = sortedPackages(
+				expected);
+		assertEquals(expectedPackages.size(), actualPackages.size());
+		for (int i = 0; i < expectedPackages.size(); i++) {
+			final IPackageCoverage e = expectedPackages.get(i);
+			final IPackageCoverage a = actualPackages.get(i);
+			assertEquals(e.getName(), a.getName());
+			assertEquals(e.getClasses().size(), a.getClasses().size());
+			assertEquals(e.getSourceFiles().size(), a.getSourceFiles().size());
+			assertCounters(e, a);
+		}
+		assertCounters(expected, bundle);
+		assertEquals("bundle", bundle.getName());
+		assertEquals(ICoverageNode.ElementType.BUNDLE,
+				bundle.getElementType());
+	}
+
+	@Test
+	public void getPackages_should_return_packages_in_sorted_order()
+			throws IOException {
+		createClassfile("bin", StreamingBundleCoverageTest.class);
+		createClassfile("bin", ExecutionDataStore.class);
+		createClassfile("bin", JaCoCo.class);
+		bundle.addAll(new File(folder.getRoot(), "bin"));
+
+		final Collection<IPackageCoverage> packages = bundle.getPackages();
+
+		assertEquals(3, packages.size());
+		final Iterator<IPackageCoverage> i = packages.iterator();
+		assertEquals("org/jacoco/core", i.next().getName());
+		assertEquals("org/jacoco/core/analysis", i.next().getName());
+		assertEquals("org/jacoco/core/data", i.next().getName());
+		assertFalse(i.hasNext());
+	}
+
+	@Test
+	public void getPackages_should_analyze_classes_again_for_every_iteration()
+			throws IOException {
+		createClassfile("bin", StreamingBundleCoverageTest.class);
+		bundle.addAll(new File(folder.getRoot(), "bin"));
+
+		final IPackageCoverage first = bundle.getPackages().iterator().next();
+		final IPackageCoverage second = bundle.getPackages().iterator()
+				.next();
+
+		assertFalse(first == second);
+		assertCounters(first, second);
+	}
+
+	@Test
+	public void addAll_should_add_classes_from_jar_files() throws IOException {
+		final File jar = new File(folder.getRoot(), "test.jar");
+		final ZipOutputStream zip = new ZipOutputStream(
+				new FileOutputStream(jar));
+		zip.putNextEntry(new ZipEntry("org/jacoco/core/analysis/Test.class"));
+		zip.write(TargetLoader.getClassDataAsBytes(
+				StreamingBundleCoverageTest.class));
+		zip.putNextEntry(new ZipEntry("readme.txt"));
+		zip.write("Hello".getBytes());
+		zip.close();
+
+		assertEquals(1, bundle.addAll(jar));
+
+		final IPackageCoverage p = bundle.getPackages().iterator().next();
+		assertEquals("org/jacoco/core/analysis", p.getName());
+		assertEquals(1, p.getClasses().size());
+	}
+
+	@Test
+	public void addAll_should_add_classes_from_nested_jar_files()
+			throws IOException {
+		final ByteArrayOutputStream nested = new ByteArrayOutputStream();
+		final ZipOutputStream nestedZip = new ZipOutputStream(nested);
+		nestedZip.putNextEntry(
+				new ZipEntry("org/jacoco/core/analysis/Test.class"));
+		nestedZip.write(TargetLoader
+				.getClassDataAsBytes(StreamingBundleCoverageTest.class));
+		nestedZip.close();
+		final File jar = new File(folder.getRoot(), "test.jar");
+		final ZipOutputStream zip = new ZipOutputStream(
+				new FileOutputStream(jar));
+		zip.putNextEntry(new ZipEntry("nested.jar"));
+		zip.write(nested.toByteArray());
+		zip.close();
+
+		assertEquals(1, bundle.addAll(jar));
+
+		final IPackageCoverage p = bundle.getPackages().iterator().next();
+		assertEquals(1, p.getClasses().size());
+	}
+
+	@Test
+	public void addAll_should_throw_exception_for_invalid_class_file()
+			throws IOException {
+		final File file = new File(folder.getRoot(), "Broken.class");
+		final OutputStream out = new FileOutputStream(file);
+		out.write(new byte[] { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA,
+				(byte) 0xBE, 0x00, 0x00, 0x00, 0x34, 0x01 });
+		out.close();
+		try {
+			bundle.addAll(file);
+			fail("exception expected");
+		} catch (final IOException e) {
+			assertEquals(String.format(
+					"Error while analyzing %s with JaCoCo %s/%s.",
+					file.getPath(), JaCoCo.VERSION, JaCoCo.COMMITID_SHORT),
+					e.getMessage());
+		}
+	}
+
+	@Test
+	public void getNoMatchClasses_should_return_names_of_classes_with_different_id()
+			throws IOException {
+		createClassfile("bin", StreamingBundleCoverageTest.class);
+		final String name = "org/jacoco/core/analysis/StreamingBundleCoverageTest";
+		executionData.put(new ExecutionData(0x123, name, new boolean[1]));
+
+		bundle.addAll(new File(folder.getRoot(), "bin"));
+
+		assertEquals(Arrays.asList(name),
+				new ArrayList<String>(bundle.getNoMatchClasses()));
+		final IPackageCoverage p = bundle.getPackages().iterator().next();
+		assertTrue(p.getClasses().iterator().next().isNoMatch());
+	}
+
+	@Test
+	public void getPlainCopy_should_calculate_counters_when_requested()
+			throws IOException {
+		final ICoverageNode copy = bundle.getPlainCopy();
+		createClassfile("bin", StreamingBundleCoverageTest.class);
+		bundle.addAll(new File(folder.getRoot(), "bin"));
+
+		assertEquals(CounterImpl.getInstance(1, 0), copy.getClassCounter());
+		assertEquals("bundle", copy.getName());
+		assertCounters(bundle, copy);
+	}
+
+	@Test
+	public void getClassCounter_should_return_zero_for_empty_bundle() {
+		assertEquals(CounterImpl.COUNTER_0_0, bundle.getClassCounter());
+		assertTrue(bundle.getPackages().isEmpty());
+	}
+
+	@Test
+	public void createAnalyzer_should_be_used_for_every_package()
+			throws IOException {
+		final int[] created = new int[1];
+		bundle = new StreamingBundleCoverage("bundle", executionData) {
+			@Override
+			protected Analyzer createAnalyzer(
+					final ExecutionDataStore executionData,
+					final ICoverageVisitor visitor) {
+				created[0]++;
+				return super.createAnalyzer(executionData, visitor);
+			}
+		};
+		createClassfile("bin", StreamingBundleCoverageTest.class);
+		createClassfile("bin", ExecutionDataStore.class);
+		bundle.addAll(new File(folder.getRoot(), "bin"));
+
+		bundle.getClassCounter();
+
+		assertEquals(2, created[0]);
+	}
+
+	private static List<IPackageCoverage> sortedPackages(
+			final IBundleCoverage bundle) {
+		final List<IPackageCoverage> packages = new ArrayList<IPackageCoverage>(
+				bundle.getPackages());
+		Collections.sort(packages, new Comparator<IPackageCoverage>() {
+			public int compare(final IPackageCoverage p1,
+					final IPackageCoverage p2) {
+				return p1.getName().compareTo(p2.getName());
+			}
+		});
+		return packages;
+	}
+
+	private void createClassfile(final String dir, final Class<?> source)
+			throws IOException {
+		File file = new File(folder.getRoot(), dir);
+		file = new File(file, source.getName().replace('.', '/') + ".class");
+		file.getParentFile().mkdirs();
+		final FileOutputStream out = new FileOutputStream(file);
+		out.write(TargetLoader.getClassDataAsBytes(source));
+		out.close();
+	}
+
+	private static void assertCounters(final ICoverageNode expected,
+			final ICoverageNode actual) {
+		for (final ICoverageNode.CounterEntity entity : ICoverageNode.CounterEntity
+				.values()) {
+			assertEquals(entity.name(), expected.getCounter(entity),
+					actual.getCounter(entity));
+		}
+	}
+
+}
@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link IndexedExecutionDataReader} and
+ * {@link IndexedExecutionDataWriter}.
+ */
+public class IndexedExecutionDataReaderWriterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ByteArrayOutputStream buffer;
+
+	private IndexedExecutionDataWriter writer;
+
+	@Before
+	public void setup() throws IOException {
+		buffer = new ByteArrayOutputStream();
+		writer = new IndexedExecutionDataWriter(buffer);
+	}
+
+	@Test
+	public void should_write_and_read_empty_file() throws IOException {
+		final IndexedExecutionDataReader reader = createReader();
+
+		assertEquals(0, reader.getClassCount());
+		assertTrue(reader.getSessionInfos().isEmpty());
+		assertNull(reader.get(42));
+	}
+
+	@Test
+	public void should_start_with_header() throws IOException {
+		writer.finish();
+
+		final byte[] bytes = buffer.toByteArray();
+		assertEquals(IndexedExecutionDataWriter.HEADER, bytes[0]);
+		assertEquals((byte) 0xC0, bytes[1]);
+		assertEquals((byte) 0xC0, bytes[2]);
+	}
+
+	@Test
+	public void should_write_and_read_session_infos() throws IOException {
+		writer.visitSessionInfo(new SessionInfo("first", 1, 2));
+		writer.visitSessionInfo(new SessionInfo("second", 3, 4));
+		final IndexedExecutionDataReader reader = createReader();
+
+		final List<SessionInfo> infos = reader.getSessionInfos();
+		assertEquals(2, infos.size());
+		assertEquals("first", infos.get(0).getId());
+		assertEquals(1, infos.get(0).getStartTimeStamp());
+		assertEquals(2, infos.get(0).getDumpTimeStamp());
+		assertEquals("second", infos.get(1).getId());
+	}
+
+	@Test
+	public void should_look_up_classes_by_id() throws IOException {
+		final Random random = new Random(5);
+		final List<ExecutionData> expected = new ArrayList<ExecutionData>();
+		for (int i = 0; i < 500; i++) {
+			final boolean[] probes = new boolean[random.nextInt(40) + 1];
+			for (int j = 0; j < probes.length; j++) {
+				probes[j] = random.nextBoolean();
+			}
+			probes[0] = true;
+			final ExecutionData data = new ExecutionData(random.nextLong(),
+					"Sample" + i, probes);
+			expected.add(data);
+			writer.visitClassExecution(data);
+		}
+		final IndexedExecutionDataReader reader = createReader();
+
+		assertEquals(500, reader.getClassCount());
+		for (final ExecutionData data : expected) {
+			final ExecutionData actual = reader.get(data.getId());
+			assertEquals(data.getName(), actual.getName());
+			assertTrue(Arrays.equals(data.getProbes(), actual.getProbes()));
+		}
+		assertFalse(reader.contains(42));
+		assertNull(reader.get(42));
+	}
+
+	@Test
+	public void should_order_index_by_unsigned_class_id() throws IOException {
+		writer.visitClassExecution(createData(-1, "c"));
+		writer.visitClassExecution(createData(2, "b"));
+		writer.visitClassExecution(createData(1, "a"));
+		final IndexedExecutionDataReader reader = createReader();
+
+		assertEquals(1, reader.getId(0));
+		assertEquals(2, reader.getId(1));
+		assertEquals(-1, reader.getId(2));
+		final List<String> names = new ArrayList<String>();
+		reader.acceptExecutionData(new IExecutionDataVisitor() {
+			public void visitClassExecution(final ExecutionData data) {
+				names.add(data.getName());
+			}
+		});
+		assertEquals(Arrays.asList("a", "b", "c"), names);
+	}
+
+	@Test
+	public void should_skip_classes_without_hits() throws IOException {
+		writer.visitClassExecution(new ExecutionData(1, "a", 3));
+		final IndexedExecutionDataReader reader = createReader();
+
+		assertEquals(0, reader.getClassCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void should_reject_duplicate_consecutive_ids() {
+		writer.visitClassExecution(createData(1, "a"));
+		writer.visitClassExecution(createData(1, "a"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void should_reject_duplicate_ids() throws IOException {
+		writer.visitClassExecution(createData(1, "a"));
+		writer.visitClassExecution(createData(2, "b"));
+		writer.visitClassExecution(createData(1, "a"));
+		writer.finish();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void should_reject_data_after_finish() throws IOException {
+		writer.finish();
+		writer.visitClassExecution(createData(1, "a"));
+	}
+
+	@Test
+	public void should_read_memory_mapped_file() throws IOException {
+		writer.visitSessionInfo(new SessionInfo("session", 1, 2));
+		writer.visitClassExecution(createData(1, "a"));
+		writer.finish();
+		final File file = folder.newFile("indexed.exec");
+		final FileOutputStream out = new FileOutputStream(file);
+		out.write(buffer.toByteArray());
+		out.close();
+
+		final IndexedExecutionDataReader reader = new IndexedExecutionDataReader(
+				file);
+
+		assertEquals("session", reader.getSessionInfos().get(0).getId());
+		assertEquals("a", reader.get(1).getName());
+	}
+
+	@Test
+	public void should_read_file_channel_until_closed() throws IOException {
+		writer.visitSessionInfo(new SessionInfo("session", 1, 2));
+		writer.visitClassExecution(createData(1, "a"));
+		writer.finish();
+		final File file = folder.newFile("indexed.exec");
+		final FileOutputStream out = new FileOutputStream(file);
+		out.write(buffer.toByteArray());
+		out.close();
+		final RandomAccessFile in = new RandomAccessFile(file, "r");
+
+		final IndexedExecutionDataReader reader = new IndexedExecutionDataReader(
+				in.getChannel());
+
+		assertEquals("session", reader.getSessionInfos().get(0).getId());
+		assertEquals("a", reader.get(1).getName());
+		reader.close();
+		assertFalse(in.getChannel().isOpen());
+		assertTrue(file.delete());
+	}
+
+	@Test(expected = IOException.class)
+	public void should_reject_block_stream_format() throws IOException {
+		new IndexedExecutionDataReader(
+				ByteBuffer.wrap(ExecutionDataWriter.getFileHeader()));
+	}
+
+	@Test(expected = IOException.class)
+	public void should_reject_truncated_file() throws IOException {
+		writer.visitClassExecution(createData(1, "a"));
+		writer.finish();
+		final byte[] bytes = buffer.toByteArray();
+		new IndexedExecutionDataReader(
+				ByteBuffer.wrap(bytes, 0, bytes.length - 1).slice());
+	}
+
+	@Test(expected = IOException.class)
+	public void should_reject_record_offset_outside_of_file()
+			throws IOException {
+		writer.visitClassExecution(createData(1, "a"));
+		writer.finish();
+		final byte[] bytes = buffer.toByteArray();
+		final ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+		final int index = (int) wrapped.getLong(bytes.length
+				- IndexedExecutionDataWriter.TRAILER_SIZE + 8);
+		wrapped.putLong(index + 8, Integer.MAX_VALUE + 1L);
+		new IndexedExecutionDataReader(wrapped);
+	}
+
+	@Test
+	public void should_stop_lookup_in_hash_table_without_empty_slot()
+			throws IOException {
+		writer.visitClassExecution(createData(1, "a"));
+		writer.finish();
+		final byte[] bytes = buffer.toByteArray();
+		final ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+		final int trailer = bytes.length
+				- IndexedExecutionDataWriter.TRAILER_SIZE;
+		final int hashSize = wrapped.getInt(trailer + 20);
+		for (int i = 1; i <= hashSize; i++) {
+			wrapped.putInt(trailer - 4 * i, 1);
+		}
+		final IndexedExecutionDataReader reader = new IndexedExecutionDataReader(
+				wrapped);
+
+		assertTrue(reader.contains(1));
+		assertFalse(reader.contains(2));
+	}
+
+	@Test
+	public void should_reject_incompatible_version() throws IOException {
+		writer.finish();
+		final byte[] bytes = buffer.toByteArray();
+		bytes[4]++;
+		try {
+			new IndexedExecutionDataReader(ByteBuffer.wrap(bytes));
+			fail("exception expected");
+		} catch (IOException e) {
+			assertEquals("Cannot read indexed execution data version 0x2. "
+					+ "This version of JaCoCo uses indexed execution data version 0x1.",
+					e.getMessage());
+		}
+	}
+
+	private ExecutionData createData(final long id, final String name) {
+		return new ExecutionData(id, name, new boolean[] { true, false });
+	}
+
+	private IndexedExecutionDataReader createReader() throws IOException {
+		writer.finish();
+		return new IndexedExecutionDataReader(
+				ByteBuffer.wrap(buffer.toByteArray()));
+	}
+
+}
@@ -14,6 +14,7 @@ package org.jacoco.core.instr;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
@@ -144,6 +145,22 @@ public class InstrumenterTest {
 		assertEquals("org.jacoco.core.instr.InstrumenterTest", clazz.getName());
 	}
 
+	@Test
+	public void should_instrument_with_compact_probes() throws Exception {
+		instrumenter.setCompactProbes(true);
+		byte[] bytes = instrumenter.instrument(
+				TargetLoader.getClassDataAsBytes(SerializationTarget.class),
+				"Test");
+		TargetLoader loader = new TargetLoader();
+		Class<?> clazz = loader.add(SerializationTarget.class, bytes);
+		Object target = clazz.getConstructor(String.class, Integer.TYPE)
+				.newInstance("Hello", Integer.valueOf(42));
+
+		assertEquals("Hello42", target.toString());
+		assertNotNull(clazz.getDeclaredMethod(InstrSupport.HITMETHOD_NAME,
+				Integer.TYPE));
+	}
+
 	/**
 	 * Triggers exception in {@link Instrumenter#instrument(byte[], String)}.
 	 */
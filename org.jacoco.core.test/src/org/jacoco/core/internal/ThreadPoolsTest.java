@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ThreadPools}.
+ */
+public class ThreadPoolsTest {
+
+	private ExecutorService executor;
+
+	@Before
+	public void setup() {
+		executor = ThreadPools.create(1, "test-pool");
+	}
+
+	@After
+	public void teardown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void create_should_create_daemon_threads() throws IOException {
+		final Future<Thread> task = executor.submit(new Callable<Thread>() {
+			public Thread call() {
+				return Thread.currentThread();
+			}
+		});
+
+		final Thread thread = ThreadPools.await(task, "testing");
+
+		assertEquals("test-pool", thread.getName());
+		assertTrue(thread.isDaemon());
+	}
+
+	@Test
+	public void await_should_rethrow_IOException() {
+		final IOException expected = new IOException();
+		try {
+			ThreadPools.await(submitFailing(expected), "testing");
+			fail("exception expected");
+		} catch (final IOException e) {
+			assertSame(expected, e);
+		}
+	}
+
+	@Test
+	public void await_should_rethrow_RuntimeException() throws IOException {
+		final RuntimeException expected = new IllegalStateException();
+		try {
+			ThreadPools.await(submitFailing(expected), "testing");
+			fail("exception expected");
+		} catch (final RuntimeException e) {
+			assertSame(expected, e);
+		}
+	}
+
+	@Test
+	public void await_should_rethrow_Error() throws IOException {
+		final Error expected = new AssertionError();
+		try {
+			ThreadPools.await(submitFailing(expected), "testing");
+			fail("exception expected");
+		} catch (final Error e) {
+			assertSame(expected, e);
+		}
+	}
+
+	@Test
+	public void await_should_wrap_other_exceptions() {
+		final Exception expected = new Exception("checked");
+		try {
+			ThreadPools.await(submitFailing(expected), "testing");
+			fail("exception expected");
+		} catch (final IOException e) {
+			assertEquals("checked", e.getMessage());
+			assertSame(expected, e.getCause());
+		}
+	}
+
+	@Test
+	public void await_should_throw_IOException_when_interrupted() {
+		final Future<Void> task = executor.submit(new Callable<Void>() {
+			public Void call() throws InterruptedException {
+				Thread.sleep(10000);
+				return null;
+			}
+		});
+		Thread.currentThread().interrupt();
+		try {
+			ThreadPools.await(task, "testing");
+			fail("exception expected");
+		} catch (final IOException e) {
+			assertEquals("Interrupted while testing.", e.getMessage());
+			assertTrue(e.getCause() instanceof InterruptedException);
+			assertTrue(Thread.interrupted());
+		}
+	}
+
+	private Future<Void> submitFailing(final Throwable t) {
+		return executor.submit(new Callable<Void>() {
+			public Void call() throws Exception {
+				if (t instanceof Error) {
+					throw (Error) t;
+				}
+				throw (Exception) t;
+			}
+		});
+	}
+
+}
@@ -14,6 +14,7 @@ package org.jacoco.core.internal.analysis;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.jacoco.core.internal.flow.MethodProbesVisitor;
 import org.jacoco.core.internal.instr.InstrSupport;
@@ -60,6 +61,28 @@ public class ClassAnalyzerTest {
 		assertEquals(0, coverage.getMethods().size());
 	}
 
+	@Test
+	public void should_accept_matching_probe_count() {
+		analyzer = new ClassAnalyzer(coverage, new boolean[3],
+				new StringPool());
+		analyzer.visitTotalProbeCount(3);
+	}
+
+	@Test
+	public void should_reject_probe_count_of_different_instrumentation() {
+		analyzer = new ClassAnalyzer(coverage, new boolean[3],
+				new StringPool(), true);
+		try {
+			analyzer.visitTotalProbeCount(2);
+			fail("exception expected");
+		} catch (final IllegalStateException e) {
+			assertEquals(
+					"Incompatible execution data for class Foo: 3 probes recorded but 2 expected. "
+							+ "Check that the class is analyzed with the same reduced probes setting it has been instrumented with.",
+					e.getMessage());
+		}
+	}
+
 	@Test
 	public void should_collect_attributes() {
 		assertTrue(analyzer.getClassAttributes().isEmpty());
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.analysis;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.analysis.ISourceNode;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.internal.data.CompactDataInput;
+import org.jacoco.core.internal.data.CompactDataOutput;
+import org.jacoco.core.test.TargetLoader;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ClassCoverageSerializer}.
+ */
+public class ClassCoverageSerializerTest {
+
+	@Test
+	public void should_restore_properties_of_class() throws IOException {
+		final ClassCoverageImpl expected = new ClassCoverageImpl("Sample", 123,
+				true);
+		expected.setSignature("LSample<TT;>;");
+		expected.setSuperName("java/lang/Object");
+		expected.setInterfaces(new String[] { "java/lang/Runnable" });
+		expected.setSourceFileName("Sample.java");
+
+		final IClassCoverage actual = copy(expected);
+
+		assertEquals("Sample", actual.getName());
+		assertEquals(123, actual.getId());
+		assertTrue(actual.isNoMatch());
+		assertEquals("LSample<TT;>;", actual.getSignature());
+		assertEquals("java/lang/Object", actual.getSuperName());
+		assertArrayEquals(new String[] { "java/lang/Runnable" },
+				actual.getInterfaceNames());
+		assertEquals("Sample.java", actual.getSourceFileName());
+		assertTrue(actual.getMethods().isEmpty());
+	}
+
+	@Test
+	public void should_restore_missing_optional_properties()
+			throws IOException {
+		final ClassCoverageImpl expected = new ClassCoverageImpl("Sample", 0,
+				false);
+		expected.setInterfaces(new String[0]);
+
+		final IClassCoverage actual = copy(expected);
+
+		assertNull(actual.getSignature());
+		assertNull(actual.getSuperName());
+		assertArrayEquals(new String[0], actual.getInterfaceNames());
+		assertNull(actual.getSourceFileName());
+	}
+
+	@Test
+	public void should_restore_methods_without_lines() throws IOException {
+		final ClassCoverageImpl expected = new ClassCoverageImpl("Sample", 0,
+				false);
+		expected.setInterfaces(new String[0]);
+		final MethodCoverageImpl method = new MethodCoverageImpl("m", "()V",
+				null);
+		method.increment(CounterImpl.getInstance(2, 3),
+				CounterImpl.getInstance(1, 1), ISourceNode.UNKNOWN_LINE);
+		method.incrementMethodCounter();
+		expected.addMethod(method);
+
+		final IClassCoverage actual = copy(expected);
+
+		assertEquals(ISourceNode.UNKNOWN_LINE, actual.getFirstLine());
+		assertClass(expected, actual);
+	}
+
+	@Test
+	public void should_restore_classes_created_by_analyzer()
+			throws IOException {
+		final CoverageBuilder builder = new CoverageBuilder();
+		final Analyzer analyzer = new Analyzer(new ExecutionDataStore(),
+				builder);
+		analyzer.analyzeClass(
+				TargetLoader.getClassDataAsBytes(ClassCoverageImpl.class),
+				"ClassCoverageImpl");
+		analyzer.analyzeClass(
+				TargetLoader.getClassDataAsBytes(ClassCoverageSerializer.class),
+				"ClassCoverageSerializer");
+
+		for (final IClassCoverage expected : builder.getClasses()) {
+			assertClass(expected, copy(expected));
+		}
+	}
+
+	private static IClassCoverage copy(final IClassCoverage coverage)
+			throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final CompactDataOutput out = new CompactDataOutput(buffer);
+		ClassCoverageSerializer.write(out, coverage);
+		out.close();
+		return ClassCoverageSerializer.read(new CompactDataInput(
+				new ByteArrayInputStream(buffer.toByteArray())));
+	}
+
+	private static void assertClass(final IClassCoverage expected,
+			final IClassCoverage actual) {
+		assertEquals(expected.getName(), actual.getName());
+		assertNode(expected, actual);
+		final List<IMethodCoverage> expectedMethods = new ArrayList<IMethodCoverage>(
+				expected.getMethods());
+		final Iterator<IMethodCoverage> actualMethods = actual.getMethods()
+				.iterator();
+		for (final IMethodCoverage e : expectedMethods) {
+			final IMethodCoverage a = actualMethods.next();
+			assertEquals(e.getName(), a.getName());
+			assertEquals(e.getDesc(), a.getDesc());
+			assertEquals(e.getSignature(), a.getSignature());
+			assertNode(e, a);
+		}
+		assertEquals(expectedMethods.size(), actual.getMethods().size());
+	}
+
+	private static void assertNode(final ISourceNode expected,
+			final ISourceNode actual) {
+		for (final ICoverageNode.CounterEntity entity : ICoverageNode.CounterEntity
+				.values()) {
+			assertEquals(entity.name(), expected.getCounter(entity),
+					actual.getCounter(entity));
+		}
+		assertEquals(expected.getFirstLine(), actual.getFirstLine());
+		assertEquals(expected.getLastLine(), actual.getLastLine());
+		for (int nr = expected.getFirstLine(); nr <= expected
+				.getLastLine(); nr++) {
+			assertEquals(expected.getLine(nr).getInstructionCounter(),
+					actual.getLine(nr).getInstructionCounter());
+			assertEquals(expected.getLine(nr).getBranchCounter(),
+					actual.getLine(nr).getBranchCounter());
+		}
+	}
+
+}
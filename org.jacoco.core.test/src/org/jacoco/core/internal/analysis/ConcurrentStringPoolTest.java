@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ConcurrentStringPool}.
+ */
+public class ConcurrentStringPoolTest {
+
+	private StringPool pool;
+
+	@Before
+	public void setup() {
+		pool = new ConcurrentStringPool();
+	}
+
+	@Test
+	public void testGetStringNull() {
+		assertNull(pool.get((String) null));
+	}
+
+	@Test
+	public void testGetString() {
+		final String a = pool.get(new String("JaCoCo"));
+		final String b = pool.get(new String("JaCoCo"));
+
+		assertEquals("JaCoCo", a);
+		assertEquals("JaCoCo", b);
+		assertSame(a, b);
+	}
+
+	@Test
+	public void testGetArray() {
+		final String[] arr1 = pool.get(new String[] { new String("JaCoCo") });
+		final String[] arr2 = pool.get(new String[] { new String("JaCoCo") });
+
+		assertEquals(1, arr1.length);
+		assertEquals("JaCoCo", arr1[0]);
+		assertSame(arr1[0], arr2[0]);
+	}
+
+	@Test
+	public void testGetStringConcurrent() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		final Callable<String[]> task = new Callable<String[]>() {
+			public String[] call() {
+				final String[] result = new String[1000];
+				for (int i = 0; i < result.length; i++) {
+					result[i] = pool.get(new String("s" + i));
+				}
+				return result;
+			}
+		};
+		final Future<String[]> f1 = executor.submit(task);
+		final Future<String[]> f2 = executor.submit(task);
+		final String[] r1 = f1.get();
+		final String[] r2 = f2.get();
+		executor.shutdown();
+
+		for (int i = 0; i < r1.length; i++) {
+			assertEquals("s" + i, r1[i]);
+			assertSame(r1[i], r2[i]);
+		}
+	}
+
+}
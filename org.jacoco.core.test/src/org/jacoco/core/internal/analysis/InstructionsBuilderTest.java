@@ -14,15 +14,12 @@ package org.jacoco.core.internal.analysis;
 
 import static org.junit.Assert.assertEquals;
 
-import java.util.Map;
-
 import org.jacoco.core.analysis.ISourceNode;
 import org.jacoco.core.internal.flow.LabelInfo;
 import org.junit.Before;
 import org.junit.Test;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.InsnNode;
 
 /**
@@ -52,11 +49,11 @@ public class InstructionsBuilderTest {
 		InsnNode i4 = new InsnNode(Opcodes.NOP);
 		builder.addInstruction(i4);
 
-		Map<AbstractInsnNode, Instruction> map = builder.getInstructions();
-		assertEquals(ISourceNode.UNKNOWN_LINE, map.get(i1).getLine());
-		assertEquals(10, map.get(i2).getLine());
-		assertEquals(10, map.get(i3).getLine());
-		assertEquals(20, map.get(i4).getLine());
+		Instructions instructions = builder.getInstructions();
+		assertEquals(ISourceNode.UNKNOWN_LINE, instructions.getLine(0));
+		assertEquals(10, instructions.getLine(1));
+		assertEquals(10, instructions.getLine(2));
+		assertEquals(20, instructions.getLine(3));
 	}
 
 	@Test
@@ -67,9 +64,9 @@ public class InstructionsBuilderTest {
 		builder.addInstruction(i1);
 		builder.addProbe(5, 0);
 
-		Map<AbstractInsnNode, Instruction> map = builder.getInstructions();
+		Instructions instructions = builder.getInstructions();
 		assertEquals(CounterImpl.COUNTER_1_0,
-				map.get(i1).getInstructionCounter());
+				instructions.getInstructionCounter(0));
 	}
 
 	@Test
@@ -78,9 +75,9 @@ public class InstructionsBuilderTest {
 		builder.addInstruction(i1);
 		builder.addProbe(0, 0);
 
-		Map<AbstractInsnNode, Instruction> map = builder.getInstructions();
+		Instructions instructions = builder.getInstructions();
 		assertEquals(CounterImpl.COUNTER_1_0,
-				map.get(i1).getInstructionCounter());
+				instructions.getInstructionCounter(0));
 	}
 
 	@Test
@@ -89,9 +86,9 @@ public class InstructionsBuilderTest {
 		builder.addInstruction(i1);
 		builder.addProbe(1, 0);
 
-		Map<AbstractInsnNode, Instruction> map = builder.getInstructions();
+		Instructions instructions = builder.getInstructions();
 		assertEquals(CounterImpl.COUNTER_0_1,
-				map.get(i1).getInstructionCounter());
+				instructions.getInstructionCounter(0));
 	}
 
 	@Test
@@ -106,9 +103,9 @@ public class InstructionsBuilderTest {
 		builder.addProbe(1, 0);
 
 		// coverage should be propagated to i1
-		Map<AbstractInsnNode, Instruction> map = builder.getInstructions();
+		Instructions instructions = builder.getInstructions();
 		assertEquals(CounterImpl.COUNTER_0_1,
-				map.get(i1).getInstructionCounter());
+				instructions.getInstructionCounter(0));
 	}
 
 	@Test
@@ -124,9 +121,9 @@ public class InstructionsBuilderTest {
 		builder.addProbe(1, 0);
 
 		// coverage should not be propagated to i1
-		Map<AbstractInsnNode, Instruction> map = builder.getInstructions();
+		Instructions instructions = builder.getInstructions();
 		assertEquals(CounterImpl.COUNTER_1_0,
-				map.get(i1).getInstructionCounter());
+				instructions.getInstructionCounter(0));
 	}
 
 	@Test
@@ -144,9 +141,9 @@ public class InstructionsBuilderTest {
 		builder.addProbe(1, 0);
 
 		// coverage should be propagated to i1
-		Map<AbstractInsnNode, Instruction> map = builder.getInstructions();
+		Instructions instructions = builder.getInstructions();
 		assertEquals(CounterImpl.COUNTER_0_1,
-				map.get(i1).getInstructionCounter());
+				instructions.getInstructionCounter(0));
 	}
 
 	@Test
@@ -162,9 +159,9 @@ public class InstructionsBuilderTest {
 		builder.addProbe(1, 0);
 
 		// coverage should not be propagated to i1
-		Map<AbstractInsnNode, Instruction> map = builder.getInstructions();
+		Instructions instructions = builder.getInstructions();
 		assertEquals(CounterImpl.COUNTER_1_0,
-				map.get(i1).getInstructionCounter());
+				instructions.getInstructionCounter(0));
 	}
 
 	@Test
@@ -182,9 +179,93 @@ public class InstructionsBuilderTest {
 		builder.addProbe(1, 0);
 
 		// coverage should be propagated to i1
-		Map<AbstractInsnNode, Instruction> map = builder.getInstructions();
+		Instructions instructions = builder.getInstructions();
+		assertEquals(CounterImpl.COUNTER_0_1,
+				instructions.getInstructionCounter(0));
+	}
+
+	@Test
+	public void jumps_should_be_wired_when_exceeding_initial_capacity() {
+		Label l = new Label();
+		for (int i = 0; i < 100; i++) {
+			builder.addInstruction(new InsnNode(Opcodes.NOP));
+			builder.addJump(l, 1);
+		}
+
+		builder.addLabel(l);
+		builder.addInstruction(new InsnNode(Opcodes.NOP));
+
+		// mark jump target as covered
+		builder.addProbe(1, 0);
+
+		// coverage should be propagated over all jumps
+		Instructions instructions = builder.getInstructions();
+		for (int i = 0; i < 99; i++) {
+			assertEquals(CounterImpl.getInstance(0, 2),
+					instructions.getBranchCounter(i));
+		}
+	}
+
+	@Test
+	public void derived_probe_should_mark_instruction_as_covered_when_block_has_been_entered() {
+		builder = new InstructionsBuilder(new boolean[] { false, true }, true);
+		builder.addInstruction(new InsnNode(Opcodes.NOP));
+		builder.addFallThroughProbe(1);
+		builder.noSuccessor();
+
+		Label l = new Label();
+		builder.addLabel(l);
+		builder.addInstruction(new InsnNode(Opcodes.RETURN));
+		builder.addDerivedProbe(l, 0, null);
+
+		Instructions instructions = builder.getInstructions();
+		assertEquals(CounterImpl.COUNTER_0_1,
+				instructions.getInstructionCounter(1));
+	}
+
+	@Test
+	public void derived_probe_should_not_mark_instruction_as_covered_when_block_has_not_been_entered() {
+		builder = new InstructionsBuilder(new boolean[] { false, true }, true);
+		builder.addInstruction(new InsnNode(Opcodes.NOP));
+		builder.addFallThroughProbe(0);
+		builder.noSuccessor();
+
+		Label l = new Label();
+		builder.addLabel(l);
+		builder.addInstruction(new InsnNode(Opcodes.RETURN));
+		builder.addDerivedProbe(l, 0, null);
+
+		Instructions instructions = builder.getInstructions();
+		assertEquals(CounterImpl.COUNTER_1_0,
+				instructions.getInstructionCounter(1));
+	}
+
+	@Test
+	public void derived_probes_should_be_evaluated_transitively() {
+		builder = new InstructionsBuilder(new boolean[] { false, true }, true);
+		Label l1 = new Label();
+		builder.addLabel(l1);
+		builder.addInstruction(new InsnNode(Opcodes.NOP));
+		builder.addDerivedFallThroughProbe(l1);
+		builder.noSuccessor();
+
+		Label l2 = new Label();
+		builder.addLabel(l2);
+		builder.addInstruction(new InsnNode(Opcodes.RETURN));
+		builder.addDerivedProbe(l2, 0, null);
+		builder.noSuccessor();
+
+		// backward jump into the first block
+		builder.addInstruction(new InsnNode(Opcodes.NOP));
+		builder.addProbe(1, 0, l1);
+
+		Instructions instructions = builder.getInstructions();
+		assertEquals(CounterImpl.COUNTER_0_1,
+				instructions.getInstructionCounter(0));
+		assertEquals(CounterImpl.COUNTER_0_1,
+				instructions.getInstructionCounter(1));
 		assertEquals(CounterImpl.COUNTER_0_1,
-				map.get(i1).getInstructionCounter());
+				instructions.getInstructionCounter(2));
 	}
 
 }
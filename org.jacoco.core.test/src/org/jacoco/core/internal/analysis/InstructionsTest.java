@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.InsnNode;
+
+/**
+ * Unit tests for {@link Instructions}.
+ */
+public class InstructionsTest {
+
+	private Instructions instructions;
+
+	private int instruction;
+
+	@Before
+	public void setup() {
+		instructions = new Instructions(1);
+		instruction = instructions.add(null, 123);
+	}
+
+	@Test
+	public void add_should_return_ordinals() {
+		final InsnNode node = new InsnNode(Opcodes.NOP);
+
+		assertEquals(1, instructions.add(node, 124));
+		assertEquals(2, instructions.add(null, 125));
+
+		assertEquals(3, instructions.size());
+		assertSame(node, instructions.getNode(1));
+	}
+
+	@Test
+	public void ensureCapacity_should_keep_existing_instructions() {
+		instructions.addBranch(instruction, true, 0);
+
+		instructions.ensureCapacity(100);
+
+		assertEquals(1, instructions.size());
+		assertEquals(123, instructions.getLine(instruction));
+		assertTrue(instructions.isCovered(instruction));
+	}
+
+	@Test
+	public void getLine_should_return_line_number() {
+		assertEquals(123, instructions.getLine(instruction));
+	}
+
+	@Test
+	public void new_instance_should_have_no_coverage_and_no_branches() {
+		assertFalse(instructions.isCovered(instruction));
+		assertEquals(CounterImpl.COUNTER_1_0,
+				instructions.getInstructionCounter(instruction));
+		assertEquals(CounterImpl.COUNTER_0_0,
+				instructions.getBranchCounter(instruction));
+	}
+
+	@Test
+	public void addBranchWithInstruction_should_not_increment_branches_when_only_one_branch_is_added() {
+		instructions.addBranch(instruction, instructions.add(null, 122), 0);
+
+		assertEquals(CounterImpl.COUNTER_0_0,
+				instructions.getBranchCounter(instruction));
+	}
+
+	@Test
+	public void addBranchWithInstruction_should_increment_branches_when_two_branches_are_added() {
+		instructions.addBranch(instruction, instructions.add(null, 122), 0);
+		instructions.addBranch(instruction, instructions.add(null, 123), 1);
+
+		assertEquals(CounterImpl.getInstance(2, 0),
+				instructions.getBranchCounter(instruction));
+	}
+
+	@Test
+	public void addBranchWithInstruction_should_propagate_existing_coverage_status() {
+		final int target = instructions.add(null, 122);
+		instructions.addBranch(target, true, 0);
+
+		instructions.addBranch(instruction, target, 0);
+
+		assertEquals(CounterImpl.COUNTER_0_1,
+				instructions.getInstructionCounter(instruction));
+	}
+
+	@Test
+	public void addBranchWithProbe_should_increment_branches_when_covered() {
+		instructions.addBranch(instruction, true, 0);
+		instructions.addBranch(instruction, true, 1);
+
+		assertEquals(CounterImpl.getInstance(0, 1),
+				instructions.getInstructionCounter(instruction));
+		assertEquals(CounterImpl.getInstance(0, 2),
+				instructions.getBranchCounter(instruction));
+	}
+
+	@Test
+	public void addBranchWithProbe_should_increment_branches_when_not_covered() {
+		instructions.addBranch(instruction, false, 0);
+		instructions.addBranch(instruction, false, 1);
+
+		assertEquals(CounterImpl.getInstance(1, 0),
+				instructions.getInstructionCounter(instruction));
+		assertEquals(CounterImpl.getInstance(2, 0),
+				instructions.getBranchCounter(instruction));
+	}
+
+	@Test
+	public void addBranchWithProbe_should_increment_branches_when_partly_covered() {
+		instructions.addBranch(instruction, false, 0);
+		instructions.addBranch(instruction, true, 1);
+
+		assertEquals(CounterImpl.getInstance(0, 1),
+				instructions.getInstructionCounter(instruction));
+		assertEquals(CounterImpl.getInstance(1, 1),
+				instructions.getBranchCounter(instruction));
+	}
+
+	@Test
+	public void addBranchWithProbe_should_propagate_coverage_status_to_existing_predecessors() {
+		final int i1 = instructions.add(null, 124);
+		final int i2 = instructions.add(null, 125);
+		instructions.addBranch(instruction, i1, 3);
+		instructions.addBranch(i1, i2, 5);
+
+		instructions.addBranch(i2, true, 8);
+
+		assertEquals(CounterImpl.COUNTER_0_1,
+				instructions.getInstructionCounter(instruction));
+	}
+
+	@Test
+	public void addBranch_should_count_large_number_of_branches() {
+		for (int branch = 0; branch < 0x1000; branch++) {
+			instructions.addBranch(instruction, true, branch);
+		}
+
+		assertEquals(CounterImpl.getInstance(0, 0x1000),
+				instructions.getBranchCounter(instruction));
+	}
+
+	@Test
+	public void addBranch_should_propagate_coverage_status_of_high_branch() {
+		final int target = instructions.add(null, 124);
+		instructions.addBranch(instruction, false, 0);
+		instructions.addBranch(instruction, target, 100);
+
+		instructions.addBranch(target, true, 0);
+
+		assertTrue(instructions.isCovered(instruction));
+		assertEquals(CounterImpl.getInstance(1, 1),
+				instructions.getBranchCounter(instruction));
+	}
+
+	@Test
+	public void addBranch_should_propagate_coverage_status_over_very_long_sequence() {
+		int next = instruction;
+		for (int i = 0; i < 0x10000; i++) {
+			final int insn = instructions.add(null, i);
+			instructions.addBranch(next, insn, 0);
+			next = insn;
+		}
+		instructions.addBranch(next, true, 0);
+
+		assertEquals(CounterImpl.COUNTER_0_1,
+				instructions.getInstructionCounter(instruction));
+	}
+
+	@Test
+	public void merge_should_calculate_superset_of_covered_branches() {
+		final int i1 = instructions.add(null, 124);
+		instructions.addBranch(i1, false, 1);
+		instructions.addBranch(i1, false, 2);
+		instructions.addBranch(i1, true, 3);
+		instructions.addBranch(i1, true, 4);
+		final int i2 = instructions.add(null, 124);
+		instructions.addBranch(i2, false, 1);
+		instructions.addBranch(i2, true, 2);
+		instructions.addBranch(i2, false, 3);
+		instructions.addBranch(i2, true, 4);
+
+		instructions.merge(i1, i2);
+
+		assertEquals(CounterImpl.getInstance(1, 3),
+				instructions.getBranchCounter(i1));
+	}
+
+	@Test
+	public void merge_should_calculate_superset_of_covered_high_branches() {
+		final int i1 = instructions.add(null, 124);
+		instructions.addBranch(i1, false, 0);
+		instructions.addBranch(i1, true, 70);
+		final int i2 = instructions.add(null, 124);
+		instructions.addBranch(i2, true, 0);
+		instructions.addBranch(i2, true, 70);
+
+		instructions.merge(i1, i2);
+
+		assertEquals(CounterImpl.getInstance(0, 2),
+				instructions.getBranchCounter(i1));
+	}
+
+	@Test
+	public void replaceBranches_should_calculate_coverage_on_new_branches() {
+		final int i1 = instructions.add(null, 1);
+		final int i2 = instructions.add(null, 2);
+		final int i3 = instructions.add(null, 3);
+		instructions.addBranch(i3, true, 0);
+
+		instructions.replaceBranches(instruction, new int[] { i1, i2, i3 });
+
+		assertEquals(CounterImpl.getInstance(2, 1),
+				instructions.getBranchCounter(instruction));
+		assertEquals(123, instructions.getLine(instruction));
+	}
+
+	@Test
+	public void replaceBranches_should_discard_previous_coverage() {
+		instructions.addBranch(instruction, true, 0);
+		instructions.addBranch(instruction, true, 80);
+		final int i1 = instructions.add(null, 1);
+		final int i2 = instructions.add(null, 2);
+
+		instructions.replaceBranches(instruction, new int[] { i1, i2 });
+
+		assertEquals(CounterImpl.COUNTER_1_0,
+				instructions.getInstructionCounter(instruction));
+		assertEquals(CounterImpl.getInstance(2, 0),
+				instructions.getBranchCounter(instruction));
+	}
+
+}
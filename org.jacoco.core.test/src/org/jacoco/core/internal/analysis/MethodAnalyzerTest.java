@@ -50,9 +50,12 @@ public class MethodAnalyzerTest implements IProbeIdGenerator {
 
 	private IMethodCoverage result;
 
+	private boolean reducedProbes;
+
 	@Before
 	public void setup() {
 		nextProbeId = 0;
+		reducedProbes = false;
 		method = new MethodNode();
 		method.tryCatchBlocks = new ArrayList<TryCatchBlockNode>();
 		probes = new boolean[32];
@@ -774,6 +777,57 @@ public class MethodAnalyzerTest implements IProbeIdGenerator {
 		assertLine(1003, 0, 1, 0, 0);
 	}
 
+	// === Scenario: try/catch block entered from a branch ===
+
+	private void createTryCatchBlockAfterBranch() {
+		final Label l0 = new Label();
+		final Label l1 = new Label();
+		final Label l2 = new Label();
+		final Label l3 = new Label();
+		final Label l4 = new Label();
+		method.visitTryCatchBlock(l1, l2, l3, "java/lang/Exception");
+		method.visitLabel(l0);
+		method.visitLineNumber(1001, l0);
+		method.visitVarInsn(Opcodes.ILOAD, 1);
+		method.visitJumpInsn(Opcodes.IFEQ, l1);
+		method.visitInsn(Opcodes.NOP);
+		method.visitLabel(l1);
+		method.visitLineNumber(1002, l1);
+		method.visitVarInsn(Opcodes.ALOAD, 0);
+		method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Throwable",
+				"printStackTrace", "()V", false);
+		method.visitLabel(l2);
+		method.visitJumpInsn(Opcodes.GOTO, l4);
+		method.visitLabel(l3);
+		method.visitLineNumber(1003, l3);
+		method.visitVarInsn(Opcodes.ASTORE, 1);
+		method.visitLabel(l4);
+		method.visitLineNumber(1004, l4);
+		method.visitInsn(Opcodes.RETURN);
+	}
+
+	@Test
+	public void try_catch_after_branch_with_reduced_probes_should_create_4_probes() {
+		createTryCatchBlockAfterBranch();
+		reducedProbes = true;
+		runMethodAnalzer();
+		assertEquals(4, nextProbeId);
+	}
+
+	@Test
+	public void try_catch_after_branch_with_reduced_probes_should_show_throwing_try_block_missed() {
+		createTryCatchBlockAfterBranch();
+		reducedProbes = true;
+		probes[0] = true;
+		probes[3] = true;
+		runMethodAnalzer();
+
+		assertLine(1001, 1, 2, 1, 1);
+		assertLine(1002, 3, 0, 0, 0);
+		assertLine(1003, 0, 1, 0, 0);
+		assertLine(1004, 0, 1, 0, 0);
+	}
+
 	// === Scenario: try/finally with and without merge filtering ===
 
 	private void createTryFinally() {
@@ -883,24 +937,222 @@ public class MethodAnalyzerTest implements IProbeIdGenerator {
 		assertLine(1003, 3, 0, 0, 0);
 	}
 
+	// === Scenario: nested branches merging in subsequent labels ===
+
+	private void createNestedIfMerge() {
+		final Label l0 = new Label();
+		final Label l1 = new Label();
+		final Label l2 = new Label();
+		final Label l3 = new Label();
+		final Label l4 = new Label();
+		method.visitLabel(l0);
+		method.visitLineNumber(1001, l0);
+		method.visitVarInsn(Opcodes.ILOAD, 1);
+		method.visitJumpInsn(Opcodes.IFEQ, l2);
+		method.visitLabel(l1);
+		method.visitLineNumber(1002, l1);
+		method.visitVarInsn(Opcodes.ILOAD, 2);
+		method.visitJumpInsn(Opcodes.IFEQ, l3);
+		method.visitLabel(l2);
+		method.visitLineNumber(1003, l2);
+		method.visitInsn(Opcodes.NOP);
+		method.visitLabel(l3);
+		method.visitLineNumber(1004, l3);
+		method.visitInsn(Opcodes.NOP);
+		method.visitLabel(l4);
+		method.visitLineNumber(1005, l4);
+		method.visitInsn(Opcodes.RETURN);
+	}
+
+	@Test
+	public void nested_if_merge_should_create_5_probes() {
+		createNestedIfMerge();
+		runMethodAnalzer();
+		assertEquals(5, nextProbeId);
+	}
+
+	@Test
+	public void nested_if_merge_with_reduced_probes_should_create_3_probes() {
+		createNestedIfMerge();
+		reducedProbes = true;
+		runMethodAnalzer();
+		assertEquals(3, nextProbeId);
+	}
+
+	@Test
+	public void nested_if_merge_with_reduced_probes_should_show_missed_when_no_probes_are_executed() {
+		createNestedIfMerge();
+		reducedProbes = true;
+		runMethodAnalzer();
+
+		assertLine(1001, 2, 0, 2, 0);
+		assertLine(1002, 2, 0, 2, 0);
+		assertLine(1003, 1, 0, 0, 0);
+		assertLine(1004, 1, 0, 0, 0);
+		assertLine(1005, 1, 0, 0, 0);
+	}
+
+	@Test
+	public void nested_if_merge_with_reduced_probes_should_derive_coverage_from_first_jump() {
+		createNestedIfMerge();
+		reducedProbes = true;
+		probes[0] = true;
+		runMethodAnalzer();
+
+		assertLine(1001, 0, 2, 1, 1);
+		assertLine(1002, 2, 0, 2, 0);
+		assertLine(1003, 0, 1, 0, 0);
+		assertLine(1004, 0, 1, 0, 0);
+		assertLine(1005, 0, 1, 0, 0);
+	}
+
+	@Test
+	public void nested_if_merge_with_reduced_probes_should_derive_coverage_from_second_jump() {
+		createNestedIfMerge();
+		reducedProbes = true;
+		probes[1] = true;
+		runMethodAnalzer();
+
+		assertLine(1001, 0, 2, 1, 1);
+		assertLine(1002, 0, 2, 1, 1);
+		assertLine(1003, 1, 0, 0, 0);
+		assertLine(1004, 0, 1, 0, 0);
+		assertLine(1005, 0, 1, 0, 0);
+	}
+
+	@Test
+	public void nested_if_merge_with_reduced_probes_should_derive_coverage_from_fall_through() {
+		createNestedIfMerge();
+		reducedProbes = true;
+		probes[2] = true;
+		runMethodAnalzer();
+
+		assertLine(1001, 0, 2, 1, 1);
+		assertLine(1002, 0, 2, 1, 1);
+		assertLine(1003, 0, 1, 0, 0);
+		assertLine(1004, 0, 1, 0, 0);
+		assertLine(1005, 0, 1, 0, 0);
+	}
+
+	// === Scenario: loop with derived back edge ===
+
+	private void createLoopWithDerivedBackEdge() {
+		final Label l0 = new Label();
+		final Label l1 = new Label();
+		final Label l2 = new Label();
+		final Label l3 = new Label();
+		method.visitLabel(l0);
+		method.visitLineNumber(1001, l0);
+		method.visitVarInsn(Opcodes.ILOAD, 1);
+		method.visitJumpInsn(Opcodes.IFEQ, l2);
+		method.visitLabel(l1);
+		method.visitLineNumber(1002, l1);
+		method.visitVarInsn(Opcodes.ILOAD, 2);
+		method.visitJumpInsn(Opcodes.IFEQ, l3);
+		method.visitLabel(l2);
+		method.visitLineNumber(1003, l2);
+		method.visitInsn(Opcodes.NOP);
+		method.visitJumpInsn(Opcodes.GOTO, l1);
+		method.visitLabel(l3);
+		method.visitLineNumber(1004, l3);
+		method.visitInsn(Opcodes.RETURN);
+	}
+
+	@Test
+	public void loop_should_create_5_probes() {
+		createLoopWithDerivedBackEdge();
+		runMethodAnalzer();
+		assertEquals(5, nextProbeId);
+	}
+
+	@Test
+	public void loop_with_reduced_probes_should_create_4_probes() {
+		createLoopWithDerivedBackEdge();
+		reducedProbes = true;
+		runMethodAnalzer();
+		assertEquals(4, nextProbeId);
+	}
+
+	@Test
+	public void loop_with_reduced_probes_should_derive_coverage_of_back_edge() {
+		createLoopWithDerivedBackEdge();
+		reducedProbes = true;
+		probes[0] = true;
+		probes[3] = true;
+		runMethodAnalzer();
+
+		assertLine(1001, 0, 2, 1, 1);
+		assertLine(1002, 0, 2, 1, 1);
+		assertLine(1003, 0, 2, 0, 0);
+		assertLine(1004, 0, 1, 0, 0);
+	}
+
+	// === Scenario: loop with invocation in body ===
+
+	private void createLoopWithInvocation() {
+		final Label l0 = new Label();
+		final Label l1 = new Label();
+		final Label l2 = new Label();
+		final Label l3 = new Label();
+		method.visitLabel(l0);
+		method.visitLineNumber(1001, l0);
+		method.visitVarInsn(Opcodes.ILOAD, 1);
+		method.visitJumpInsn(Opcodes.IFEQ, l2);
+		method.visitLabel(l1);
+		method.visitLineNumber(1002, l1);
+		method.visitVarInsn(Opcodes.ILOAD, 2);
+		method.visitJumpInsn(Opcodes.IFEQ, l3);
+		method.visitLabel(l2);
+		method.visitLineNumber(1003, l2);
+		method.visitMethodInsn(Opcodes.INVOKESTATIC, "Foo", "doit", "()V",
+				false);
+		method.visitInsn(Opcodes.NOP);
+		method.visitJumpInsn(Opcodes.GOTO, l1);
+		method.visitLabel(l3);
+		method.visitLineNumber(1004, l3);
+		method.visitInsn(Opcodes.RETURN);
+	}
+
+	@Test
+	public void loop_with_invocation_and_reduced_probes_should_create_5_probes() {
+		createLoopWithInvocation();
+		reducedProbes = true;
+		runMethodAnalzer();
+		assertEquals(5, nextProbeId);
+	}
+
+	@Test
+	public void loop_with_invocation_and_reduced_probes_should_show_body_missed_when_invocation_throws() {
+		createLoopWithInvocation();
+		reducedProbes = true;
+		probes[0] = true;
+		runMethodAnalzer();
+
+		assertLine(1001, 0, 2, 1, 1);
+		assertLine(1002, 2, 0, 2, 0);
+		assertLine(1003, 3, 0, 0, 0);
+		assertLine(1004, 1, 0, 0, 0);
+	}
+
 	private void runMethodAnalzer() {
 		runMethodAnalzer(Filters.NONE);
 	}
 
 	private void runMethodAnalzer(IFilter filter) {
 		LabelFlowAnalyzer.markLabels(method);
-		InstructionsBuilder builder = new InstructionsBuilder(probes);
+		InstructionsBuilder builder = new InstructionsBuilder(probes,
+				reducedProbes);
 		final MethodAnalyzer analyzer = new MethodAnalyzer(builder);
 
 		final MethodProbesAdapter probesAdapter = new MethodProbesAdapter(
-				analyzer, this);
+				analyzer, this, reducedProbes);
 		// note that CheckMethodAdapter verifies that this test does not violate
 		// contracts of ASM API
 		analyzer.accept(method, new CheckMethodAdapter(probesAdapter));
 
 		MethodCoverageImpl mc = new MethodCoverageImpl("doit", "V()", null);
 		MethodCoverageCalculator mcc = new MethodCoverageCalculator(
-				builder.getInstructions());
+				builder.getInstructions(), method.instructions);
 		filter.filter(method, new FilterContextMock(), mcc);
 		mcc.calculate(mc);
 		result = mc;
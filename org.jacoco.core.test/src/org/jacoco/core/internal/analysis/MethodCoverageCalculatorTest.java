@@ -15,9 +15,7 @@ package org.jacoco.core.internal.analysis;
 import static org.junit.Assert.assertEquals;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 
 import org.jacoco.core.analysis.ISourceNode;
 import org.junit.Before;
@@ -26,22 +24,23 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.LabelNode;
 
 /**
  * Unit tests for {@link MethodCoverageCalculator}.
  */
 public class MethodCoverageCalculatorTest {
 
-	private Map<AbstractInsnNode, Instruction> instructions;
+	private Instructions instructions;
 
-	// The purpose of this list is to link instruction nodes
+	// The purpose of this list is to link and index instruction nodes
 	private InsnList list;
 
 	private MethodCoverageImpl coverage;
 
 	@Before
 	public void setup() {
-		instructions = new HashMap<AbstractInsnNode, Instruction>();
+		instructions = new Instructions(4);
 		coverage = new MethodCoverageImpl("run", "()V", null);
 		list = new InsnList();
 	}
@@ -53,7 +52,8 @@ public class MethodCoverageCalculatorTest {
 		addInsn(2, false);
 		addInsn(3, false);
 
-		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions);
+		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions,
+				list);
 		c.calculate(coverage);
 
 		assertLine(1, 0, 1, 0, 0);
@@ -67,7 +67,8 @@ public class MethodCoverageCalculatorTest {
 		addInsn(2, false, false, true);
 		addInsn(3, false, true, true);
 
-		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions);
+		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions,
+				list);
 		c.calculate(coverage);
 
 		assertLine(1, 1, 0, 2, 0);
@@ -81,7 +82,8 @@ public class MethodCoverageCalculatorTest {
 		InsnNode i1 = addInsn(1, false);
 		addInsn(2, true);
 
-		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions);
+		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions,
+				list);
 		c.ignore(i1, i1);
 		c.calculate(coverage);
 
@@ -99,7 +101,8 @@ public class MethodCoverageCalculatorTest {
 		InsnNode i2 = addInsn(2, false);
 		addInsn(3, true);
 
-		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions);
+		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions,
+				list);
 		c.ignore(i1, i2);
 		c.calculate(coverage);
 
@@ -114,7 +117,8 @@ public class MethodCoverageCalculatorTest {
 		addInsn(2, false);
 		InsnNode i3 = addInsn(3, false);
 
-		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions);
+		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions,
+				list);
 		c.ignore(i1, i1);
 		c.ignore(i3, i3);
 		c.calculate(coverage);
@@ -130,7 +134,8 @@ public class MethodCoverageCalculatorTest {
 		InsnNode i2 = addInsn(2, true, false);
 		addInsn(3, true);
 
-		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions);
+		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions,
+				list);
 		c.merge(i1, i2);
 		c.calculate(coverage);
 
@@ -145,7 +150,8 @@ public class MethodCoverageCalculatorTest {
 		InsnNode i2 = addInsn(1, false, true, false);
 		InsnNode i3 = addInsn(1, false, false, true);
 
-		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions);
+		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions,
+				list);
 		c.merge(i1, i2);
 		c.merge(i2, i3);
 		c.calculate(coverage);
@@ -160,7 +166,8 @@ public class MethodCoverageCalculatorTest {
 		InsnNode i2 = addInsn(2, true, false);
 		addInsn(3, true);
 
-		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions);
+		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions,
+				list);
 		c.merge(i1, i2);
 		c.merge(i2, i1);
 		c.calculate(coverage);
@@ -177,7 +184,8 @@ public class MethodCoverageCalculatorTest {
 		InsnNode i3 = addInsn(2, true);
 		InsnNode i4 = addInsn(2, false);
 
-		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions);
+		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions,
+				list);
 		c.replaceBranches(i1,
 				new HashSet<AbstractInsnNode>(Arrays.asList(i2, i3, i4)));
 		c.calculate(coverage);
@@ -193,7 +201,8 @@ public class MethodCoverageCalculatorTest {
 		InsnNode i3 = addInsn(2, false);
 		InsnNode i4 = addInsn(2, false);
 
-		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions);
+		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions,
+				list);
 		c.merge(i4, i3);
 		c.merge(i3, i2);
 		c.replaceBranches(i1,
@@ -209,7 +218,8 @@ public class MethodCoverageCalculatorTest {
 		addInsn(ISourceNode.UNKNOWN_LINE, false);
 		addInsn(ISourceNode.UNKNOWN_LINE, true);
 
-		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions);
+		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions,
+				list);
 		c.calculate(coverage);
 
 		assertEquals(ISourceNode.UNKNOWN_LINE, coverage.getFirstLine());
@@ -218,6 +228,33 @@ public class MethodCoverageCalculatorTest {
 				coverage.getInstructionCounter());
 	}
 
+	@Test
+	public void should_ignore_nodes_which_are_not_instructions() {
+		addInsn(1, true);
+		LabelNode label = new LabelNode();
+		list.add(label);
+		InsnNode i1 = addInsn(2, false);
+
+		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions,
+				list);
+		c.ignore(label, i1);
+		c.calculate(coverage);
+
+		assertLine(1, 0, 1, 0, 0);
+		assertLine(2, 0, 0, 0, 0);
+	}
+
+	@Test
+	public void should_ignore_empty_range_of_method_without_instructions() {
+		MethodCoverageCalculator c = new MethodCoverageCalculator(instructions,
+				list);
+		c.ignore(list.getFirst(), list.getLast());
+		c.calculate(coverage);
+
+		assertEquals(CounterImpl.COUNTER_0_0,
+				coverage.getInstructionCounter());
+	}
+
 	private void assertLine(int idx, int mi, int ci, int mb, int cb) {
 		assertEquals("instructions", CounterImpl.getInstance(mi, ci),
 				coverage.getLine(idx).getInstructionCounter());
@@ -226,14 +263,13 @@ public class MethodCoverageCalculatorTest {
 	}
 
 	private InsnNode addInsn(int line, boolean... branches) {
-		Instruction i = new Instruction(line);
+		InsnNode node = new InsnNode(Opcodes.NOP);
+		list.add(node);
+		int i = instructions.add(node, line);
 		int idx = 0;
 		for (boolean covered : branches) {
-			i.addBranch(covered, idx++);
+			instructions.addBranch(i, covered, idx++);
 		}
-		InsnNode node = new InsnNode(Opcodes.NOP);
-		list.add(node);
-		instructions.put(node, i);
 		return node;
 	}
 
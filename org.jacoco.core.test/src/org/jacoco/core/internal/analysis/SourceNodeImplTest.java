@@ -89,6 +89,41 @@ public class SourceNodeImplTest {
 				node.getLine(12).getInstructionCounter());
 	}
 
+	@Test
+	public void testIncrementLinesLargeCounters() {
+		final SourceNodeImpl node = new SourceNodeImpl(ElementType.CLASS,
+				"Foo");
+		node.increment(CounterImpl.getInstance(1000, 0),
+				CounterImpl.getInstance(60, 0), 10);
+		node.increment(CounterImpl.getInstance(0, 2000),
+				CounterImpl.getInstance(0, 70), 10);
+		node.increment(CounterImpl.getInstance(5, 0),
+				CounterImpl.getInstance(1, 1), 10);
+		node.increment(CounterImpl.getInstance(0, 1), CounterImpl.COUNTER_0_0,
+				5);
+
+		assertEquals(CounterImpl.getInstance(1005, 2000),
+				node.getLine(10).getInstructionCounter());
+		assertEquals(CounterImpl.getInstance(61, 71),
+				node.getLine(10).getBranchCounter());
+		assertEquals(CounterImpl.getInstance(0, 1),
+				node.getLine(5).getInstructionCounter());
+		assertEquals(CounterImpl.getInstance(0, 2), node.getLineCounter());
+	}
+
+	@Test
+	public void testIncrementLinesMaxPackedCounters() {
+		final SourceNodeImpl node = new SourceNodeImpl(ElementType.CLASS,
+				"Foo");
+		node.increment(CounterImpl.getInstance(1022, 1022),
+				CounterImpl.getInstance(62, 62), 10);
+
+		assertEquals(CounterImpl.getInstance(1022, 1022),
+				node.getLine(10).getInstructionCounter());
+		assertEquals(CounterImpl.getInstance(62, 62),
+				node.getLine(10).getBranchCounter());
+	}
+
 	@Test
 	public void testIncrementLine1_1() {
 		testIncrementLine(0, 0, 0, 0, 0, 0);
@@ -223,4 +258,34 @@ public class SourceNodeImplTest {
 		assertEquals(CounterImpl.getInstance(0, 1), node.getLineCounter());
 	}
 
+	@Test
+	public void testIncrementChildWithLargeCounters() {
+		final SourceNodeImpl node = new SourceNodeImpl(ElementType.CLASS,
+				"Foo");
+		node.increment(CounterImpl.getInstance(3, 0), CounterImpl.COUNTER_0_0,
+				20);
+
+		final SourceNodeImpl child = new SourceNodeImpl(ElementType.CLASS,
+				"Foo");
+		child.increment(CounterImpl.getInstance(2000, 0),
+				CounterImpl.getInstance(100, 0), 5);
+		child.increment(CounterImpl.getInstance(0, 7),
+				CounterImpl.getInstance(1, 1), 20);
+
+		node.increment(child);
+		node.increment(child);
+
+		assertEquals(CounterImpl.getInstance(4000, 0),
+				node.getLine(5).getInstructionCounter());
+		assertEquals(CounterImpl.getInstance(200, 0),
+				node.getLine(5).getBranchCounter());
+		assertEquals(CounterImpl.getInstance(3, 14),
+				node.getLine(20).getInstructionCounter());
+		assertEquals(CounterImpl.getInstance(2, 2),
+				node.getLine(20).getBranchCounter());
+		assertEquals(CounterImpl.getInstance(1, 1), node.getLineCounter());
+		assertEquals(CounterImpl.getInstance(2000, 0),
+				child.getLine(5).getInstructionCounter());
+	}
+
 }
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Evgeny Mandrikov - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.analysis.filter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jacoco.core.internal.instr.InstrSupport;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.MethodNode;
+
+/**
+ * Unit tests for {@link Filters}.
+ */
+public class FiltersTest extends FilterTestBase {
+
+	private final List<String> invoked = new ArrayList<String>();
+
+	private MethodNode m;
+
+	@Before
+	public void setup() {
+		m = new MethodNode(InstrSupport.ASM_API_VERSION, 0, "m", "()V", null,
+				null);
+	}
+
+	@Test
+	public void none_should_not_filter() {
+		m.visitInsn(Opcodes.RETURN);
+
+		Filters.NONE.filter(m, context, output);
+
+		assertIgnored();
+	}
+
+	@Test
+	public void should_determine_characteristics() {
+		m.visitInsn(Opcodes.NOP);
+		assertEquals(Filters.ANY, Filters.characteristicsOf(m, context));
+
+		context.classAnnotations
+				.add(KotlinGeneratedFilter.KOTLIN_METADATA_DESC);
+		final Label start = new Label();
+		final Label end = new Label();
+		final Label handler = new Label();
+		m.visitTryCatchBlock(start, end, handler, null);
+		m.visitLabel(start);
+		m.visitFieldInsn(Opcodes.GETSTATIC, "Foo", "f", "I");
+		m.visitTableSwitchInsn(0, 0, end, end);
+		m.visitLabel(end);
+		m.visitInsn(Opcodes.ACONST_NULL);
+		m.visitJumpInsn(Opcodes.IFNONNULL, end);
+		m.visitLabel(handler);
+		m.visitInsn(Opcodes.MONITOREXIT);
+		m.visitInsn(Opcodes.ATHROW);
+
+		assertEquals(
+				Filters.KOTLIN | Filters.TRY_CATCH | Filters.SWITCH
+						| Filters.ATHROW | Filters.MONITOREXIT
+						| Filters.IFNONNULL | Filters.STATIC_FIELD,
+				Filters.characteristicsOf(m, context));
+	}
+
+	@Test
+	public void should_only_invoke_filters_with_matching_requirements() {
+		m.visitFieldInsn(Opcodes.PUTSTATIC, "Foo", "f", "I");
+		m.visitInsn(Opcodes.ATHROW);
+		final IFilter filters = new Filters(
+				new IFilter[] { new Recorder("any"), new Recorder("kotlin"),
+						new Recorder("throw"), new Recorder("switch"),
+						new Recorder("static+throw"),
+						new Recorder("static+switch") },
+				new int[] { Filters.ANY, Filters.KOTLIN, Filters.ATHROW,
+						Filters.SWITCH, Filters.STATIC_FIELD | Filters.ATHROW,
+						Filters.STATIC_FIELD | Filters.SWITCH });
+
+		filters.filter(m, context, output);
+
+		assertEquals(Arrays.asList("any", "throw", "static+throw"), invoked);
+	}
+
+	@Test
+	public void should_invoke_kotlin_filters_for_kotlin_classes() {
+		m.visitInsn(Opcodes.RETURN);
+		context.classAnnotations
+				.add(KotlinGeneratedFilter.KOTLIN_METADATA_DESC);
+		final IFilter filters = new Filters(
+				new IFilter[] { new Recorder("kotlin") },
+				new int[] { Filters.KOTLIN });
+
+		filters.filter(m, context, output);
+
+		assertEquals(Arrays.asList("kotlin"), invoked);
+	}
+
+	private class Recorder implements IFilter {
+
+		private final String name;
+
+		Recorder(final String name) {
+			this.name = name;
+		}
+
+		public void filter(final MethodNode methodNode,
+				final IFilterContext context, final IFilterOutput output) {
+			invoked.add(name);
+		}
+
+	}
+
+}
@@ -12,8 +12,11 @@
  *******************************************************************************/
 package org.jacoco.core.internal.data;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
@@ -106,6 +109,44 @@ public class CompactDataInputOutputTest {
 				true);
 	}
 
+	@Test
+	public void testPackedBoolean20() throws IOException {
+		testPackedBoolean(true, true, false, true, false, false, true, false,
+				true, false, false, true, true, true, false, false, false,
+				true, false, true);
+	}
+
+	@Test
+	public void testPackedBooleanFormat() throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final CompactDataOutput output = new CompactDataOutput(buffer);
+		output.writeBooleanArray(new boolean[] { true, false, false, false,
+				false, false, false, true, false, true, true });
+		assertArrayEquals(new byte[] { 11, (byte) 0x81, 0x06 },
+				buffer.toByteArray());
+	}
+
+	@Test
+	public void testPackedBooleanSequence() throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final CompactDataOutput output = new CompactDataOutput(buffer);
+		final boolean[] large = new boolean[1000];
+		for (int i = 0; i < large.length; i += 3) {
+			large[i] = true;
+		}
+		final boolean[] small = new boolean[] { false, true, true };
+		output.writeBooleanArray(large);
+		output.writeBooleanArray(small);
+		output.writeBooleanArray(large);
+
+		final CompactDataInput input = new CompactDataInput(
+				new ByteArrayInputStream(buffer.toByteArray()));
+		assertArrayEquals(large, input.readBooleanArray());
+		assertArrayEquals(small, input.readBooleanArray());
+		assertArrayEquals(large, input.readBooleanArray());
+		assertEquals(-1, input.read());
+	}
+
 	private void testPackedBoolean(boolean... values) throws IOException {
 		out.writeBooleanArray(values);
 		out.close();
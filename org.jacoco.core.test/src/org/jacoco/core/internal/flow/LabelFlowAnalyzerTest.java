@@ -144,6 +144,33 @@ public class LabelFlowAnalyzerTest {
 		assertFalse(LabelInfo.isSuccessor(label));
 	}
 
+	@Test
+	public void testImplicitTargetMethodEntry() {
+		analyzer.visitLabel(label);
+		final Label next = new Label();
+		analyzer.visitInsn(NOP);
+		analyzer.visitLabel(next);
+		assertTrue(LabelInfo.isImplicitTarget(label));
+		assertFalse(LabelInfo.isImplicitTarget(next));
+	}
+
+	@Test
+	public void testImplicitTargetHandler() {
+		final Label start = new Label();
+		analyzer.visitTryCatchBlock(start, new Label(), label,
+				"java/lang/Exception");
+		assertTrue(LabelInfo.isImplicitTarget(label));
+		assertFalse(LabelInfo.isImplicitTarget(start));
+	}
+
+	@Test
+	public void testNoImplicitTarget() {
+		analyzer.visitInsn(NOP);
+		analyzer.visitJumpInsn(IFEQ, label);
+		analyzer.visitLabel(label);
+		assertFalse(LabelInfo.isImplicitTarget(label));
+	}
+
 	@Test
 	public void testInsn() {
 		testInsn(NOP, true);
@@ -18,7 +18,6 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
-import org.jacoco.core.internal.analysis.Instruction;
 import org.junit.Before;
 import org.junit.Test;
 import org.objectweb.asm.Label;
@@ -41,9 +40,11 @@ public class LabelInfoTest {
 		assertFalse(LabelInfo.isSuccessor(label));
 		assertFalse(LabelInfo.isMethodInvocationLine(label));
 		assertFalse(LabelInfo.isDone(label));
+		assertFalse(LabelInfo.isImplicitTarget(label));
 		assertEquals(LabelInfo.NO_PROBE, LabelInfo.getProbeId(label));
 		assertNull(LabelInfo.getIntermediateLabel(label));
-		assertNull(LabelInfo.getInstruction(label));
+		assertEquals(LabelInfo.NO_INSTRUCTION,
+				LabelInfo.getInstruction(label));
 	}
 
 	@Test
@@ -146,6 +147,14 @@ public class LabelInfoTest {
 		assertFalse(LabelInfo.isDone(label));
 	}
 
+	@Test
+	public void testImplicitTarget() {
+		LabelInfo.setImplicitTarget(label);
+		assertTrue(LabelInfo.isImplicitTarget(label));
+		assertFalse(LabelInfo.isMultiTarget(label));
+		assertFalse(LabelInfo.isSuccessor(label));
+	}
+
 	@Test
 	public void testSetProbeId() {
 		LabelInfo.setProbeId(label, 123);
@@ -161,9 +170,69 @@ public class LabelInfoTest {
 
 	@Test
 	public void testSetInstruction() {
-		final Instruction instruction = new Instruction(123);
-		LabelInfo.setInstruction(label, instruction);
-		assertSame(instruction, LabelInfo.getInstruction(label));
+		LabelInfo.setInstruction(label, 123);
+		assertEquals(123, LabelInfo.getInstruction(label));
+	}
+
+	@Test
+	public void testScopeRecyclesInfos() {
+		final int scope1 = LabelInfo.beginMethod();
+		LabelInfo.setProbeId(label, 1);
+		final Object info = label.info;
+		LabelInfo.endMethod(scope1);
+
+		final int scope2 = LabelInfo.beginMethod();
+		final Label other = new Label();
+		LabelInfo.setSuccessor(other);
+
+		assertSame(info, other.info);
+		assertEquals(LabelInfo.NO_PROBE, LabelInfo.getProbeId(other));
+		assertTrue(LabelInfo.isSuccessor(other));
+		assertEquals(LabelInfo.NO_PROBE, LabelInfo.getProbeId(label));
+		assertFalse(LabelInfo.isSuccessor(label));
+		LabelInfo.endMethod(scope2);
+	}
+
+	@Test
+	public void testNestedScopes() {
+		final int scope1 = LabelInfo.beginMethod();
+		LabelInfo.setProbeId(label, 1);
+
+		final int scope2 = LabelInfo.beginMethod();
+		final Label nested = new Label();
+		LabelInfo.setProbeId(nested, 2);
+		LabelInfo.endMethod(scope2);
+
+		final Label other = new Label();
+		LabelInfo.setProbeId(other, 3);
+
+		assertEquals(1, LabelInfo.getProbeId(label));
+		assertEquals(3, LabelInfo.getProbeId(other));
+		LabelInfo.endMethod(scope1);
+	}
+
+	@Test
+	public void testScopeWithManyLabels() {
+		final int scope = LabelInfo.beginMethod();
+		final Label[] labels = new Label[LabelInfo.MAX_POOL_SIZE + 10];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = new Label();
+			LabelInfo.setProbeId(labels[i], i);
+		}
+		for (int i = 0; i < labels.length; i++) {
+			assertEquals(i, LabelInfo.getProbeId(labels[i]));
+		}
+		LabelInfo.endMethod(scope);
+	}
+
+	@Test
+	public void testNoScope() {
+		LabelInfo.setProbeId(label, 1);
+		final Label other = new Label();
+		LabelInfo.setProbeId(other, 2);
+
+		assertEquals(1, LabelInfo.getProbeId(label));
+		assertEquals(2, LabelInfo.getProbeId(other));
 	}
 
 }
@@ -57,12 +57,30 @@ public class MethodProbesAdapterTest implements IProbeIdGenerator {
 			rec("visitProbe", Integer.valueOf(probeId));
 		}
 
+		@Override
+		public void visitDerivedProbe(Label blockStart) {
+			rec("visitDerivedProbe", blockStart);
+		}
+
 		@Override
 		public void visitInsnWithProbe(int opcode, int probeId) {
 			rec("visitInsnWithProbe", Integer.valueOf(opcode),
 					Integer.valueOf(probeId));
 		}
 
+		@Override
+		public void visitInsnWithDerivedProbe(int opcode, Label blockStart) {
+			rec("visitInsnWithDerivedProbe", Integer.valueOf(opcode),
+					blockStart);
+		}
+
+		@Override
+		public void visitJumpInsnWithDerivedProbe(int opcode, Label label,
+				Label blockStart) {
+			rec("visitJumpInsnWithDerivedProbe", Integer.valueOf(opcode),
+					label, blockStart);
+		}
+
 		@Override
 		public void visitJumpInsnWithProbe(int opcode, Label label, int probeId,
 				IFrame frame) {
@@ -99,18 +117,22 @@ public class MethodProbesAdapterTest implements IProbeIdGenerator {
 		expected = new MethodRecorder();
 		expectedVisitor = new TraceAdapter(expected);
 		actual = new MethodRecorder();
+		createAdapter(false);
+		frame = new IFrame() {
+
+			public void accept(MethodVisitor mv) {
+			}
+		};
+	}
+
+	private void createAdapter(boolean reducedProbes) {
 		MethodProbesVisitor actualVisitor = new TraceAdapter(actual);
 		MethodProbesAdapter probesAdapter = new MethodProbesAdapter(
-				actualVisitor, this);
+				actualVisitor, this, reducedProbes);
 		final AnalyzerAdapter analyzer = new AnalyzerAdapter("Foo", 0, "doit",
 				"()V", probesAdapter);
 		probesAdapter.setAnalyzer(analyzer);
 		adapter = analyzer;
-		frame = new IFrame() {
-
-			public void accept(MethodVisitor mv) {
-			}
-		};
 	}
 
 	@After
@@ -449,6 +471,230 @@ public class MethodProbesAdapterTest implements IProbeIdGenerator {
 		expectedVisitor.visitLabel(after);
 	}
 
+	@Test
+	public void testReducedProbesFallThrough() {
+		createAdapter(true);
+		LabelInfo.setTarget(label);
+		LabelInfo.setTarget(label);
+		Label next = new Label();
+		LabelInfo.setTarget(next);
+		LabelInfo.setSuccessor(next);
+
+		adapter.visitLabel(label);
+		adapter.visitInsn(Opcodes.NOP);
+		adapter.visitLabel(next);
+
+		expectedVisitor.visitLabel(label);
+		expectedVisitor.visitInsn(Opcodes.NOP);
+		expectedVisitor.visitDerivedProbe(label);
+		expectedVisitor.visitLabel(next);
+	}
+
+	@Test
+	public void testReducedProbesExit() {
+		createAdapter(true);
+		LabelInfo.setTarget(label);
+		LabelInfo.setTarget(label);
+
+		adapter.visitLabel(label);
+		adapter.visitInsn(Opcodes.RETURN);
+
+		expectedVisitor.visitLabel(label);
+		expectedVisitor.visitInsnWithDerivedProbe(Opcodes.RETURN, label);
+	}
+
+	@Test
+	public void testReducedProbesGoto() {
+		createAdapter(true);
+		LabelInfo.setTarget(label);
+		LabelInfo.setTarget(label);
+		Label target = new Label();
+		LabelInfo.setTarget(target);
+		LabelInfo.setTarget(target);
+
+		adapter.visitLabel(label);
+		adapter.visitJumpInsn(Opcodes.GOTO, target);
+
+		expectedVisitor.visitLabel(label);
+		expectedVisitor.visitJumpInsnWithDerivedProbe(Opcodes.GOTO, target,
+				label);
+	}
+
+	@Test
+	public void testReducedProbesConditionalJump() {
+		createAdapter(true);
+		LabelInfo.setTarget(label);
+		LabelInfo.setTarget(label);
+		Label target = new Label();
+		LabelInfo.setTarget(target);
+		LabelInfo.setTarget(target);
+
+		adapter.visitLabel(label);
+		adapter.visitInsn(Opcodes.ICONST_0);
+		adapter.visitJumpInsn(Opcodes.IFEQ, target);
+		adapter.visitInsn(Opcodes.RETURN);
+
+		expectedVisitor.visitLabel(label);
+		expectedVisitor.visitInsn(Opcodes.ICONST_0);
+		expectedVisitor.visitJumpInsnWithProbe(Opcodes.IFEQ, target, 1000,
+				frame);
+		expectedVisitor.visitFrame(Opcodes.F_FULL, 1, new Object[] { "Foo" }, 0,
+				null);
+		// The fall through of the conditional jump can't be derived:
+		expectedVisitor.visitInsnWithProbe(Opcodes.RETURN, 1001);
+	}
+
+	@Test
+	public void testReducedProbesAfterInvocation() {
+		createAdapter(true);
+		LabelInfo.setTarget(label);
+		LabelInfo.setTarget(label);
+
+		adapter.visitLabel(label);
+		adapter.visitMethodInsn(Opcodes.INVOKESTATIC, "Foo", "doit", "()V",
+				false);
+		adapter.visitInsn(Opcodes.RETURN);
+
+		expectedVisitor.visitLabel(label);
+		expectedVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, "Foo", "doit",
+				"()V", false);
+		// The invocation may throw an exception before the exit:
+		expectedVisitor.visitInsnWithProbe(Opcodes.RETURN, 1000);
+	}
+
+	@Test
+	public void testReducedProbesAfterArrayAccess() {
+		createAdapter(true);
+		LabelInfo.setTarget(label);
+		LabelInfo.setTarget(label);
+
+		adapter.visitLabel(label);
+		adapter.visitInsn(Opcodes.IALOAD);
+		adapter.visitInsn(Opcodes.RETURN);
+
+		expectedVisitor.visitLabel(label);
+		expectedVisitor.visitInsn(Opcodes.IALOAD);
+		expectedVisitor.visitInsnWithProbe(Opcodes.RETURN, 1000);
+	}
+
+	@Test
+	public void testReducedProbesAthrow() {
+		createAdapter(true);
+		LabelInfo.setTarget(label);
+		LabelInfo.setTarget(label);
+
+		adapter.visitLabel(label);
+		adapter.visitInsn(Opcodes.ATHROW);
+
+		expectedVisitor.visitLabel(label);
+		expectedVisitor.visitInsnWithProbe(Opcodes.ATHROW, 1000);
+	}
+
+	@Test
+	public void testReducedProbesImplicitTarget() {
+		createAdapter(true);
+		LabelInfo.setTarget(label);
+		LabelInfo.setTarget(label);
+		LabelInfo.setImplicitTarget(label);
+
+		adapter.visitLabel(label);
+		adapter.visitInsn(Opcodes.RETURN);
+
+		expectedVisitor.visitLabel(label);
+		expectedVisitor.visitInsnWithProbe(Opcodes.RETURN, 1000);
+	}
+
+	@Test
+	public void testReducedProbesTryCatchStart() {
+		createAdapter(true);
+		Label end = new Label();
+		Label handler = new Label();
+		LabelInfo.setTarget(label);
+		LabelInfo.setTarget(label);
+		LabelInfo.setImplicitTarget(handler);
+
+		adapter.visitTryCatchBlock(label, end, handler, null);
+		adapter.visitLabel(label);
+		adapter.visitInsn(Opcodes.RETURN);
+		adapter.visitLabel(end);
+
+		expectedVisitor.visitTryCatchBlock(label, end, handler, null);
+		expectedVisitor.visitLabel(label);
+		// A throwing try block does not execute the exit:
+		expectedVisitor.visitInsnWithProbe(Opcodes.RETURN, 1000);
+		expectedVisitor.visitLabel(end);
+	}
+
+	@Test
+	public void testReducedProbesWithinTryCatchRange() {
+		createAdapter(true);
+		Label start = new Label();
+		Label end = new Label();
+		Label handler = new Label();
+		LabelInfo.setTarget(label);
+		LabelInfo.setTarget(label);
+		LabelInfo.setImplicitTarget(handler);
+		Label after = new Label();
+		LabelInfo.setTarget(after);
+		LabelInfo.setTarget(after);
+
+		adapter.visitTryCatchBlock(start, end, handler, null);
+		adapter.visitLabel(start);
+		adapter.visitInsn(Opcodes.NOP);
+		adapter.visitLabel(label);
+		adapter.visitInsn(Opcodes.RETURN);
+		adapter.visitLabel(end);
+		adapter.visitLabel(after);
+		adapter.visitInsn(Opcodes.RETURN);
+
+		expectedVisitor.visitTryCatchBlock(start, end, handler, null);
+		expectedVisitor.visitLabel(start);
+		expectedVisitor.visitInsn(Opcodes.NOP);
+		expectedVisitor.visitLabel(label);
+		expectedVisitor.visitInsnWithProbe(Opcodes.RETURN, 1000);
+		expectedVisitor.visitLabel(end);
+		expectedVisitor.visitLabel(after);
+		// Blocks after the try/catch range can be derived again:
+		expectedVisitor.visitInsnWithDerivedProbe(Opcodes.RETURN, after);
+	}
+
+	@Test
+	public void testReducedProbesWithoutBlockStart() {
+		createAdapter(true);
+
+		adapter.visitInsn(Opcodes.RETURN);
+
+		expectedVisitor.visitInsnWithProbe(Opcodes.RETURN, 1000);
+	}
+
+	@Test
+	public void testReducedProbesIgnoreUnknownLabels() {
+		createAdapter(true);
+		LabelInfo.setTarget(label);
+		LabelInfo.setTarget(label);
+		Label unknown = new Label();
+
+		adapter.visitLabel(label);
+		adapter.visitLabel(unknown);
+		adapter.visitInsn(Opcodes.RETURN);
+
+		expectedVisitor.visitLabel(label);
+		expectedVisitor.visitLabel(unknown);
+		expectedVisitor.visitInsnWithDerivedProbe(Opcodes.RETURN, label);
+	}
+
+	@Test
+	public void testNoReducedProbes() {
+		LabelInfo.setTarget(label);
+		LabelInfo.setTarget(label);
+
+		adapter.visitLabel(label);
+		adapter.visitInsn(Opcodes.RETURN);
+
+		expectedVisitor.visitLabel(label);
+		expectedVisitor.visitInsnWithProbe(Opcodes.RETURN, 1000);
+	}
+
 	// === IProbeIdGenerator ===
 
 	public int nextId() {
@@ -20,6 +20,7 @@ import org.junit.Test;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.commons.JSRInlinerAdapter;
 import org.objectweb.asm.tree.MethodNode;
 
 /**
@@ -139,6 +140,46 @@ public class MethodSanitizerTest {
 		assertOutput();
 	}
 
+	@Test
+	public void testSubroutineInlined() {
+		emitSubroutine(sanitizer);
+
+		emitSubroutine(new JSRInlinerAdapter(expected, 0, "test", "()V", null,
+				null));
+
+		assertOutput();
+	}
+
+	@Test
+	public void testSubroutineInlinedMethodNode() {
+		final MethodNode[] result = new MethodNode[1];
+		final MethodSanitizer inlining = new MethodSanitizer(null, 0, "test",
+				"()V", null, null) {
+			@Override
+			void visitSanitized(final MethodNode method) {
+				result[0] = method;
+			}
+		};
+		emitSubroutine(inlining);
+
+		emitSubroutine(new JSRInlinerAdapter(expected, 0, "test", "()V", null,
+				null));
+
+		assertEquals(dump(expected), dump(result[0]));
+	}
+
+	private void emitSubroutine(final MethodVisitor mv) {
+		final Label sub = new Label();
+		mv.visitCode();
+		mv.visitJumpInsn(Opcodes.JSR, sub);
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitLabel(sub);
+		mv.visitVarInsn(Opcodes.ASTORE, 0);
+		mv.visitVarInsn(Opcodes.RET, 0);
+		mv.visitMaxs(1, 1);
+		mv.visitEnd();
+	}
+
 	private void assertOutput() {
 		assertEquals(dump(expected), dump(actual));
 	}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.instr;
+
+import static org.junit.Assert.assertEquals;
+
+import org.jacoco.core.instr.MethodRecorder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Unit tests for {@link HitMethodProbeInserter}.
+ */
+public class HitMethodProbeInserterTest {
+
+	private MethodRecorder actual, expected;
+
+	private MethodVisitor actualVisitor, expectedVisitor;
+
+	@Before
+	public void setup() {
+		actual = new MethodRecorder();
+		actualVisitor = actual.getVisitor();
+		expected = new MethodRecorder();
+		expectedVisitor = expected.getVisitor();
+	}
+
+	@After
+	public void verify() {
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void insertProbe_should_call_hit_method_of_class() {
+		HitMethodProbeInserter pi = new HitMethodProbeInserter(actualVisitor,
+				"Foo", false);
+		pi.insertProbe(0);
+
+		expectedVisitor.visitInsn(Opcodes.ICONST_0);
+		expectedVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, "Foo",
+				InstrSupport.HITMETHOD_NAME, InstrSupport.HITMETHOD_DESC,
+				false);
+	}
+
+	@Test
+	public void insertProbe_should_call_hit_method_of_interface() {
+		HitMethodProbeInserter pi = new HitMethodProbeInserter(actualVisitor,
+				"Foo", true);
+		pi.insertProbe(1000);
+
+		expectedVisitor.visitIntInsn(Opcodes.SIPUSH, 1000);
+		expectedVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, "Foo",
+				InstrSupport.HITMETHOD_NAME, InstrSupport.HITMETHOD_DESC, true);
+	}
+
+	@Test
+	public void should_not_remap_variables() {
+		HitMethodProbeInserter pi = new HitMethodProbeInserter(actualVisitor,
+				"Foo", false);
+		pi.visitCode();
+		pi.visitVarInsn(Opcodes.ALOAD, 0);
+		pi.visitIincInsn(1, 1);
+
+		expectedVisitor.visitCode();
+		expectedVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+		expectedVisitor.visitIincInsn(1, 1);
+	}
+
+	@Test
+	public void new_stack_size_should_be_increased_for_probes() {
+		HitMethodProbeInserter pi = new HitMethodProbeInserter(actualVisitor,
+				"Foo", false);
+		pi.visitMaxs(10, 8);
+
+		expectedVisitor.visitMaxs(11, 8);
+	}
+
+}
@@ -164,6 +164,18 @@ public class InstrSupportTest {
 		}
 	}
 
+	@Test
+	public void assertNotIntrumented_should_throw_exception_when_jacoco_hit_method_is_present() {
+		try {
+			InstrSupport.assertNotInstrumented("$jacocoHit", "Foo");
+			fail("exception expected");
+		} catch (IllegalStateException e) {
+			assertEquals(
+					"Cannot process instrumented class Foo. Please supply original non-instrumented classes.",
+					e.getMessage());
+		}
+	}
+
 	@Test
 	public void testPushIntM2147483648() {
 		InstrSupport.push(trace, -2147483648);
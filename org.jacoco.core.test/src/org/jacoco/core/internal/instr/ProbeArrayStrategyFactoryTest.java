@@ -212,6 +212,28 @@ public class ProbeArrayStrategyFactoryTest {
 				true, 0);
 	}
 
+	@Test
+	public void testCompactClass8() {
+		final IProbeArrayStrategy strategy = test(Opcodes.V1_8, 0, false, true,
+				true, true);
+		assertEquals(HitMethodProbeArrayStrategy.class, strategy.getClass());
+		assertDataField(InstrSupport.DATAFIELD_ACC);
+		assertEquals(2, cv.methods.size());
+		cv.methods.get(0).assertInitMethod(InstrSupport.INITMETHOD_DESC, true);
+		cv.methods.get(1).assertHitMethod();
+	}
+
+	@Test
+	public void testCompactInterface8() {
+		cv.isInterface = true;
+		final IProbeArrayStrategy strategy = test(Opcodes.V1_8,
+				Opcodes.ACC_INTERFACE, false, true, true, true);
+		assertEquals(InterfaceFieldProbeArrayStrategy.class,
+				strategy.getClass());
+		assertDataField(InstrSupport.DATAFIELD_INTF_ACC);
+		assertInitAndClinitMethods();
+	}
+
 	@Test
 	public void test_java9_module() {
 		final IProbeArrayStrategy strategy = createForModule(Opcodes.V9);
@@ -258,6 +280,27 @@ public class ProbeArrayStrategyFactoryTest {
 		assertNoInitMethod();
 	}
 
+	@Test
+	public void test_java11_interface_with_compact_probes() {
+		final IProbeArrayStrategy strategy = test(Opcodes.V11,
+				Opcodes.ACC_INTERFACE, true, true, true, true);
+
+		assertEquals(HitMethodProbeArrayStrategy.class, strategy.getClass());
+		assertNoDataField();
+		assertEquals(2, cv.methods.size());
+		cv.methods.get(0).assertInitMethod(CondyProbeArrayStrategy.B_DESC,
+				false);
+		cv.methods.get(1).assertHitMethod();
+	}
+
+	@Test
+	public void test_java11_interface_with_clinit_and_compact_probes() {
+		final IProbeArrayStrategy strategy = test(Opcodes.V11,
+				Opcodes.ACC_INTERFACE, true, false, true, true);
+
+		assertEquals(LocalProbeArrayStrategy.class, strategy.getClass());
+	}
+
 	@Test
 	public void test_java11_module() {
 		final IProbeArrayStrategy strategy = createForModule(Opcodes.V11);
@@ -276,6 +319,11 @@ public class ProbeArrayStrategyFactoryTest {
 
 	private IProbeArrayStrategy test(int version, int access, boolean clinit,
 			boolean method, boolean abstractMethod) {
+		return test(version, access, clinit, method, abstractMethod, false);
+	}
+
+	private IProbeArrayStrategy test(int version, int access, boolean clinit,
+			boolean method, boolean abstractMethod, boolean compactProbes) {
 		final ClassWriter writer = new ClassWriter(0);
 		writer.visit(version, access, "Foo", "java/lang/Object", null, null);
 		if (clinit) {
@@ -304,7 +352,8 @@ public class ProbeArrayStrategyFactoryTest {
 		writer.visitEnd();
 
 		final IProbeArrayStrategy strategy = ProbeArrayStrategyFactory
-				.createFor(0, new ClassReader(writer.toByteArray()), generator);
+				.createFor(0, new ClassReader(writer.toByteArray()), generator,
+						false, compactProbes);
 
 		strategy.addMembers(cv, 123);
 		return strategy;
@@ -329,6 +378,13 @@ public class ProbeArrayStrategyFactoryTest {
 			assertEquals(Boolean.valueOf(frames), Boolean.valueOf(frames));
 		}
 
+		void assertHitMethod() {
+			assertEquals(InstrSupport.HITMETHOD_NAME, name);
+			assertEquals(InstrSupport.HITMETHOD_DESC, desc);
+			assertEquals(InstrSupport.INITMETHOD_ACC, access);
+			assertEquals(Boolean.valueOf(false), Boolean.valueOf(frames));
+		}
+
 		void assertClinit() {
 			assertEquals(InstrSupport.CLINIT_NAME, name);
 			assertEquals(InstrSupport.CLINIT_DESC, desc);
@@ -53,6 +53,10 @@ public class AgentOptionsTest {
 		assertEquals(AgentOptions.DEFAULT_PORT, options.getPort());
 		assertNull(options.getClassDumpDir());
 		assertFalse(options.getJmx());
+		assertFalse(options.getReduceProbes());
+		assertFalse(options.getCompactProbes());
+		assertEquals(0, options.getInstrCacheSize());
+		assertFalse(options.getPreInstrument());
 
 		assertEquals("", options.toString());
 	}
@@ -401,6 +405,79 @@ public class AgentOptionsTest {
 		assertTrue(options.getJmx());
 	}
 
+	@Test
+	public void testGetReduceProbes() {
+		AgentOptions options = new AgentOptions("reduceprobes=true");
+		assertTrue(options.getReduceProbes());
+	}
+
+	@Test
+	public void testSetReduceProbes() {
+		AgentOptions options = new AgentOptions();
+		options.setReduceProbes(true);
+		assertTrue(options.getReduceProbes());
+		assertEquals("reduceprobes=true", options.toString());
+	}
+
+	@Test
+	public void testGetCompactProbes() {
+		AgentOptions options = new AgentOptions("compactprobes=true");
+		assertTrue(options.getCompactProbes());
+	}
+
+	@Test
+	public void testSetCompactProbes() {
+		AgentOptions options = new AgentOptions();
+		options.setCompactProbes(true);
+		assertTrue(options.getCompactProbes());
+		assertEquals("compactprobes=true", options.toString());
+	}
+
+	@Test
+	public void testGetInstrCacheSize() {
+		AgentOptions options = new AgentOptions("instrcachesize=1048576");
+		assertEquals(1048576, options.getInstrCacheSize());
+	}
+
+	@Test
+	public void testSetInstrCacheSize() {
+		AgentOptions options = new AgentOptions();
+		options.setInstrCacheSize(4096);
+		assertEquals(4096, options.getInstrCacheSize());
+		assertEquals("instrcachesize=4096", options.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetNegativeInstrCacheSize() {
+		AgentOptions options = new AgentOptions();
+		options.setInstrCacheSize(-1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidInstrCacheSizeOptionValue() {
+		new AgentOptions("instrcachesize=-1");
+	}
+
+	@Test
+	public void testGetPreInstrument() {
+		AgentOptions options = new AgentOptions(
+				"preinstrument=true,instrcachesize=4096");
+		assertTrue(options.getPreInstrument());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPreInstrumentWithoutInstrCacheSize() {
+		new AgentOptions("preinstrument=true");
+	}
+
+	@Test
+	public void testSetPreInstrument() {
+		AgentOptions options = new AgentOptions();
+		options.setPreInstrument(true);
+		assertTrue(options.getPreInstrument());
+		assertEquals("preinstrument=true", options.toString());
+	}
+
 	@Test
 	public void testGetVMArgumentWithNoOptions() {
 		AgentOptions options = new AgentOptions();
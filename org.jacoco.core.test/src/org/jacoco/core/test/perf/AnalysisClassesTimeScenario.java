@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.test.perf;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.data.ExecutionDataStore;
+
+/**
+ * Scenario to measure the time taken to analyze all classes of a code base,
+ * here the JaCoCo core classes themselves.
+ */
+public class AnalysisClassesTimeScenario extends TimedScenario {
+
+	private final File location;
+
+	protected AnalysisClassesTimeScenario(final Class<?> member) {
+		super(String.format("analysing classes of %s",
+				member.getPackage().getName()));
+		this.location = new File(member.getProtectionDomain().getCodeSource()
+				.getLocation().getPath());
+	}
+
+	@Override
+	protected Callable<Void> getInstrumentedCallable() throws Exception {
+		final ExecutionDataStore executionData = new ExecutionDataStore();
+		final ICoverageVisitor visitor = new ICoverageVisitor() {
+			public void visitCoverage(IClassCoverage coverage) {
+			}
+		};
+		return new Callable<Void>() {
+			public Void call() throws Exception {
+				new Analyzer(executionData, visitor).analyzeAll(location);
+				return null;
+			}
+		};
+	}
+}
@@ -28,10 +28,18 @@ public class ExecuteInstrumentedCodeScenario extends TimedScenario {
 
 	private final Class<? extends Callable<Void>> target;
 
+	private final boolean compactProbes;
+
 	protected ExecuteInstrumentedCodeScenario(String description,
 			Class<? extends Callable<Void>> target) {
+		this(description, target, false);
+	}
+
+	protected ExecuteInstrumentedCodeScenario(String description,
+			Class<? extends Callable<Void>> target, boolean compactProbes) {
 		super(description);
 		this.target = target;
+		this.compactProbes = compactProbes;
 	}
 
 	@Override
@@ -40,6 +48,7 @@ public class ExecuteInstrumentedCodeScenario extends TimedScenario {
 		IRuntime runtime = new LoggerRuntime();
 		runtime.startup(new RuntimeData());
 		final Instrumenter instr = new Instrumenter(runtime);
+		instr.setCompactProbes(compactProbes);
 		final byte[] original = TargetLoader.getClassDataAsBytes(target);
 		final byte[] instrumentedBuffer = instr.instrument(original, "");
 		final TargetLoader loader = new TargetLoader();
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.test.perf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataReader;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.IExecutionDataVisitor;
+
+/**
+ * Scenario to measure the time taken to read execution data files with a large
+ * number of probes.
+ */
+public class ExecutionDataReadTimeScenario extends TimedScenario {
+
+	private final int classCount;
+
+	private final int probeCount;
+
+	protected ExecutionDataReadTimeScenario(final int classCount,
+			final int probeCount) {
+		super(String.format("reading execution data of %s classes",
+				Integer.valueOf(classCount)));
+		this.classCount = classCount;
+		this.probeCount = probeCount;
+	}
+
+	@Override
+	protected Callable<Void> getInstrumentedCallable() throws Exception {
+		final Random random = new Random(5);
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final ExecutionDataWriter writer = new ExecutionDataWriter(buffer);
+		for (int i = 0; i < classCount; i++) {
+			final boolean[] probes = new boolean[probeCount];
+			for (int j = 0; j < probeCount; j++) {
+				probes[j] = random.nextBoolean();
+			}
+			writer.visitClassExecution(
+					new ExecutionData(i, "Class" + i, probes));
+		}
+		final byte[] bytes = buffer.toByteArray();
+		return new Callable<Void>() {
+			public Void call() throws Exception {
+				final ExecutionDataReader reader = new ExecutionDataReader(
+						new ByteArrayInputStream(bytes));
+				reader.setExecutionDataVisitor(new IExecutionDataVisitor() {
+					public void visitClassExecution(final ExecutionData data) {
+					}
+				});
+				reader.read();
+				return null;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.test.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.runtime.LoggerRuntime;
+import org.jacoco.core.test.TargetLoader;
+import org.objectweb.asm.ClassReader;
+
+/**
+ * Scenario to estimate how instrumentation affects inlining by the HotSpot JIT
+ * compiler. HotSpot only inlines methods whose bytecode does not exceed
+ * <code>MaxInlineSize</code> (35 bytes) or, for frequently called methods,
+ * <code>FreqInlineSize</code> (325 bytes on most platforms). The scenario
+ * reports how many methods of the target class stay within these limits after
+ * instrumentation. Actual inlining decisions can be observed by running
+ * {@link ExecuteInstrumentedCodeScenario} with
+ * <code>-XX:+UnlockDiagnosticVMOptions -XX:+PrintInlining</code>.
+ */
+public class InliningSizeScenario implements IPerfScenario {
+
+	/** Default value of the HotSpot option <code>MaxInlineSize</code>. */
+	static final int MAX_INLINE_SIZE = 35;
+
+	/** Default value of the HotSpot option <code>FreqInlineSize</code>. */
+	static final int FREQ_INLINE_SIZE = 325;
+
+	private final Class<?> target;
+
+	private final boolean compactProbes;
+
+	public InliningSizeScenario(Class<?> target, boolean compactProbes) {
+		this.target = target;
+		this.compactProbes = compactProbes;
+	}
+
+	public void run(IPerfOutput output) throws Exception {
+		final Instrumenter instr = new Instrumenter(new LoggerRuntime());
+		instr.setCompactProbes(compactProbes);
+		final byte[] original = TargetLoader.getClassDataAsBytes(target);
+		final byte[] instrumented = instr.instrument(original, "");
+		final List<Integer> originalSizes = getCodeSizes(original);
+		final List<Integer> instrumentedSizes = getCodeSizes(instrumented);
+		final String suffix = compactProbes ? " (compact)" : "";
+		output.writeCountResult("methods <= 35 bytes" + suffix,
+				count(instrumentedSizes, MAX_INLINE_SIZE),
+				count(originalSizes, MAX_INLINE_SIZE));
+		output.writeCountResult("methods <= 325 bytes" + suffix,
+				count(instrumentedSizes, FREQ_INLINE_SIZE),
+				count(originalSizes, FREQ_INLINE_SIZE));
+	}
+
+	private static long count(final List<Integer> sizes, final int limit) {
+		long count = 0;
+		for (final Integer size : sizes) {
+			if (size.intValue() <= limit) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Reads the bytecode size of all methods with code from the given class
+	 * file. Members added by the instrumentation are ignored.
+	 */
+	private static List<Integer> getCodeSizes(final byte[] classfile) {
+		final ClassReader reader = new ClassReader(classfile);
+		final char[] buffer = new char[reader.getMaxStringLength()];
+		final List<Integer> sizes = new ArrayList<Integer>();
+
+		// access flags, this class, super class
+		int offset = reader.header + 6;
+		offset += 2 + 2 * reader.readUnsignedShort(offset);
+
+		// fields
+		int count = reader.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < count; i++) {
+			offset = skipAttributes(reader, offset + 6);
+		}
+
+		// methods
+		count = reader.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < count; i++) {
+			final String name = reader.readUTF8(offset + 2, buffer);
+			offset += 6;
+			final int attributes = reader.readUnsignedShort(offset);
+			offset += 2;
+			for (int j = 0; j < attributes; j++) {
+				if (!name.startsWith("$jacoco")
+						&& "Code".equals(reader.readUTF8(offset, buffer))) {
+					// max stack and max locals precede the code length
+					sizes.add(Integer.valueOf(reader.readInt(offset + 10)));
+				}
+				offset += 6 + reader.readInt(offset + 2);
+			}
+		}
+		return sizes;
+	}
+
+	private static int skipAttributes(final ClassReader reader, int offset) {
+		final int count = reader.readUnsignedShort(offset);
+		offset += 2;
+		for (int i = 0; i < count; i++) {
+			offset += 6 + reader.readInt(offset + 2);
+		}
+		return offset;
+	}
+
+}
@@ -25,17 +25,28 @@ public class InstrumentationSizeSzenario implements IPerfScenario {
 
 	private final Class<?> target;
 
+	private final boolean compactProbes;
+
 	public InstrumentationSizeSzenario(Class<?> target) {
+		this(target, false);
+	}
+
+	public InstrumentationSizeSzenario(Class<?> target,
+			boolean compactProbes) {
 		this.target = target;
+		this.compactProbes = compactProbes;
 	}
 
 	public void run(IPerfOutput output) throws Exception {
 		final IRuntime runtime = new LoggerRuntime();
 		final Instrumenter instr = new Instrumenter(runtime);
+		instr.setCompactProbes(compactProbes);
 		final byte[] original = TargetLoader.getClassDataAsBytes(target);
 		final byte[] instrumented = instr.instrument(original, "");
-		output.writeByteResult("instrumented class", instrumented.length,
-				original.length);
+		output.writeByteResult(
+				compactProbes ? "instrumented class (compact)"
+						: "instrumented class",
+				instrumented.length, original.length);
 	}
 
 }
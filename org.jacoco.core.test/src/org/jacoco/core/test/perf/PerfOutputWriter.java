@@ -65,6 +65,15 @@ public class PerfOutputWriter implements IPerfOutput {
 		}
 	}
 
+	public void writeCountResult(final String description, final long count,
+			final long reference) {
+		if (reference == NO_REFERENCE || reference == 0) {
+			writeResult(description, count, "%.0f", "");
+		} else {
+			writeResult(description, count, reference, "%.0f", "");
+		}
+	}
+
 	private void writeResult(final String description, final double subject,
 			String fmt, String unit) {
 		writer.printf("%-30s%8s         %-6s%n", description,
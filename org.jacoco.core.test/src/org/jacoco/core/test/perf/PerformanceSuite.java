@@ -14,6 +14,7 @@ package org.jacoco.core.test.perf;
 
 import java.io.PrintWriter;
 
+import org.jacoco.core.analysis.Analyzer;
 import org.jacoco.core.test.perf.targets.Target01;
 import org.jacoco.core.test.perf.targets.Target02;
 import org.jacoco.core.test.perf.targets.Target03;
@@ -26,13 +27,20 @@ public class PerformanceSuite implements IPerfScenario {
 	public void run(IPerfOutput output) throws Exception {
 		new ExecuteInstrumentedCodeScenario("plain method calls",
 				Target01.class).run(output);
+		new ExecuteInstrumentedCodeScenario("plain method calls (compact)",
+				Target01.class, true).run(output);
 		new ExecuteInstrumentedCodeScenario("loop only", Target02.class)
 				.run(output);
 		new ExecuteInstrumentedCodeScenario("game of life", Target03.class)
 				.run(output);
 		new InstrumentationSizeSzenario(Target03.class).run(output);
+		new InstrumentationSizeSzenario(Target03.class, true).run(output);
+		new InliningSizeScenario(Target01.class, false).run(output);
+		new InliningSizeScenario(Target01.class, true).run(output);
 		new InstrumentationTimeScenario(Target03.class, 1000).run(output);
 		new AnalysisTimeScenario(Target03.class, 1000).run(output);
+		new AnalysisClassesTimeScenario(Analyzer.class).run(output);
+		new ExecutionDataReadTimeScenario(10000, 1000).run(output);
 	}
 
 	public static void main(String[] args) throws Exception {
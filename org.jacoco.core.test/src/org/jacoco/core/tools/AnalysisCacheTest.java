@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.test.TargetLoader;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link AnalysisCache}.
+ */
+public class AnalysisCacheTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private File file;
+
+	private File classes;
+
+	private ExecutionDataStore executionData;
+
+	@Before
+	public void setup() throws IOException {
+		file = new File(folder.getRoot(), "analysis.cache");
+		classes = new File(folder.getRoot(), "classes");
+		createClassfile(AnalysisCache.class);
+		createClassfile(AnalysisCacheTest.class);
+		executionData = new ExecutionDataStore();
+		executionData.put(new ExecutionData(0x12345, "Sample", new boolean[] {
+				true, false }));
+	}
+
+	@Test
+	public void load_should_return_false_when_file_does_not_exist()
+			throws IOException {
+		final CoverageBuilder builder = new CoverageBuilder();
+
+		assertFalse(createCache().load(builder));
+		assertTrue(builder.getClasses().isEmpty());
+	}
+
+	@Test
+	public void load_should_emit_stored_classes() throws IOException {
+		final CoverageBuilder expected = analyze();
+		createCache().store(expected.getClasses());
+
+		final CoverageBuilder actual = new CoverageBuilder();
+		assertTrue(createCache().load(actual));
+
+		assertEquals(names(expected), names(actual));
+		assertBundle(expected.getBundle("bundle"),
+				actual.getBundle("bundle"));
+	}
+
+	@Test
+	public void load_should_return_false_when_execution_data_changed()
+			throws IOException {
+		createCache().store(analyze().getClasses());
+		executionData.get(0x12345).getProbes()[1] = true;
+
+		assertFalse(createCache().load(new CoverageBuilder()));
+	}
+
+	@Test
+	public void load_should_return_false_when_class_file_changed()
+			throws IOException {
+		createCache().store(analyze().getClasses());
+		final File classfile = new File(classes,
+				"org/jacoco/core/tools/AnalysisCache.class");
+		classfile.setLastModified(classfile.lastModified() - 2000);
+
+		assertFalse(createCache().load(new CoverageBuilder()));
+	}
+
+	@Test
+	public void load_should_return_false_when_option_changed()
+			throws IOException {
+		createCache().store(analyze().getClasses());
+
+		final AnalysisCache cache = createCache();
+		cache.addOption("other");
+		assertFalse(cache.load(new CoverageBuilder()));
+	}
+
+	@Test
+	public void load_should_return_false_when_file_is_incomplete()
+			throws IOException {
+		createCache().store(analyze().getClasses());
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.setLength(raf.length() / 2);
+		raf.close();
+
+		final CoverageBuilder builder = new CoverageBuilder();
+		assertFalse(createCache().load(builder));
+		assertTrue(builder.getClasses().isEmpty());
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void load_should_return_false_and_delete_file_when_content_is_corrupt()
+			throws IOException {
+		createCache().store(analyze().getClasses());
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		// Keep header and key, one class with a negative interface count
+		raf.seek(20);
+		raf.write(new byte[] { 0x01, 0x00, 0x01, 'A', 0, 0, 0, 0, 0, 0, 0,
+				0, 0x00, 0x00, 0x00, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+				(byte) 0xFF, 0x0F });
+		raf.setLength(raf.getFilePointer());
+		raf.close();
+
+		final CoverageBuilder builder = new CoverageBuilder();
+		assertFalse(createCache().load(builder));
+		assertTrue(builder.getClasses().isEmpty());
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void load_should_return_false_for_other_file_format()
+			throws IOException {
+		final FileOutputStream out = new FileOutputStream(file);
+		out.write("Invalid Content".getBytes());
+		out.close();
+
+		assertFalse(createCache().load(new CoverageBuilder()));
+	}
+
+	@Test
+	public void store_should_replace_existing_file() throws IOException {
+		createCache().store(analyze().getClasses());
+		final AnalysisCache cache = createCache();
+		cache.addOption("other");
+		cache.store(Collections.<IClassCoverage> emptyList());
+
+		final CoverageBuilder builder = new CoverageBuilder();
+		final AnalysisCache other = createCache();
+		other.addOption("other");
+		assertTrue(other.load(builder));
+		assertTrue(builder.getClasses().isEmpty());
+		final String[] files = folder.getRoot().list();
+		Arrays.sort(files);
+		assertEquals(Arrays.asList("analysis.cache", "classes"),
+				Arrays.asList(files));
+	}
+
+	private AnalysisCache createCache() {
+		final AnalysisCache cache = new AnalysisCache(file);
+		cache.addExecutionData(executionData);
+		cache.addClassFiles(classes);
+		return cache;
+	}
+
+	private CoverageBuilder analyze() throws IOException {
+		final CoverageBuilder builder = new CoverageBuilder();
+		new Analyzer(executionData, builder).analyzeAll(classes);
+		return builder;
+	}
+
+	private void createClassfile(final Class<?> source) throws IOException {
+		final File f = new File(classes,
+				source.getName().replace('.', '/') + ".class");
+		f.getParentFile().mkdirs();
+		final FileOutputStream out = new FileOutputStream(f);
+		out.write(TargetLoader.getClassDataAsBytes(source));
+		out.close();
+	}
+
+	private static List<String> names(final CoverageBuilder builder) {
+		final List<String> names = new ArrayList<String>();
+		for (final IClassCoverage c : builder.getClasses()) {
+			names.add(c.getName());
+		}
+		Collections.sort(names);
+		return names;
+	}
+
+	private static void assertBundle(final IBundleCoverage expected,
+			final IBundleCoverage actual) {
+		for (final ICoverageNode.CounterEntity entity : ICoverageNode.CounterEntity
+				.values()) {
+			assertEquals(entity.name(), expected.getCounter(entity),
+					actual.getCounter(entity));
+		}
+		assertEquals(expected.getPackages().size(),
+				actual.getPackages().size());
+	}
+
+}
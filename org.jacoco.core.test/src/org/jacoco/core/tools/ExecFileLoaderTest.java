@@ -114,6 +114,33 @@ public class ExecFileLoaderTest {
 		assertFileContents(file, "a");
 	}
 
+	@Test
+	public void testSaveIndexedAndLoadFile() throws IOException {
+		final File file = new File(sourceFolder.getRoot(), "a/indexed.exec");
+
+		loader.load(createFile("a"));
+		loader.load(createFile("bb"));
+		loader.saveIndexed(file);
+
+		loader = new ExecFileLoader();
+		loader.load(file);
+		assertLoaderContents("a", "bb");
+	}
+
+	@Test
+	public void testSaveIndexedAndLoadInputStream() throws IOException {
+		final File file = new File(sourceFolder.getRoot(), "indexed.exec");
+
+		loader.load(createFile("a"));
+		loader.saveIndexed(file);
+
+		loader = new ExecFileLoader();
+		final FileInputStream in = new FileInputStream(file);
+		loader.load(in);
+		in.close();
+		assertLoaderContents("a");
+	}
+
 	private File createFile(String id) throws IOException {
 		final File file = new File(sourceFolder.getRoot(), id + ".exec");
 		final FileOutputStream out = new FileOutputStream(file);
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfo;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link ExecFileMerger}.
+ */
+public class ExecFileMergerTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private File tempDirectory;
+
+	private ExecFileMerger merger;
+
+	@Before
+	public void setup() throws IOException {
+		tempDirectory = folder.newFolder("temp");
+		merger = new ExecFileMerger(tempDirectory, 2);
+	}
+
+	@Test
+	public void should_merge_probes_of_same_class() throws IOException {
+		merger.load(createFile("a", new ExecutionData(1, "Foo",
+				new boolean[] { true, false, false })));
+		merger.load(createFile("b",
+				new ExecutionData(1, "Foo",
+						new boolean[] { false, true, false }),
+				new ExecutionData(2, "Bar", new boolean[] { true })));
+
+		final ExecFileLoader result = save();
+
+		assertArrayEquals(new boolean[] { true, true, false },
+				result.getExecutionDataStore().get(1).getProbes());
+		assertArrayEquals(new boolean[] { true },
+				result.getExecutionDataStore().get(2).getProbes());
+		assertEquals(2, result.getSessionInfoStore().getInfos().size());
+	}
+
+	@Test
+	public void should_merge_more_runs_than_fan_in() throws IOException {
+		final int count = ExecFileMerger.MAX_FAN_IN * 2 + 3;
+		for (int i = 0; i < count; i++) {
+			final boolean[] probes = new boolean[count];
+			probes[i] = true;
+			merger.load(createFile("f" + i,
+					new ExecutionData(42, "Foo", probes), new ExecutionData(
+							i + 100, "Class" + i, new boolean[] { true })));
+		}
+
+		final ExecFileLoader result = save();
+
+		final boolean[] expected = new boolean[count];
+		for (int i = 0; i < count; i++) {
+			expected[i] = true;
+		}
+		assertArrayEquals(expected,
+				result.getExecutionDataStore().get(42).getProbes());
+		assertEquals(count + 1,
+				result.getExecutionDataStore().getContents().size());
+		assertEquals(count, result.getSessionInfoStore().getInfos().size());
+		assertEquals(0, tempDirectory.list().length);
+	}
+
+	@Test
+	public void should_merge_indexed_files_and_streams() throws IOException {
+		final ExecFileLoader loader = new ExecFileLoader();
+		loader.load(createFile("a",
+				new ExecutionData(1, "Foo", new boolean[] { true, false })));
+		final File indexed = new File(folder.getRoot(), "indexed.exec");
+		loader.saveIndexed(indexed);
+		merger.load(indexed);
+
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final ExecutionDataWriter writer = new ExecutionDataWriter(buffer);
+		writer.visitClassExecution(
+				new ExecutionData(1, "Foo", new boolean[] { false, true }));
+		merger.load(new ByteArrayInputStream(buffer.toByteArray()));
+
+		final ExecFileLoader result = save();
+
+		assertArrayEquals(new boolean[] { true, true },
+				result.getExecutionDataStore().get(1).getProbes());
+		assertTrue(indexed.exists());
+	}
+
+	@Test
+	public void should_overwrite_indexed_input_file() throws IOException {
+		final ExecFileLoader loader = new ExecFileLoader();
+		loader.load(createFile("a",
+				new ExecutionData(1, "Foo", new boolean[] { true, false })));
+		final File indexed = new File(folder.getRoot(), "indexed.exec");
+		loader.saveIndexed(indexed);
+		merger.load(indexed);
+		merger.load(createFile("b",
+				new ExecutionData(1, "Foo", new boolean[] { false, true })));
+
+		merger.save(indexed, false);
+
+		final ExecFileLoader result = new ExecFileLoader();
+		result.load(indexed);
+		assertArrayEquals(new boolean[] { true, true },
+				result.getExecutionDataStore().get(1).getProbes());
+		assertEquals(2, result.getSessionInfoStore().getInfos().size());
+	}
+
+	@Test
+	public void should_delete_temporary_files() throws IOException {
+		merger.load(createFile("a",
+				new ExecutionData(1, "Foo", new boolean[] { true })));
+
+		save();
+
+		assertEquals(0, tempDirectory.listFiles().length);
+	}
+
+	@Test
+	public void should_report_empty_content() throws IOException {
+		assertTrue(merger.isEmpty());
+
+		merger.load(createFile("a", new ExecutionData(1, "Foo", 2)));
+		assertTrue(merger.isEmpty());
+
+		merger.load(createFile("b",
+				new ExecutionData(1, "Foo", new boolean[] { true, false })));
+		assertFalse(merger.isEmpty());
+	}
+
+	@Test
+	public void should_report_unreadable_files() throws IOException {
+		final File file = new File(folder.getRoot(), "broken.exec");
+		final FileWriter writer = new FileWriter(file);
+		writer.write("Invalid Content");
+		writer.close();
+
+		merger.load(file);
+		try {
+			merger.isEmpty();
+			fail("IOException expected");
+		} catch (IOException e) {
+			assertEquals("Unable to read " + file.getAbsolutePath(),
+					e.getMessage());
+		}
+	}
+
+	@Test
+	public void should_append_to_existing_file() throws IOException {
+		final File file = createFile("a",
+				new ExecutionData(1, "Foo", new boolean[] { true, false }));
+		merger.load(createFile("b",
+				new ExecutionData(2, "Bar", new boolean[] { true })));
+
+		merger.save(file, true);
+
+		final ExecFileLoader result = new ExecFileLoader();
+		result.load(file);
+		assertEquals(2, result.getExecutionDataStore().getContents().size());
+		assertEquals(2, result.getSessionInfoStore().getInfos().size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void should_fail_when_saved_twice() throws IOException {
+		merger.save(new ByteArrayOutputStream());
+		merger.save(new ByteArrayOutputStream());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void should_fail_on_incompatible_data() throws IOException {
+		merger.load(createFile("a",
+				new ExecutionData(1, "Foo", new boolean[] { true })));
+		merger.load(createFile("b",
+				new ExecutionData(1, "Foo", new boolean[] { true, false })));
+
+		save();
+	}
+
+	private ExecFileLoader save() throws IOException {
+		final File file = new File(folder.getRoot(), "merged.exec");
+		merger.save(file, false);
+		final ExecFileLoader result = new ExecFileLoader();
+		result.load(file);
+		return result;
+	}
+
+	private File createFile(final String id, final ExecutionData... data)
+			throws IOException {
+		final File file = new File(folder.getRoot(), id + ".exec");
+		final FileOutputStream out = new FileOutputStream(file);
+		final ExecutionDataWriter writer = new ExecutionDataWriter(out);
+		writer.visitSessionInfo(new SessionInfo(id, 1, 2));
+		for (final ExecutionData d : data) {
+			writer.visitClassExecution(d);
+		}
+		out.close();
+		return file;
+	}
+
+}
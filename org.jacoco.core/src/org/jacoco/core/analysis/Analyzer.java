@@ -16,9 +16,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Enumeration;
 import java.util.StringTokenizer;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import org.jacoco.core.JaCoCo;
@@ -53,6 +56,12 @@ public class Analyzer {
 
 	private final StringPool stringPool;
 
+	private boolean reducedProbes;
+
+	private boolean coveredOnly;
+
+	private boolean reportSkippedClasses;
+
 	/**
 	 * Creates a new analyzer reporting to the given output.
 	 *
@@ -64,9 +73,81 @@ public class Analyzer {
 	 */
 	public Analyzer(final ExecutionDataStore executionData,
 			final ICoverageVisitor coverageVisitor) {
+		this(executionData, coverageVisitor, new StringPool());
+	}
+
+	/**
+	 * Creates a new analyzer reporting to the given output. Names and
+	 * descriptors of the analyzed classes are normalized with the given pool,
+	 * which may be shared with other analyzers, so that their coverage models
+	 * do not keep duplicate copies of equal strings.
+	 *
+	 * @param executionData
+	 *            execution data
+	 * @param coverageVisitor
+	 *            the output instance that will coverage data for every analyzed
+	 *            class
+	 * @param stringPool
+	 *            pool shared with other analyzers
+	 */
+	public Analyzer(final ExecutionDataStore executionData,
+			final ICoverageVisitor coverageVisitor,
+			final SharedStringPool stringPool) {
+		this(executionData, coverageVisitor, stringPool.pool);
+	}
+
+	private Analyzer(final ExecutionDataStore executionData,
+			final ICoverageVisitor coverageVisitor,
+			final StringPool stringPool) {
 		this.executionData = executionData;
 		this.coverageVisitor = coverageVisitor;
-		this.stringPool = new StringPool();
+		this.stringPool = stringPool;
+	}
+
+	/**
+	 * Determines whether the analyzed classes have been instrumented with a
+	 * reduced probe set, see
+	 * {@link org.jacoco.core.instr.Instrumenter#setReducedProbes(boolean)}. The
+	 * execution status of edges without probe is then derived from the other
+	 * probes. Default is <code>false</code>.
+	 *
+	 * @param flag
+	 *            <code>true</code> if the classes have been instrumented with a
+	 *            reduced probe set
+	 */
+	public void setReducedProbes(final boolean flag) {
+		reducedProbes = flag;
+	}
+
+	/**
+	 * Determines whether only classes with at least one executed probe are
+	 * analyzed. For all other classes only the class id is calculated, the
+	 * class definition is not parsed. This speeds up analysis considerably if
+	 * only a small fraction of the classes has been executed, e.g. for per
+	 * test coverage. Default is <code>false</code>.
+	 *
+	 * @param flag
+	 *            <code>true</code> if classes without executed probes should
+	 *            be skipped
+	 * @see #setReportSkippedClasses(boolean)
+	 */
+	public void setCoveredOnly(final boolean flag) {
+		coveredOnly = flag;
+	}
+
+	/**
+	 * Determines whether classes which are skipped because they have not been
+	 * executed are still reported to the coverage visitor. As such classes are
+	 * not analyzed they are reported with their name and id only, without any
+	 * methods and with empty counters. This setting only has an effect if
+	 * {@link #setCoveredOnly(boolean)} is enabled. Default is
+	 * <code>false</code>.
+	 *
+	 * @param flag
+	 *            <code>true</code> if skipped classes should be reported
+	 */
+	public void setReportSkippedClasses(final boolean flag) {
+		reportSkippedClasses = flag;
 	}
 
 	/**
@@ -93,18 +174,22 @@ public class Analyzer {
 		final ClassCoverageImpl coverage = new ClassCoverageImpl(className,
 				classid, noMatch);
 		final ClassAnalyzer analyzer = new ClassAnalyzer(coverage, probes,
-				stringPool) {
+				stringPool, reducedProbes) {
 			@Override
 			public void visitEnd() {
 				super.visitEnd();
 				coverageVisitor.visitCoverage(coverage);
 			}
 		};
-		return new ClassProbesAdapter(analyzer, false);
+		return new ClassProbesAdapter(analyzer, false, reducedProbes);
 	}
 
 	private void analyzeClass(final byte[] source) {
 		final long classId = CRC64.classId(source);
+		final boolean skip = coveredOnly && !hasHits(classId);
+		if (skip && !reportSkippedClasses) {
+			return;
+		}
 		final ClassReader reader = InstrSupport.classReaderFor(source);
 		if ((reader.getAccess() & Opcodes.ACC_MODULE) != 0) {
 			return;
@@ -112,11 +197,23 @@ public class Analyzer {
 		if ((reader.getAccess() & Opcodes.ACC_SYNTHETIC) != 0) {
 			return;
 		}
+		if (skip) {
+			final String className = reader.getClassName();
+			coverageVisitor.visitCoverage(new ClassCoverageImpl(className,
+					classId, executionData.get(classId) == null
+							&& executionData.contains(className)));
+			return;
+		}
 		final ClassVisitor visitor = createAnalyzingVisitor(classId,
 				reader.getClassName());
 		reader.accept(visitor, 0);
 	}
 
+	private boolean hasHits(final long classId) {
+		final ExecutionData data = executionData.get(classId);
+		return data != null && data.hasHits();
+	}
+
 	/**
 	 * Analyzes the class definition from a given in-memory buffer.
 	 *
@@ -158,6 +255,61 @@ public class Analyzer {
 		analyzeClass(buffer, location);
 	}
 
+	/**
+	 * Determines whether the entry with the given name of a ZIP archive is
+	 * analyzed. Entries of ZIP files are filtered through their central
+	 * directory before any content is decompressed. The default
+	 * implementation accepts all entries.
+	 *
+	 * @param name
+	 *            name of the ZIP entry including its path
+	 * @return <code>true</code> if the entry should be analyzed
+	 */
+	protected boolean acceptEntry(final String name) {
+		return true;
+	}
+
+	/**
+	 * Called for every class file found by the <code>analyzeAll()</code>
+	 * methods. The default implementation analyzes the class. Subclasses may
+	 * override this method to process the class files in a different way.
+	 *
+	 * @param buffer
+	 *            class definition
+	 * @param location
+	 *            a location description used for exception messages
+	 * @param file
+	 *            file the class definition can be read from again, either
+	 *            directly or as an entry of a ZIP file, or <code>null</code>
+	 *            if the class definition has been read from a stream, from a
+	 *            nested archive or from a compressed file
+	 * @param entryName
+	 *            name of the ZIP entry within the given file or
+	 *            <code>null</code> if the file is the class file itself
+	 * @throws IOException
+	 *             if the class can't be processed
+	 */
+	protected void visitClassFile(final byte[] buffer, final String location,
+			final File file, final String entryName) throws IOException {
+		analyzeClass(buffer, location);
+	}
+
+	private void analyzeClassFile(final InputStream input,
+			final String location, final File file, final String entryName)
+			throws IOException {
+		final byte[] buffer;
+		try {
+			buffer = InputStreams.readFully(input);
+		} catch (final IOException e) {
+			throw analyzerError(location, e);
+		}
+		try {
+			visitClassFile(buffer, location, file, entryName);
+		} catch (final RuntimeException cause) {
+			throw analyzerError(location, cause);
+		}
+	}
+
 	private IOException analyzerError(final String location,
 			final Exception cause) {
 		final IOException ex = new IOException(
@@ -184,6 +336,11 @@ public class Analyzer {
 	 */
 	public int analyzeAll(final InputStream input, final String location)
 			throws IOException {
+		return analyzeAll(input, location, null, null);
+	}
+
+	private int analyzeAll(final InputStream input, final String location,
+			final File file, final String entryName) throws IOException {
 		final ContentTypeDetector detector;
 		try {
 			detector = new ContentTypeDetector(input);
@@ -192,7 +349,8 @@ public class Analyzer {
 		}
 		switch (detector.getType()) {
 		case ContentTypeDetector.CLASSFILE:
-			analyzeClass(detector.getInputStream(), location);
+			analyzeClassFile(detector.getInputStream(), location, file,
+					entryName);
 			return 1;
 		case ContentTypeDetector.ZIPFILE:
 			return analyzeZip(detector.getInputStream(), location);
@@ -208,7 +366,8 @@ public class Analyzer {
 	/**
 	 * Analyzes all class files contained in the given file or folder. Class
 	 * files as well as ZIP files are considered. Folders are searched
-	 * recursively.
+	 * recursively. ZIP files are read through their central directory, so
+	 * directory entries are skipped without decompressing any content.
 	 *
 	 * @param file
 	 *            file or folder to look for class files
@@ -223,14 +382,29 @@ public class Analyzer {
 				count += analyzeAll(f);
 			}
 		} else {
-			final InputStream in = new FileInputStream(file);
+			count += analyzeFile(file);
+		}
+		return count;
+	}
+
+	private int analyzeFile(final File file) throws IOException {
+		final String location = file.getPath();
+		final InputStream in = new FileInputStream(file);
+		try {
+			final ContentTypeDetector detector;
 			try {
-				count += analyzeAll(in, file.getPath());
-			} finally {
-				in.close();
+				detector = new ContentTypeDetector(in);
+			} catch (final IOException e) {
+				throw analyzerError(location, e);
+			}
+			if (detector.getType() != ContentTypeDetector.ZIPFILE) {
+				return analyzeAll(detector.getInputStream(), location, file,
+						null);
 			}
+		} finally {
+			in.close();
 		}
-		return count;
+		return analyzeZipFile(file, location);
 	}
 
 	/**
@@ -264,11 +438,60 @@ public class Analyzer {
 		ZipEntry entry;
 		int count = 0;
 		while ((entry = nextEntry(zip, location)) != null) {
-			count += analyzeAll(zip, location + "@" + entry.getName());
+			if (acceptEntry(entry.getName())) {
+				count += analyzeAll(zip, location + "@" + entry.getName());
+			}
 		}
 		return count;
 	}
 
+	private int analyzeZipFile(final File file, final String location)
+			throws IOException {
+		final ZipFile zip;
+		try {
+			zip = new ZipFile(file);
+		} catch (final ZipException e) {
+			// No valid central directory, e.g. a truncated archive: Fall back
+			// to sequential reading of the local entry headers.
+			final InputStream in = new FileInputStream(file);
+			try {
+				return analyzeZip(in, location);
+			} finally {
+				in.close();
+			}
+		}
+		try {
+			int count = 0;
+			final Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				final ZipEntry entry = entries.nextElement();
+				if (entry.isDirectory() || !acceptEntry(entry.getName())) {
+					continue;
+				}
+				count += analyzeZipFileEntry(zip, file, entry,
+						location + "@" + entry.getName());
+			}
+			return count;
+		} finally {
+			zip.close();
+		}
+	}
+
+	private int analyzeZipFileEntry(final ZipFile zip, final File file,
+			final ZipEntry entry, final String location) throws IOException {
+		final InputStream in;
+		try {
+			in = zip.getInputStream(entry);
+		} catch (final IOException e) {
+			throw analyzerError(location, e);
+		}
+		try {
+			return analyzeAll(in, location, file, entry.getName());
+		} finally {
+			in.close();
+		}
+	}
+
 	private ZipEntry nextEntry(final ZipInputStream input,
 			final String location) throws IOException {
 		try {
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.analysis;
+
+import org.jacoco.core.internal.analysis.ConcurrentStringPool;
+import org.jacoco.core.internal.analysis.StringPool;
+
+/**
+ * Pool to normalize names, descriptors and signatures which can be shared
+ * between multiple {@link Analyzer} instances, also on different threads. The
+ * coverage models of all analyses that use the same pool do not keep duplicate
+ * copies of equal strings. Strings are only weakly referenced by the pool, so
+ * it can be kept for a long time.
+ *
+ * By default every {@link Analyzer} uses its own pool, which is faster if only
+ * a single analysis is performed.
+ */
+public final class SharedStringPool {
+
+	final StringPool pool = new ConcurrentStringPool();
+
+	/**
+	 * Creates a new empty pool.
+	 */
+	public SharedStringPool() {
+		// nothing to do
+	}
+
+}
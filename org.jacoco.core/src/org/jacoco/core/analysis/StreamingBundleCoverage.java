@@ -0,0 +1,444 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.analysis;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.internal.analysis.PackageCoverageImpl;
+import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.internal.instr.InstrSupport;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * A {@link IBundleCoverage} which analyzes its classes package by package
+ * while the packages are iterated, so that the coverage data of at most one
+ * package needs to be kept in memory at a time. Class files are only indexed by
+ * package when they are added. Every iteration over {@link #getPackages()}
+ * analyzes the packages again and the returned package nodes are not retained
+ * by this bundle.
+ *
+ * The counters of the bundle are calculated during the first complete
+ * iteration over the packages. If counters are requested before, all packages
+ * are analyzed once to calculate them. {@link #getPlainCopy()} does not
+ * require the counters, the returned copy calculates them when requested.
+ *
+ * Class files from directories and ZIP files are read again for every
+ * iteration. Class files from nested archives, gzip or Pack200 files are kept
+ * in memory. Class files have to be added before the packages are iterated,
+ * afterwards the bundle may be iterated concurrently.
+ */
+public class StreamingBundleCoverage extends CoverageNodeImpl
+		implements IBundleCoverage {
+
+	private final ExecutionDataStore executionData;
+
+	private final SortedMap<String, List<ClassFile>> index = new TreeMap<String, List<ClassFile>>();
+
+	private final Set<String> noMatchClasses = new TreeSet<String>();
+
+	private CoverageNodeImpl totals;
+
+	/**
+	 * Creates a new empty bundle.
+	 *
+	 * @param name
+	 *            name of the bundle
+	 * @param executionData
+	 *            execution data for the classes of the bundle
+	 */
+	public StreamingBundleCoverage(final String name,
+			final ExecutionDataStore executionData) {
+		super(ElementType.BUNDLE, name);
+		this.executionData = executionData;
+	}
+
+	/**
+	 * Creates the analyzer for the classes of a single package. May be
+	 * overridden to configure the analyzer.
+	 *
+	 * @param executionData
+	 *            execution data for the classes of the bundle
+	 * @param visitor
+	 *            visitor the analyzer must report the class coverage to
+	 * @return new analyzer
+	 */
+	protected Analyzer createAnalyzer(final ExecutionDataStore executionData,
+			final ICoverageVisitor visitor) {
+		return new Analyzer(executionData, visitor);
+	}
+
+	/**
+	 * Adds all class files contained in the given file or folder. Class files
+	 * as well as ZIP, gzip and Pack200 files are considered. Folders are
+	 * searched recursively.
+	 *
+	 * @param file
+	 *            file or folder to look for class files
+	 * @return number of class files found
+	 * @throws IOException
+	 *             if the file can't be read or a class file is invalid
+	 */
+	public int addAll(final File file) throws IOException {
+		return new Indexer().analyzeAll(file);
+	}
+
+	/**
+	 * Returns the VM names of all added classes for which execution data with
+	 * the same name but a different class id exists.
+	 *
+	 * @see IClassCoverage#isNoMatch()
+	 * @return sorted names of classes with non-matching execution data
+	 */
+	public Collection<String> getNoMatchClasses() {
+		return noMatchClasses;
+	}
+
+	private void addClass(final byte[] buffer, final ClassFile classFile) {
+		final ClassReader reader = InstrSupport.classReaderFor(buffer);
+		// Such classes are not analyzed by the Analyzer
+		if ((reader.getAccess()
+				& (Opcodes.ACC_MODULE | Opcodes.ACC_SYNTHETIC)) != 0) {
+			return;
+		}
+		final String name = reader.getClassName();
+		final int slash = name.lastIndexOf('/');
+		final String packageName = slash == -1 ? "" : name.substring(0, slash);
+		List<ClassFile> classFiles = index.get(packageName);
+		if (classFiles == null) {
+			classFiles = new ArrayList<ClassFile>();
+			index.put(packageName, classFiles);
+		}
+		classFiles.add(classFile);
+		if (executionData.get(CRC64.classId(buffer)) == null
+				&& executionData.contains(name)) {
+			noMatchClasses.add(name);
+		}
+	}
+
+	private IPackageCoverage analyze(final String packageName,
+			final List<ClassFile> classFiles) throws IOException {
+		final CoverageBuilder builder = new CoverageBuilder();
+		final Analyzer analyzer = createAnalyzer(executionData, builder);
+		// Archives are only open while the package is analyzed, so that
+		// iterations which are not completed do not leave open files
+		final Map<File, ZipFile> archives = new HashMap<File, ZipFile>();
+		try {
+			for (final ClassFile classFile : classFiles) {
+				classFile.analyze(analyzer, archives);
+			}
+		} finally {
+			for (final ZipFile zip : archives.values()) {
+				zip.close();
+			}
+		}
+		return new PackageCoverageImpl(packageName, builder.getClasses(),
+				builder.getSourceFiles());
+	}
+
+	private synchronized CoverageNodeImpl getTotals() {
+		if (totals == null) {
+			final Iterator<IPackageCoverage> i = getPackages().iterator();
+			while (i.hasNext()) {
+				i.next();
+			}
+		}
+		return totals;
+	}
+
+	private synchronized void setTotals(final CoverageNodeImpl totals) {
+		if (this.totals == null) {
+			this.totals = totals;
+		}
+	}
+
+	// === ICoverageNode implementation ===
+
+	@Override
+	public ICounter getInstructionCounter() {
+		return getTotals().getInstructionCounter();
+	}
+
+	@Override
+	public ICounter getBranchCounter() {
+		return getTotals().getBranchCounter();
+	}
+
+	@Override
+	public ICounter getLineCounter() {
+		return getTotals().getLineCounter();
+	}
+
+	@Override
+	public ICounter getComplexityCounter() {
+		return getTotals().getComplexityCounter();
+	}
+
+	@Override
+	public ICounter getMethodCounter() {
+		return getTotals().getMethodCounter();
+	}
+
+	@Override
+	public ICounter getClassCounter() {
+		return getTotals().getClassCounter();
+	}
+
+	@Override
+	public synchronized ICoverageNode getPlainCopy() {
+		if (totals != null) {
+			return totals.getPlainCopy();
+		}
+		return new PlainCopy();
+	}
+
+	// === IBundleCoverage implementation ===
+
+	public Collection<IPackageCoverage> getPackages() {
+		return new AbstractCollection<IPackageCoverage>() {
+			@Override
+			public Iterator<IPackageCoverage> iterator() {
+				return new PackageIterator();
+			}
+
+			@Override
+			public int size() {
+				return index.size();
+			}
+		};
+	}
+
+	/**
+	 * Analyzer which only adds the class files found to the index.
+	 */
+	private class Indexer extends Analyzer {
+
+		Indexer() {
+			super(executionData, null);
+		}
+
+		@Override
+		protected void visitClassFile(final byte[] buffer,
+				final String location, final File file,
+				final String entryName) {
+			final ClassFile classFile;
+			if (file == null) {
+				classFile = new MemoryClass(location, buffer);
+			} else if (entryName == null) {
+				classFile = new FileClass(location, file);
+			} else {
+				classFile = new ZipEntryClass(location, file, entryName);
+			}
+			addClass(buffer, classFile);
+		}
+
+	}
+
+	/**
+	 * Analyzes one package per step and sums up the counters of all packages.
+	 */
+	private class PackageIterator implements Iterator<IPackageCoverage> {
+
+		private final Iterator<Map.Entry<String, List<ClassFile>>> entries;
+
+		private final CoverageNodeImpl sum;
+
+		PackageIterator() {
+			entries = index.entrySet().iterator();
+			sum = new CoverageNodeImpl(ElementType.BUNDLE, getName());
+		}
+
+		public boolean hasNext() {
+			if (entries.hasNext()) {
+				return true;
+			}
+			setTotals(sum);
+			return false;
+		}
+
+		public IPackageCoverage next() {
+			final Map.Entry<String, List<ClassFile>> entry = entries.next();
+			final IPackageCoverage p;
+			try {
+				p = analyze(entry.getKey(), entry.getValue());
+			} catch (final IOException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+			sum.increment(p);
+			if (!entries.hasNext()) {
+				setTotals(sum);
+			}
+			return p;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+	/**
+	 * Plain copy which calculates the counters of the bundle when requested.
+	 */
+	private class PlainCopy extends CoverageNodeImpl {
+
+		PlainCopy() {
+			super(ElementType.BUNDLE, StreamingBundleCoverage.this.getName());
+		}
+
+		@Override
+		public ICounter getInstructionCounter() {
+			return getTotals().getInstructionCounter();
+		}
+
+		@Override
+		public ICounter getBranchCounter() {
+			return getTotals().getBranchCounter();
+		}
+
+		@Override
+		public ICounter getLineCounter() {
+			return getTotals().getLineCounter();
+		}
+
+		@Override
+		public ICounter getComplexityCounter() {
+			return getTotals().getComplexityCounter();
+		}
+
+		@Override
+		public ICounter getMethodCounter() {
+			return getTotals().getMethodCounter();
+		}
+
+		@Override
+		public ICounter getClassCounter() {
+			return getTotals().getClassCounter();
+		}
+
+		@Override
+		public ICoverageNode getPlainCopy() {
+			return getTotals().getPlainCopy();
+		}
+
+	}
+
+	/**
+	 * Reference to the content of a class file.
+	 */
+	private abstract static class ClassFile {
+
+		final String location;
+
+		ClassFile(final String location) {
+			this.location = location;
+		}
+
+		abstract void analyze(Analyzer analyzer, Map<File, ZipFile> archives)
+				throws IOException;
+
+	}
+
+	private static class FileClass extends ClassFile {
+
+		private final File file;
+
+		FileClass(final String location, final File file) {
+			super(location);
+			this.file = file;
+		}
+
+		@Override
+		void analyze(final Analyzer analyzer,
+				final Map<File, ZipFile> archives) throws IOException {
+			final InputStream in = new FileInputStream(file);
+			try {
+				analyzer.analyzeClass(in, location);
+			} finally {
+				in.close();
+			}
+		}
+
+	}
+
+	private static class ZipEntryClass extends ClassFile {
+
+		private final File archive;
+
+		private final String entryName;
+
+		ZipEntryClass(final String location, final File archive,
+				final String entryName) {
+			super(location);
+			this.archive = archive;
+			this.entryName = entryName;
+		}
+
+		@Override
+		void analyze(final Analyzer analyzer,
+				final Map<File, ZipFile> archives) throws IOException {
+			ZipFile zip = archives.get(archive);
+			if (zip == null) {
+				zip = new ZipFile(archive);
+				archives.put(archive, zip);
+			}
+			final ZipEntry entry = zip.getEntry(entryName);
+			if (entry == null) {
+				throw new IOException(
+						String.format("Entry %s has been removed.", location));
+			}
+			final InputStream in = zip.getInputStream(entry);
+			try {
+				analyzer.analyzeClass(in, location);
+			} finally {
+				in.close();
+			}
+		}
+
+	}
+
+	private static class MemoryClass extends ClassFile {
+
+		private final byte[] buffer;
+
+		MemoryClass(final String location, final byte[] buffer) {
+			super(location);
+			this.buffer = buffer;
+		}
+
+		@Override
+		void analyze(final Analyzer analyzer,
+				final Map<File, ZipFile> archives) throws IOException {
+			analyzer.analyzeClass(buffer, location);
+		}
+
+	}
+
+}
@@ -0,0 +1,383 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.data;
+
+import static org.jacoco.core.data.IndexedExecutionDataWriter.HEADER;
+import static org.jacoco.core.data.IndexedExecutionDataWriter.HEADER_SIZE;
+import static org.jacoco.core.data.IndexedExecutionDataWriter.INDEX_ENTRY_SIZE;
+import static org.jacoco.core.data.IndexedExecutionDataWriter.MAGIC_NUMBER;
+import static org.jacoco.core.data.IndexedExecutionDataWriter.TRAILER_SIZE;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Random access to execution data in the format written by
+ * {@link IndexedExecutionDataWriter}. Files are either memory-mapped or read
+ * through a file channel, the data of a single class is located through the
+ * hash table of the file and decoded on request only. An instance of this
+ * class can be used from multiple threads.
+ */
+public class IndexedExecutionDataReader implements Closeable {
+
+	private final ByteBuffer buffer;
+
+	private final FileChannel channel;
+
+	private final int indexOffset;
+
+	private final int classCount;
+
+	private final int hashOffset;
+
+	private final int hashSize;
+
+	private final List<SessionInfo> sessionInfos;
+
+	/**
+	 * Memory-maps the given file in indexed execution data format.
+	 *
+	 * @param file
+	 *            file to read
+	 * @throws IOException
+	 *             if the file can't be read or has an invalid format
+	 */
+	public IndexedExecutionDataReader(final File file) throws IOException {
+		this(map(file));
+	}
+
+	/**
+	 * Creates a reader for the given channel of a file in indexed execution
+	 * data format. Unlike a memory-mapped file the content is read through the
+	 * channel on request, so the channel must stay open while the reader is
+	 * used and the file can be deleted as soon as the reader has been closed.
+	 * The position of the channel is not used.
+	 *
+	 * @param channel
+	 *            channel of the file to read
+	 * @throws IOException
+	 *             if the file can't be read or has an invalid format
+	 */
+	public IndexedExecutionDataReader(final FileChannel channel)
+			throws IOException {
+		this(null, channel, size(channel));
+	}
+
+	/**
+	 * Creates a reader for the given buffer that contains a file in indexed
+	 * execution data format. The position of the buffer is not used.
+	 *
+	 * @param buffer
+	 *            content of a indexed execution data file
+	 * @throws IOException
+	 *             if the content has an invalid format
+	 */
+	public IndexedExecutionDataReader(final ByteBuffer buffer)
+			throws IOException {
+		this(buffer, null, buffer.limit());
+	}
+
+	private IndexedExecutionDataReader(final ByteBuffer buffer,
+			final FileChannel channel, final int length) throws IOException {
+		this.buffer = buffer;
+		this.channel = channel;
+		if (length < HEADER_SIZE + TRAILER_SIZE || getByte(0) != HEADER
+				|| getChar(1) != MAGIC_NUMBER
+				|| getChar(length - 2) != MAGIC_NUMBER) {
+			throw new IOException("Invalid execution data file.");
+		}
+		final char version = getChar(3);
+		if (version != IndexedExecutionDataWriter.FORMAT_VERSION) {
+			throw new IOException(String.format(
+					"Cannot read indexed execution data version 0x%x. "
+							+ "This version of JaCoCo uses indexed execution data version 0x%x.",
+					Integer.valueOf(version), Integer.valueOf(
+							IndexedExecutionDataWriter.FORMAT_VERSION)));
+		}
+		final int trailer = length - TRAILER_SIZE;
+		final long sessionsOffset = getLong(trailer);
+		final long index = getLong(trailer + 8);
+		classCount = getInt(trailer + 16);
+		hashSize = getInt(trailer + 20);
+		final long hash = index + (long) classCount * INDEX_ENTRY_SIZE;
+		if (sessionsOffset < HEADER_SIZE || index < sessionsOffset
+				|| classCount < 0 || hashSize < 1 || hashSize < classCount
+				|| (hashSize & (hashSize - 1)) != 0
+				|| hash + 4L * hashSize != trailer) {
+			throw new IOException("Invalid execution data file.");
+		}
+		indexOffset = (int) index;
+		hashOffset = (int) hash;
+		for (int i = 0; i < classCount; i++) {
+			final int entry = indexOffset + i * INDEX_ENTRY_SIZE;
+			final long record = getLong(entry + 8);
+			if (record < HEADER_SIZE || record + 2 > sessionsOffset
+					|| getInt(entry + 16) < 0) {
+				throw new IOException("Invalid execution data file.");
+			}
+		}
+		sessionInfos = readSessionInfos((int) sessionsOffset);
+	}
+
+	private static ByteBuffer map(final File file) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					size(channel));
+		} finally {
+			raf.close();
+		}
+	}
+
+	private static int size(final FileChannel channel) throws IOException {
+		final long size = channel.size();
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException(
+					"Indexed execution data exceeds maximum size.");
+		}
+		return (int) size;
+	}
+
+	private List<SessionInfo> readSessionInfos(final int offset)
+			throws IOException {
+		final DataInputStream in = stream(offset, indexOffset - offset);
+		final int count = in.readInt();
+		final List<SessionInfo> infos = new ArrayList<SessionInfo>(count);
+		for (int i = 0; i < count; i++) {
+			final String id = in.readUTF();
+			final long start = in.readLong();
+			final long dump = in.readLong();
+			infos.add(new SessionInfo(id, start, dump));
+		}
+		return Collections.unmodifiableList(infos);
+	}
+
+	/**
+	 * Returns the number of classes contained in the file.
+	 *
+	 * @return number of classes
+	 */
+	public int getClassCount() {
+		return classCount;
+	}
+
+	/**
+	 * Returns the session infos contained in the file in the order they have
+	 * been written.
+	 *
+	 * @return unmodifiable list of session infos
+	 */
+	public List<SessionInfo> getSessionInfos() {
+		return sessionInfos;
+	}
+
+	/**
+	 * Checks whether the file contains data for the class with the given id.
+	 *
+	 * @param id
+	 *            class id
+	 * @return <code>true</code> if data for the class is contained
+	 * @throws IOException
+	 *             if the file can't be read
+	 */
+	public boolean contains(final long id) throws IOException {
+		return find(id) != -1;
+	}
+
+	/**
+	 * Returns the execution data for the class with the given id.
+	 *
+	 * @param id
+	 *            class id
+	 * @return new execution data object or <code>null</code> if the file does
+	 *         not contain data for the class
+	 * @throws IOException
+	 *             if the class record is corrupt
+	 */
+	public ExecutionData get(final long id) throws IOException {
+		final int position = find(id);
+		return position == -1 ? null : read(position);
+	}
+
+	/**
+	 * Returns the class id of the index entry at the given position. Index
+	 * entries are ordered by class id, interpreted as unsigned value.
+	 *
+	 * @param position
+	 *            position in the index, between 0 and
+	 *            {@link #getClassCount()} - 1
+	 * @return class id
+	 * @throws IOException
+	 *             if the file can't be read
+	 */
+	public long getId(final int position) throws IOException {
+		return getLong(entry(position));
+	}
+
+	/**
+	 * Returns the execution data of the index entry at the given position.
+	 *
+	 * @param position
+	 *            position in the index, between 0 and
+	 *            {@link #getClassCount()} - 1
+	 * @return new execution data object
+	 * @throws IOException
+	 *             if the class record is corrupt
+	 */
+	public ExecutionData read(final int position) throws IOException {
+		final int entry = entry(position);
+		final long id = getLong(entry);
+		final int offset = (int) getLong(entry + 8);
+		final int probeCount = getInt(entry + 16);
+		final int nameLength = getChar(offset);
+		final DataInputStream in = stream(offset,
+				2 + nameLength + ((probeCount + 7) >> 3));
+		final String name = in.readUTF();
+		final boolean[] probes = new boolean[probeCount];
+		int bits = 0;
+		for (int i = 0; i < probeCount; i++) {
+			if ((i & 7) == 0) {
+				bits = in.readByte();
+			}
+			probes[i] = (bits & 0x01) != 0;
+			bits >>>= 1;
+		}
+		return new ExecutionData(id, name, probes);
+	}
+
+	/**
+	 * Writes all session infos to the given visitor.
+	 *
+	 * @param visitor
+	 *            visitor to write session infos to
+	 */
+	public void acceptSessionInfos(final ISessionInfoVisitor visitor) {
+		for (final SessionInfo info : sessionInfos) {
+			visitor.visitSessionInfo(info);
+		}
+	}
+
+	/**
+	 * Writes the execution data of all classes to the given visitor. The data
+	 * is emitted in index order.
+	 *
+	 * @param visitor
+	 *            visitor to write execution data to
+	 * @throws IOException
+	 *             if a class record is corrupt
+	 */
+	public void acceptExecutionData(final IExecutionDataVisitor visitor)
+			throws IOException {
+		for (int i = 0; i < classCount; i++) {
+			visitor.visitClassExecution(read(i));
+		}
+	}
+
+	private int find(final long id) throws IOException {
+		final int mask = hashSize - 1;
+		int slot = IndexedExecutionDataWriter.hash(id) & mask;
+		// A valid table always has an empty slot, but a corrupt one may not
+		for (int i = 0; i < hashSize; i++) {
+			final int value = getInt(hashOffset + 4 * slot);
+			if (value == 0) {
+				return -1;
+			}
+			if (getId(value - 1) == id) {
+				return value - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private int entry(final int position) {
+		if (position < 0 || position >= classCount) {
+			throw new IndexOutOfBoundsException(String.valueOf(position));
+		}
+		return indexOffset + position * INDEX_ENTRY_SIZE;
+	}
+
+	private DataInputStream stream(final int offset, final int length)
+			throws IOException {
+		if (offset < HEADER_SIZE || length < 0
+				|| offset + length > indexOffset) {
+			throw new IOException("Invalid execution data file.");
+		}
+		return new DataInputStream(
+				new ByteArrayInputStream(getBytes(offset, length)));
+	}
+
+	private byte getByte(final int offset) throws IOException {
+		return channel == null ? buffer.get(offset) : getBytes(offset, 1)[0];
+	}
+
+	private char getChar(final int offset) throws IOException {
+		return channel == null ? buffer.getChar(offset)
+				: ByteBuffer.wrap(getBytes(offset, 2)).getChar();
+	}
+
+	private int getInt(final int offset) throws IOException {
+		return channel == null ? buffer.getInt(offset)
+				: ByteBuffer.wrap(getBytes(offset, 4)).getInt();
+	}
+
+	private long getLong(final int offset) throws IOException {
+		return channel == null ? buffer.getLong(offset)
+				: ByteBuffer.wrap(getBytes(offset, 8)).getLong();
+	}
+
+	private byte[] getBytes(final int offset, final int length)
+			throws IOException {
+		final byte[] bytes = new byte[length];
+		if (channel == null) {
+			final ByteBuffer slice = buffer.duplicate();
+			slice.position(offset);
+			slice.get(bytes);
+		} else {
+			// Positional reads do not modify the channel and can be
+			// executed concurrently
+			final ByteBuffer target = ByteBuffer.wrap(bytes);
+			while (target.hasRemaining()) {
+				if (channel.read(target,
+						(long) offset + target.position()) == -1) {
+					throw new IOException("Invalid execution data file.");
+				}
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Closes the channel the content is read from, if any. Memory-mapped files
+	 * are released by the garbage collector only.
+	 *
+	 * @throws IOException
+	 *             if the channel can't be closed
+	 */
+	public void close() throws IOException {
+		if (channel != null) {
+			channel.close();
+		}
+	}
+
+}
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.data;
+
+import static java.lang.String.format;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Serialization of execution data into the indexed container format. Unlike
+ * the block stream written by {@link ExecutionDataWriter} this format contains
+ * an index of all class ids with fixed-size entries and a hash table over these
+ * entries, so that {@link IndexedExecutionDataReader} can look up the data of a
+ * single class without reading the whole file.
+ *
+ * The file has the following layout, all numbers are big-endian:
+ *
+ * <ol>
+ * <li>Header: byte {@link #HEADER}, char {@link #MAGIC_NUMBER}, char
+ * {@link #FORMAT_VERSION}</li>
+ * <li>Class records in the order they have been visited: UTF class name
+ * followed by the probes packed into <code>(probeCount + 7) / 8</code>
+ * bytes</li>
+ * <li>Session infos: int count, then UTF id, long start and long dump
+ * timestamp for every session</li>
+ * <li>Index: {@value #INDEX_ENTRY_SIZE} bytes per class ordered by class id:
+ * long id, long offset of the class record, int probe count</li>
+ * <li>Hash table: int slots with index position + 1, 0 for empty slots, the
+ * number of slots is a power of two</li>
+ * <li>Trailer of {@value #TRAILER_SIZE} bytes: long offset of the session
+ * infos, long offset of the index, int class count, int number of hash slots,
+ * char {@link #MAGIC_NUMBER}</li>
+ * </ol>
+ *
+ * Class records are written as they are visited, only the index entries are
+ * kept in memory until {@link #finish()} is called. Every class id may only be
+ * visited once, data for the same class must be merged before (e.g. in a
+ * {@link ExecutionDataStore}). As with {@link ExecutionDataWriter} execution
+ * data without any hit probe is skipped.
+ */
+public class IndexedExecutionDataWriter
+		implements ISessionInfoVisitor, IExecutionDataVisitor {
+
+	/**
+	 * File format version, will be incremented for each incompatible change.
+	 */
+	public static final char FORMAT_VERSION;
+
+	static {
+		// Runtime initialize to ensure javac does not inline the value.
+		FORMAT_VERSION = 0x0001;
+	}
+
+	/** Magic number in header and trailer for file format identification. */
+	public static final char MAGIC_NUMBER = ExecutionDataWriter.MAGIC_NUMBER;
+
+	/**
+	 * First byte of every indexed execution data file. This distinguishes the
+	 * format from the block stream format, which starts with
+	 * {@link ExecutionDataWriter#BLOCK_HEADER}.
+	 */
+	public static final byte HEADER = 0x02;
+
+	/** Size of the file header in bytes. */
+	public static final int HEADER_SIZE = 5;
+
+	/** Size of a single index entry in bytes. */
+	public static final int INDEX_ENTRY_SIZE = 20;
+
+	/** Size of the file trailer in bytes. */
+	public static final int TRAILER_SIZE = 26;
+
+	private final DataOutputStream out;
+
+	private final List<SessionInfo> sessionInfos = new ArrayList<SessionInfo>();
+
+	private final List<Entry> entries = new ArrayList<Entry>();
+
+	private long lastId;
+
+	private boolean sorted = true;
+
+	private boolean finished = false;
+
+	/**
+	 * Creates a new writer based on the given output stream. Depending on the
+	 * nature of the underlying stream output should be buffered.
+	 *
+	 * @param output
+	 *            binary stream to write execution data to
+	 * @throws IOException
+	 *             if the header can't be written
+	 */
+	public IndexedExecutionDataWriter(final OutputStream output)
+			throws IOException {
+		this.out = new DataOutputStream(output);
+		out.writeByte(HEADER);
+		out.writeChar(MAGIC_NUMBER);
+		out.writeChar(FORMAT_VERSION);
+	}
+
+	public void visitSessionInfo(final SessionInfo info) {
+		assertNotFinished();
+		sessionInfos.add(info);
+	}
+
+	public void visitClassExecution(final ExecutionData data) {
+		assertNotFinished();
+		if (!data.hasHits()) {
+			return;
+		}
+		final long id = data.getId();
+		if (!entries.isEmpty()) {
+			if (id == lastId) {
+				throw duplicateId(id);
+			}
+			sorted &= compareUnsigned(lastId, id) < 0;
+		}
+		lastId = id;
+		final boolean[] probes = data.getProbes();
+		entries.add(new Entry(id, out.size(), probes.length));
+		try {
+			out.writeUTF(data.getName());
+			out.write(pack(probes));
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Writes the session infos, the index and the trailer and flushes the
+	 * underlying stream. The underlying stream is not closed. No further data
+	 * can be written afterwards.
+	 *
+	 * @throws IOException
+	 *             if the data can't be written
+	 * @throws IllegalStateException
+	 *             if the same class id has been visited multiple times
+	 */
+	public void finish() throws IOException {
+		assertNotFinished();
+		finished = true;
+		final Entry[] index = entries.toArray(new Entry[entries.size()]);
+		if (!sorted) {
+			Arrays.sort(index);
+			for (int i = 1; i < index.length; i++) {
+				if (index[i - 1].id == index[i].id) {
+					throw duplicateId(index[i].id);
+				}
+			}
+		}
+
+		final int sessionsOffset = out.size();
+		out.writeInt(sessionInfos.size());
+		for (final SessionInfo info : sessionInfos) {
+			out.writeUTF(info.getId());
+			out.writeLong(info.getStartTimeStamp());
+			out.writeLong(info.getDumpTimeStamp());
+		}
+
+		final int indexOffset = out.size();
+		for (final Entry e : index) {
+			out.writeLong(e.id);
+			out.writeLong(e.offset);
+			out.writeInt(e.probeCount);
+		}
+
+		final int[] slots = new int[hashSize(index.length)];
+		for (int i = 0; i < index.length; i++) {
+			int slot = hash(index[i].id) & (slots.length - 1);
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & (slots.length - 1);
+			}
+			slots[slot] = i + 1;
+		}
+		for (final int slot : slots) {
+			out.writeInt(slot);
+		}
+
+		if (out.size() == Integer.MAX_VALUE) {
+			throw new IOException(
+					"Indexed execution data exceeds maximum size.");
+		}
+		out.writeLong(sessionsOffset);
+		out.writeLong(indexOffset);
+		out.writeInt(index.length);
+		out.writeInt(slots.length);
+		out.writeChar(MAGIC_NUMBER);
+		out.flush();
+	}
+
+	private void assertNotFinished() {
+		if (finished) {
+			throw new IllegalStateException("Writer already finished.");
+		}
+	}
+
+	private static IllegalStateException duplicateId(final long id) {
+		return new IllegalStateException(
+				format("Duplicate execution data for class id %016x.",
+						Long.valueOf(id)));
+	}
+
+	private static byte[] pack(final boolean[] probes) {
+		final byte[] bytes = new byte[(probes.length + 7) >> 3];
+		for (int i = 0; i < probes.length; i++) {
+			if (probes[i]) {
+				bytes[i >> 3] |= 1 << (i & 7);
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Number of hash slots used for the given number of classes. The table is
+	 * sized to a load factor of at most 0.5.
+	 */
+	static int hashSize(final int classCount) {
+		int size = 1;
+		while (size < 2 * classCount) {
+			size <<= 1;
+		}
+		return size;
+	}
+
+	/**
+	 * Hash function for class ids, used by both writer and reader.
+	 */
+	static int hash(final long id) {
+		final long h = id * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * Compares the given class ids as unsigned values, which is the order of
+	 * the index entries.
+	 */
+	static int compareUnsigned(final long a, final long b) {
+		final long x = a + Long.MIN_VALUE;
+		final long y = b + Long.MIN_VALUE;
+		return x < y ? -1 : (x == y ? 0 : 1);
+	}
+
+	private static class Entry implements Comparable<Entry> {
+
+		final long id;
+		final long offset;
+		final int probeCount;
+
+		Entry(final long id, final long offset, final int probeCount) {
+			this.id = id;
+			this.offset = offset;
+			this.probeCount = probeCount;
+		}
+
+		public int compareTo(final Entry other) {
+			return compareUnsigned(id, other.id);
+		}
+
+	}
+
+}
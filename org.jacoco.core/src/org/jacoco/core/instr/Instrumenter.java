@@ -48,6 +48,10 @@ public class Instrumenter {
 
 	private final SignatureRemover signatureRemover;
 
+	private boolean reducedProbes;
+
+	private boolean compactProbes;
+
 	/**
 	 * Creates a new instance based on the given runtime.
 	 *
@@ -72,6 +76,37 @@ public class Instrumenter {
 		signatureRemover.setActive(flag);
 	}
 
+	/**
+	 * Determines whether probes are omitted for control flow edges whose
+	 * execution status can be derived from other probes. This decreases the
+	 * number of probes and therefore the runtime overhead of instrumented
+	 * code. The same setting must be used for analysis with
+	 * {@link org.jacoco.core.analysis.Analyzer#setReducedProbes(boolean)}.
+	 * Default is <code>false</code>.
+	 *
+	 * @param flag
+	 *            <code>true</code> if the probe set should be reduced
+	 */
+	public void setReducedProbes(final boolean flag) {
+		reducedProbes = flag;
+	}
+
+	/**
+	 * Determines whether probes are inserted as calls of a static method added
+	 * to the instrumented class instead of accessing a local variable which
+	 * holds the probe array. This keeps the bytecode size of instrumented
+	 * methods smaller, so they are more likely to be inlined by the JIT
+	 * compiler. Interfaces are only instrumented this way with class file
+	 * version 55 (Java 11) and above. The execution data is not affected by
+	 * this setting. Default is <code>false</code>.
+	 *
+	 * @param flag
+	 *            <code>true</code> if probes should be compact
+	 */
+	public void setCompactProbes(final boolean flag) {
+		compactProbes = flag;
+	}
+
 	private byte[] instrument(final byte[] source) {
 		final long classId = CRC64.classId(source);
 		final ClassReader reader = InstrSupport.classReaderFor(source);
@@ -83,11 +118,12 @@ public class Instrumenter {
 			}
 		};
 		final IProbeArrayStrategy strategy = ProbeArrayStrategyFactory
-				.createFor(classId, reader, accessorGenerator);
+				.createFor(classId, reader, accessorGenerator, reducedProbes,
+						compactProbes);
 		final int version = InstrSupport.getMajorVersion(reader);
 		final ClassVisitor visitor = new ClassProbesAdapter(
 				new ClassInstrumenter(strategy, writer),
-				InstrSupport.needsFrames(version));
+				InstrSupport.needsFrames(version), reducedProbes);
 		reader.accept(visitor, ClassReader.EXPAND_FRAMES);
 		return writer.toByteArray();
 	}
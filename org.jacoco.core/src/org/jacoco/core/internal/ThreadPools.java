@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Utilities for thread pools executing tasks which may fail with an
+ * {@link IOException}.
+ */
+public final class ThreadPools {
+
+	private ThreadPools() {
+	}
+
+	/**
+	 * Creates a thread pool with a fixed number of daemon threads, so that
+	 * abandoned tasks do not prevent the JVM from terminating.
+	 *
+	 * @param threads
+	 *            number of threads
+	 * @param name
+	 *            name of the threads
+	 * @return new thread pool
+	 */
+	public static ExecutorService create(final int threads,
+			final String name) {
+		return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Waits for the given task and returns its result. Exceptions thrown by
+	 * the task are rethrown unchanged.
+	 *
+	 * @param <T>
+	 *            type of the result
+	 * @param task
+	 *            task to wait for
+	 * @param activity
+	 *            description of the activity for the exception message if the
+	 *            current thread is interrupted, e.g. "reading files"
+	 * @return result of the task
+	 * @throws IOException
+	 *             if thrown by the task or if the current thread is
+	 *             interrupted
+	 */
+	public static <T> T await(final Future<T> task, final String activity)
+			throws IOException {
+		try {
+			return task.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			final IOException ex = new IOException(
+					String.format("Interrupted while %s.", activity));
+			ex.initCause(e);
+			throw ex;
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			final IOException ex = new IOException(cause.getMessage());
+			ex.initCause(cause);
+			throw ex;
+		}
+	}
+
+}
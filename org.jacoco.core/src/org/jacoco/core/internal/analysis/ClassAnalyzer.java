@@ -36,6 +36,7 @@ public class ClassAnalyzer extends ClassProbesVisitor
 	private final ClassCoverageImpl coverage;
 	private final boolean[] probes;
 	private final StringPool stringPool;
+	private final boolean reducedProbes;
 
 	private final Set<String> classAnnotations = new HashSet<String>();
 
@@ -57,9 +58,29 @@ public class ClassAnalyzer extends ClassProbesVisitor
 	 */
 	public ClassAnalyzer(final ClassCoverageImpl coverage,
 			final boolean[] probes, final StringPool stringPool) {
+		this(coverage, probes, stringPool, false);
+	}
+
+	/**
+	 * Creates a new analyzer that builds coverage data for a class.
+	 *
+	 * @param coverage
+	 *            coverage node for the analyzed class data
+	 * @param probes
+	 *            execution data for this class or <code>null</code>
+	 * @param stringPool
+	 *            shared pool to minimize the number of {@link String} instances
+	 * @param reducedProbes
+	 *            <code>true</code> if the class has been instrumented with a
+	 *            reduced probe set
+	 */
+	public ClassAnalyzer(final ClassCoverageImpl coverage,
+			final boolean[] probes, final StringPool stringPool,
+			final boolean reducedProbes) {
 		this.coverage = coverage;
 		this.probes = probes;
 		this.stringPool = stringPool;
+		this.reducedProbes = reducedProbes;
 		this.filter = Filters.all();
 	}
 
@@ -97,7 +118,8 @@ public class ClassAnalyzer extends ClassProbesVisitor
 
 		InstrSupport.assertNotInstrumented(name, coverage.getName());
 
-		final InstructionsBuilder builder = new InstructionsBuilder(probes);
+		final InstructionsBuilder builder = new InstructionsBuilder(probes,
+				reducedProbes);
 
 		return new MethodAnalyzer(builder) {
 
@@ -115,7 +137,7 @@ public class ClassAnalyzer extends ClassProbesVisitor
 			final String signature, final InstructionsBuilder icc,
 			final MethodNode methodNode) {
 		final MethodCoverageCalculator mcc = new MethodCoverageCalculator(
-				icc.getInstructions());
+				icc.getInstructions(), methodNode.instructions);
 		filter.filter(methodNode, this, mcc);
 
 		final MethodCoverageImpl mc = new MethodCoverageImpl(name, desc,
@@ -138,7 +160,13 @@ public class ClassAnalyzer extends ClassProbesVisitor
 
 	@Override
 	public void visitTotalProbeCount(final int count) {
-		// nothing to do
+		if (probes != null && probes.length != count) {
+			throw new IllegalStateException(String.format(
+					"Incompatible execution data for class %s: %s probes recorded but %s expected. "
+							+ "Check that the class is analyzed with the same reduced probes setting it has been instrumented with.",
+					coverage.getName(), Integer.valueOf(probes.length),
+					Integer.valueOf(count)));
+		}
 	}
 
 	// IFilterContext implementation
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.analysis;
+
+import java.io.IOException;
+
+import org.jacoco.core.analysis.CoverageNodeImpl;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ILine;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.analysis.ISourceNode;
+import org.jacoco.core.internal.data.CompactDataInput;
+import org.jacoco.core.internal.data.CompactDataOutput;
+
+/**
+ * Binary serialization of the coverage data of classes. Only the counters of
+ * methods and their lines are written, the counters of classes are calculated
+ * from their methods when the data is read again like during analysis.
+ */
+public final class ClassCoverageSerializer {
+
+	private ClassCoverageSerializer() {
+	}
+
+	/**
+	 * Writes the given class coverage data.
+	 *
+	 * @param out
+	 *            output to write to
+	 * @param coverage
+	 *            coverage data of a class
+	 * @throws IOException
+	 *             if the output can't be written
+	 */
+	public static void write(final CompactDataOutput out,
+			final IClassCoverage coverage) throws IOException {
+		out.writeUTF(coverage.getName());
+		out.writeLong(coverage.getId());
+		out.writeBoolean(coverage.isNoMatch());
+		writeOptional(out, coverage.getSignature());
+		writeOptional(out, coverage.getSuperName());
+		final String[] interfaces = coverage.getInterfaceNames();
+		out.writeVarInt(interfaces == null ? 0 : interfaces.length);
+		if (interfaces != null) {
+			for (final String i : interfaces) {
+				out.writeUTF(i);
+			}
+		}
+		writeOptional(out, coverage.getSourceFileName());
+		out.writeVarInt(coverage.getMethods().size());
+		for (final IMethodCoverage m : coverage.getMethods()) {
+			write(out, m);
+		}
+	}
+
+	private static void write(final CompactDataOutput out,
+			final IMethodCoverage method) throws IOException {
+		out.writeUTF(method.getName());
+		out.writeUTF(method.getDesc());
+		writeOptional(out, method.getSignature());
+		write(out, method.getInstructionCounter());
+		write(out, method.getBranchCounter());
+		write(out, method.getComplexityCounter());
+		write(out, method.getMethodCounter());
+		final int first = method.getFirstLine();
+		if (first == ISourceNode.UNKNOWN_LINE) {
+			out.writeVarInt(0);
+			return;
+		}
+		final int last = method.getLastLine();
+		out.writeVarInt(last - first + 1);
+		out.writeVarInt(first);
+		for (int nr = first; nr <= last; nr++) {
+			final ILine line = method.getLine(nr);
+			write(out, line.getInstructionCounter());
+			write(out, line.getBranchCounter());
+		}
+	}
+
+	private static void write(final CompactDataOutput out,
+			final ICounter counter) throws IOException {
+		out.writeVarInt(counter.getMissedCount());
+		out.writeVarInt(counter.getCoveredCount());
+	}
+
+	private static void writeOptional(final CompactDataOutput out,
+			final String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	/**
+	 * Reads coverage data of a class written by
+	 * {@link #write(CompactDataOutput, IClassCoverage)}.
+	 *
+	 * @param in
+	 *            input to read from
+	 * @return coverage data of a class
+	 * @throws IOException
+	 *             if the input can't be read
+	 */
+	public static IClassCoverage read(final CompactDataInput in)
+			throws IOException {
+		final String name = in.readUTF();
+		final long id = in.readLong();
+		final boolean noMatch = in.readBoolean();
+		final ClassCoverageImpl coverage = new ClassCoverageImpl(name, id,
+				noMatch);
+		coverage.setSignature(readOptional(in));
+		coverage.setSuperName(readOptional(in));
+		final String[] interfaces = new String[in.readVarInt()];
+		for (int i = 0; i < interfaces.length; i++) {
+			interfaces[i] = in.readUTF();
+		}
+		coverage.setInterfaces(interfaces);
+		coverage.setSourceFileName(readOptional(in));
+		final int methods = in.readVarInt();
+		for (int i = 0; i < methods; i++) {
+			coverage.addMethod(readMethod(in));
+		}
+		return coverage;
+	}
+
+	private static IMethodCoverage readMethod(final CompactDataInput in)
+			throws IOException {
+		final String name = in.readUTF();
+		final String desc = in.readUTF();
+		final MethodCoverageImpl method = new MethodCoverageImpl(name, desc,
+				readOptional(in));
+		method.increment(new StoredNode(in));
+		return method;
+	}
+
+	private static CounterImpl readCounter(final CompactDataInput in)
+			throws IOException {
+		final int missed = in.readVarInt();
+		return CounterImpl.getInstance(missed, in.readVarInt());
+	}
+
+	private static String readOptional(final CompactDataInput in)
+			throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	/**
+	 * Counters of a method as read from the input, which are added to a new
+	 * method instance. Line counters are calculated from the lines then.
+	 */
+	private static class StoredNode extends CoverageNodeImpl
+			implements ISourceNode {
+
+		private final int first;
+
+		private final LineImpl[] lines;
+
+		StoredNode(final CompactDataInput in) throws IOException {
+			super(ElementType.METHOD, "");
+			instructionCounter = readCounter(in);
+			branchCounter = readCounter(in);
+			complexityCounter = readCounter(in);
+			methodCounter = readCounter(in);
+			lines = new LineImpl[in.readVarInt()];
+			first = lines.length == 0 ? UNKNOWN_LINE : in.readVarInt();
+			for (int i = 0; i < lines.length; i++) {
+				final int im = in.readVarInt();
+				final int ic = in.readVarInt();
+				final int bm = in.readVarInt();
+				lines[i] = LineImpl.getInstance(im, ic, bm, in.readVarInt());
+			}
+		}
+
+		public int getFirstLine() {
+			return first;
+		}
+
+		public int getLastLine() {
+			return lines.length == 0 ? UNKNOWN_LINE
+					: first + lines.length - 1;
+		}
+
+		public ILine getLine(final int nr) {
+			return lines[nr - first];
+		}
+
+	}
+
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.analysis;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * {@link StringPool} which is thread-safe and can be shared between multiple
+ * analyses. Strings are only weakly referenced by the pool, so the memory
+ * consumption is bounded by the strings which are still in use, e.g. by
+ * coverage models. The pool is split into segments with separate locks to
+ * reduce contention between concurrent threads. In exchange every lookup
+ * takes a lock and every new string allocates a weak reference.
+ */
+public final class ConcurrentStringPool extends StringPool {
+
+	private static final int SEGMENT_COUNT = 16;
+
+	private final Segment[] segments;
+
+	/**
+	 * Creates a new empty pool.
+	 */
+	public ConcurrentStringPool() {
+		segments = new Segment[SEGMENT_COUNT];
+		for (int i = 0; i < SEGMENT_COUNT; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	@Override
+	public String get(final String s) {
+		if (s == null) {
+			return null;
+		}
+		final int h = s.hashCode();
+		final Segment segment = segments[(h ^ (h >>> 16))
+				& (SEGMENT_COUNT - 1)];
+		synchronized (segment) {
+			final WeakReference<String> ref = segment.get(s);
+			if (ref != null) {
+				final String norm = ref.get();
+				if (norm != null) {
+					return norm;
+				}
+			}
+			segment.put(s, new WeakReference<String>(s));
+			return s;
+		}
+	}
+
+	/**
+	 * Part of the pool guarded by its own lock. The values only weakly
+	 * reference the keys, otherwise entries would never be released.
+	 */
+	private static class Segment
+			extends WeakHashMap<String, WeakReference<String>> {
+
+		Segment() {
+			super(64);
+		}
+
+	}
+
+}
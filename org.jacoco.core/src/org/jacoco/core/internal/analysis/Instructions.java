@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.analysis;
+
+import java.util.BitSet;
+
+import org.jacoco.core.analysis.ICounter;
+import org.objectweb.asm.tree.AbstractInsnNode;
+
+/**
+ * Execution status of the bytecode instructions of a single method internally
+ * used for coverage analysis. Every instruction is identified by its ordinal,
+ * i.e. the position at which it has been added. The state of all instructions
+ * is stored in arrays indexed by this ordinal, so no objects are allocated per
+ * instruction.
+ *
+ * The execution status is recorded separately for each outgoing branch of an
+ * instruction. Each instruction has at least one branch, for example in case
+ * of a simple sequence of instructions (by convention branch 0). Instances of
+ * this class are used in two steps:
+ *
+ * <h2>Step 1: Building the CFG</h2>
+ *
+ * For each bytecode instruction of a method an ordinal is created with
+ * {@link #add(AbstractInsnNode, int)}. In correspondence with the CFG the
+ * instructions are linked with each other with the <code>addBranch()</code>
+ * methods. The executions status is either directly derived from a probe which
+ * has been inserted in the execution flow
+ * ({@link #addBranch(int, boolean, int)}) or indirectly propagated along the
+ * CFG edges ({@link #addBranch(int, int, int)}).
+ *
+ * <h2>Step 2: Querying the Coverage Status</h2>
+ *
+ * After all instructions have been created and linked each instruction knows
+ * its execution status and can be queried with:
+ *
+ * <ul>
+ * <li>{@link #getLine(int)}</li>
+ * <li>{@link #getInstructionCounter(int)}</li>
+ * <li>{@link #getBranchCounter(int)}</li>
+ * </ul>
+ *
+ * For the purpose of filtering the status of instructions can be combined with
+ * {@link #merge(int, int)} and {@link #replaceBranches(int, int[])}. Unlike
+ * during the first step these methods do not propagate status changes to
+ * predecessors.
+ */
+class Instructions {
+
+	/** Marker for instructions without predecessor. */
+	static final int NONE = -1;
+
+	/** Number of branches which can be stored without a {@link BitSet}. */
+	private static final int WORD_SIZE = 64;
+
+	private int size;
+
+	private AbstractInsnNode[] nodes;
+
+	private int[] lines;
+
+	private int[] branches;
+
+	/** Covered branches 0 to 63 of every instruction. */
+	private long[] coveredBranches;
+
+	/** Covered branches above 63, only allocated if required. */
+	private BitSet[] coveredWideBranches;
+
+	private int[] predecessors;
+
+	private int[] predecessorBranches;
+
+	/**
+	 * Creates an empty instance.
+	 *
+	 * @param capacity
+	 *            initial number of instructions which can be added without
+	 *            growing the internal arrays
+	 */
+	Instructions(final int capacity) {
+		nodes = new AbstractInsnNode[capacity];
+		lines = new int[capacity];
+		branches = new int[capacity];
+		coveredBranches = new long[capacity];
+		predecessors = new int[capacity];
+		predecessorBranches = new int[capacity];
+	}
+
+	/**
+	 * Ensures that the given total number of instructions can be added
+	 * without growing the internal arrays again.
+	 *
+	 * @param capacity
+	 *            total number of instructions
+	 */
+	void ensureCapacity(final int capacity) {
+		if (capacity > lines.length) {
+			resize(capacity);
+		}
+	}
+
+	/**
+	 * Adds a new instruction without branches.
+	 *
+	 * @param node
+	 *            ASM node of the instruction
+	 * @param line
+	 *            source line the instruction belongs to
+	 * @return ordinal of the new instruction
+	 */
+	int add(final AbstractInsnNode node, final int line) {
+		if (size == lines.length) {
+			resize(Math.max(2 * size, 8));
+		}
+		nodes[size] = node;
+		lines[size] = line;
+		predecessors[size] = NONE;
+		return size++;
+	}
+
+	private void resize(final int capacity) {
+		nodes = copy(nodes, new AbstractInsnNode[capacity]);
+		lines = copy(lines, new int[capacity]);
+		branches = copy(branches, new int[capacity]);
+		coveredBranches = copy(coveredBranches, new long[capacity]);
+		predecessors = copy(predecessors, new int[capacity]);
+		predecessorBranches = copy(predecessorBranches, new int[capacity]);
+		if (coveredWideBranches != null) {
+			coveredWideBranches = copy(coveredWideBranches,
+					new BitSet[capacity]);
+		}
+	}
+
+	private <T> T copy(final T source, final T target) {
+		System.arraycopy(source, 0, target, 0, size);
+		return target;
+	}
+
+	/**
+	 * Returns the number of instructions.
+	 *
+	 * @return number of instructions
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the ASM node of the given instruction.
+	 *
+	 * @param insn
+	 *            instruction ordinal
+	 * @return corresponding ASM node
+	 */
+	AbstractInsnNode getNode(final int insn) {
+		return nodes[insn];
+	}
+
+	/**
+	 * Returns the source line the given instruction belongs to.
+	 *
+	 * @param insn
+	 *            instruction ordinal
+	 * @return corresponding source line
+	 */
+	int getLine(final int insn) {
+		return lines[insn];
+	}
+
+	/**
+	 * Adds a branch to the given instruction which execution status is
+	 * indirectly derived from the execution status of the target instruction.
+	 * In case the branch is covered the status is propagated also to the
+	 * predecessors of this instruction.
+	 *
+	 * Note: This method is not idempotent and must be called exactly once for
+	 * every branch.
+	 *
+	 * @param insn
+	 *            instruction ordinal
+	 * @param target
+	 *            target instruction ordinal of this branch
+	 * @param branch
+	 *            branch identifier unique for this instruction
+	 */
+	void addBranch(final int insn, final int target, final int branch) {
+		branches[insn]++;
+		predecessors[target] = insn;
+		predecessorBranches[target] = branch;
+		if (isCovered(target)) {
+			propagateExecutedBranch(insn, branch);
+		}
+	}
+
+	/**
+	 * Adds a branch to the given instruction which execution status is
+	 * directly derived from a probe. In case the branch is covered the status
+	 * is propagated also to the predecessors of this instruction.
+	 *
+	 * Note: This method is not idempotent and must be called exactly once for
+	 * every branch.
+	 *
+	 * @param insn
+	 *            instruction ordinal
+	 * @param executed
+	 *            whether the corresponding probe has been executed
+	 * @param branch
+	 *            branch identifier unique for this instruction
+	 */
+	void addBranch(final int insn, final boolean executed, final int branch) {
+		branches[insn]++;
+		if (executed) {
+			propagateExecutedBranch(insn, branch);
+		}
+	}
+
+	private void propagateExecutedBranch(int insn, int branch) {
+		// No recursion here, as there can be very long chains of instructions
+		while (insn != NONE) {
+			if (isCovered(insn)) {
+				setCovered(insn, branch);
+				break;
+			}
+			setCovered(insn, branch);
+			branch = predecessorBranches[insn];
+			insn = predecessors[insn];
+		}
+	}
+
+	private void setCovered(final int insn, final int branch) {
+		if (branch < WORD_SIZE) {
+			coveredBranches[insn] |= 1L << branch;
+		} else {
+			if (coveredWideBranches == null) {
+				coveredWideBranches = new BitSet[lines.length];
+			}
+			if (coveredWideBranches[insn] == null) {
+				coveredWideBranches[insn] = new BitSet();
+			}
+			coveredWideBranches[insn].set(branch);
+		}
+	}
+
+	/**
+	 * Checks whether at least one branch of the given instruction is covered.
+	 *
+	 * @param insn
+	 *            instruction ordinal
+	 * @return <code>true</code> if the instruction has been executed
+	 */
+	boolean isCovered(final int insn) {
+		return coveredBranches[insn] != 0 || (coveredWideBranches != null
+				&& coveredWideBranches[insn] != null);
+	}
+
+	private int getCoveredBranchCount(final int insn) {
+		int count = Long.bitCount(coveredBranches[insn]);
+		if (coveredWideBranches != null && coveredWideBranches[insn] != null) {
+			count += coveredWideBranches[insn].cardinality();
+		}
+		return count;
+	}
+
+	/**
+	 * Merges information about covered branches of another instruction into
+	 * the given instruction.
+	 *
+	 * @param insn
+	 *            instruction ordinal to merge into
+	 * @param other
+	 *            instruction ordinal to merge with
+	 */
+	void merge(final int insn, final int other) {
+		coveredBranches[insn] |= coveredBranches[other];
+		if (coveredWideBranches != null
+				&& coveredWideBranches[other] != null) {
+			if (coveredWideBranches[insn] == null) {
+				coveredWideBranches[insn] = new BitSet();
+			}
+			coveredWideBranches[insn].or(coveredWideBranches[other]);
+		}
+	}
+
+	/**
+	 * Replaces all outgoing branches of the given instruction with the given
+	 * instructions. The coverage status of the instruction is derived from the
+	 * status of the given instructions.
+	 *
+	 * @param insn
+	 *            instruction ordinal
+	 * @param newBranches
+	 *            ordinals of the new branches to consider
+	 */
+	void replaceBranches(final int insn, final int[] newBranches) {
+		int covered = 0;
+		for (final int b : newBranches) {
+			if (isCovered(b)) {
+				covered++;
+			}
+		}
+		branches[insn] = newBranches.length;
+		coveredBranches[insn] = 0;
+		if (coveredWideBranches != null) {
+			coveredWideBranches[insn] = null;
+		}
+		for (int i = 0; i < covered; i++) {
+			setCovered(insn, i);
+		}
+	}
+
+	/**
+	 * Returns the instruction coverage counter of the given instruction. It is
+	 * always 1 instruction which is covered or not.
+	 *
+	 * @param insn
+	 *            instruction ordinal
+	 * @return the instruction coverage counter
+	 */
+	ICounter getInstructionCounter(final int insn) {
+		return isCovered(insn) ? CounterImpl.COUNTER_0_1
+				: CounterImpl.COUNTER_1_0;
+	}
+
+	/**
+	 * Returns the branch coverage counter of the given instruction. Only
+	 * instructions with at least 2 outgoing edges report branches.
+	 *
+	 * @param insn
+	 *            instruction ordinal
+	 * @return the branch coverage counter
+	 */
+	ICounter getBranchCounter(final int insn) {
+		final int total = branches[insn];
+		if (total < 2) {
+			return CounterImpl.COUNTER_0_0;
+		}
+		final int covered = getCoveredBranchCount(insn);
+		return CounterImpl.getInstance(total - covered, covered);
+	}
+
+}
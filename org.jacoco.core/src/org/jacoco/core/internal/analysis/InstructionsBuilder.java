@@ -13,9 +13,9 @@
 package org.jacoco.core.internal.analysis;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 import org.jacoco.core.analysis.ISourceNode;
 import org.jacoco.core.internal.flow.LabelInfo;
@@ -23,7 +23,7 @@ import org.objectweb.asm.Label;
 import org.objectweb.asm.tree.AbstractInsnNode;
 
 /**
- * Stateful builder for the {@link Instruction}s of a method. All instructions
+ * Stateful builder for the {@link Instructions} of a method. All instructions
  * of a method must be added in their original sequence along with additional
  * information like line numbers. Afterwards the instructions can be obtained
  * with the <code>getInstructions()</code> method.
@@ -36,14 +36,11 @@ class InstructionsBuilder {
 	/** The line which belong to subsequently added instructions. */
 	private int currentLine;
 
-	/** The last instruction which has been added. */
-	private Instruction currentInsn;
+	/** Ordinal of the last instruction which has been added. */
+	private int currentInsn;
 
-	/**
-	 * All instructions of a method mapped from the ASM node to the
-	 * corresponding {@link Instruction} instance.
-	 */
-	private final Map<AbstractInsnNode, Instruction> instructions;
+	/** All instructions of a method. */
+	private final Instructions instructions;
 
 	/**
 	 * The labels which mark the subsequent instructions.
@@ -53,10 +50,33 @@ class InstructionsBuilder {
 	private final List<Label> currentLabel;
 
 	/**
-	 * List of all jumps within the control flow. We need to store jumps
-	 * temporarily as the target {@link Instruction} may not been known yet.
+	 * All jumps within the control flow stored as source instruction, target
+	 * label and branch. We need to store jumps temporarily as the target
+	 * instruction may not been known yet.
 	 */
-	private final List<Jump> jumps;
+	private int jumpCount;
+	private int[] jumpSources;
+	private Label[] jumpTargets;
+	private int[] jumpBranches;
+
+	/** Whether the method might contain derived probes. */
+	private final boolean derivedProbes;
+
+	/**
+	 * All edges relevant for derived probes stored as source instruction,
+	 * branch, probe id (or {@link LabelInfo#NO_PROBE} for derived probes),
+	 * start label of the block for derived probes and target label. Only
+	 * allocated if derived probes are expected.
+	 */
+	private int edgeCount;
+	private int[] edgeSources;
+	private int[] edgeBranches;
+	private int[] edgeProbes;
+	private Label[] edgeBlockStarts;
+	private Label[] edgeTargets;
+
+	/** Index of the edge which leads to the next label or -1. */
+	private int fallThroughEdge;
 
 	/**
 	 * Creates a new builder instance which can be used to analyze a single
@@ -67,12 +87,40 @@ class InstructionsBuilder {
 	 *            coverage status of every instruction.
 	 */
 	InstructionsBuilder(final boolean[] probes) {
+		this(probes, false);
+	}
+
+	/**
+	 * Creates a new builder instance which can be used to analyze a single
+	 * method.
+	 *
+	 * @param probes
+	 *            probe array of the corresponding class used to determine the
+	 *            coverage status of every instruction.
+	 * @param derivedProbes
+	 *            <code>true</code> if the method has been processed with a
+	 *            reduced probe set and might contain derived probes
+	 */
+	InstructionsBuilder(final boolean[] probes, final boolean derivedProbes) {
 		this.probes = probes;
+		this.derivedProbes = derivedProbes;
+		this.fallThroughEdge = -1;
 		this.currentLine = ISourceNode.UNKNOWN_LINE;
-		this.currentInsn = null;
-		this.instructions = new HashMap<AbstractInsnNode, Instruction>();
+		this.currentInsn = Instructions.NONE;
+		this.instructions = new Instructions(0);
 		this.currentLabel = new ArrayList<Label>(2);
-		this.jumps = new ArrayList<Jump>();
+		this.jumpCount = 0;
+		this.jumpSources = new int[16];
+		this.jumpTargets = new Label[16];
+		this.jumpBranches = new int[16];
+	}
+
+	/**
+	 * Declares the expected number of instructions to avoid incremental growth
+	 * of the internal data structures.
+	 */
+	void ensureCapacity(final int instructionCount) {
+		instructions.ensureCapacity(instructionCount);
 	}
 
 	/**
@@ -90,6 +138,10 @@ class InstructionsBuilder {
 	 * ASM internals multiple {@link Label}s can be added to an instruction.
 	 */
 	void addLabel(final Label label) {
+		if (fallThroughEdge != -1) {
+			edgeTargets[fallThroughEdge] = label;
+			fallThroughEdge = -1;
+		}
 		currentLabel.add(label);
 		if (!LabelInfo.isSuccessor(label)) {
 			noSuccessor();
@@ -101,7 +153,7 @@ class InstructionsBuilder {
 	 * previous instruction unless specified otherwise.
 	 */
 	void addInstruction(final AbstractInsnNode node) {
-		final Instruction insn = new Instruction(currentLine);
+		final int insn = instructions.add(node, currentLine);
 		final int labelCount = currentLabel.size();
 		if (labelCount > 0) {
 			for (int i = labelCount; --i >= 0;) {
@@ -109,11 +161,10 @@ class InstructionsBuilder {
 			}
 			currentLabel.clear();
 		}
-		if (currentInsn != null) {
-			currentInsn.addBranch(insn, 0);
+		if (currentInsn != Instructions.NONE) {
+			instructions.addBranch(currentInsn, insn, 0);
 		}
 		currentInsn = insn;
-		instructions.put(node, insn);
 	}
 
 	/**
@@ -122,7 +173,7 @@ class InstructionsBuilder {
 	 * when a probe was inserted before.
 	 */
 	void noSuccessor() {
-		currentInsn = null;
+		currentInsn = Instructions.NONE;
 	}
 
 	/**
@@ -134,7 +185,22 @@ class InstructionsBuilder {
 	 *            unique branch number
 	 */
 	void addJump(final Label target, final int branch) {
-		jumps.add(new Jump(currentInsn, target, branch));
+		if (jumpCount == jumpSources.length) {
+			final int capacity = jumpCount * 2;
+			final int[] sources = new int[capacity];
+			System.arraycopy(jumpSources, 0, sources, 0, jumpCount);
+			jumpSources = sources;
+			final Label[] targets = new Label[capacity];
+			System.arraycopy(jumpTargets, 0, targets, 0, jumpCount);
+			jumpTargets = targets;
+			final int[] branches = new int[capacity];
+			System.arraycopy(jumpBranches, 0, branches, 0, jumpCount);
+			jumpBranches = branches;
+		}
+		jumpSources[jumpCount] = currentInsn;
+		jumpTargets[jumpCount] = target;
+		jumpBranches[jumpCount] = branch;
+		jumpCount++;
 	}
 
 	/**
@@ -146,42 +212,165 @@ class InstructionsBuilder {
 	 *            unique branch number for the last instruction
 	 */
 	void addProbe(final int probeId, final int branch) {
-		final boolean executed = probes != null && probes[probeId];
-		currentInsn.addBranch(executed, branch);
+		instructions.addBranch(currentInsn, isExecuted(probeId), branch);
+	}
+
+	private boolean isExecuted(final int probeId) {
+		// Probe arrays of the wrong size are reported by the ClassAnalyzer
+		// once the total number of probes is known
+		return probes != null && probeId < probes.length && probes[probeId];
 	}
 
 	/**
-	 * Returns the status for all instructions of this method. This method must
-	 * be called exactly once after the instructions have been added.
+	 * Adds a new probe for the last instruction which guards the edge to the
+	 * given label.
 	 *
-	 * @return map of ASM instruction nodes to corresponding {@link Instruction}
-	 *         instances
+	 * @param probeId
+	 *            index in the probe array
+	 * @param branch
+	 *            unique branch number for the last instruction
+	 * @param target
+	 *            target label of the edge
 	 */
-	Map<AbstractInsnNode, Instruction> getInstructions() {
-		// Wire jumps:
-		for (final Jump j : jumps) {
-			j.wire();
+	void addProbe(final int probeId, final int branch, final Label target) {
+		addProbe(probeId, branch);
+		if (derivedProbes) {
+			addEdge(branch, probeId, null, target);
 		}
+	}
 
-		return instructions;
+	/**
+	 * Adds a new probe for the last instruction which guards the edge to the
+	 * subsequently added label.
+	 *
+	 * @param probeId
+	 *            index in the probe array
+	 */
+	void addFallThroughProbe(final int probeId) {
+		addProbe(probeId, 0);
+		if (derivedProbes) {
+			fallThroughEdge = addEdge(0, probeId, null, null);
+		}
 	}
 
-	private static class Jump {
+	/**
+	 * Adds a branch for the last instruction which is executed whenever the
+	 * block starting at the given label has been entered. The execution status
+	 * is derived from all edges leading to this label when the instructions
+	 * are obtained.
+	 *
+	 * @param blockStart
+	 *            label at the beginning of the current block
+	 * @param branch
+	 *            unique branch number for the last instruction
+	 * @param target
+	 *            target label of the edge or <code>null</code> if the edge
+	 *            leaves the method
+	 */
+	void addDerivedProbe(final Label blockStart, final int branch,
+			final Label target) {
+		addEdge(branch, LabelInfo.NO_PROBE, blockStart, target);
+	}
 
-		private final Instruction source;
-		private final Label target;
-		private final int branch;
+	/**
+	 * Adds a branch to the subsequently added label for the last instruction
+	 * which is executed whenever the block starting at the given label has
+	 * been entered.
+	 *
+	 * @param blockStart
+	 *            label at the beginning of the current block
+	 * @see #addDerivedProbe(Label, int, Label)
+	 */
+	void addDerivedFallThroughProbe(final Label blockStart) {
+		fallThroughEdge = addEdge(0, LabelInfo.NO_PROBE, blockStart, null);
+	}
 
-		Jump(final Instruction source, final Label target, final int branch) {
-			this.source = source;
-			this.target = target;
-			this.branch = branch;
+	private int addEdge(final int branch, final int probeId,
+			final Label blockStart, final Label target) {
+		if (edgeSources == null) {
+			edgeSources = new int[16];
+			edgeBranches = new int[16];
+			edgeProbes = new int[16];
+			edgeBlockStarts = new Label[16];
+			edgeTargets = new Label[16];
+		} else if (edgeCount == edgeSources.length) {
+			final int capacity = edgeCount * 2;
+			edgeSources = copy(edgeSources, new int[capacity]);
+			edgeBranches = copy(edgeBranches, new int[capacity]);
+			edgeProbes = copy(edgeProbes, new int[capacity]);
+			edgeBlockStarts = copy(edgeBlockStarts, new Label[capacity]);
+			edgeTargets = copy(edgeTargets, new Label[capacity]);
 		}
+		edgeSources[edgeCount] = currentInsn;
+		edgeBranches[edgeCount] = branch;
+		edgeProbes[edgeCount] = probeId;
+		edgeBlockStarts[edgeCount] = blockStart;
+		edgeTargets[edgeCount] = target;
+		return edgeCount++;
+	}
 
-		void wire() {
-			source.addBranch(LabelInfo.getInstruction(target), branch);
+	private <T> T copy(final T source, final T target) {
+		System.arraycopy(source, 0, target, 0, edgeCount);
+		return target;
+	}
+
+	/**
+	 * Returns the status for all instructions of this method. This method must
+	 * be called exactly once after the instructions have been added.
+	 *
+	 * @return all instructions in the order they have been added
+	 */
+	Instructions getInstructions() {
+		// Wire jumps:
+		for (int i = 0; i < jumpCount; i++) {
+			instructions.addBranch(jumpSources[i],
+					LabelInfo.getInstruction(jumpTargets[i]), jumpBranches[i]);
 		}
 
+		// Derived probes:
+		if (edgeCount > 0) {
+			final Set<Label> entered = getEnteredBlocks();
+			for (int i = 0; i < edgeCount; i++) {
+				if (edgeProbes[i] == LabelInfo.NO_PROBE) {
+					instructions.addBranch(edgeSources[i],
+							entered.contains(edgeBlockStarts[i]),
+							edgeBranches[i]);
+				}
+			}
+		}
+
+		return instructions;
+	}
+
+	/**
+	 * Calculates the labels which have been reached by at least one executed
+	 * edge. As derived edges may depend on each other, e.g. within loops, the
+	 * edges are evaluated until no additional label is found.
+	 */
+	private Set<Label> getEnteredBlocks() {
+		final Set<Label> entered = new HashSet<Label>();
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 0; i < edgeCount; i++) {
+				final Label target = edgeTargets[i];
+				if (target == null || entered.contains(target)) {
+					continue;
+				}
+				final int probeId = edgeProbes[i];
+				final boolean executed;
+				if (probeId == LabelInfo.NO_PROBE) {
+					executed = entered.contains(edgeBlockStarts[i]);
+				} else {
+					executed = isExecuted(probeId);
+				}
+				if (executed) {
+					entered.add(target);
+					changed = true;
+				}
+			}
+		}
+		return entered;
 	}
 
 }
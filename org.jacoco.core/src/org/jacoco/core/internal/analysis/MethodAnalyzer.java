@@ -23,7 +23,7 @@ import org.objectweb.asm.tree.MethodNode;
 import org.objectweb.asm.tree.TryCatchBlockNode;
 
 /**
- * A {@link MethodProbesVisitor} that builds the {@link Instruction}s of a
+ * A {@link MethodProbesVisitor} that builds the {@link Instructions} of a
  * method to calculate the detailed execution status.
  */
 public class MethodAnalyzer extends MethodProbesVisitor {
@@ -43,6 +43,7 @@ public class MethodAnalyzer extends MethodProbesVisitor {
 	@Override
 	public void accept(final MethodNode methodNode,
 			final MethodVisitor methodVisitor) {
+		builder.ensureCapacity(getInstructionCount(methodNode));
 		methodVisitor.visitCode();
 		for (final TryCatchBlockNode n : methodNode.tryCatchBlocks) {
 			n.accept(methodVisitor);
@@ -54,6 +55,21 @@ public class MethodAnalyzer extends MethodProbesVisitor {
 		methodVisitor.visitEnd();
 	}
 
+	/**
+	 * Counts the real instructions of the given method, i.e. all nodes except
+	 * labels, line numbers and frames.
+	 */
+	private static int getInstructionCount(final MethodNode methodNode) {
+		int count = 0;
+		for (AbstractInsnNode i = methodNode.instructions
+				.getFirst(); i != null; i = i.getNext()) {
+			if (i.getOpcode() != -1) {
+				count++;
+			}
+		}
+		return count;
+	}
+
 	@Override
 	public void visitLabel(final Label label) {
 		builder.addLabel(label);
@@ -152,7 +168,13 @@ public class MethodAnalyzer extends MethodProbesVisitor {
 
 	@Override
 	public void visitProbe(final int probeId) {
-		builder.addProbe(probeId, 0);
+		builder.addFallThroughProbe(probeId);
+		builder.noSuccessor();
+	}
+
+	@Override
+	public void visitDerivedProbe(final Label blockStart) {
+		builder.addDerivedFallThroughProbe(blockStart);
 		builder.noSuccessor();
 	}
 
@@ -160,7 +182,14 @@ public class MethodAnalyzer extends MethodProbesVisitor {
 	public void visitJumpInsnWithProbe(final int opcode, final Label label,
 			final int probeId, final IFrame frame) {
 		builder.addInstruction(currentNode);
-		builder.addProbe(probeId, 1);
+		builder.addProbe(probeId, 1, label);
+	}
+
+	@Override
+	public void visitJumpInsnWithDerivedProbe(final int opcode,
+			final Label label, final Label blockStart) {
+		builder.addInstruction(currentNode);
+		builder.addDerivedProbe(blockStart, 1, label);
 	}
 
 	@Override
@@ -169,6 +198,13 @@ public class MethodAnalyzer extends MethodProbesVisitor {
 		builder.addProbe(probeId, 0);
 	}
 
+	@Override
+	public void visitInsnWithDerivedProbe(final int opcode,
+			final Label blockStart) {
+		builder.addInstruction(currentNode);
+		builder.addDerivedProbe(blockStart, 0, null);
+	}
+
 	@Override
 	public void visitTableSwitchInsnWithProbes(final int min, final int max,
 			final Label dflt, final Label[] labels, final IFrame frame) {
@@ -200,7 +236,7 @@ public class MethodAnalyzer extends MethodProbesVisitor {
 			if (id == LabelInfo.NO_PROBE) {
 				builder.addJump(label, branch);
 			} else {
-				builder.addProbe(id, branch);
+				builder.addProbe(id, branch, label);
 			}
 			LabelInfo.setDone(label);
 		}
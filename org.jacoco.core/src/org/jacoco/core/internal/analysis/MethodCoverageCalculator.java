@@ -12,17 +12,13 @@
  *******************************************************************************/
 package org.jacoco.core.internal.analysis;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Arrays;
 import java.util.Set;
 
 import org.jacoco.core.analysis.ISourceNode;
 import org.jacoco.core.internal.analysis.filter.IFilterOutput;
 import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InsnList;
 
 /**
  * Calculates the filtered coverage of a single method. A instance of this class
@@ -31,9 +27,17 @@ import org.objectweb.asm.tree.AbstractInsnNode;
  */
 class MethodCoverageCalculator implements IFilterOutput {
 
-	private final Map<AbstractInsnNode, Instruction> instructions;
+	private final Instructions instructions;
 
-	private final Set<AbstractInsnNode> ignored;
+	private final InsnList nodes;
+
+	/**
+	 * Instruction ordinals indexed by the position of the corresponding node
+	 * in {@link #nodes}, created on demand.
+	 */
+	private int[] ordinals;
+
+	private final boolean[] ignored;
 
 	/**
 	 * Instructions that should be merged form disjoint sets. Coverage
@@ -44,18 +48,27 @@ class MethodCoverageCalculator implements IFilterOutput {
 	 * one references another element from the same set, element without
 	 * reference - is a representative of this set.
 	 *
-	 * This map stores reference (value) for elements of sets (key).
+	 * This array stores reference (value) for elements of sets (index), it is
+	 * created on demand.
 	 */
-	private final Map<AbstractInsnNode, AbstractInsnNode> merged;
+	private int[] merged;
 
-	private final Map<AbstractInsnNode, Set<AbstractInsnNode>> replacements;
+	/** New branches of instructions (index), created on demand. */
+	private int[][] replacements;
 
-	MethodCoverageCalculator(
-			final Map<AbstractInsnNode, Instruction> instructions) {
+	/**
+	 * Creates a calculator for the given instructions.
+	 *
+	 * @param instructions
+	 *            instructions of the method
+	 * @param nodes
+	 *            list which contains the ASM nodes of all instructions
+	 */
+	MethodCoverageCalculator(final Instructions instructions,
+			final InsnList nodes) {
 		this.instructions = instructions;
-		this.ignored = new HashSet<AbstractInsnNode>();
-		this.merged = new HashMap<AbstractInsnNode, AbstractInsnNode>();
-		this.replacements = new HashMap<AbstractInsnNode, Set<AbstractInsnNode>>();
+		this.nodes = nodes;
+		this.ignored = new boolean[instructions.size()];
 	}
 
 	/**
@@ -70,12 +83,11 @@ class MethodCoverageCalculator implements IFilterOutput {
 		applyReplacements();
 		ensureCapacity(coverage);
 
-		for (final Entry<AbstractInsnNode, Instruction> entry : instructions
-				.entrySet()) {
-			if (!ignored.contains(entry.getKey())) {
-				final Instruction instruction = entry.getValue();
-				coverage.increment(instruction.getInstructionCounter(),
-						instruction.getBranchCounter(), instruction.getLine());
+		for (int i = 0; i < ignored.length; i++) {
+			if (!ignored[i]) {
+				coverage.increment(instructions.getInstructionCounter(i),
+						instructions.getBranchCounter(i),
+						instructions.getLine(i));
 			}
 		}
 
@@ -83,39 +95,31 @@ class MethodCoverageCalculator implements IFilterOutput {
 	}
 
 	private void applyMerges() {
-		// Merge to the representative:
-		for (final Entry<AbstractInsnNode, AbstractInsnNode> entry : merged
-				.entrySet()) {
-			final AbstractInsnNode node = entry.getKey();
-			final Instruction instruction = instructions.get(node);
-			final AbstractInsnNode representativeNode = findRepresentative(
-					node);
-			ignored.add(node);
-			instructions.put(representativeNode,
-					instructions.get(representativeNode).merge(instruction));
-			entry.setValue(representativeNode);
+		if (merged == null) {
+			return;
 		}
-
-		// Get merged value back from representative
-		for (final Entry<AbstractInsnNode, AbstractInsnNode> entry : merged
-				.entrySet()) {
-			instructions.put(entry.getKey(),
-					instructions.get(entry.getValue()));
+		// Merge to the representative:
+		for (int i = 0; i < merged.length; i++) {
+			if (merged[i] != Instructions.NONE) {
+				ignored[i] = true;
+				instructions.merge(findRepresentative(i), i);
+			}
 		}
 	}
 
 	private void applyReplacements() {
-		for (final Entry<AbstractInsnNode, Set<AbstractInsnNode>> entry : replacements
-				.entrySet()) {
-			final Set<AbstractInsnNode> replacements = entry.getValue();
-			final List<Instruction> newBranches = new ArrayList<Instruction>(
-					replacements.size());
-			for (final AbstractInsnNode b : replacements) {
-				newBranches.add(instructions.get(b));
+		if (replacements == null) {
+			return;
+		}
+		for (int i = 0; i < replacements.length; i++) {
+			final int[] newBranches = replacements[i];
+			if (newBranches != null) {
+				// Merged instructions share the value of the representative:
+				for (int b = 0; b < newBranches.length; b++) {
+					newBranches[b] = findRepresentative(newBranches[b]);
+				}
+				instructions.replaceBranches(i, newBranches);
 			}
-			final AbstractInsnNode node = entry.getKey();
-			instructions.put(node,
-					instructions.get(node).replaceBranches(newBranches));
 		}
 	}
 
@@ -123,10 +127,9 @@ class MethodCoverageCalculator implements IFilterOutput {
 		// Determine line range:
 		int firstLine = ISourceNode.UNKNOWN_LINE;
 		int lastLine = ISourceNode.UNKNOWN_LINE;
-		for (final Entry<AbstractInsnNode, Instruction> entry : instructions
-				.entrySet()) {
-			if (!ignored.contains(entry.getKey())) {
-				final int line = entry.getValue().getLine();
+		for (int i = 0; i < ignored.length; i++) {
+			if (!ignored[i]) {
+				final int line = instructions.getLine(i);
 				if (line != ISourceNode.UNKNOWN_LINE) {
 					if (firstLine > line
 							|| lastLine == ISourceNode.UNKNOWN_LINE) {
@@ -143,36 +146,77 @@ class MethodCoverageCalculator implements IFilterOutput {
 		coverage.ensureCapacity(firstLine, lastLine);
 	}
 
-	private AbstractInsnNode findRepresentative(AbstractInsnNode i) {
-		AbstractInsnNode r;
-		while ((r = merged.get(i)) != null) {
-			i = r;
+	private int findRepresentative(int i) {
+		if (merged != null) {
+			int r;
+			while ((r = merged[i]) != Instructions.NONE) {
+				i = r;
+			}
 		}
 		return i;
 	}
 
+	/**
+	 * Returns the ordinal of the instruction for the given node.
+	 *
+	 * @return ordinal or {@link Instructions#NONE} if the node does not
+	 *         represent an instruction, e.g. for labels or <code>null</code>
+	 */
+	private int ordinal(final AbstractInsnNode node) {
+		if (node == null) {
+			return Instructions.NONE;
+		}
+		if (ordinals == null) {
+			ordinals = new int[nodes.size()];
+			Arrays.fill(ordinals, Instructions.NONE);
+			for (int i = 0; i < ignored.length; i++) {
+				ordinals[nodes.indexOf(instructions.getNode(i))] = i;
+			}
+		}
+		return ordinals[nodes.indexOf(node)];
+	}
+
 	// === IFilterOutput API ===
 
 	public void ignore(final AbstractInsnNode fromInclusive,
 			final AbstractInsnNode toInclusive) {
 		for (AbstractInsnNode i = fromInclusive; i != toInclusive; i = i
 				.getNext()) {
-			ignored.add(i);
+			ignore(i);
 		}
-		ignored.add(toInclusive);
+		ignore(toInclusive);
 	}
 
-	public void merge(AbstractInsnNode i1, AbstractInsnNode i2) {
-		i1 = findRepresentative(i1);
-		i2 = findRepresentative(i2);
-		if (i1 != i2) {
-			merged.put(i2, i1);
+	private void ignore(final AbstractInsnNode node) {
+		final int i = ordinal(node);
+		if (i != Instructions.NONE) {
+			ignored[i] = true;
+		}
+	}
+
+	public void merge(final AbstractInsnNode i1, final AbstractInsnNode i2) {
+		if (merged == null) {
+			merged = new int[ignored.length];
+			Arrays.fill(merged, Instructions.NONE);
+		}
+		final int r1 = findRepresentative(ordinal(i1));
+		final int r2 = findRepresentative(ordinal(i2));
+		if (r1 != r2) {
+			merged[r2] = r1;
 		}
 	}
 
 	public void replaceBranches(final AbstractInsnNode source,
 			final Set<AbstractInsnNode> newTargets) {
-		replacements.put(source, newTargets);
+		if (replacements == null) {
+			replacements = new int[ignored.length][];
+		}
+		final int[] newBranches = new int[newTargets.size()];
+		int b = 0;
+		for (final AbstractInsnNode target : newTargets) {
+			newBranches[b++] = ordinal(target);
+		}
+		replacements[ordinal(source)] = newBranches;
 	}
 
 }
@@ -12,6 +12,9 @@
  *******************************************************************************/
 package org.jacoco.core.internal.analysis;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.jacoco.core.analysis.CoverageNodeImpl;
 import org.jacoco.core.analysis.ICounter;
 import org.jacoco.core.analysis.ILine;
@@ -19,14 +22,30 @@ import org.jacoco.core.analysis.ISourceNode;
 
 /**
  * Implementation of {@link ISourceNode}.
+ *
+ * The counters of every line are packed into a single <code>int</code> value
+ * with 10 bits for missed and covered instructions and 6 bits for missed and
+ * covered branches. {@link ILine} instances are only created on request. Lines
+ * with counter values exceeding this range are kept separately.
  */
 public class SourceNodeImpl extends CoverageNodeImpl implements ISourceNode {
 
-	private LineImpl[] lines;
+	/** Marker for lines which are stored in {@link #overflow}. */
+	private static final int OVERFLOW = -1;
+
+	private static final int INSTRUCTION_MASK = 0x3FF;
+
+	private static final int BRANCH_MASK = 0x3F;
+
+	/** packed counters of every line, 0 for lines without code */
+	private int[] lines;
 
 	/** first line number in {@link #lines} */
 	private int offset;
 
+	/** lines with counter values which can't be packed, by line number */
+	private Map<Integer, LineImpl> overflow;
+
 	/**
 	 * Create a new source node implementation instance.
 	 *
@@ -57,13 +76,13 @@ public class SourceNodeImpl extends CoverageNodeImpl implements ISourceNode {
 		}
 		if (lines == null) {
 			offset = first;
-			lines = new LineImpl[last - first + 1];
+			lines = new int[last - first + 1];
 		} else {
 			final int newFirst = Math.min(getFirstLine(), first);
 			final int newLast = Math.max(getLastLine(), last);
 			final int newLength = newLast - newFirst + 1;
 			if (newLength > lines.length) {
-				final LineImpl[] newLines = new LineImpl[newLength];
+				final int[] newLines = new int[newLength];
 				System.arraycopy(lines, 0, newLines, offset - newFirst,
 						lines.length);
 				offset = newFirst;
@@ -92,10 +111,31 @@ public class SourceNodeImpl extends CoverageNodeImpl implements ISourceNode {
 		if (firstLine != UNKNOWN_LINE) {
 			final int lastLine = child.getLastLine();
 			ensureCapacity(firstLine, lastLine);
-			for (int i = firstLine; i <= lastLine; i++) {
-				final ILine line = child.getLine(i);
+			if (child instanceof SourceNodeImpl) {
+				incrementLines((SourceNodeImpl) child);
+			} else {
+				for (int i = firstLine; i <= lastLine; i++) {
+					final ILine line = child.getLine(i);
+					incrementLine(line.getInstructionCounter(),
+							line.getBranchCounter(), i);
+				}
+			}
+		}
+	}
+
+	private void incrementLines(final SourceNodeImpl child) {
+		final int[] childLines = child.lines;
+		for (int i = 0; i < childLines.length; i++) {
+			final int value = childLines[i];
+			final int nr = child.offset + i;
+			if (value == OVERFLOW) {
+				final LineImpl line = child.overflow.get(Integer.valueOf(nr));
 				incrementLine(line.getInstructionCounter(),
-						line.getBranchCounter(), i);
+						line.getBranchCounter(), nr);
+			} else if (value != 0) {
+				incrementLine(value & INSTRUCTION_MASK,
+						(value >>> 10) & INSTRUCTION_MASK,
+						(value >>> 20) & BRANCH_MASK, value >>> 26, nr);
 			}
 		}
 	}
@@ -123,21 +163,42 @@ public class SourceNodeImpl extends CoverageNodeImpl implements ISourceNode {
 
 	private void incrementLine(final ICounter instructions,
 			final ICounter branches, final int line) {
+		incrementLine(instructions.getMissedCount(),
+				instructions.getCoveredCount(), branches.getMissedCount(),
+				branches.getCoveredCount(), line);
+	}
+
+	private void incrementLine(final int im, final int ic, final int bm,
+			final int bc, final int line) {
 		ensureCapacity(line, line);
-		final LineImpl l = getLine(line);
-		final int oldTotal = l.getInstructionCounter().getTotalCount();
-		final int oldCovered = l.getInstructionCounter().getCoveredCount();
-		lines[line - offset] = l.increment(instructions, branches);
+		final int index = line - offset;
+		final int value = lines[index];
+		final int oldMissed;
+		final int oldCovered;
+		if (value == OVERFLOW) {
+			final Integer key = Integer.valueOf(line);
+			final LineImpl l = overflow.get(key);
+			oldMissed = l.getInstructionCounter().getMissedCount();
+			oldCovered = l.getInstructionCounter().getCoveredCount();
+			overflow.put(key, l.increment(CounterImpl.getInstance(im, ic),
+					CounterImpl.getInstance(bm, bc)));
+		} else {
+			oldMissed = value & INSTRUCTION_MASK;
+			oldCovered = (value >>> 10) & INSTRUCTION_MASK;
+			setLine(index, oldMissed + im, oldCovered + ic,
+					((value >>> 20) & BRANCH_MASK) + bm,
+					(value >>> 26) + bc);
+		}
 
 		// Increment line counter:
-		if (instructions.getTotalCount() > 0) {
-			if (instructions.getCoveredCount() == 0) {
-				if (oldTotal == 0) {
+		if (im + ic > 0) {
+			if (ic == 0) {
+				if (oldMissed + oldCovered == 0) {
 					lineCounter = lineCounter
 							.increment(CounterImpl.COUNTER_1_0);
 				}
 			} else {
-				if (oldTotal == 0) {
+				if (oldMissed + oldCovered == 0) {
 					lineCounter = lineCounter
 							.increment(CounterImpl.COUNTER_0_1);
 				} else {
@@ -149,6 +210,21 @@ public class SourceNodeImpl extends CoverageNodeImpl implements ISourceNode {
 		}
 	}
 
+	private void setLine(final int index, final int im, final int ic,
+			final int bm, final int bc) {
+		if (im < INSTRUCTION_MASK && ic < INSTRUCTION_MASK
+				&& bm < BRANCH_MASK && bc < BRANCH_MASK) {
+			lines[index] = im | (ic << 10) | (bm << 20) | (bc << 26);
+		} else {
+			if (overflow == null) {
+				overflow = new HashMap<Integer, LineImpl>();
+			}
+			overflow.put(Integer.valueOf(offset + index),
+					LineImpl.getInstance(im, ic, bm, bc));
+			lines[index] = OVERFLOW;
+		}
+	}
+
 	// === ISourceNode implementation ===
 
 	public int getFirstLine() {
@@ -163,8 +239,13 @@ public class SourceNodeImpl extends CoverageNodeImpl implements ISourceNode {
 		if (lines == null || nr < getFirstLine() || nr > getLastLine()) {
 			return LineImpl.EMPTY;
 		}
-		final LineImpl line = lines[nr - offset];
-		return line == null ? LineImpl.EMPTY : line;
+		final int value = lines[nr - offset];
+		if (value == OVERFLOW) {
+			return overflow.get(Integer.valueOf(nr));
+		}
+		return LineImpl.getInstance(value & INSTRUCTION_MASK,
+				(value >>> 10) & INSTRUCTION_MASK,
+				(value >>> 20) & BRANCH_MASK, value >>> 26);
 	}
 
 }
@@ -21,10 +21,14 @@ import java.util.Map;
  * <code>equals()</code> is <code>true</code> for two strings they will be
  * represented the same instance. While this is exactly what
  * {@link String#intern()} does, this implementation avoids VM specific side
- * effects and is supposed to be faster, as neither native code is called nor
- * synchronization is required for concurrent lookup.
+ * effects and is supposed to be faster, as no native code is called.
+ *
+ * Instances of this class are not thread-safe and strongly reference all
+ * strings for their lifetime, therefore an instance should only be used for a
+ * single analysis. {@link ConcurrentStringPool} can be shared between
+ * analyses on multiple threads.
  */
-public final class StringPool {
+public class StringPool {
 
 	private static final String[] EMPTY_ARRAY = new String[0];
 
@@ -12,10 +12,15 @@
  *******************************************************************************/
 package org.jacoco.core.internal.analysis.filter;
 
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
 /**
- * Filter that combines other filters.
+ * Filter that combines other filters. Every filter is registered with the
+ * characteristics a method must have so that the filter can possibly match.
+ * These characteristics are determined once per method and filters that can
+ * not match are skipped.
  */
 public final class Filters implements IFilter {
 
@@ -24,17 +29,43 @@ public final class Filters implements IFilter {
 	 */
 	public static final IFilter NONE = new Filters();
 
+	/** Filter may match any method. */
+	static final int ANY = 0;
+
+	/** Enclosing class has been compiled by the Kotlin compiler. */
+	static final int KOTLIN = 1;
+
+	/** Method has exception handlers. */
+	static final int TRY_CATCH = 1 << 1;
+
+	/** Method contains LOOKUPSWITCH or TABLESWITCH instructions. */
+	static final int SWITCH = 1 << 2;
+
+	/** Method contains ATHROW instructions. */
+	static final int ATHROW = 1 << 3;
+
+	/** Method contains MONITOREXIT instructions. */
+	static final int MONITOREXIT = 1 << 4;
+
+	/** Method contains IFNONNULL instructions. */
+	static final int IFNONNULL = 1 << 5;
+
+	/** Method contains GETSTATIC or PUTSTATIC instructions. */
+	static final int STATIC_FIELD = 1 << 6;
+
 	private final IFilter[] filters;
 
+	private final int[] requirements;
+
 	/**
 	 * Creates filter that combines all other filters.
 	 *
 	 * @return filter that combines all other filters
 	 */
 	public static IFilter all() {
-		return new Filters(new EnumFilter(), new SyntheticFilter(),
-				new BridgeFilter(), new SynchronizedFilter(),
-				new TryWithResourcesJavac11Filter(),
+		return new Filters(new IFilter[] { new EnumFilter(),
+				new SyntheticFilter(), new BridgeFilter(),
+				new SynchronizedFilter(), new TryWithResourcesJavac11Filter(),
 				new TryWithResourcesJavacFilter(),
 				new TryWithResourcesEcjFilter(), new FinallyFilter(),
 				new PrivateEmptyNoArgConstructorFilter(), new AssertFilter(),
@@ -46,18 +77,104 @@ public final class Filters implements IFilter {
 				new KotlinUnsafeCastOperatorFilter(),
 				new KotlinNotNullOperatorFilter(),
 				new KotlinDefaultArgumentsFilter(), new KotlinInlineFilter(),
-				new KotlinCoroutineFilter(), new KotlinDefaultMethodsFilter());
+				new KotlinCoroutineFilter(), new KotlinDefaultMethodsFilter() },
+				new int[] { ANY, // EnumFilter
+						ANY, // SyntheticFilter
+						ANY, // BridgeFilter
+						TRY_CATCH | MONITOREXIT, // SynchronizedFilter
+						TRY_CATCH | ATHROW, // TryWithResourcesJavac11Filter
+						TRY_CATCH | ATHROW, // TryWithResourcesJavacFilter
+						TRY_CATCH | ATHROW, // TryWithResourcesEcjFilter
+						TRY_CATCH, // FinallyFilter
+						ANY, // PrivateEmptyNoArgConstructorFilter
+						STATIC_FIELD, // AssertFilter
+						SWITCH, // StringSwitchJavacFilter
+						SWITCH, // StringSwitchFilter
+						ANY, // EnumEmptyConstructorFilter
+						ANY, // RecordsFilter
+						ANY, // AnnotationGeneratedFilter
+						KOTLIN, // KotlinGeneratedFilter
+						IFNONNULL, // KotlinLateinitFilter
+						ATHROW, // KotlinWhenFilter
+						SWITCH, // KotlinWhenStringFilter
+						KOTLIN | ATHROW, // KotlinUnsafeCastOperatorFilter
+						IFNONNULL, // KotlinNotNullOperatorFilter
+						KOTLIN, // KotlinDefaultArgumentsFilter
+						KOTLIN, // KotlinInlineFilter
+						KOTLIN, // KotlinCoroutineFilter
+						KOTLIN // KotlinDefaultMethodsFilter
+				});
+	}
+
+	private Filters() {
+		this(new IFilter[0], new int[0]);
 	}
 
-	private Filters(final IFilter... filters) {
+	/**
+	 * Creates a filter that invokes every given filter only for methods that
+	 * have all characteristics of the corresponding requirements.
+	 *
+	 * @param filters
+	 *            filters to combine
+	 * @param requirements
+	 *            characteristics required by the filter at the same index
+	 */
+	Filters(final IFilter[] filters, final int[] requirements) {
 		this.filters = filters;
+		this.requirements = requirements;
 	}
 
 	public void filter(final MethodNode methodNode,
 			final IFilterContext context, final IFilterOutput output) {
-		for (final IFilter filter : filters) {
-			filter.filter(methodNode, context, output);
+		if (filters.length == 0) {
+			return;
+		}
+		final int characteristics = characteristicsOf(methodNode, context);
+		for (int i = 0; i < filters.length; i++) {
+			if ((characteristics & requirements[i]) == requirements[i]) {
+				filters[i].filter(methodNode, context, output);
+			}
+		}
+	}
+
+	/**
+	 * Determines the characteristics of the given method with a single pass
+	 * over its instructions.
+	 */
+	static int characteristicsOf(final MethodNode methodNode,
+			final IFilterContext context) {
+		int characteristics = 0;
+		if (KotlinGeneratedFilter.isKotlinClass(context)) {
+			characteristics |= KOTLIN;
+		}
+		if (!methodNode.tryCatchBlocks.isEmpty()) {
+			characteristics |= TRY_CATCH;
+		}
+		for (AbstractInsnNode i = methodNode.instructions
+				.getFirst(); i != null; i = i.getNext()) {
+			switch (i.getOpcode()) {
+			case Opcodes.LOOKUPSWITCH:
+			case Opcodes.TABLESWITCH:
+				characteristics |= SWITCH;
+				break;
+			case Opcodes.ATHROW:
+				characteristics |= ATHROW;
+				break;
+			case Opcodes.MONITOREXIT:
+				characteristics |= MONITOREXIT;
+				break;
+			case Opcodes.IFNONNULL:
+				characteristics |= IFNONNULL;
+				break;
+			case Opcodes.GETSTATIC:
+			case Opcodes.PUTSTATIC:
+				characteristics |= STATIC_FIELD;
+				break;
+			default:
+				break;
+			}
 		}
+		return characteristics;
 	}
 
 }
@@ -23,6 +23,8 @@ import java.io.InputStream;
  */
 public class CompactDataInput extends DataInputStream {
 
+	private byte[] buffer = new byte[0];
+
 	/**
 	 * Creates a new {@link CompactDataInput} that uses the specified underlying
 	 * input stream.
@@ -50,7 +52,8 @@ public class CompactDataInput extends DataInputStream {
 	}
 
 	/**
-	 * Reads a boolean array.
+	 * Reads a boolean array. The packed bytes are read at once into a buffer
+	 * which is reused by subsequent calls.
 	 *
 	 * @return boolean array
 	 * @throws IOException
@@ -58,13 +61,30 @@ public class CompactDataInput extends DataInputStream {
 	 */
 	public boolean[] readBooleanArray() throws IOException {
 		final boolean[] value = new boolean[readVarInt()];
-		int buffer = 0;
-		for (int i = 0; i < value.length; i++) {
-			if ((i % 8) == 0) {
-				buffer = readByte();
+		final int size = (value.length + 7) >> 3;
+		if (buffer.length < size) {
+			buffer = new byte[size];
+		}
+		readFully(buffer, 0, size);
+		final int full = value.length >> 3;
+		int i = 0;
+		for (int b = 0; b < full; b++, i += 8) {
+			final int bits = buffer[b];
+			value[i] = (bits & 0x01) != 0;
+			value[i + 1] = (bits & 0x02) != 0;
+			value[i + 2] = (bits & 0x04) != 0;
+			value[i + 3] = (bits & 0x08) != 0;
+			value[i + 4] = (bits & 0x10) != 0;
+			value[i + 5] = (bits & 0x20) != 0;
+			value[i + 6] = (bits & 0x40) != 0;
+			value[i + 7] = (bits & 0x80) != 0;
+		}
+		if (full < size) {
+			int bits = buffer[full];
+			for (; i < value.length; i++) {
+				value[i] = (bits & 0x01) != 0;
+				bits >>>= 1;
 			}
-			value[i] = (buffer & 0x01) != 0;
-			buffer >>>= 1;
 		}
 		return value;
 	}
@@ -23,6 +23,8 @@ import java.io.OutputStream;
  */
 public class CompactDataOutput extends DataOutputStream {
 
+	private byte[] buffer = new byte[0];
+
 	/**
 	 * Creates a new {@link CompactDataOutput} instance that writes data to the
 	 * specified underlying output stream
@@ -55,7 +57,8 @@ public class CompactDataOutput extends DataOutputStream {
 
 	/**
 	 * Writes a boolean array. Internally a sequence of boolean values is packed
-	 * into single bits.
+	 * into single bits. The packed bytes are collected in a buffer which is
+	 * reused by subsequent calls and written to the underlying stream at once.
 	 *
 	 * @param value
 	 *            boolean array
@@ -64,21 +67,29 @@ public class CompactDataOutput extends DataOutputStream {
 	 */
 	public void writeBooleanArray(final boolean[] value) throws IOException {
 		writeVarInt(value.length);
-		int buffer = 0;
-		int bufferSize = 0;
-		for (final boolean b : value) {
-			if (b) {
-				buffer |= 0x01 << bufferSize;
-			}
-			if (++bufferSize == 8) {
-				writeByte(buffer);
-				buffer = 0;
-				bufferSize = 0;
-			}
+		final int size = (value.length + 7) >> 3;
+		if (buffer.length < size) {
+			buffer = new byte[size];
 		}
-		if (bufferSize > 0) {
-			writeByte(buffer);
+		final int full = value.length >> 3;
+		int i = 0;
+		for (int b = 0; b < full; b++, i += 8) {
+			buffer[b] = (byte) ((value[i] ? 0x01 : 0)
+					| (value[i + 1] ? 0x02 : 0) | (value[i + 2] ? 0x04 : 0)
+					| (value[i + 3] ? 0x08 : 0) | (value[i + 4] ? 0x10 : 0)
+					| (value[i + 5] ? 0x20 : 0) | (value[i + 6] ? 0x40 : 0)
+					| (value[i + 7] ? 0x80 : 0));
+		}
+		if (full < size) {
+			int last = 0;
+			for (int bit = 0; i < value.length; i++, bit++) {
+				if (value[i]) {
+					last |= 0x01 << bit;
+				}
+			}
+			buffer[full] = (byte) last;
 		}
+		write(buffer, 0, size);
 	}
 
 }
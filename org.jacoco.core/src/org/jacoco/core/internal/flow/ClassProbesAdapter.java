@@ -16,6 +16,7 @@ import org.jacoco.core.internal.instr.InstrSupport;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.commons.AnalyzerAdapter;
+import org.objectweb.asm.tree.MethodNode;
 
 /**
  * A {@link org.objectweb.asm.ClassVisitor} that calculates probes for every
@@ -31,6 +32,8 @@ public class ClassProbesAdapter extends ClassVisitor
 
 	private final boolean trackFrames;
 
+	private final boolean reducedProbes;
+
 	private int counter = 0;
 
 	private String name;
@@ -45,9 +48,27 @@ public class ClassProbesAdapter extends ClassVisitor
 	 */
 	public ClassProbesAdapter(final ClassProbesVisitor cv,
 			final boolean trackFrames) {
+		this(cv, trackFrames, false);
+	}
+
+	/**
+	 * Creates a new adapter that delegates to the given visitor.
+	 *
+	 * @param cv
+	 *            instance to delegate to
+	 * @param trackFrames
+	 *            if <code>true</code> stackmap frames are tracked and provided
+	 * @param reducedProbes
+	 *            if <code>true</code> probes are omitted for edges whose
+	 *            execution status can be derived from other probes
+	 * @see MethodProbesAdapter
+	 */
+	public ClassProbesAdapter(final ClassProbesVisitor cv,
+			final boolean trackFrames, final boolean reducedProbes) {
 		super(InstrSupport.ASM_API_VERSION, cv);
 		this.cv = cv;
 		this.trackFrames = trackFrames;
+		this.reducedProbes = reducedProbes;
 	}
 
 	@Override
@@ -76,19 +97,28 @@ public class ClassProbesAdapter extends ClassVisitor
 				exceptions) {
 
 			@Override
-			public void visitEnd() {
-				super.visitEnd();
-				LabelFlowAnalyzer.markLabels(this);
+			void visitSanitized(final MethodNode method) {
+				final int scope = LabelInfo.beginMethod();
+				try {
+					process(method);
+				} finally {
+					LabelInfo.endMethod(scope);
+				}
+			}
+
+			private void process(final MethodNode method) {
+				LabelFlowAnalyzer.markLabels(method);
 				final MethodProbesAdapter probesAdapter = new MethodProbesAdapter(
-						methodProbes, ClassProbesAdapter.this);
+						methodProbes, ClassProbesAdapter.this,
+						reducedProbes);
 				if (trackFrames) {
 					final AnalyzerAdapter analyzer = new AnalyzerAdapter(
 							ClassProbesAdapter.this.name, access, name, desc,
 							probesAdapter);
 					probesAdapter.setAnalyzer(analyzer);
-					methodProbes.accept(this, analyzer);
+					methodProbes.accept(method, analyzer);
 				} else {
-					methodProbes.accept(this, probesAdapter);
+					methodProbes.accept(method, probesAdapter);
 				}
 			}
 		};
@@ -77,6 +77,7 @@ public final class LabelFlowAnalyzer extends MethodVisitor {
 
 		// Mark exception handler as possible target of the block
 		LabelInfo.setTarget(handler);
+		LabelInfo.setImplicitTarget(handler);
 	}
 
 	@Override
@@ -93,6 +94,7 @@ public final class LabelFlowAnalyzer extends MethodVisitor {
 	public void visitLabel(final Label label) {
 		if (first) {
 			LabelInfo.setTarget(label);
+			LabelInfo.setImplicitTarget(label);
 		}
 		if (successor) {
 			LabelInfo.setSuccessor(label);
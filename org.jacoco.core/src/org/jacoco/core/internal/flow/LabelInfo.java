@@ -12,13 +12,17 @@
  *******************************************************************************/
 package org.jacoco.core.internal.flow;
 
-import org.jacoco.core.internal.analysis.Instruction;
 import org.objectweb.asm.Label;
 
 /**
  * Data container that is attached to {@link Label#info} objects to store flow
  * and instrumentation specific information. The information is only valid
  * locally in specific contexts.
+ *
+ * Within a method scope opened with {@link #beginMethod()} instances are taken
+ * from a pool of the current thread and are recycled for the next method when
+ * the scope is closed with {@link #endMethod(int)}. Outside of such scopes new
+ * instances are created.
  */
 public final class LabelInfo {
 
@@ -27,12 +31,32 @@ public final class LabelInfo {
 	 */
 	public static final int NO_PROBE = -1;
 
+	/**
+	 * Reserved ordinal for "no instruction".
+	 */
+	public static final int NO_INSTRUCTION = -1;
+
+	/** Maximum number of instances kept in the pool of a thread. */
+	static final int MAX_POOL_SIZE = 1024;
+
+	private static final ThreadLocal<Pool> POOL = new ThreadLocal<Pool>() {
+		@Override
+		protected Pool initialValue() {
+			return new Pool();
+		}
+	};
+
+	/** label this instance is currently attached to */
+	private Label label;
+
 	private boolean target = false;
 
 	private boolean multiTarget = false;
 
 	private boolean successor = false;
 
+	private boolean implicitTarget = false;
+
 	private boolean methodInvocationLine = false;
 
 	private boolean done = false;
@@ -41,12 +65,57 @@ public final class LabelInfo {
 
 	private Label intermediate = null;
 
-	private Instruction instruction = null;
+	private int instruction = NO_INSTRUCTION;
 
 	// instances are only created within this class
 	private LabelInfo() {
 	}
 
+	private void reset() {
+		target = false;
+		multiTarget = false;
+		successor = false;
+		implicitTarget = false;
+		methodInvocationLine = false;
+		done = false;
+		probeid = NO_PROBE;
+		intermediate = null;
+		instruction = NO_INSTRUCTION;
+	}
+
+	/**
+	 * Opens a scope for the labels of a single method. Information attached to
+	 * labels within this scope is only valid until the scope is closed. Scopes
+	 * may be nested, e.g. if a class is instrumented while another class is
+	 * processed on the same thread.
+	 *
+	 * @return marker which has to be passed to {@link #endMethod(int)}
+	 */
+	public static int beginMethod() {
+		final Pool pool = POOL.get();
+		pool.scopes++;
+		return pool.size;
+	}
+
+	/**
+	 * Closes the scope opened with the corresponding call to
+	 * {@link #beginMethod()}. All instances created within the scope are
+	 * released for reuse.
+	 *
+	 * @param marker
+	 *            marker returned by {@link #beginMethod()}
+	 */
+	public static void endMethod(final int marker) {
+		final Pool pool = POOL.get();
+		for (int i = marker; i < pool.size; i++) {
+			// Release references to labels of the method
+			pool.infos[i].label = null;
+			pool.infos[i].intermediate = null;
+		}
+		pool.size = marker;
+		pool.scopes--;
+	}
+
 	/**
 	 * Defines that the given label is a jump target.
 	 *
@@ -77,6 +146,32 @@ public final class LabelInfo {
 		}
 	}
 
+	/**
+	 * Defines that the given label is reached by control flow which is not
+	 * expressed by an instruction of the method, i.e. it is the entry of the
+	 * method or an exception handler.
+	 *
+	 * @param label
+	 *            label to define
+	 */
+	public static void setImplicitTarget(final Label label) {
+		create(label).implicitTarget = true;
+	}
+
+	/**
+	 * Checks whether the given label is reached by control flow which is not
+	 * expressed by an instruction of the method.
+	 *
+	 * @param label
+	 *            label to check
+	 * @return <code>true</code> if the label is the entry of the method or an
+	 *         exception handler
+	 */
+	public static boolean isImplicitTarget(final Label label) {
+		final LabelInfo info = get(label);
+		return info == null ? false : info.implicitTarget;
+	}
+
 	/**
 	 * Checks whether multiple control paths lead to a label. Control flow path
 	 * to a certain label are: jump targets, exception handlers and normal
@@ -250,10 +345,10 @@ public final class LabelInfo {
 	 * @param label
 	 *            label to set the instruction for
 	 * @param instruction
-	 *            corresponding instruction
+	 *            ordinal of the corresponding instruction
 	 */
 	public static void setInstruction(final Label label,
-			final Instruction instruction) {
+			final int instruction) {
 		create(label).instruction = instruction;
 	}
 
@@ -263,25 +358,69 @@ public final class LabelInfo {
 	 *
 	 * @param label
 	 *            label to look for
-	 * @return corresponding instruction or <code>null</code>
+	 * @return ordinal of the corresponding instruction or
+	 *         {@link #NO_INSTRUCTION}
 	 */
-	public static Instruction getInstruction(final Label label) {
+	public static int getInstruction(final Label label) {
 		final LabelInfo info = get(label);
-		return info == null ? null : info.instruction;
+		return info == null ? NO_INSTRUCTION : info.instruction;
 	}
 
 	private static LabelInfo get(final Label label) {
 		final Object info = label.info;
-		return info instanceof LabelInfo ? (LabelInfo) info : null;
+		if (info instanceof LabelInfo) {
+			final LabelInfo labelInfo = (LabelInfo) info;
+			// The instance might have been recycled for another label
+			if (labelInfo.label == label) {
+				return labelInfo;
+			}
+		}
+		return null;
 	}
 
 	private static LabelInfo create(final Label label) {
 		LabelInfo info = get(label);
 		if (info == null) {
-			info = new LabelInfo();
+			info = POOL.get().next();
+			info.label = label;
 			label.info = info;
 		}
 		return info;
 	}
 
+	/**
+	 * Instances of a single thread which can be reused.
+	 */
+	private static final class Pool {
+
+		private LabelInfo[] infos = new LabelInfo[16];
+
+		/** number of instances in use */
+		private int size = 0;
+
+		/** number of open scopes */
+		private int scopes = 0;
+
+		LabelInfo next() {
+			if (scopes == 0 || size == MAX_POOL_SIZE) {
+				return new LabelInfo();
+			}
+			if (size == infos.length) {
+				final LabelInfo[] newInfos = new LabelInfo[2 * size];
+				System.arraycopy(infos, 0, newInfos, 0, size);
+				infos = newInfos;
+			}
+			LabelInfo info = infos[size];
+			if (info == null) {
+				info = new LabelInfo();
+				infos[size] = info;
+			} else {
+				info.reset();
+			}
+			size++;
+			return info;
+		}
+
+	}
+
 }
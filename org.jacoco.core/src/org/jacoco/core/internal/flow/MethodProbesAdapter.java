@@ -16,6 +16,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.jacoco.core.internal.instr.InstrSupport;
+import org.objectweb.asm.Handle;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
@@ -24,6 +25,20 @@ import org.objectweb.asm.commons.AnalyzerAdapter;
 /**
  * Adapter that creates additional visitor events for probes to be inserted into
  * a method.
+ *
+ * Optionally the probe set can be reduced: Every edge of the control flow to a
+ * label with multiple predecessors carries a probe. Therefore a block starting
+ * at such a label is known to be executed if any of these probes has been
+ * executed. Unconditional edges leaving such a block (fall through to the next
+ * label, method exits and GOTO instructions) do not need a probe of their own.
+ * Instead they are reported as derived probes so that an analyzer can
+ * reconstruct their execution status. Labels reached by the method entry or
+ * by exception handlers never start such blocks. Also labels within the range
+ * of a try/catch block never start such blocks, as exceptions may leave them
+ * to a handler of the same method. Edges leaving a block which contains an
+ * instruction that may throw an exception (e.g. method invocations, field and
+ * array access, allocations or ATHROW) always carry a probe, as the exception
+ * may leave the block before its end.
  */
 public final class MethodProbesAdapter extends MethodVisitor {
 
@@ -35,6 +50,23 @@ public final class MethodProbesAdapter extends MethodVisitor {
 
 	private final Map<Label, Label> tryCatchProbeLabels;
 
+	private final boolean reducedProbes;
+
+	/**
+	 * Change of the number of enclosing try/catch ranges at the start and end
+	 * labels of all try/catch blocks.
+	 */
+	private final Map<Label, Integer> tryCatchBoundaries;
+
+	/** Number of try/catch ranges enclosing the current instruction. */
+	private int tryCatchDepth;
+
+	/**
+	 * Start of the current block if its execution status can be derived from
+	 * the probes of all edges leading to it, otherwise <code>null</code>.
+	 */
+	private Label blockStart;
+
 	/**
 	 * Create a new adapter instance.
 	 *
@@ -45,10 +77,30 @@ public final class MethodProbesAdapter extends MethodVisitor {
 	 */
 	public MethodProbesAdapter(final MethodProbesVisitor probesVisitor,
 			final IProbeIdGenerator idGenerator) {
+		this(probesVisitor, idGenerator, false);
+	}
+
+	/**
+	 * Create a new adapter instance.
+	 *
+	 * @param probesVisitor
+	 *            visitor to delegate to
+	 * @param idGenerator
+	 *            generator for unique probe ids
+	 * @param reducedProbes
+	 *            if <code>true</code> probes are omitted for edges whose
+	 *            execution status can be derived from other probes
+	 */
+	public MethodProbesAdapter(final MethodProbesVisitor probesVisitor,
+			final IProbeIdGenerator idGenerator, final boolean reducedProbes) {
 		super(InstrSupport.ASM_API_VERSION, probesVisitor);
 		this.probesVisitor = probesVisitor;
 		this.idGenerator = idGenerator;
 		this.tryCatchProbeLabels = new HashMap<Label, Label>();
+		this.reducedProbes = reducedProbes;
+		this.tryCatchBoundaries = new HashMap<Label, Integer>();
+		this.tryCatchDepth = 0;
+		this.blockStart = null;
 	}
 
 	/**
@@ -65,10 +117,20 @@ public final class MethodProbesAdapter extends MethodVisitor {
 	@Override
 	public void visitTryCatchBlock(final Label start, final Label end,
 			final Label handler, final String type) {
+		if (reducedProbes) {
+			addTryCatchBoundary(start, 1);
+			addTryCatchBoundary(end, -1);
+		}
 		probesVisitor.visitTryCatchBlock(getTryCatchLabel(start),
 				getTryCatchLabel(end), handler, type);
 	}
 
+	private void addTryCatchBoundary(final Label label, final int delta) {
+		final Integer current = tryCatchBoundaries.get(label);
+		tryCatchBoundaries.put(label, Integer.valueOf(
+				current == null ? delta : current.intValue() + delta));
+	}
+
 	private Label getTryCatchLabel(Label label) {
 		if (tryCatchProbeLabels.containsKey(label)) {
 			label = tryCatchProbeLabels.get(label);
@@ -89,21 +151,72 @@ public final class MethodProbesAdapter extends MethodVisitor {
 			if (tryCatchProbeLabels.containsKey(label)) {
 				probesVisitor.visitLabel(tryCatchProbeLabels.get(label));
 			}
-			probesVisitor.visitProbe(idGenerator.nextId());
+			if (blockStart == null) {
+				probesVisitor.visitProbe(idGenerator.nextId());
+			} else {
+				probesVisitor.visitDerivedProbe(blockStart);
+			}
 		}
 		probesVisitor.visitLabel(label);
+		final Integer boundary = tryCatchBoundaries.get(label);
+		if (boundary != null) {
+			tryCatchDepth += boundary.intValue();
+		}
+		// Labels which are not successors always follow instructions which
+		// already terminated the current block. Labels without flow
+		// information (e.g. inserted by the AnalyzerAdapter) must not have an
+		// effect, as they only exist if frames are tracked.
+		if (LabelInfo.isMultiTarget(label)) {
+			blockStart = reducedProbes && tryCatchDepth == 0
+					&& !LabelInfo.isImplicitTarget(label) ? label : null;
+		}
 	}
 
 	@Override
 	public void visitInsn(final int opcode) {
 		switch (opcode) {
+		case Opcodes.IALOAD:
+		case Opcodes.LALOAD:
+		case Opcodes.FALOAD:
+		case Opcodes.DALOAD:
+		case Opcodes.AALOAD:
+		case Opcodes.BALOAD:
+		case Opcodes.CALOAD:
+		case Opcodes.SALOAD:
+		case Opcodes.IASTORE:
+		case Opcodes.LASTORE:
+		case Opcodes.FASTORE:
+		case Opcodes.DASTORE:
+		case Opcodes.AASTORE:
+		case Opcodes.BASTORE:
+		case Opcodes.CASTORE:
+		case Opcodes.SASTORE:
+		case Opcodes.ARRAYLENGTH:
+		case Opcodes.IDIV:
+		case Opcodes.LDIV:
+		case Opcodes.IREM:
+		case Opcodes.LREM:
+		case Opcodes.MONITORENTER:
+		case Opcodes.MONITOREXIT:
+			blockStart = null;
+			probesVisitor.visitInsn(opcode);
+			break;
 		case Opcodes.IRETURN:
 		case Opcodes.LRETURN:
 		case Opcodes.FRETURN:
 		case Opcodes.DRETURN:
 		case Opcodes.ARETURN:
 		case Opcodes.RETURN:
+			if (blockStart == null) {
+				probesVisitor.visitInsnWithProbe(opcode,
+						idGenerator.nextId());
+			} else {
+				probesVisitor.visitInsnWithDerivedProbe(opcode, blockStart);
+			}
+			blockStart = null;
+			break;
 		case Opcodes.ATHROW:
+			blockStart = null;
 			probesVisitor.visitInsnWithProbe(opcode, idGenerator.nextId());
 			break;
 		default:
@@ -112,14 +225,78 @@ public final class MethodProbesAdapter extends MethodVisitor {
 		}
 	}
 
+	@Override
+	public void visitIntInsn(final int opcode, final int operand) {
+		if (opcode == Opcodes.NEWARRAY) {
+			blockStart = null;
+		}
+		probesVisitor.visitIntInsn(opcode, operand);
+	}
+
+	@Override
+	public void visitTypeInsn(final int opcode, final String type) {
+		// NEW, ANEWARRAY, CHECKCAST and INSTANCEOF may fail to resolve the type
+		blockStart = null;
+		probesVisitor.visitTypeInsn(opcode, type);
+	}
+
+	@Override
+	public void visitFieldInsn(final int opcode, final String owner,
+			final String name, final String descriptor) {
+		blockStart = null;
+		probesVisitor.visitFieldInsn(opcode, owner, name, descriptor);
+	}
+
+	@Override
+	public void visitMethodInsn(final int opcode, final String owner,
+			final String name, final String descriptor,
+			final boolean isInterface) {
+		blockStart = null;
+		probesVisitor.visitMethodInsn(opcode, owner, name, descriptor,
+				isInterface);
+	}
+
+	@Override
+	public void visitInvokeDynamicInsn(final String name,
+			final String descriptor, final Handle bootstrapMethodHandle,
+			final Object... bootstrapMethodArguments) {
+		blockStart = null;
+		probesVisitor.visitInvokeDynamicInsn(name, descriptor,
+				bootstrapMethodHandle, bootstrapMethodArguments);
+	}
+
+	@Override
+	public void visitLdcInsn(final Object value) {
+		if (!(value instanceof Number) && !(value instanceof String)) {
+			// Loading types, handles and dynamic constants may fail
+			blockStart = null;
+		}
+		probesVisitor.visitLdcInsn(value);
+	}
+
+	@Override
+	public void visitMultiANewArrayInsn(final String descriptor,
+			final int numDimensions) {
+		blockStart = null;
+		probesVisitor.visitMultiANewArrayInsn(descriptor, numDimensions);
+	}
+
 	@Override
 	public void visitJumpInsn(final int opcode, final Label label) {
 		if (LabelInfo.isMultiTarget(label)) {
-			probesVisitor.visitJumpInsnWithProbe(opcode, label,
-					idGenerator.nextId(), frame(jumpPopCount(opcode)));
+			if (opcode == Opcodes.GOTO && blockStart != null) {
+				probesVisitor.visitJumpInsnWithDerivedProbe(opcode, label,
+						blockStart);
+			} else {
+				probesVisitor.visitJumpInsnWithProbe(opcode, label,
+						idGenerator.nextId(), frame(jumpPopCount(opcode)));
+			}
 		} else {
 			probesVisitor.visitJumpInsn(opcode, label);
 		}
+		// The fall through of conditional jumps is not executed whenever
+		// the block is entered:
+		blockStart = null;
 	}
 
 	private int jumpPopCount(final int opcode) {
@@ -143,6 +320,7 @@ public final class MethodProbesAdapter extends MethodVisitor {
 	@Override
 	public void visitLookupSwitchInsn(final Label dflt, final int[] keys,
 			final Label[] labels) {
+		blockStart = null;
 		if (markLabels(dflt, labels)) {
 			probesVisitor.visitLookupSwitchInsnWithProbes(dflt, keys, labels,
 					frame(1));
@@ -154,6 +332,7 @@ public final class MethodProbesAdapter extends MethodVisitor {
 	@Override
 	public void visitTableSwitchInsn(final int min, final int max,
 			final Label dflt, final Label... labels) {
+		blockStart = null;
 		if (markLabels(dflt, labels)) {
 			probesVisitor.visitTableSwitchInsnWithProbes(min, max, dflt, labels,
 					frame(1));
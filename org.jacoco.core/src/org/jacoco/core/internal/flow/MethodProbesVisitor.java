@@ -95,6 +95,63 @@ public abstract class MethodProbesVisitor extends MethodVisitor {
 	public void visitInsnWithProbe(final int opcode, final int probeId) {
 	}
 
+	/**
+	 * Visits an edge of the control flow to the subsequent label which does
+	 * not get a probe, as the edge is executed whenever the block starting at
+	 * the given label is entered. The execution status of the edge can be
+	 * derived from the execution status of all edges leading to this label.
+	 * This event is emitted instead of {@link #visitProbe(int)} in case the
+	 * probe set is reduced.
+	 *
+	 * @param blockStart
+	 *            label at the beginning of the current block
+	 */
+	@SuppressWarnings("unused")
+	public void visitDerivedProbe(final Label blockStart) {
+	}
+
+	/**
+	 * Visits a jump instruction without probe whose execution status can be
+	 * derived from the block starting at the given label. This event is
+	 * emitted for GOTO instructions instead of
+	 * {@link #visitJumpInsnWithProbe(int, Label, int, IFrame)} in case the
+	 * probe set is reduced. The default implementation emits the instruction
+	 * with {@link #visitJumpInsn(int, Label)}.
+	 *
+	 * @param opcode
+	 *            the opcode of the jump instruction, always GOTO
+	 * @param label
+	 *            target of the jump
+	 * @param blockStart
+	 *            label at the beginning of the current block
+	 * @see #visitDerivedProbe(Label)
+	 */
+	public void visitJumpInsnWithDerivedProbe(final int opcode,
+			final Label label, final Label blockStart) {
+		visitJumpInsn(opcode, label);
+	}
+
+	/**
+	 * Visits a zero operand instruction that terminates the method without
+	 * probe. The execution status can be derived from the block starting at
+	 * the given label. This event is emitted instead of
+	 * {@link #visitInsnWithProbe(int, int)} in case the probe set is reduced.
+	 * The default implementation emits the instruction with
+	 * {@link #visitInsn(int)}.
+	 *
+	 * @param opcode
+	 *            the opcode of the instruction to be visited. This opcode is
+	 *            either IRETURN, LRETURN, FRETURN, DRETURN, ARETURN, RETURN or
+	 *            ATHROW.
+	 * @param blockStart
+	 *            label at the beginning of the current block
+	 * @see #visitDerivedProbe(Label)
+	 */
+	public void visitInsnWithDerivedProbe(final int opcode,
+			final Label blockStart) {
+		visitInsn(opcode);
+	}
+
 	/**
 	 * Visits a TABLESWITCH instruction with optional probes for each target
 	 * label. Implementations can be optimized based on the fact that the same
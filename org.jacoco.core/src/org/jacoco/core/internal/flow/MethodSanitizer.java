@@ -15,7 +15,9 @@ package org.jacoco.core.internal.flow;
 import org.jacoco.core.internal.instr.InstrSupport;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.commons.JSRInlinerAdapter;
+import org.objectweb.asm.tree.MethodNode;
 
 /**
  * This method visitor fixes two potential issues with Java byte code:
@@ -28,14 +30,59 @@ import org.objectweb.asm.commons.JSRInlinerAdapter;
  * to invalid offsets which some tools create. When writing out such invalid
  * labels with ASM class files do not verify any more.</li>
  * </ul>
+ *
+ * The method is recorded as a {@link MethodNode}. As subroutines are rare and
+ * not allowed in class files since Java 7 the inlining state is only created
+ * for methods which actually contain a JSR instruction.
  */
-class MethodSanitizer extends JSRInlinerAdapter {
+class MethodSanitizer extends MethodNode {
+
+	private boolean subroutines = false;
 
 	MethodSanitizer(final MethodVisitor mv, final int access, final String name,
 			final String desc, final String signature,
 			final String[] exceptions) {
-		super(InstrSupport.ASM_API_VERSION, mv, access, name, desc, signature,
+		super(InstrSupport.ASM_API_VERSION, access, name, desc, signature,
 				exceptions);
+		this.mv = mv;
+	}
+
+	@Override
+	public void visitJumpInsn(final int opcode, final Label label) {
+		if (opcode == Opcodes.JSR) {
+			subroutines = true;
+		}
+		super.visitJumpInsn(opcode, label);
+	}
+
+	@Override
+	public void visitEnd() {
+		super.visitEnd();
+		if (subroutines) {
+			final MethodNode inliner = new JSRInlinerAdapter(
+					InstrSupport.ASM_API_VERSION, null, access, name, desc,
+					signature,
+					exceptions.toArray(new String[exceptions.size()])) {
+			};
+			accept(inliner);
+			visitSanitized(inliner);
+		} else {
+			visitSanitized(this);
+		}
+	}
+
+	/**
+	 * Called after the method has been visited completely. By default the
+	 * sanitized method is emitted to the next visitor, if any.
+	 *
+	 * @param method
+	 *            the sanitized method, this instance or a new instance in case
+	 *            subroutines have been inlined
+	 */
+	void visitSanitized(final MethodNode method) {
+		if (mv != null) {
+			method.accept(mv);
+		}
 	}
 
 	@Override
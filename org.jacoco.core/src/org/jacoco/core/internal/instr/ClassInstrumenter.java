@@ -17,9 +17,13 @@ import org.jacoco.core.internal.flow.MethodProbesVisitor;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
 
 /**
- * Adapter that instruments a class for coverage tracing.
+ * Adapter that instruments a class for coverage tracing. If the given strategy
+ * adds a hit method (see {@link HitMethodProbeArrayStrategy}) probes are
+ * inserted as calls of this method, otherwise the probe array is stored in a
+ * local variable of every method.
  */
 public class ClassInstrumenter extends ClassProbesVisitor {
 
@@ -27,6 +31,8 @@ public class ClassInstrumenter extends ClassProbesVisitor {
 
 	private String className;
 
+	private boolean isInterface;
+
 	/**
 	 * Emits a instrumented version of this class to the given class visitor.
 	 *
@@ -47,6 +53,7 @@ public class ClassInstrumenter extends ClassProbesVisitor {
 			final String signature, final String superName,
 			final String[] interfaces) {
 		this.className = name;
+		this.isInterface = (access & Opcodes.ACC_INTERFACE) != 0;
 		super.visit(version, access, name, signature, superName, interfaces);
 	}
 
@@ -71,6 +78,12 @@ public class ClassInstrumenter extends ClassProbesVisitor {
 			return null;
 		}
 		final MethodVisitor frameEliminator = new DuplicateFrameEliminator(mv);
+		if (probeArrayStrategy instanceof HitMethodProbeArrayStrategy) {
+			final HitMethodProbeInserter hitMethodInserter = new HitMethodProbeInserter(
+					frameEliminator, className, isInterface);
+			return new MethodInstrumenter(hitMethodInserter,
+					hitMethodInserter);
+		}
 		final ProbeInserter probeVariableInserter = new ProbeInserter(access,
 				name, desc, frameEliminator, probeArrayStrategy);
 		return new MethodInstrumenter(probeVariableInserter,
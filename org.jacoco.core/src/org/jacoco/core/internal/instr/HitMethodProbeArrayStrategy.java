@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.instr;
+
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * This strategy decorates another strategy and additionally adds a static
+ * method which sets a single probe. Methods of the instrumented type call this
+ * method for every probe, see {@link HitMethodProbeInserter}, so they do not
+ * need to retrieve the probe array themselves. The decorated strategy must
+ * allow to retrieve the probe array from any method.
+ */
+class HitMethodProbeArrayStrategy implements IProbeArrayStrategy {
+
+	private final IProbeArrayStrategy delegate;
+
+	HitMethodProbeArrayStrategy(final IProbeArrayStrategy delegate) {
+		this.delegate = delegate;
+	}
+
+	public int storeInstance(final MethodVisitor mv, final boolean clinit,
+			final int variable) {
+		return delegate.storeInstance(mv, clinit, variable);
+	}
+
+	public void addMembers(final ClassVisitor cv, final int probeCount) {
+		delegate.addMembers(cv, probeCount);
+		createHitMethod(cv);
+	}
+
+	private void createHitMethod(final ClassVisitor cv) {
+		final MethodVisitor mv = cv.visitMethod(InstrSupport.INITMETHOD_ACC,
+				InstrSupport.HITMETHOD_NAME, InstrSupport.HITMETHOD_DESC, null,
+				null);
+		mv.visitCode();
+		final int size = delegate.storeInstance(mv, false, 1);
+		mv.visitVarInsn(Opcodes.ALOAD, 1);
+
+		// Stack[0]: [Z
+
+		mv.visitVarInsn(Opcodes.ILOAD, 0);
+
+		// Stack[1]: I
+		// Stack[0]: [Z
+
+		mv.visitInsn(Opcodes.ICONST_1);
+
+		// Stack[2]: I
+		// Stack[1]: I
+		// Stack[0]: [Z
+
+		mv.visitInsn(Opcodes.BASTORE);
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(Math.max(size, 3), 2);
+		mv.visitEnd();
+	}
+
+}
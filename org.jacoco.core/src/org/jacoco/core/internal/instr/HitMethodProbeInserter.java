@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.internal.instr;
+
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Internal utility to add probes into the control flow of a method as calls of
+ * the hit method added by {@link HitMethodProbeArrayStrategy}. In contrast to
+ * {@link ProbeInserter} no local variable for the probe array is required and
+ * the code for a single probe is smaller. Therefore instrumented methods grow
+ * less and small methods more likely stay within the bytecode size limits for
+ * inlining of the JIT compiler.
+ */
+class HitMethodProbeInserter extends MethodVisitor implements IProbeInserter {
+
+	private final String owner;
+
+	private final boolean isInterface;
+
+	/**
+	 * Creates a new {@link HitMethodProbeInserter}.
+	 *
+	 * @param mv
+	 *            the method visitor to which this adapter delegates calls
+	 * @param owner
+	 *            name of the type declaring the hit method
+	 * @param isInterface
+	 *            whether the owner is an interface
+	 */
+	HitMethodProbeInserter(final MethodVisitor mv, final String owner,
+			final boolean isInterface) {
+		super(InstrSupport.ASM_API_VERSION, mv);
+		this.owner = owner;
+		this.isInterface = isInterface;
+	}
+
+	public void insertProbe(final int id) {
+		InstrSupport.push(mv, id);
+
+		// Stack[0]: I
+
+		mv.visitMethodInsn(Opcodes.INVOKESTATIC, owner,
+				InstrSupport.HITMETHOD_NAME, InstrSupport.HITMETHOD_DESC,
+				isInterface);
+	}
+
+	@Override
+	public void visitMaxs(final int maxStack, final int maxLocals) {
+		// The probe code only pushes the probe id which can add to the original
+		// stack size depending on the probe locations.
+		mv.visitMaxs(maxStack + 1, maxLocals);
+	}
+
+}
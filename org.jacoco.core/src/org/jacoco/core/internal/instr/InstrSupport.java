@@ -159,6 +159,18 @@ public final class InstrSupport {
 	 */
 	static final int CLINIT_ACC = Opcodes.ACC_SYNTHETIC | Opcodes.ACC_STATIC;
 
+	// === Hit Method ===
+
+	/**
+	 * Name of the method which sets a single probe.
+	 */
+	public static final String HITMETHOD_NAME = "$jacocoHit";
+
+	/**
+	 * Descriptor of the method which sets a single probe.
+	 */
+	public static final String HITMETHOD_DESC = "(I)V";
+
 	/**
 	 * Gets major version number from given bytes of class (unsigned two bytes
 	 * at offset 6).
@@ -234,7 +246,8 @@ public final class InstrSupport {
 	 */
 	public static void assertNotInstrumented(final String member,
 			final String owner) throws IllegalStateException {
-		if (member.equals(DATAFIELD_NAME) || member.equals(INITMETHOD_NAME)) {
+		if (member.equals(DATAFIELD_NAME) || member.equals(INITMETHOD_NAME)
+				|| member.equals(HITMETHOD_NAME)) {
 			throw new IllegalStateException(format(
 					"Cannot process instrumented class %s. Please supply original non-instrumented classes.",
 					owner));
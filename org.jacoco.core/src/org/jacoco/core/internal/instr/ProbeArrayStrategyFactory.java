@@ -42,18 +42,69 @@ public final class ProbeArrayStrategyFactory {
 	public static IProbeArrayStrategy createFor(final long classId,
 			final ClassReader reader,
 			final IExecutionDataAccessorGenerator accessorGenerator) {
+		return createFor(classId, reader, accessorGenerator, false);
+	}
+
+	/**
+	 * Creates a suitable strategy instance for the class described by the given
+	 * reader. Created instance must be used only to process a class or
+	 * interface for which it has been created and must be used only once.
+	 *
+	 * @param classId
+	 *            class identifier
+	 * @param reader
+	 *            reader to get information about the class
+	 * @param accessorGenerator
+	 *            accessor to the coverage runtime
+	 * @param reducedProbes
+	 *            <code>true</code> if the class is instrumented with a reduced
+	 *            probe set
+	 * @return strategy instance
+	 */
+	public static IProbeArrayStrategy createFor(final long classId,
+			final ClassReader reader,
+			final IExecutionDataAccessorGenerator accessorGenerator,
+			final boolean reducedProbes) {
+		return createFor(classId, reader, accessorGenerator, reducedProbes,
+				false);
+	}
+
+	/**
+	 * Creates a suitable strategy instance for the class described by the given
+	 * reader. Created instance must be used only to process a class or
+	 * interface for which it has been created and must be used only once.
+	 *
+	 * @param classId
+	 *            class identifier
+	 * @param reader
+	 *            reader to get information about the class
+	 * @param accessorGenerator
+	 *            accessor to the coverage runtime
+	 * @param reducedProbes
+	 *            <code>true</code> if the class is instrumented with a reduced
+	 *            probe set
+	 * @param compactProbes
+	 *            <code>true</code> if probes should call a hit method where
+	 *            possible, see {@link ClassInstrumenter}
+	 * @return strategy instance
+	 */
+	public static IProbeArrayStrategy createFor(final long classId,
+			final ClassReader reader,
+			final IExecutionDataAccessorGenerator accessorGenerator,
+			final boolean reducedProbes, final boolean compactProbes) {
 
 		final String className = reader.getClassName();
 		final int version = InstrSupport.getMajorVersion(reader);
 
 		if (isInterfaceOrModule(reader)) {
-			final ProbeCounter counter = getProbeCounter(reader);
+			final ProbeCounter counter = getProbeCounter(reader,
+					reducedProbes);
 			if (counter.getCount() == 0) {
 				return new NoneProbeArrayStrategy();
 			}
 			if (version >= Opcodes.V11 && counter.hasMethods()) {
-				return new CondyProbeArrayStrategy(className, true, classId,
-						accessorGenerator);
+				return withHitMethod(new CondyProbeArrayStrategy(className,
+						true, classId, accessorGenerator), compactProbes);
 			}
 			if (version >= Opcodes.V1_8 && counter.hasMethods()) {
 				return new InterfaceFieldProbeArrayStrategy(className, classId,
@@ -64,22 +115,33 @@ public final class ProbeArrayStrategyFactory {
 			}
 		} else {
 			if (version >= Opcodes.V11) {
-				return new CondyProbeArrayStrategy(className, false, classId,
-						accessorGenerator);
+				return withHitMethod(new CondyProbeArrayStrategy(className,
+						false, classId, accessorGenerator), compactProbes);
 			}
-			return new ClassFieldProbeArrayStrategy(className, classId,
-					InstrSupport.needsFrames(version), accessorGenerator);
+			return withHitMethod(
+					new ClassFieldProbeArrayStrategy(className, classId,
+							InstrSupport.needsFrames(version),
+							accessorGenerator),
+					compactProbes);
 		}
 	}
 
+	private static IProbeArrayStrategy withHitMethod(
+			final IProbeArrayStrategy strategy, final boolean compactProbes) {
+		return compactProbes ? new HitMethodProbeArrayStrategy(strategy)
+				: strategy;
+	}
+
 	private static boolean isInterfaceOrModule(final ClassReader reader) {
 		return (reader.getAccess()
 				& (Opcodes.ACC_INTERFACE | Opcodes.ACC_MODULE)) != 0;
 	}
 
-	private static ProbeCounter getProbeCounter(final ClassReader reader) {
+	private static ProbeCounter getProbeCounter(final ClassReader reader,
+			final boolean reducedProbes) {
 		final ProbeCounter counter = new ProbeCounter();
-		reader.accept(new ClassProbesAdapter(counter, false), 0);
+		reader.accept(new ClassProbesAdapter(counter, false, reducedProbes),
+				0);
 		return counter;
 	}
 
@@ -189,10 +189,43 @@ public final class AgentOptions {
 	 */
 	public static final String JMX = "jmx";
 
+	/**
+	 * Specifies whether probes are omitted for control flow edges whose
+	 * execution status can be derived from other probes. Execution data
+	 * created with this option must be analyzed with the same setting. Default
+	 * is <code>false</code>.
+	 */
+	public static final String REDUCEPROBES = "reduceprobes";
+
+	/**
+	 * Specifies whether probes are inserted as calls of a static method of
+	 * the instrumented class, which keeps instrumented methods small. Default
+	 * is <code>false</code>.
+	 */
+	public static final String COMPACTPROBES = "compactprobes";
+
+	/**
+	 * Specifies the maximum total size in bytes of instrumented class files
+	 * the agent keeps in memory. If the same class file is loaded by multiple
+	 * class loaders the cached instrumented version is reused. Default is
+	 * <code>0</code> (no cache).
+	 */
+	public static final String INSTRCACHESIZE = "instrcachesize";
+
+	/**
+	 * Specifies whether the agent instruments the classes of the application
+	 * class path in background threads at startup. The instrumented classes
+	 * are kept in the cache configured with {@link #INSTRCACHESIZE}, therefore
+	 * this option can only be used together with a cache. Default is
+	 * <code>false</code>.
+	 */
+	public static final String PREINSTRUMENT = "preinstrument";
+
 	private static final Collection<String> VALID_OPTIONS = Arrays.asList(
 			DESTFILE, APPEND, INCLUDES, EXCLUDES, EXCLCLASSLOADER,
 			INCLBOOTSTRAPCLASSES, INCLNOLOCATIONCLASSES, SESSIONID, DUMPONEXIT,
-			OUTPUT, ADDRESS, PORT, CLASSDUMPDIR, JMX);
+			OUTPUT, ADDRESS, PORT, CLASSDUMPDIR, JMX, REDUCEPROBES,
+			COMPACTPROBES, INSTRCACHESIZE, PREINSTRUMENT);
 
 	private final Map<String, String> options;
 
@@ -250,6 +283,8 @@ public final class AgentOptions {
 
 	private void validateAll() {
 		validatePort(getPort());
+		validateInstrCacheSize(getInstrCacheSize());
+		validatePreInstrument(getPreInstrument(), getInstrCacheSize());
 		getOutput();
 	}
 
@@ -259,6 +294,21 @@ public final class AgentOptions {
 		}
 	}
 
+	private void validateInstrCacheSize(final int instrCacheSize) {
+		if (instrCacheSize < 0) {
+			throw new IllegalArgumentException(
+					"instrcachesize must be positive");
+		}
+	}
+
+	private void validatePreInstrument(final boolean preInstrument,
+			final int instrCacheSize) {
+		if (preInstrument && instrCacheSize == 0) {
+			throw new IllegalArgumentException(
+					"preinstrument requires instrcachesize");
+		}
+	}
+
 	/**
 	 * Returns the output file location.
 	 *
@@ -557,6 +607,85 @@ public final class AgentOptions {
 		setOption(JMX, jmx);
 	}
 
+	/**
+	 * Returns whether classes are instrumented with a reduced probe set.
+	 *
+	 * @return <code>true</code>, when the probe set is reduced
+	 */
+	public boolean getReduceProbes() {
+		return getOption(REDUCEPROBES, false);
+	}
+
+	/**
+	 * Sets whether classes should be instrumented with a reduced probe set.
+	 *
+	 * @param reduceProbes
+	 *            <code>true</code> if the probe set should be reduced
+	 */
+	public void setReduceProbes(final boolean reduceProbes) {
+		setOption(REDUCEPROBES, reduceProbes);
+	}
+
+	/**
+	 * Returns whether classes are instrumented with compact probes.
+	 *
+	 * @return <code>true</code>, when probes are compact
+	 */
+	public boolean getCompactProbes() {
+		return getOption(COMPACTPROBES, false);
+	}
+
+	/**
+	 * Sets whether classes should be instrumented with compact probes.
+	 *
+	 * @param compactProbes
+	 *            <code>true</code> if probes should be compact
+	 */
+	public void setCompactProbes(final boolean compactProbes) {
+		setOption(COMPACTPROBES, compactProbes);
+	}
+
+	/**
+	 * Returns the maximum total size of instrumented class files kept in
+	 * memory.
+	 *
+	 * @return maximum size in bytes, <code>0</code> if no cache is used
+	 */
+	public int getInstrCacheSize() {
+		return getOption(INSTRCACHESIZE, 0);
+	}
+
+	/**
+	 * Sets the maximum total size of instrumented class files kept in memory.
+	 *
+	 * @param instrCacheSize
+	 *            maximum size in bytes, <code>0</code> disables the cache
+	 */
+	public void setInstrCacheSize(final int instrCacheSize) {
+		validateInstrCacheSize(instrCacheSize);
+		setOption(INSTRCACHESIZE, instrCacheSize);
+	}
+
+	/**
+	 * Returns whether classes of the class path are instrumented at startup.
+	 *
+	 * @return <code>true</code>, when classes are instrumented at startup
+	 */
+	public boolean getPreInstrument() {
+		return getOption(PREINSTRUMENT, false);
+	}
+
+	/**
+	 * Sets whether classes of the class path should be instrumented at
+	 * startup.
+	 *
+	 * @param preInstrument
+	 *            <code>true</code> if classes should be instrumented at startup
+	 */
+	public void setPreInstrument(final boolean preInstrument) {
+		setOption(PREINSTRUMENT, preInstrument);
+	}
+
 	private void setOption(final String key, final int value) {
 		setOption(key, Integer.toString(value));
 	}
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.jacoco.core.JaCoCo;
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.internal.analysis.ClassCoverageSerializer;
+import org.jacoco.core.internal.data.CompactDataInput;
+import org.jacoco.core.internal.data.CompactDataOutput;
+
+/**
+ * File based cache for the coverage data calculated by an {@link Analyzer}, so
+ * that several tools creating reports or checking coverage for the same class
+ * and execution data files do not need to analyze the class files again. The
+ * cached data is read without parsing class files.
+ *
+ * The cache file contains a key over all inputs of the analysis: the execution
+ * data, the class files and optional settings. Cached data is only used if the
+ * inputs are the same as when the cache was written. Class files are
+ * identified by their path, size and modification time so that the cache can
+ * be validated without reading them. All inputs have to be added before the
+ * cache is loaded or stored. A typical sequence is:
+ *
+ * <pre>
+ * final AnalysisCache cache = new AnalysisCache(file);
+ * cache.addExecutionData(executionData);
+ * cache.addClassFiles(classesDirectory);
+ * final CoverageBuilder builder = new CoverageBuilder();
+ * if (!cache.load(builder)) {
+ * 	final Analyzer analyzer = new Analyzer(executionData, builder);
+ * 	analyzer.analyzeAll(classesDirectory);
+ * 	cache.store(builder.getClasses());
+ * }
+ * </pre>
+ */
+public class AnalysisCache {
+
+	/** Magic number in header for file format identification. */
+	static final char MAGIC_NUMBER = 0xC0CA;
+
+	/** File format version, incremented for each incompatible change. */
+	static final char FORMAT_VERSION = 0x1001;
+
+	/** Length of the key in bytes */
+	private static final int KEY_LENGTH = 16;
+
+	private final File file;
+
+	private final MessageDigest digest;
+
+	private byte[] key;
+
+	/**
+	 * Creates a new cache using the given file. The file is only read or
+	 * written when the cache is loaded or stored.
+	 *
+	 * @param file
+	 *            cache file
+	 */
+	public AnalysisCache(final File file) {
+		this.file = file;
+		try {
+			digest = MessageDigest.getInstance("MD5");
+		} catch (final NoSuchAlgorithmException e) {
+			// Every Java platform is required to support MD5
+			throw new AssertionError(e);
+		}
+		// Analysis results may differ between JaCoCo versions
+		add(JaCoCo.VERSION);
+		add(JaCoCo.COMMITID);
+	}
+
+	/**
+	 * Adds the given execution data to the key of the cache.
+	 *
+	 * @param executionData
+	 *            execution data used for analysis
+	 */
+	public void addExecutionData(final ExecutionDataStore executionData) {
+		final List<ExecutionData> contents = new ArrayList<ExecutionData>(
+				executionData.getContents());
+		Collections.sort(contents, new Comparator<ExecutionData>() {
+			public int compare(final ExecutionData d1, final ExecutionData d2) {
+				return Long.valueOf(d1.getId()).compareTo(
+						Long.valueOf(d2.getId()));
+			}
+		});
+		add(contents.size());
+		for (final ExecutionData data : contents) {
+			add(data.getId());
+			add(data.getName());
+			final boolean[] probes = data.getProbes();
+			add(probes.length);
+			for (final boolean p : probes) {
+				digest.update((byte) (p ? 1 : 0));
+			}
+		}
+	}
+
+	/**
+	 * Adds the given file or all files within the given directory to the key
+	 * of the cache.
+	 *
+	 * @param file
+	 *            file or directory used for analysis
+	 */
+	public void addClassFiles(final File file) {
+		if (file.isDirectory()) {
+			final File[] files = file.listFiles();
+			if (files != null) {
+				Arrays.sort(files);
+				for (final File f : files) {
+					addClassFiles(f);
+				}
+			}
+		} else {
+			addClassFile(file.getPath(), file.length(), file.lastModified());
+		}
+	}
+
+	/**
+	 * Adds a single input of the analysis which is not a file to the key of
+	 * the cache, e.g. an entry of an archive.
+	 *
+	 * @param name
+	 *            unique name of the input
+	 * @param size
+	 *            size of the input in bytes
+	 * @param lastModified
+	 *            time of last modification
+	 */
+	public void addClassFile(final String name, final long size,
+			final long lastModified) {
+		add(name);
+		add(size);
+		add(lastModified);
+	}
+
+	/**
+	 * Adds a setting which influences the analysis to the key of the cache,
+	 * for example the configuration of the {@link Analyzer}.
+	 *
+	 * @param option
+	 *            description of the setting
+	 */
+	public void addOption(final String option) {
+		add(option);
+	}
+
+	/**
+	 * Emits the cached coverage data of all classes to the given visitor if
+	 * the cache file exists and has been written for the same inputs. A cache
+	 * file which can't be read, e.g. because it is incomplete or corrupt, is
+	 * deleted and treated like a missing file.
+	 *
+	 * @param visitor
+	 *            visitor to emit the coverage data of the classes to
+	 * @return <code>true</code> if the cached data has been emitted,
+	 *         <code>false</code> if the classes have to be analyzed
+	 */
+	public boolean load(final ICoverageVisitor visitor) {
+		if (!file.isFile()) {
+			return false;
+		}
+		final List<IClassCoverage> classes;
+		try {
+			classes = read();
+		} catch (final IOException e) {
+			file.delete();
+			return false;
+		} catch (final RuntimeException e) {
+			file.delete();
+			return false;
+		}
+		if (classes == null) {
+			return false;
+		}
+		for (final IClassCoverage c : classes) {
+			visitor.visitCoverage(c);
+		}
+		return true;
+	}
+
+	private List<IClassCoverage> read() throws IOException {
+		final CompactDataInput in = new CompactDataInput(
+				new BufferedInputStream(new FileInputStream(file)));
+		try {
+			return read(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	private List<IClassCoverage> read(final CompactDataInput in)
+			throws IOException {
+		if (in.readChar() != MAGIC_NUMBER
+				|| in.readChar() != FORMAT_VERSION) {
+			return null;
+		}
+		final byte[] fileKey = new byte[KEY_LENGTH];
+		in.readFully(fileKey);
+		if (!Arrays.equals(fileKey, getKey())) {
+			return null;
+		}
+		final int count = in.readVarInt();
+		// Not presized, the count of a corrupt file may be arbitrary
+		final List<IClassCoverage> classes = new ArrayList<IClassCoverage>();
+		for (int i = 0; i < count; i++) {
+			classes.add(ClassCoverageSerializer.read(in));
+		}
+		return classes;
+	}
+
+	/**
+	 * Writes the coverage data of the given classes to the cache file. The
+	 * file is replaced only after it has been written completely.
+	 *
+	 * @param classes
+	 *            coverage data of all analyzed classes
+	 * @throws IOException
+	 *             if the cache file can't be written
+	 */
+	public void store(final Collection<IClassCoverage> classes)
+			throws IOException {
+		final File folder = file.getAbsoluteFile().getParentFile();
+		folder.mkdirs();
+		final File temp = File.createTempFile(file.getName(), ".tmp", folder);
+		try {
+			final CompactDataOutput out = new CompactDataOutput(
+					new BufferedOutputStream(new FileOutputStream(temp)));
+			try {
+				out.writeChar(MAGIC_NUMBER);
+				out.writeChar(FORMAT_VERSION);
+				out.write(getKey());
+				out.writeVarInt(classes.size());
+				for (final IClassCoverage c : classes) {
+					ClassCoverageSerializer.write(out, c);
+				}
+			} finally {
+				out.close();
+			}
+			file.delete();
+			if (!temp.renameTo(file)) {
+				throw new IOException(
+						String.format("Unable to write %s.", file));
+			}
+		} finally {
+			temp.delete();
+		}
+	}
+
+	private byte[] getKey() {
+		if (key == null) {
+			key = digest.digest();
+		}
+		return key;
+	}
+
+	private void add(final String value) {
+		if (value == null) {
+			add(-1);
+			return;
+		}
+		add(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			digest.update((byte) (c >>> 8));
+			digest.update((byte) c);
+		}
+	}
+
+	private void add(final long value) {
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			digest.update((byte) (value >>> shift));
+		}
+	}
+
+}
@@ -20,15 +20,22 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import org.jacoco.core.data.ExecutionDataReader;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.IndexedExecutionDataReader;
+import org.jacoco.core.data.IndexedExecutionDataWriter;
 import org.jacoco.core.data.SessionInfoStore;
+import org.jacoco.core.internal.InputStreams;
 
 /**
  * Convenience utility for loading *.exec files into a
- * {@link ExecutionDataStore} and a {@link SessionInfoStore}.
+ * {@link ExecutionDataStore} and a {@link SessionInfoStore}. Files in the
+ * block stream format of {@link ExecutionDataWriter} as well as in the indexed
+ * format of {@link IndexedExecutionDataWriter} are supported, so this class
+ * can also be used to convert between both formats.
  */
 public class ExecFileLoader {
 
@@ -53,13 +60,27 @@ public class ExecFileLoader {
 	 *             in case of problems while reading from the stream
 	 */
 	public void load(final InputStream stream) throws IOException {
-		final ExecutionDataReader reader = new ExecutionDataReader(
-				new BufferedInputStream(stream));
+		final InputStream input = new BufferedInputStream(stream);
+		input.mark(1);
+		final int first = input.read();
+		input.reset();
+		if (first == IndexedExecutionDataWriter.HEADER) {
+			load(new IndexedExecutionDataReader(
+					ByteBuffer.wrap(InputStreams.readFully(input))));
+			return;
+		}
+		final ExecutionDataReader reader = new ExecutionDataReader(input);
 		reader.setExecutionDataVisitor(executionData);
 		reader.setSessionInfoVisitor(sessionInfos);
 		reader.read();
 	}
 
+	private void load(final IndexedExecutionDataReader reader)
+			throws IOException {
+		reader.acceptSessionInfos(sessionInfos);
+		reader.acceptExecutionData(executionData);
+	}
+
 	/**
 	 * Reads all data from given input stream.
 	 *
@@ -69,9 +90,17 @@ public class ExecFileLoader {
 	 *             in case of problems while reading from the stream
 	 */
 	public void load(final File file) throws IOException {
-		final InputStream stream = new FileInputStream(file);
+		final FileInputStream stream = new FileInputStream(file);
 		try {
-			load(stream);
+			final InputStream input = new BufferedInputStream(stream);
+			input.mark(1);
+			final int first = input.read();
+			input.reset();
+			if (first == IndexedExecutionDataWriter.HEADER) {
+				load(new IndexedExecutionDataReader(stream.getChannel()));
+			} else {
+				load(input);
+			}
 		} finally {
 			stream.close();
 		}
@@ -121,6 +150,49 @@ public class ExecFileLoader {
 		}
 	}
 
+	/**
+	 * Saves the current content into the given output stream in the indexed
+	 * execution data format.
+	 *
+	 * @param stream
+	 *            stream to save content to
+	 * @throws IOException
+	 *             in case of problems while writing to the stream
+	 * @see IndexedExecutionDataWriter
+	 */
+	public void saveIndexed(final OutputStream stream) throws IOException {
+		final IndexedExecutionDataWriter dataWriter = new IndexedExecutionDataWriter(
+				stream);
+		sessionInfos.accept(dataWriter);
+		executionData.accept(dataWriter);
+		dataWriter.finish();
+	}
+
+	/**
+	 * Saves the current content into the given file in the indexed execution
+	 * data format. Parent directories are created as needed and an existing
+	 * file is overwritten.
+	 *
+	 * @param file
+	 *            file to save content to
+	 * @throws IOException
+	 *             in case of problems while writing to the stream
+	 * @see IndexedExecutionDataWriter
+	 */
+	public void saveIndexed(final File file) throws IOException {
+		final File folder = file.getParentFile();
+		if (folder != null) {
+			folder.mkdirs();
+		}
+		final OutputStream stream = new BufferedOutputStream(
+				new FileOutputStream(file));
+		try {
+			saveIndexed(stream);
+		} finally {
+			stream.close();
+		}
+	}
+
 	/**
 	 * Returns the session info store with all loaded sessions.
 	 *
@@ -0,0 +1,475 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.core.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.IExecutionDataVisitor;
+import org.jacoco.core.data.IndexedExecutionDataReader;
+import org.jacoco.core.data.IndexedExecutionDataWriter;
+import org.jacoco.core.data.SessionInfoStore;
+import org.jacoco.core.internal.ThreadPools;
+
+/**
+ * Merges a large number of *.exec files with bounded memory. Every input file
+ * is first converted into a run in indexed format ordered by class id, which
+ * happens in parallel on a pool of worker threads. Input files that are
+ * already in indexed format are used as runs directly. On save all runs are
+ * merged by class id and the result is written incrementally, so only the
+ * execution data of a single class per run is held in memory at a time.
+ * Runs are read through file channels rather than memory-mapped, so that
+ * temporary runs can be deleted as soon as they have been merged.
+ *
+ * In contrast to {@link ExecFileLoader} an instance of this class can only be
+ * saved once.
+ */
+public class ExecFileMerger {
+
+	/** Maximum number of runs that are merged at once. */
+	static final int MAX_FAN_IN = 64;
+
+	private final File tempDirectory;
+
+	private final int threads;
+
+	private ExecutorService executor;
+
+	private final List<Future<Run>> pending = new ArrayList<Future<Run>>();
+
+	private final List<Run> runs = new ArrayList<Run>();
+
+	private final SessionInfoStore sessionInfos = new SessionInfoStore();
+
+	private boolean saved = false;
+
+	/**
+	 * New merger that uses one worker thread per available processor and
+	 * stores temporary files in the default temporary directory.
+	 */
+	public ExecFileMerger() {
+		this(null, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * New merger with the given configuration.
+	 *
+	 * @param tempDirectory
+	 *            directory for temporary files or <code>null</code> for the
+	 *            default temporary directory
+	 * @param threads
+	 *            number of worker threads to convert input files
+	 */
+	public ExecFileMerger(final File tempDirectory, final int threads) {
+		this.tempDirectory = tempDirectory;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Schedules the given file for merging. The file is read asynchronously,
+	 * problems while reading it are reported by {@link #isEmpty()} and the
+	 * save methods.
+	 *
+	 * @param file
+	 *            file to read data from
+	 */
+	public void load(final File file) {
+		assertNotSaved();
+		if (executor == null) {
+			executor = ThreadPools.create(threads, "jacoco-exec-merger");
+		}
+		pending.add(executor.submit(new Callable<Run>() {
+			public Run call() throws IOException {
+				try {
+					return createRun(file);
+				} catch (final IOException e) {
+					throw readError(file.getAbsolutePath(), e);
+				}
+			}
+		}));
+	}
+
+	/**
+	 * Reads all data from the given input stream and prepares it for merging.
+	 * The stream is read on the calling thread and is not closed by this
+	 * method.
+	 *
+	 * @param stream
+	 *            stream to read data from
+	 * @throws IOException
+	 *             in case of problems while reading from the stream
+	 */
+	public void load(final InputStream stream) throws IOException {
+		assertNotSaved();
+		final ExecFileLoader loader = new ExecFileLoader();
+		loader.load(stream);
+		addRun(createRun(loader));
+	}
+
+	/**
+	 * Checks whether the loaded files contain execution data. Waits for all
+	 * scheduled files to be read.
+	 *
+	 * @return <code>true</code> if no execution data has been loaded
+	 * @throws IOException
+	 *             if one of the scheduled files can't be read
+	 */
+	public boolean isEmpty() throws IOException {
+		awaitPending();
+		for (final Run run : runs) {
+			if (run.reader.getClassCount() > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Merges all loaded data and writes it into the given output stream.
+	 *
+	 * @param stream
+	 *            stream to save content to
+	 * @throws IOException
+	 *             if one of the scheduled files can't be read or in case of
+	 *             problems while writing to the stream
+	 */
+	public void save(final OutputStream stream) throws IOException {
+		assertNotSaved();
+		saved = true;
+		try {
+			awaitPending();
+			write(stream);
+		} finally {
+			dispose();
+		}
+	}
+
+	/**
+	 * Merges all loaded data and writes it into the given file. Parent
+	 * directories are created as needed. Also a files system lock is acquired
+	 * to avoid concurrent write access. The file may also be one of the loaded
+	 * files, it is only opened after all loaded files have been read.
+	 *
+	 * @param file
+	 *            file to save content to
+	 * @param append
+	 *            <code>true</code> if the content should be appended, otherwise
+	 *            the file is overwritten.
+	 * @throws IOException
+	 *             if one of the scheduled files can't be read or in case of
+	 *             problems while writing to the file
+	 */
+	public void save(final File file, final boolean append)
+			throws IOException {
+		assertNotSaved();
+		saved = true;
+		try {
+			awaitPending();
+			detach(file);
+			final File folder = file.getParentFile();
+			if (folder != null) {
+				folder.mkdirs();
+			}
+			final FileOutputStream fileStream = new FileOutputStream(file,
+					append);
+			// Avoid concurrent writes from other processes:
+			fileStream.getChannel().lock();
+			final OutputStream bufferedStream = new BufferedOutputStream(
+					fileStream);
+			try {
+				write(bufferedStream);
+			} finally {
+				bufferedStream.close();
+			}
+		} finally {
+			dispose();
+		}
+	}
+
+	private void write(final OutputStream stream) throws IOException {
+		final ExecutionDataWriter writer = new ExecutionDataWriter(stream);
+		sessionInfos.accept(writer);
+		merge(reduce(runs), writer);
+	}
+
+	/**
+	 * Replaces runs that are mapped from the given destination file by
+	 * temporary copies, as the destination is modified while merging.
+	 */
+	private void detach(final File destination) throws IOException {
+		final File canonical = destination.getCanonicalFile();
+		for (int i = 0; i < runs.size(); i++) {
+			final Run run = runs.get(i);
+			if (run.source != null
+					&& run.source.getCanonicalFile().equals(canonical)) {
+				final List<Run> copy = new ArrayList<Run>(1);
+				copy.add(run);
+				runs.set(i, mergeToRun(copy));
+				run.dispose();
+			}
+		}
+	}
+
+	private void dispose() {
+		for (final Run run : runs) {
+			run.dispose();
+		}
+	}
+
+	private void assertNotSaved() {
+		if (saved) {
+			throw new IllegalStateException("Merger already saved.");
+		}
+	}
+
+	private void awaitPending() throws IOException {
+		try {
+			for (final Future<Run> future : pending) {
+				addRun(ThreadPools.await(future, "reading execution data"));
+			}
+		} finally {
+			pending.clear();
+			if (executor != null) {
+				executor.shutdownNow();
+				executor = null;
+			}
+		}
+	}
+
+	private void addRun(final Run run) {
+		runs.add(run);
+		run.reader.acceptSessionInfos(sessionInfos);
+	}
+
+	private Run createRun(final File file) throws IOException {
+		final RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			if (in.read() == IndexedExecutionDataWriter.HEADER) {
+				return new Run(new IndexedExecutionDataReader(in.getChannel()),
+						null, file);
+			}
+		} catch (final IOException e) {
+			in.close();
+			throw e;
+		}
+		in.close();
+		final ExecFileLoader loader = new ExecFileLoader();
+		loader.load(file);
+		return createRun(loader);
+	}
+
+	private Run createRun(final ExecFileLoader loader) throws IOException {
+		final File file = createTempFile();
+		try {
+			final OutputStream out = new BufferedOutputStream(
+					new FileOutputStream(file));
+			try {
+				final IndexedExecutionDataWriter writer = new IndexedExecutionDataWriter(
+						out);
+				loader.getSessionInfoStore().accept(writer);
+				loader.getExecutionDataStore().accept(writer);
+				writer.finish();
+			} finally {
+				out.close();
+			}
+			return openRun(file);
+		} catch (final IOException e) {
+			delete(file);
+			throw e;
+		}
+	}
+
+	/**
+	 * Merges runs in groups until at most {@link #MAX_FAN_IN} runs are left.
+	 */
+	private List<Run> reduce(final List<Run> input) throws IOException {
+		List<Run> current = new ArrayList<Run>(input);
+		while (current.size() > MAX_FAN_IN) {
+			final List<Run> next = new ArrayList<Run>();
+			for (int i = 0; i < current.size(); i += MAX_FAN_IN) {
+				final List<Run> group = current.subList(i,
+						Math.min(current.size(), i + MAX_FAN_IN));
+				next.add(mergeToRun(group));
+				// Release the merged runs early to bound the disk space
+				for (final Run run : group) {
+					run.dispose();
+				}
+			}
+			runs.addAll(next);
+			current = next;
+		}
+		return current;
+	}
+
+	private Run mergeToRun(final List<Run> group) throws IOException {
+		final File file = createTempFile();
+		try {
+			final OutputStream out = new BufferedOutputStream(
+					new FileOutputStream(file));
+			try {
+				final IndexedExecutionDataWriter writer = new IndexedExecutionDataWriter(
+						out);
+				merge(group, writer);
+				writer.finish();
+			} finally {
+				out.close();
+			}
+			return openRun(file);
+		} catch (final IOException e) {
+			delete(file);
+			throw e;
+		}
+	}
+
+	private static Run openRun(final File tempFile) throws IOException {
+		final RandomAccessFile in = new RandomAccessFile(tempFile, "r");
+		try {
+			return new Run(new IndexedExecutionDataReader(in.getChannel()),
+					tempFile, null);
+		} catch (final IOException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	private File createTempFile() throws IOException {
+		return File.createTempFile("jacoco", ".exec", tempDirectory);
+	}
+
+	private static void delete(final File file) {
+		if (!file.delete() && file.exists()) {
+			file.deleteOnExit();
+		}
+	}
+
+	private static IOException readError(final String location,
+			final IOException cause) {
+		final IOException ex = new IOException(
+				String.format("Unable to read %s", location));
+		ex.initCause(cause);
+		return ex;
+	}
+
+	private static void merge(final List<Run> group,
+			final IExecutionDataVisitor output) throws IOException {
+		final PriorityQueue<Cursor> queue = new PriorityQueue<Cursor>(
+				Math.max(1, group.size()));
+		for (final Run run : group) {
+			if (run.reader.getClassCount() > 0) {
+				queue.add(new Cursor(run.reader));
+			}
+		}
+		while (!queue.isEmpty()) {
+			final ExecutionData data = next(queue);
+			while (!queue.isEmpty() && queue.peek().id == data.getId()) {
+				data.merge(next(queue));
+			}
+			output.visitClassExecution(data);
+		}
+	}
+
+	private static ExecutionData next(final PriorityQueue<Cursor> queue)
+			throws IOException {
+		final Cursor cursor = queue.poll();
+		final ExecutionData data = cursor.reader.read(cursor.position);
+		if (cursor.advance()) {
+			queue.add(cursor);
+		}
+		return data;
+	}
+
+	/**
+	 * A sorted run of execution data, either backed by a temporary file or
+	 * read from an input file in indexed format.
+	 */
+	private static class Run {
+
+		final IndexedExecutionDataReader reader;
+
+		final File tempFile;
+
+		final File source;
+
+		private boolean disposed = false;
+
+		Run(final IndexedExecutionDataReader reader, final File tempFile,
+				final File source) {
+			this.reader = reader;
+			this.tempFile = tempFile;
+			this.source = source;
+		}
+
+		void dispose() {
+			if (disposed) {
+				return;
+			}
+			disposed = true;
+			try {
+				reader.close();
+			} catch (final IOException e) {
+				// The file is read only, nothing got lost
+			}
+			if (tempFile != null) {
+				delete(tempFile);
+			}
+		}
+
+	}
+
+	/**
+	 * Current position within a run.
+	 */
+	private static class Cursor implements Comparable<Cursor> {
+
+		final IndexedExecutionDataReader reader;
+
+		int position;
+
+		long id;
+
+		Cursor(final IndexedExecutionDataReader reader) throws IOException {
+			this.reader = reader;
+			this.position = 0;
+			this.id = reader.getId(0);
+		}
+
+		boolean advance() throws IOException {
+			if (++position == reader.getClassCount()) {
+				return false;
+			}
+			id = reader.getId(position);
+			return true;
+		}
+
+		public int compareTo(final Cursor other) {
+			final long x = id + Long.MIN_VALUE;
+			final long y = other.id + Long.MIN_VALUE;
+			return x < y ? -1 : (x == y ? 0 : 1);
+		}
+
+	}
+
+}
@@ -66,6 +66,21 @@
 					  can be specified multiple times to provide multiple values.
 					</p>
 
+					<p>
+					  Tools which invoke the command line interface many times
+					  can start a <code>daemon</code> once and execute commands
+					  in it with the global option <code>--daemon &lt;port&gt;</code>
+					  before the command, where the port is the one printed by
+					  the daemon at startup, e.g.
+					  <code>java -jar jacococli.jar --daemon 6301 report ...</code>.
+					  Each client still starts its own JVM and forwards the
+					  command line to the daemon. The daemon keeps analyzed
+					  classes in memory and only analyzes class files again if
+					  the files or their execution data have changed. It only
+					  accepts connections from the local machine and must be
+					  started in the same working directory as the clients.
+					</p>
+
 					<p class="hint">
 					  <b>Warning:</b> Although a <code>instrument</code> command
 					  is provided the preferred way for code coverage analysis
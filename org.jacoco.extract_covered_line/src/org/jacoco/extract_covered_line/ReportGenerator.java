@@ -135,6 +135,9 @@ public class ReportGenerator {
         final CoverageBuilder coverageBuilder = new CoverageBuilder();
         final Analyzer analyzer = new Analyzer(
                 execFileLoader.getExecutionDataStore(), coverageBuilder);
+        // Only covered lines are extracted, so classes which have not been
+        // executed at all do not need to be analyzed
+        analyzer.setCoveredOnly(true);
 
         //Loop over the this.targetDirectoryListFile
 
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link IndexedSourceFileLocator}.
+ */
+public class IndexedSourceFileLocatorTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private IndexedSourceFileLocator locator;
+
+	@Before
+	public void setup() {
+		locator = new IndexedSourceFileLocator("UTF-8", 4);
+	}
+
+	@Test
+	public void getTabWidth_should_return_given_value() {
+		assertEquals(4, locator.getTabWidth());
+	}
+
+	@Test
+	public void getSourceFile_should_return_null_when_source_does_not_exist()
+			throws IOException {
+		locator.addDirectory(new File(folder.getRoot(), "src"));
+		assertNull(locator.getSourceFile("org/jacoco/example",
+				"DoesNotExist.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_return_null_when_source_is_folder()
+			throws IOException {
+		new File(folder.getRoot(), "src/org/jacoco/example").mkdirs();
+		locator.addDirectory(new File(folder.getRoot(), "src"));
+		assertNull(locator.getSourceFile("org/jacoco", "example"));
+	}
+
+	@Test
+	public void getSourceFile_should_return_content_when_file_exists()
+			throws IOException {
+		createFile("src/org/jacoco/example/Test.java", "AAA");
+		createFile("src/Default.java", "BBB");
+		locator.addDirectory(new File(folder.getRoot(), "src"));
+		assertContent("AAA",
+				locator.getSourceFile("org/jacoco/example", "Test.java"));
+		assertContent("BBB", locator.getSourceFile("", "Default.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_select_first_directory()
+			throws IOException {
+		createFile("src1/org/jacoco/example/Test.java", "AAA");
+		createFile("src2/org/jacoco/example/Test.java", "BBB");
+		createFile("src2/org/jacoco/example/Other.java", "CCC");
+		locator.addDirectory(new File(folder.getRoot(), "missing"));
+		locator.addDirectory(new File(folder.getRoot(), "src1"));
+		locator.addDirectory(new File(folder.getRoot(), "src2"));
+		assertContent("AAA",
+				locator.getSourceFile("org/jacoco/example", "Test.java"));
+		assertContent("CCC",
+				locator.getSourceFile("org/jacoco/example", "Other.java"));
+	}
+
+	@Test
+	public void getSourceFile_should_include_directory_added_after_lookup()
+			throws IOException {
+		createFile("src1/org/jacoco/example/Test.java", "AAA");
+		createFile("src2/org/jacoco/example/Other.java", "BBB");
+		locator.addDirectory(new File(folder.getRoot(), "src1"));
+		assertNull(locator.getSourceFile("org/jacoco/example", "Other.java"));
+		locator.addDirectory(new File(folder.getRoot(), "src2"));
+		assertContent("BBB",
+				locator.getSourceFile("org/jacoco/example", "Other.java"));
+	}
+
+	private File createFile(String path, String content) throws IOException {
+		final File file = new File(folder.getRoot(), path);
+		file.getParentFile().mkdirs();
+		writeFile(file, content);
+		return file;
+	}
+
+	private void writeFile(File file, String content) throws IOException {
+		final Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+				"UTF-8");
+		writer.write(content);
+		writer.close();
+	}
+
+	private void assertContent(String expected, Reader source)
+			throws IOException {
+		assertNotNull(source);
+		final StringBuilder actual = new StringBuilder();
+		int c;
+		while ((c = source.read()) != -1) {
+			actual.append((char) c);
+		}
+		source.close();
+		assertEquals(expected, actual.toString());
+	}
+
+}
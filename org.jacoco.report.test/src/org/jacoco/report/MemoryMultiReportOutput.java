@@ -75,6 +75,10 @@ public class MemoryMultiReportOutput implements IMultiReportOutput {
 		assertEquals(Collections.singleton(path), files.keySet());
 	}
 
+	public Set<String> getFileNames() {
+		return files.keySet();
+	}
+
 	public byte[] getFile(String path) {
 		assertFile(path);
 		return files.get(path).toByteArray();
@@ -13,7 +13,9 @@
 package org.jacoco.report;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -21,6 +23,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.IPackageCoverage;
@@ -127,4 +130,80 @@ public class MultiReportVisitorTest {
 		assertEquals(MOCK_REPORT, mock2.toString());
 		assertEquals(MOCK_REPORT, mock3.toString());
 	}
+
+	@Test
+	public void testParallelMultiFormatter() throws IOException {
+		IReportVisitor mock1 = new MockVisitor();
+		IReportVisitor mock2 = new MockVisitor();
+		IReportVisitor mock3 = new MockVisitor();
+		List<IReportVisitor> visitors = Arrays.asList(mock1, mock2, mock3);
+		MultiReportVisitor multi = new MultiReportVisitor(visitors, true);
+		createMockReport(multi);
+		assertEquals(MOCK_REPORT, mock1.toString());
+		assertEquals(MOCK_REPORT, mock2.toString());
+		assertEquals(MOCK_REPORT, mock3.toString());
+	}
+
+	@Test
+	public void testParallelMultiFormatterWithException() throws IOException {
+		final IOException expected = new IOException("visit failed");
+		IReportVisitor mock1 = new MockVisitor();
+		IReportVisitor mock2 = new MockVisitor() {
+			@Override
+			public void visitBundle(IBundleCoverage bundle,
+					ISourceFileLocator locator) throws IOException {
+				throw expected;
+			}
+		};
+		List<IReportVisitor> visitors = Arrays.asList(mock1, mock2);
+		MultiReportVisitor multi = new MultiReportVisitor(visitors, true);
+		try {
+			multi.visitBundle(createBundle("b1"), null);
+			fail("IOException expected");
+		} catch (IOException e) {
+			assertSame(expected, e);
+		}
+		multi.visitEnd();
+	}
+
+	@Test
+	public void testParallelMultiFormatterWithExceptions() throws Exception {
+		final IOException expected = new IOException("first visit failed");
+		final CountDownLatch started = new CountDownLatch(1);
+		final boolean[] interrupted = new boolean[1];
+		IReportVisitor mock1 = new MockVisitor() {
+			@Override
+			public void visitBundle(IBundleCoverage bundle,
+					ISourceFileLocator locator) throws IOException {
+				try {
+					started.await();
+				} catch (InterruptedException e) {
+					throw new AssertionError(e);
+				}
+				throw expected;
+			}
+		};
+		IReportVisitor mock2 = new MockVisitor() {
+			@Override
+			public void visitBundle(IBundleCoverage bundle,
+					ISourceFileLocator locator) throws IOException {
+				started.countDown();
+				try {
+					Thread.sleep(10000);
+				} catch (InterruptedException e) {
+					interrupted[0] = true;
+				}
+				throw new IOException("second visit failed");
+			}
+		};
+		List<IReportVisitor> visitors = Arrays.asList(mock1, mock2);
+		MultiReportVisitor multi = new MultiReportVisitor(visitors, true);
+		try {
+			multi.visitBundle(createBundle("b1"), null);
+			fail("IOException expected");
+		} catch (IOException e) {
+			assertSame(expected, e);
+		}
+		assertTrue(interrupted[0]);
+	}
 }
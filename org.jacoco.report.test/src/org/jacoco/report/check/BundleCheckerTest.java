@@ -14,12 +14,17 @@ package org.jacoco.report.check;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICounter.CounterValue;
 import org.jacoco.core.analysis.ICoverageNode;
 import org.jacoco.core.analysis.ICoverageNode.ElementType;
 import org.jacoco.core.analysis.IPackageCoverage;
@@ -124,6 +129,80 @@ public class BundleCheckerTest implements IViolationsOutput {
 		assertEquals(Collections.emptyList(), messages);
 	}
 
+	@Test
+	public void testFailFastStopsWithFirstViolation() {
+		addRule(ElementType.PACKAGE);
+		addRule(ElementType.CLASS);
+		final BundleChecker checker = new BundleChecker(rules, names, this,
+				true);
+		checker.checkBundle(createBundle());
+		assertMessage(
+				"Rule violated for package org.jacoco.example: instructions covered ratio is 0.50, but expected minimum is 0.75");
+	}
+
+	@Test
+	public void testFailFastChecksBundleMaximumAfterEveryPackage() {
+		addMissedCountRule(ElementType.BUNDLE, "3");
+		final List<String> analyzed = new ArrayList<String>();
+		final BundleChecker checker = new BundleChecker(rules, names, this,
+				true);
+		checker.checkBundle(createBundle(analyzed, "org/jacoco/a",
+				"org/jacoco/b"));
+		assertMessage(
+				"Rule violated for bundle Test: instructions missed count is at least 5, but expected maximum is 3");
+		assertEquals(Arrays.asList("org/jacoco/a"), analyzed);
+	}
+
+	@Test
+	public void testFailFastChecksBundleMinimumAfterAllPackages() {
+		addRule(ElementType.BUNDLE);
+		final List<String> analyzed = new ArrayList<String>();
+		final BundleChecker checker = new BundleChecker(rules, names, this,
+				true);
+		checker.checkBundle(createBundle(analyzed, "org/jacoco/a",
+				"org/jacoco/b"));
+		assertMessage(
+				"Rule violated for bundle Test: instructions covered ratio is 0.50, but expected minimum is 0.75");
+		assertEquals(Arrays.asList("org/jacoco/a", "org/jacoco/b"), analyzed);
+	}
+
+	@Test
+	public void testNoFailFastReportsAllViolations() {
+		addMissedCountRule(ElementType.BUNDLE, "3");
+		addMissedCountRule(ElementType.PACKAGE, "3");
+		final List<String> analyzed = new ArrayList<String>();
+		final BundleChecker checker = new BundleChecker(rules, names, this);
+		checker.checkBundle(createBundle(analyzed, "org/jacoco/a",
+				"org/jacoco/b"));
+		assertEquals(Arrays.asList(
+				"Rule violated for bundle Test: instructions missed count is 10, but expected maximum is 3",
+				"Rule violated for package org.jacoco.a: instructions missed count is 5, but expected maximum is 3",
+				"Rule violated for package org.jacoco.b: instructions missed count is 5, but expected maximum is 3"),
+				messages);
+	}
+
+	@Test
+	public void testFailFastChecksBundleMaximumWithCompleteBundle() {
+		addMissedCountRule(ElementType.BUNDLE, "7");
+		final List<String> analyzed = new ArrayList<String>();
+		final BundleChecker checker = new BundleChecker(rules, names, this,
+				true);
+		checker.checkBundle(createBundle(analyzed, "org/jacoco/a",
+				"org/jacoco/b"));
+		assertMessage(
+				"Rule violated for bundle Test: instructions missed count is 10, but expected maximum is 7");
+		assertEquals(Arrays.asList("org/jacoco/a", "org/jacoco/b"), analyzed);
+	}
+
+	private void addMissedCountRule(ElementType elementType, String maximum) {
+		final Rule rule = new Rule();
+		rule.setElement(elementType);
+		final Limit limit = rule.createLimit();
+		limit.setValue(CounterValue.MISSEDCOUNT.name());
+		limit.setMaximum(maximum);
+		rules.add(rule);
+	}
+
 	private Rule addRule(ElementType elementType) {
 		final Rule rule = new Rule();
 		rule.setElement(elementType);
@@ -154,6 +233,64 @@ public class BundleCheckerTest implements IViolationsOutput {
 		return new BundleCoverageImpl("Test", Collections.singleton(p));
 	}
 
+	/**
+	 * Creates a bundle which creates its packages when they are iterated and
+	 * records the names of the created packages.
+	 */
+	private IBundleCoverage createBundle(final List<String> analyzed,
+			final String... packageNames) {
+		final Collection<IPackageCoverage> packages = new AbstractCollection<IPackageCoverage>() {
+			@Override
+			public Iterator<IPackageCoverage> iterator() {
+				final Iterator<String> i = Arrays.asList(packageNames)
+						.iterator();
+				return new Iterator<IPackageCoverage>() {
+					public boolean hasNext() {
+						return i.hasNext();
+					}
+
+					public IPackageCoverage next() {
+						final String name = i.next();
+						analyzed.add(name);
+						return createPackage(name);
+					}
+
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return packageNames.length;
+			}
+		};
+		final List<IPackageCoverage> counted = new ArrayList<IPackageCoverage>();
+		for (final String name : packageNames) {
+			counted.add(createPackage(name));
+		}
+		return new BundleCoverageImpl("Test", counted) {
+			@Override
+			public Collection<IPackageCoverage> getPackages() {
+				return packages;
+			}
+		};
+	}
+
+	private IPackageCoverage createPackage(final String name) {
+		final MethodCoverageImpl m = new MethodCoverageImpl("fooMethod", "()V",
+				null);
+		m.increment(CounterImpl.getInstance(5, 5), CounterImpl.COUNTER_0_0, 1);
+		m.incrementMethodCounter();
+		final ClassCoverageImpl c = new ClassCoverageImpl(name + "/Foo", 1001,
+				false);
+		c.addMethod(m);
+		return new PackageCoverageImpl(name,
+				Collections.singleton((IClassCoverage) c),
+				Collections.<ISourceFileCoverage> emptySet());
+	}
+
 	private void assertMessage(String expected) {
 		assertEquals(Collections.singletonList(expected), messages);
 	}
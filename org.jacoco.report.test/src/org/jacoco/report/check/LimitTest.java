@@ -365,6 +365,48 @@ public class LimitTest {
 		assertEquals("0.01", limit.getMaximum());
 	}
 
+	@Test
+	public void checkPart_should_fail_when_maximum_count_is_exceeded() {
+		limit.setValue(CounterValue.MISSEDCOUNT.name());
+		limit.setMaximum("5");
+		assertEquals(
+				"instructions missed count is at least 6, but expected maximum is 5",
+				limit.checkPart(new TestNode() {
+					{
+						instructionCounter = CounterImpl.getInstance(6, 0);
+					}
+				}));
+	}
+
+	@Test
+	public void checkPart_should_pass_when_maximum_count_is_not_exceeded() {
+		limit.setValue(CounterValue.MISSEDCOUNT.name());
+		limit.setMaximum("5");
+		assertNull(limit.checkPart(new TestNode() {
+			{
+				instructionCounter = CounterImpl.getInstance(5, 0);
+			}
+		}));
+	}
+
+	@Test
+	public void checkPart_should_ignore_minimum_count() {
+		limit.setValue(CounterValue.COVEREDCOUNT.name());
+		limit.setMinimum("5");
+		assertNull(limit.checkPart(new TestNode()));
+	}
+
+	@Test
+	public void checkPart_should_ignore_ratios() {
+		limit.setValue(CounterValue.MISSEDRATIO.name());
+		limit.setMaximum("0.1");
+		assertNull(limit.checkPart(new TestNode() {
+			{
+				instructionCounter = CounterImpl.getInstance(10, 0);
+			}
+		}));
+	}
+
 	private static class TestNode extends CoverageNodeImpl {
 
 		public TestNode() {
@@ -12,27 +12,56 @@
  *******************************************************************************/
 package org.jacoco.report.html;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 
+import org.jacoco.core.analysis.IBundleCoverage;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ISourceFileCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.internal.analysis.BundleCoverageImpl;
+import org.jacoco.core.internal.analysis.ClassCoverageImpl;
+import org.jacoco.core.internal.analysis.CounterImpl;
+import org.jacoco.core.internal.analysis.MethodCoverageImpl;
+import org.jacoco.core.internal.analysis.SourceFileCoverageImpl;
+import org.jacoco.report.FileMultiReportOutput;
 import org.jacoco.report.ILanguageNames;
+import org.jacoco.report.IMultiReportOutput;
+import org.jacoco.report.IReportVisitor;
+import org.jacoco.report.ISourceFileLocator;
 import org.jacoco.report.MemoryMultiReportOutput;
 import org.jacoco.report.ReportStructureTestDriver;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Unit tests for {@link HTMLFormatter}.
  */
 public class HTMLFormatterTest {
 
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
 	private ReportStructureTestDriver driver;
 
 	private HTMLFormatter formatter;
@@ -98,6 +127,134 @@ public class HTMLFormatterTest {
 		output.assertNoFile("empty/Empty.java.html");
 	}
 
+	@Test
+	public void testParallelRenderingCreatesSameContent() throws Exception {
+		final IBundleCoverage bundle = createBundle(20, 0);
+		final MemoryMultiReportOutput sequential = new MemoryMultiReportOutput();
+		render(new HTMLFormatter(), bundle, sequential);
+		formatter.setThreads(4);
+
+		render(formatter, bundle, output);
+
+		assertEquals(sequential.getFileNames(), output.getFileNames());
+		for (final String file : sequential.getFileNames()) {
+			assertArrayEquals(file, sequential.getFile(file),
+					output.getFile(file));
+		}
+	}
+
+	@Test
+	public void testIncrementalRenderingSkipsUnchangedPages()
+			throws Exception {
+		final File dir = folder.getRoot();
+		formatter.setIncremental(true);
+		render(formatter, createBundle(2, 0), new FileMultiReportOutput(dir));
+		final File classPage = new File(dir, "org.example.p0/Bar.html");
+		final File sourcePage = new File(dir, "org.example.p0/Bar.java.html");
+		final File packagePage = new File(dir, "org.example.p0/index.html");
+		mark(classPage);
+		mark(sourcePage);
+		mark(packagePage);
+
+		render(formatter, createBundle(2, 0), new FileMultiReportOutput(dir));
+
+		assertEquals("marker", read(classPage));
+		assertEquals("marker", read(sourcePage));
+		assertTrue(read(packagePage).startsWith("<?xml"));
+		output.close();
+	}
+
+	@Test
+	public void testIncrementalRenderingUpdatesChangedPages()
+			throws Exception {
+		final File dir = folder.getRoot();
+		formatter.setIncremental(true);
+		render(formatter, createBundle(2, 0), new FileMultiReportOutput(dir));
+		final File classPage = new File(dir, "org.example.p0/Bar.html");
+		final File sourcePage = new File(dir, "org.example.p0/Bar.java.html");
+		mark(classPage);
+		mark(sourcePage);
+
+		render(formatter, createBundle(2, 1), new FileMultiReportOutput(dir));
+
+		assertTrue(read(classPage).startsWith("<?xml"));
+		assertTrue(read(sourcePage).startsWith("<?xml"));
+		output.close();
+	}
+
+	@Test
+	public void testIncrementalRenderingUpdatesPagesAfterSettingsChange()
+			throws Exception {
+		final File dir = folder.getRoot();
+		formatter.setIncremental(true);
+		render(formatter, createBundle(2, 0), new FileMultiReportOutput(dir));
+		final File classPage = new File(dir, "org.example.p0/Bar.html");
+		mark(classPage);
+
+		formatter.setFooterText("Footer");
+		render(formatter, createBundle(2, 0), new FileMultiReportOutput(dir));
+
+		assertTrue(read(classPage).startsWith("<?xml"));
+		output.close();
+	}
+
+	private static void mark(final File file) throws IOException {
+		final OutputStream out = new FileOutputStream(file);
+		out.write("marker".getBytes("UTF-8"));
+		out.close();
+	}
+
+	private static String read(final File file) throws IOException {
+		final BufferedReader reader = new BufferedReader(new FileReader(file));
+		final String line = reader.readLine();
+		reader.close();
+		return line;
+	}
+
+	private static void render(final HTMLFormatter formatter,
+			final IBundleCoverage bundle, final IMultiReportOutput output)
+			throws IOException {
+		final IReportVisitor visitor = formatter.createVisitor(output);
+		visitor.visitInfo(Collections.<SessionInfo> emptyList(),
+				Collections.<ExecutionData> emptyList());
+		visitor.visitBundle(bundle, new ISourceFileLocator() {
+			public Reader getSourceFile(String packageName, String fileName) {
+				return new StringReader("class Foo {\n}\n");
+			}
+
+			public int getTabWidth() {
+				return 4;
+			}
+		});
+		visitor.visitEnd();
+	}
+
+	private static IBundleCoverage createBundle(final int packages,
+			final int offset) {
+		final List<IClassCoverage> classes = new ArrayList<IClassCoverage>();
+		final List<ISourceFileCoverage> sources = new ArrayList<ISourceFileCoverage>();
+		for (int i = 0; i < packages; i++) {
+			final String pkg = "org/example/p" + i;
+			for (final String name : new String[] { "Foo", "foo", "Bar" }) {
+				final MethodCoverageImpl m = new MethodCoverageImpl("m", "()V",
+						null);
+				m.increment(CounterImpl.getInstance((i + offset) % 3, 2),
+						CounterImpl.COUNTER_0_0, 1);
+				m.incrementMethodCounter();
+				final ClassCoverageImpl c = new ClassCoverageImpl(
+						pkg + "/" + name, i, false);
+				c.setSourceFileName(name + ".java");
+				c.addMethod(m);
+				classes.add(c);
+				final SourceFileCoverageImpl s = new SourceFileCoverageImpl(
+						name + ".java", pkg);
+				s.increment(c);
+				sources.add(s);
+			}
+		}
+		return new BundleCoverageImpl("bundle", classes, sources);
+	}
+
 	@Test
 	public void testDefaultEncoding() throws Exception {
 		driver.sendBundle(formatter.createVisitor(output));
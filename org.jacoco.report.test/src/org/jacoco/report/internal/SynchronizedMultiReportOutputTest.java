@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jacoco.report.MemoryMultiReportOutput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SynchronizedMultiReportOutput}.
+ */
+public class SynchronizedMultiReportOutputTest {
+
+	private MemoryMultiReportOutput delegate;
+
+	private SynchronizedMultiReportOutput output;
+
+	@Before
+	public void setup() {
+		delegate = new MemoryMultiReportOutput();
+		output = new SynchronizedMultiReportOutput(delegate);
+	}
+
+	@After
+	public void teardown() {
+		delegate.assertAllClosed();
+	}
+
+	@Test
+	public void should_write_file_on_close() throws IOException {
+		final OutputStream out = output.createFile("a/b.html");
+		out.write(new byte[] { 1, 2, 3 });
+		delegate.assertEmpty();
+
+		out.close();
+		out.close();
+
+		assertArrayEquals(new byte[] { 1, 2, 3 }, delegate.getFile("a/b.html"));
+		output.close();
+	}
+
+	@Test
+	public void should_allow_multiple_open_files() throws IOException {
+		final OutputStream out1 = output.createFile("a.html");
+		final OutputStream out2 = output.createFile("b.html");
+		out1.write(1);
+		out2.write(2);
+		out2.close();
+		out1.close();
+
+		assertArrayEquals(new byte[] { 1 }, delegate.getFile("a.html"));
+		assertArrayEquals(new byte[] { 2 }, delegate.getFile("b.html"));
+		output.close();
+	}
+
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.html;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+
+import org.jacoco.core.internal.analysis.ClassCoverageImpl;
+import org.jacoco.core.internal.analysis.CounterImpl;
+import org.jacoco.core.internal.analysis.MethodCoverageImpl;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link Fingerprint}.
+ */
+public class FingerprintTest {
+
+	@Test
+	public void get_should_return_same_fingerprint_for_same_values() {
+		assertArrayEquals(new Fingerprint().add("a").add(1).add(true).get(),
+				new Fingerprint().add("a").add(1).add(true).get());
+	}
+
+	@Test
+	public void get_should_return_fingerprint_of_expected_length() {
+		assertEquals(Fingerprint.LENGTH, new Fingerprint().get().length);
+	}
+
+	@Test
+	public void add_should_distinguish_null_and_empty_string() {
+		assertDifferent(new Fingerprint().add((String) null).get(),
+				new Fingerprint().add("").get());
+	}
+
+	@Test
+	public void add_should_distinguish_string_boundaries() {
+		assertDifferent(new Fingerprint().add("ab").add("c").get(),
+				new Fingerprint().add("a").add("bc").get());
+	}
+
+	@Test
+	public void add_should_consider_counters_of_node() {
+		assertDifferent(new Fingerprint().add(createClass(1)).get(),
+				new Fingerprint().add(createClass(2)).get());
+	}
+
+	private static ClassCoverageImpl createClass(final int covered) {
+		final MethodCoverageImpl m = new MethodCoverageImpl("m", "()V", null);
+		m.increment(CounterImpl.getInstance(0, covered),
+				CounterImpl.COUNTER_0_0, 1);
+		final ClassCoverageImpl c = new ClassCoverageImpl("Foo", 0, false);
+		c.addMethod(m);
+		return c;
+	}
+
+	private static void assertDifferent(final byte[] a, final byte[] b) {
+		assertFalse(Arrays.equals(a, b));
+	}
+
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.html;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jacoco.report.FileMultiReportOutput;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link PageFingerprints}.
+ */
+public class PageFingerprintsTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File dir;
+
+	private byte[] fp1, fp2;
+
+	@Before
+	public void setup() throws IOException {
+		dir = folder.getRoot();
+		fp1 = new Fingerprint().add("a").get();
+		fp2 = new Fingerprint().add("b").get();
+		write("a/Foo.html", new byte[0]);
+	}
+
+	@Test
+	public void update_should_return_true_without_previous_fingerprints() {
+		final PageFingerprints fingerprints = PageFingerprints.load(dir, "ctx");
+
+		assertTrue(fingerprints.update("a/Foo.html", fp1));
+	}
+
+	@Test
+	public void update_should_compare_with_previous_fingerprints()
+			throws IOException {
+		save("ctx", "a/Foo.html", fp1);
+
+		final PageFingerprints fingerprints = PageFingerprints.load(dir, "ctx");
+
+		assertFalse(fingerprints.update("a/Foo.html", fp1));
+		assertTrue(fingerprints.update("a/Bar.html", fp1));
+	}
+
+	@Test
+	public void update_should_return_true_for_changed_fingerprint()
+			throws IOException {
+		save("ctx", "a/Foo.html", fp1);
+
+		final PageFingerprints fingerprints = PageFingerprints.load(dir, "ctx");
+
+		assertTrue(fingerprints.update("a/Foo.html", fp2));
+	}
+
+	@Test
+	public void update_should_return_true_for_missing_page()
+			throws IOException {
+		save("ctx", "a/Foo.html", fp1);
+		new File(dir, "a/Foo.html").delete();
+
+		final PageFingerprints fingerprints = PageFingerprints.load(dir, "ctx");
+
+		assertTrue(fingerprints.update("a/Foo.html", fp1));
+	}
+
+	@Test
+	public void load_should_ignore_fingerprints_with_different_context()
+			throws IOException {
+		save("ctx", "a/Foo.html", fp1);
+
+		final PageFingerprints fingerprints = PageFingerprints.load(dir,
+				"other");
+
+		assertTrue(fingerprints.update("a/Foo.html", fp1));
+	}
+
+	@Test
+	public void load_should_ignore_corrupt_file() throws IOException {
+		write(PageFingerprints.FILE_NAME, new byte[] { 0, 0, 0x10, 0x01, 0 });
+
+		final PageFingerprints fingerprints = PageFingerprints.load(dir, "ctx");
+
+		assertTrue(fingerprints.update("a/Foo.html", fp1));
+	}
+
+	@Test
+	public void load_should_delete_file() throws IOException {
+		save("ctx", "a/Foo.html", fp1);
+
+		PageFingerprints.load(dir, "ctx");
+
+		assertFalse(new File(dir, PageFingerprints.FILE_NAME).exists());
+	}
+
+	private void save(final String contextKey, final String path,
+			final byte[] fingerprint) throws IOException {
+		final PageFingerprints fingerprints = PageFingerprints.load(dir,
+				contextKey);
+		fingerprints.update(path, fingerprint);
+		fingerprints.save(new FileMultiReportOutput(dir));
+	}
+
+	private void write(final String path, final byte[] content)
+			throws IOException {
+		final File file = new File(dir, path);
+		file.getParentFile().mkdirs();
+		final OutputStream out = new FileOutputStream(file);
+		out.write(content);
+		out.close();
+	}
+
+}
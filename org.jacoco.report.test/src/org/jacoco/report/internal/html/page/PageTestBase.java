@@ -23,6 +23,7 @@ import org.jacoco.report.internal.html.HTMLSupport;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
 import org.jacoco.report.internal.html.LinkableStub;
+import org.jacoco.report.internal.html.PageFingerprints;
 import org.jacoco.report.internal.html.index.IIndexUpdate;
 import org.jacoco.report.internal.html.resources.Resources;
 import org.jacoco.report.internal.html.resources.Styles;
@@ -43,6 +44,8 @@ public abstract class PageTestBase {
 
 	protected HTMLSupport support;
 
+	protected PageFingerprints fingerprints;
+
 	protected void setup() throws Exception {
 		output = new MemoryMultiReportOutput();
 		rootFolder = new ReportOutputFolder(output);
@@ -87,6 +90,14 @@ public abstract class PageTestBase {
 				return Locale.ENGLISH;
 			}
 
+			public int getThreads() {
+				return 1;
+			}
+
+			public PageFingerprints getFingerprints() {
+				return fingerprints;
+			}
+
 		};
 		support = new HTMLSupport();
 	}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MarkupWriter}.
+ */
+public class MarkupWriterTest {
+
+	private StringWriter target;
+
+	private MarkupWriter writer;
+
+	@Before
+	public void setup() {
+		target = new StringWriter();
+		writer = new MarkupWriter(target);
+	}
+
+	@Test
+	public void escape_should_write_text_without_special_characters()
+			throws IOException {
+		writer.escape("hello world");
+		assertOutput("hello world");
+	}
+
+	@Test
+	public void escape_should_replace_special_characters() throws IOException {
+		writer.escape("<a href=\"x\">&</a>");
+		assertOutput("&lt;a href=&quot;x&quot;&gt;&amp;&lt;/a&gt;");
+	}
+
+	@Test
+	public void escape_should_keep_non_ascii_characters() throws IOException {
+		writer.escape("\u00e4<\u20ac>\ud83d\ude00");
+		assertOutput("\u00e4&lt;\u20ac&gt;\ud83d\ude00");
+	}
+
+	@Test
+	public void escape_should_write_empty_text() throws IOException {
+		writer.escape("");
+		assertOutput("");
+	}
+
+	@Test
+	public void decimal_should_write_values_like_String_valueOf()
+			throws IOException {
+		final long[] values = { 0, 7, -7, 10, -10, 123456789,
+				Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE,
+				Long.MAX_VALUE };
+		final StringBuilder expected = new StringBuilder();
+		for (final long v : values) {
+			writer.decimal(v);
+			writer.write(' ');
+			expected.append(v).append(' ');
+		}
+		assertOutput(expected.toString());
+	}
+
+	@Test
+	public void write_should_keep_order_when_buffer_overflows()
+			throws IOException {
+		final StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 3000; i++) {
+			writer.escape("<" + i);
+			writer.write('|');
+			expected.append("&lt;").append(i).append('|');
+		}
+		final char[] large = new char[20000];
+		for (int i = 0; i < large.length; i++) {
+			large[i] = (char) ('a' + i % 26);
+		}
+		writer.write(large, 0, large.length);
+		writer.write(new String(large), 1, 10000);
+		expected.append(large).append(large, 1, 10000);
+		assertOutput(expected.toString());
+	}
+
+	@Test
+	public void flush_should_write_buffered_content() throws IOException {
+		writer.write("abc");
+		assertEquals("", target.toString());
+		writer.flush();
+		assertEquals("abc", target.toString());
+	}
+
+	@Test
+	public void close_should_close_target() throws IOException {
+		final boolean[] closed = new boolean[1];
+		writer = new MarkupWriter(new StringWriter() {
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		});
+		writer.close();
+		assertTrue(closed[0]);
+	}
+
+	private void assertOutput(final String expected) throws IOException {
+		writer.close();
+		assertEquals(expected, target.toString());
+	}
+
+}
@@ -38,6 +38,15 @@ public class FileMultiReportOutput implements IMultiReportOutput {
 		this.basedir = basedir;
 	}
 
+	/**
+	 * Returns the base directory of this output.
+	 *
+	 * @return base directory
+	 */
+	public File getBaseDirectory() {
+		return basedir;
+	}
+
 	public OutputStream createFile(final String path) throws IOException {
 		final File file = new File(basedir, path);
 		final File parent = file.getParentFile();
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Locator for source files in multiple directories of the file system. In
+ * contrast to a {@link MultiSourceFileLocator} with a
+ * {@link DirectorySourceFileLocator} per directory the content of all
+ * directories is listed once when the first source file is requested, so
+ * lookups do not need to access the file system for every directory. If a
+ * source file exists in multiple directories the file from the directory added
+ * first is selected. Instances can be used concurrently once all directories
+ * have been added.
+ */
+public class IndexedSourceFileLocator extends InputStreamSourceFileLocator {
+
+	private final List<File> directories = new ArrayList<File>();
+
+	private Map<String, File> index;
+
+	/**
+	 * Creates a new locator without directories.
+	 *
+	 * @param encoding
+	 *            encoding of the source files, <code>null</code> for platform
+	 *            default encoding
+	 * @param tabWidth
+	 *            tab width in source files as number of blanks
+	 */
+	public IndexedSourceFileLocator(final String encoding,
+			final int tabWidth) {
+		super(encoding, tabWidth);
+	}
+
+	/**
+	 * Adds the given directory. Directories are searched in the sequence they
+	 * have been added. Directories which do not exist are ignored.
+	 *
+	 * @param directory
+	 *            directory to search for source files
+	 */
+	public synchronized void addDirectory(final File directory) {
+		directories.add(directory);
+		index = null;
+	}
+
+	@Override
+	protected InputStream getSourceStream(final String path)
+			throws IOException {
+		final File file = getIndex().get(path);
+		return file == null ? null : new FileInputStream(file);
+	}
+
+	private synchronized Map<String, File> getIndex() throws IOException {
+		if (index == null) {
+			final Map<String, File> newIndex = new HashMap<String, File>();
+			for (final File directory : directories) {
+				addToIndex(newIndex, directory, "", new HashSet<String>());
+			}
+			index = newIndex;
+		}
+		return index;
+	}
+
+	private static void addToIndex(final Map<String, File> index,
+			final File dir, final String path, final Set<String> parents)
+			throws IOException {
+		// Avoid endless recursion for symbolic links to parent directories
+		final String canonicalPath = dir.getCanonicalPath();
+		final File[] files = dir.listFiles();
+		if (files == null || !parents.add(canonicalPath)) {
+			return;
+		}
+		for (final File f : files) {
+			final String name = path + f.getName();
+			if (f.isDirectory()) {
+				addToIndex(index, f, name + "/", parents);
+			} else if (!index.containsKey(name)) {
+				index.put(name, f);
+			}
+		}
+		parents.remove(canonicalPath);
+	}
+
+}
@@ -16,14 +16,21 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.SessionInfo;
+import org.jacoco.core.internal.ThreadPools;
 
 /**
  * A report visitor that is composed from multiple other visitors. This can be
- * used to create more than one report format in one run.
+ * used to create more than one report format in one run. Optionally bundles
+ * are passed to all visitors concurrently, so that the report formats are
+ * created in parallel from the same coverage data. In this case the given
+ * source file locators must support concurrent access.
  */
 public class MultiReportVisitor extends MultiGroupVisitor
 		implements IReportVisitor {
@@ -37,7 +44,21 @@ public class MultiReportVisitor extends MultiGroupVisitor
 	 *            visitors to delegate to
 	 */
 	public MultiReportVisitor(final List<IReportVisitor> visitors) {
-		super(visitors);
+		this(visitors, false);
+	}
+
+	/**
+	 * New visitor delegating to all given visitors.
+	 *
+	 * @param visitors
+	 *            visitors to delegate to
+	 * @param parallel
+	 *            if <code>true</code> bundles are visited by all visitors
+	 *            concurrently
+	 */
+	public MultiReportVisitor(final List<IReportVisitor> visitors,
+			final boolean parallel) {
+		super(visitors, parallel);
 		this.visitors = visitors;
 	}
 
@@ -60,15 +81,70 @@ class MultiGroupVisitor implements IReportGroupVisitor {
 
 	private final List<? extends IReportGroupVisitor> visitors;
 
-	MultiGroupVisitor(final List<? extends IReportGroupVisitor> visitors) {
+	private final boolean parallel;
+
+	MultiGroupVisitor(final List<? extends IReportGroupVisitor> visitors,
+			final boolean parallel) {
 		this.visitors = visitors;
+		this.parallel = parallel;
 	}
 
 	public void visitBundle(final IBundleCoverage bundle,
 			final ISourceFileLocator locator) throws IOException {
-		for (final IReportGroupVisitor v : visitors) {
-			v.visitBundle(bundle, locator);
+		if (!parallel || visitors.size() < 2) {
+			for (final IReportGroupVisitor v : visitors) {
+				v.visitBundle(bundle, locator);
+			}
+			return;
+		}
+		// The first visitor runs on the calling thread
+		final ExecutorService executor = ThreadPools
+				.create(visitors.size() - 1, "jacoco-report");
+		Throwable failure = null;
+		try {
+			final List<Future<Void>> visits = new ArrayList<Future<Void>>();
+			for (final IReportGroupVisitor v : visitors.subList(1,
+					visitors.size())) {
+				visits.add(executor.submit(new Callable<Void>() {
+					public Void call() throws IOException {
+						v.visitBundle(bundle, locator);
+						return null;
+					}
+				}));
+			}
+			try {
+				visitors.get(0).visitBundle(bundle, locator);
+			} catch (final Throwable t) {
+				failure = t;
+				executor.shutdownNow();
+			}
+			// Always wait for all visitors and report the first failure
+			for (final Future<Void> visit : visits) {
+				try {
+					ThreadPools.await(visit, "creating report");
+				} catch (final Throwable t) {
+					if (failure == null) {
+						failure = t;
+						executor.shutdownNow();
+					}
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+		if (failure != null) {
+			rethrow(failure);
+		}
+	}
+
+	private static void rethrow(final Throwable t) throws IOException {
+		if (t instanceof IOException) {
+			throw (IOException) t;
+		}
+		if (t instanceof RuntimeException) {
+			throw (RuntimeException) t;
 		}
+		throw (Error) t;
 	}
 
 	public IReportGroupVisitor visitGroup(final String name)
@@ -77,7 +153,7 @@ class MultiGroupVisitor implements IReportGroupVisitor {
 		for (final IReportGroupVisitor v : visitors) {
 			children.add(v.visitGroup(name));
 		}
-		return new MultiGroupVisitor(children);
+		return new MultiGroupVisitor(children, parallel);
 	}
 
 }
@@ -14,10 +14,13 @@ package org.jacoco.report.check;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 
+import org.jacoco.core.analysis.CoverageNodeImpl;
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.IClassCoverage;
 import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.analysis.ICoverageNode.ElementType;
 import org.jacoco.core.analysis.IMethodCoverage;
 import org.jacoco.core.analysis.IPackageCoverage;
 import org.jacoco.core.analysis.ISourceFileCoverage;
@@ -25,7 +28,11 @@ import org.jacoco.report.ILanguageNames;
 
 /**
  * Internal class to check a list of rules against a {@link IBundleCoverage}
- * instance.
+ * instance. In fail-fast mode checking stops with the first violation. The
+ * rules for the bundle itself are then checked after its packages, and
+ * maximum counts of the bundle are already checked against the packages seen
+ * so far, so that bundles which are analyzed on demand are not analyzed
+ * completely if a violation is found.
  */
 class BundleChecker {
 
@@ -43,8 +50,18 @@ class BundleChecker {
 	private final boolean traverseSourceFiles;
 	private final boolean traverseMethods;
 
+	private final boolean failFast;
+
+	private boolean violated;
+
 	public BundleChecker(final Collection<Rule> rules,
 			final ILanguageNames names, final IViolationsOutput output) {
+		this(rules, names, output, false);
+	}
+
+	public BundleChecker(final Collection<Rule> rules,
+			final ILanguageNames names, final IViolationsOutput output,
+			final boolean failFast) {
 		this.names = names;
 		this.output = output;
 		this.bundleRules = new ArrayList<Rule>();
@@ -75,17 +92,46 @@ class BundleChecker {
 		traverseClasses = !classRules.isEmpty() || traverseMethods;
 		traverseSourceFiles = !sourceFileRules.isEmpty();
 		traversePackages = !packageRules.isEmpty() || traverseClasses
-				|| traverseSourceFiles;
+				|| traverseSourceFiles
+				|| (failFast && !bundleRules.isEmpty());
+		this.failFast = failFast;
 	}
 
 	public void checkBundle(final IBundleCoverage bundleCoverage) {
 		final String name = bundleCoverage.getName();
-		checkRules(bundleCoverage, bundleRules, "bundle", name);
+		violated = false;
+		if (!failFast) {
+			checkRules(bundleCoverage, bundleRules, "bundle", name);
+			if (traversePackages) {
+				for (final IPackageCoverage p : bundleCoverage.getPackages()) {
+					check(p);
+				}
+			}
+			return;
+		}
 		if (traversePackages) {
-			for (final IPackageCoverage p : bundleCoverage.getPackages()) {
+			final CoverageNodeImpl part = new CoverageNodeImpl(
+					ElementType.BUNDLE, name);
+			final Iterator<IPackageCoverage> packages = bundleCoverage
+					.getPackages().iterator();
+			while (packages.hasNext()) {
+				final IPackageCoverage p = packages.next();
 				check(p);
+				part.increment(p);
+				// After the last package the complete bundle is checked
+				if (packages.hasNext()) {
+					checkPartRules(part, bundleRules, "bundle", name);
+				}
+				if (isAborted()) {
+					return;
+				}
 			}
 		}
+		checkRules(bundleCoverage, bundleRules, "bundle", name);
+	}
+
+	private boolean isAborted() {
+		return failFast && violated;
 	}
 
 	private void check(final IPackageCoverage packageCoverage) {
@@ -93,12 +139,18 @@ class BundleChecker {
 		checkRules(packageCoverage, packageRules, "package", name);
 		if (traverseClasses) {
 			for (final IClassCoverage c : packageCoverage.getClasses()) {
+				if (isAborted()) {
+					return;
+				}
 				check(c);
 			}
 		}
 		if (traverseSourceFiles) {
 			for (final ISourceFileCoverage s : packageCoverage
 					.getSourceFiles()) {
+				if (isAborted()) {
+					return;
+				}
 				check(s);
 			}
 		}
@@ -110,6 +162,9 @@ class BundleChecker {
 		checkRules(classCoverage, classRules, "class", name);
 		if (traverseMethods) {
 			for (final IMethodCoverage m : classCoverage.getMethods()) {
+				if (isAborted()) {
+					return;
+				}
 				check(m, classCoverage.getName());
 			}
 		}
@@ -133,16 +188,41 @@ class BundleChecker {
 		for (final Rule rule : rules) {
 			if (rule.matches(elementname)) {
 				for (final Limit limit : rule.getLimits()) {
+					if (isAborted()) {
+						return;
+					}
 					checkLimit(node, typename, elementname, rule, limit);
 				}
 			}
 		}
 	}
 
+	private void checkPartRules(final ICoverageNode part,
+			final Collection<Rule> rules, final String typename,
+			final String elementname) {
+		for (final Rule rule : rules) {
+			if (rule.matches(elementname)) {
+				for (final Limit limit : rule.getLimits()) {
+					if (isAborted()) {
+						return;
+					}
+					report(part, typename, elementname, rule, limit,
+							limit.checkPart(part));
+				}
+			}
+		}
+	}
+
 	private void checkLimit(final ICoverageNode node, final String elementtype,
 			final String elementname, final Rule rule, final Limit limit) {
-		final String message = limit.check(node);
+		report(node, elementtype, elementname, rule, limit, limit.check(node));
+	}
+
+	private void report(final ICoverageNode node, final String elementtype,
+			final String elementname, final Rule rule, final Limit limit,
+			final String message) {
 		if (message != null) {
+			violated = true;
 			output.onViolation(node, rule, limit,
 					String.format("Rule violated for %s %s: %s", elementtype,
 							elementname, message));
@@ -187,6 +187,35 @@ public class Limit {
 		return null;
 	}
 
+	/**
+	 * Checks the counters of a part of an element, e.g. the sum of the
+	 * packages of a bundle which have been analyzed so far. Counts do not
+	 * decrease when further parts are added, therefore only a maximum of a
+	 * count can be violated for sure.
+	 *
+	 * @param part
+	 *            counters of a part of the element
+	 * @return message if the limit is violated by the whole element,
+	 *         <code>null</code> if this is not known yet
+	 */
+	String checkPart(final ICoverageNode part) {
+		if (maximum == null || CounterValue.MISSEDRATIO.equals(value)
+				|| CounterValue.COVEREDRATIO.equals(value)) {
+			return null;
+		}
+		final BigDecimal bd = BigDecimal
+				.valueOf(part.getCounter(entity).getValue(value));
+		if (maximum.compareTo(bd) < 0) {
+			return String.format(
+					"%s %s is at least %s, but expected maximum is %s",
+					ENTITY_NAMES.get(entity), VALUE_NAMES.get(value),
+					bd.setScale(maximum.scale(), RoundingMode.CEILING)
+							.toPlainString(),
+					maximum.toPlainString());
+		}
+		return null;
+	}
+
 	private String message(final String minmax, final BigDecimal v,
 			final BigDecimal ref, final RoundingMode mode) {
 		final BigDecimal rounded = v.setScale(ref.scale(), mode);
@@ -34,6 +34,7 @@ public class RulesChecker {
 
 	private List<Rule> rules;
 	private ILanguageNames languageNames;
+	private boolean failFast;
 
 	/**
 	 * New formatter instance.
@@ -64,6 +65,21 @@ public class RulesChecker {
 		this.languageNames = languageNames;
 	}
 
+	/**
+	 * Sets whether checking a bundle stops with the first violation. In this
+	 * mode maximum counts for bundles are also checked against the packages
+	 * checked so far. For bundles which analyze their packages on demand, like
+	 * {@link org.jacoco.core.analysis.StreamingBundleCoverage}, the remaining
+	 * packages are not analyzed at all then. By default all violations are
+	 * reported.
+	 *
+	 * @param failFast
+	 *            <code>true</code> to stop with the first violation
+	 */
+	public void setFailFast(final boolean failFast) {
+		this.failFast = failFast;
+	}
+
 	/**
 	 * Creates a new visitor to process the configured checks.
 	 *
@@ -73,7 +89,7 @@ public class RulesChecker {
 	 */
 	public IReportVisitor createVisitor(final IViolationsOutput output) {
 		final BundleChecker bundleChecker = new BundleChecker(rules,
-				languageNames, output);
+				languageNames, output, failFast);
 		return new IReportVisitor() {
 
 			public IReportGroupVisitor visitGroup(final String name)
@@ -17,10 +17,12 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 
+import org.jacoco.core.JaCoCo;
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.ICoverageNode.CounterEntity;
 import org.jacoco.core.data.ExecutionData;
 import org.jacoco.core.data.SessionInfo;
+import org.jacoco.report.FileMultiReportOutput;
 import org.jacoco.report.ILanguageNames;
 import org.jacoco.report.IMultiReportOutput;
 import org.jacoco.report.IReportGroupVisitor;
@@ -28,9 +30,11 @@ import org.jacoco.report.IReportVisitor;
 import org.jacoco.report.ISourceFileLocator;
 import org.jacoco.report.JavaNames;
 import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.SynchronizedMultiReportOutput;
 import org.jacoco.report.internal.html.HTMLGroupVisitor;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
+import org.jacoco.report.internal.html.PageFingerprints;
 import org.jacoco.report.internal.html.index.ElementIndex;
 import org.jacoco.report.internal.html.index.IIndexUpdate;
 import org.jacoco.report.internal.html.page.BundlePage;
@@ -57,13 +61,24 @@ public class HTMLFormatter implements IHTMLReportContext {
 
 	private String outputEncoding = "UTF-8";
 
+	private int threads = 1;
+
+	private boolean incremental = false;
+
 	private Resources resources;
 
 	private ElementIndex index;
 
+	private PageFingerprints fingerprints;
+
 	private SessionsPage sessionsPage;
 
-	private Table table;
+	private final ThreadLocal<Table> table = new ThreadLocal<Table>() {
+		@Override
+		protected Table initialValue() {
+			return createTable();
+		}
+	};
 
 	/**
 	 * New instance with default settings.
@@ -113,6 +128,38 @@ public class HTMLFormatter implements IHTMLReportContext {
 		this.outputEncoding = outputEncoding;
 	}
 
+	/**
+	 * Sets the number of threads used to render the pages of the packages of
+	 * a bundle. With more than one thread the pages of every package are
+	 * rendered in parallel. The content of the created files does not depend
+	 * on the number of threads, but the order in which the files are created
+	 * does. Also the {@link ILanguageNames} implementation and the
+	 * {@link ISourceFileLocator} instances must support concurrent access in
+	 * this case. Default is 1, i.e. all pages are rendered on the calling
+	 * thread.
+	 *
+	 * @param threads
+	 *            number of rendering threads
+	 */
+	public void setThreads(final int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Sets whether the report is created incrementally. In this mode a
+	 * fingerprint of every class and source file page is stored in the report
+	 * directory and only pages with a different fingerprint are written again.
+	 * Pages which summarize other pages are always written. Incremental mode
+	 * is only supported for reports written with a
+	 * {@link FileMultiReportOutput}. Default is <code>false</code>.
+	 *
+	 * @param incremental
+	 *            <code>true</code> to create the report incrementally
+	 */
+	public void setIncremental(final boolean incremental) {
+		this.incremental = incremental;
+	}
+
 	// === IHTMLReportContext ===
 
 	public ILanguageNames getLanguageNames() {
@@ -124,10 +171,9 @@ public class HTMLFormatter implements IHTMLReportContext {
 	}
 
 	public Table getTable() {
-		if (table == null) {
-			table = createTable();
-		}
-		return table;
+		// Tables keep state while rendering, therefore every thread needs its
+		// own instance
+		return table.get();
 	}
 
 	private Table createTable() {
@@ -176,6 +222,20 @@ public class HTMLFormatter implements IHTMLReportContext {
 		return locale;
 	}
 
+	public int getThreads() {
+		return threads;
+	}
+
+	public PageFingerprints getFingerprints() {
+		return fingerprints;
+	}
+
+	private String getContextKey() {
+		return JaCoCo.VERSION + '/' + JaCoCo.COMMITID + '\n' + footerText
+				+ '\n' + locale + '\n' + outputEncoding + '\n'
+				+ languageNames.getClass().getName();
+	}
+
 	/**
 	 * Creates a new visitor to write a report to the given output.
 	 *
@@ -187,10 +247,19 @@ public class HTMLFormatter implements IHTMLReportContext {
 	 */
 	public IReportVisitor createVisitor(final IMultiReportOutput output)
 			throws IOException {
-		final ReportOutputFolder root = new ReportOutputFolder(output);
+		final ReportOutputFolder root = new ReportOutputFolder(
+				threads > 1 ? new SynchronizedMultiReportOutput(output)
+						: output);
 		resources = new Resources(root);
 		resources.copyResources();
 		index = new ElementIndex(root);
+		if (incremental && output instanceof FileMultiReportOutput) {
+			fingerprints = PageFingerprints.load(
+					((FileMultiReportOutput) output).getBaseDirectory(),
+					getContextKey());
+		} else {
+			fingerprints = null;
+		}
 		return new IReportVisitor() {
 
 			private List<SessionInfo> sessionInfos;
@@ -232,6 +301,9 @@ public class HTMLFormatter implements IHTMLReportContext {
 					groupHandler.visitEnd();
 				}
 				sessionsPage.render();
+				if (fingerprints != null) {
+					fingerprints.save(output);
+				}
 				output.close();
 			}
 		};
@@ -44,8 +44,10 @@ public abstract class AbstractGroupVisitor implements IReportGroupVisitor {
 	public final void visitBundle(final IBundleCoverage bundle,
 			final ISourceFileLocator locator) throws IOException {
 		finalizeLastChild();
-		total.increment(bundle);
+		// Handle the bundle first as the counters of bundles which are
+		// analyzed on demand are calculated while iterating the packages
 		handleBundle(bundle, locator);
+		total.increment(bundle);
 	}
 
 	/**
@@ -67,7 +67,7 @@ public class ReportOutputFolder {
 	 *            name of the sub-folder
 	 * @return handle for output into the sub-folder
 	 */
-	public ReportOutputFolder subFolder(final String name) {
+	public synchronized ReportOutputFolder subFolder(final String name) {
 		final String normalizedName = normalize(name);
 		ReportOutputFolder folder = subFolders.get(normalizedName);
 		if (folder != null) {
@@ -89,7 +89,18 @@ public class ReportOutputFolder {
 	 *             if the file creation fails
 	 */
 	public OutputStream createFile(final String name) throws IOException {
-		return output.createFile(path + normalize(name));
+		return output.createFile(getPath(name));
+	}
+
+	/**
+	 * Returns the path of a file in this folder relative to the root folder.
+	 *
+	 * @param name
+	 *            name of the file
+	 * @return path of the file
+	 */
+	public String getPath(final String name) {
+		return path + normalize(name);
 	}
 
 	/**
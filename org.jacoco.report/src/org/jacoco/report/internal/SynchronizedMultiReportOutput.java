@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jacoco.report.IMultiReportOutput;
+
+/**
+ * Wrapper which allows files to be created from multiple threads for an output
+ * that does not support concurrent access. The content of every file is
+ * buffered in memory and written to the underlying output when the file is
+ * closed. Writes to the underlying output are serialized, so at any time at
+ * most one file of the underlying output is open.
+ */
+public class SynchronizedMultiReportOutput implements IMultiReportOutput {
+
+	private final IMultiReportOutput delegate;
+
+	/**
+	 * Creates a new wrapper for the given output.
+	 *
+	 * @param delegate
+	 *            output to write files to
+	 */
+	public SynchronizedMultiReportOutput(final IMultiReportOutput delegate) {
+		this.delegate = delegate;
+	}
+
+	public OutputStream createFile(final String path) throws IOException {
+		return new ByteArrayOutputStream() {
+
+			private boolean closed = false;
+
+			@Override
+			public void close() throws IOException {
+				if (!closed) {
+					closed = true;
+					writeFile(path, buf, count);
+				}
+			}
+		};
+	}
+
+	private synchronized void writeFile(final String path, final byte[] buffer,
+			final int length) throws IOException {
+		final OutputStream out = delegate.createFile(path);
+		try {
+			out.write(buffer, 0, length);
+		} finally {
+			out.close();
+		}
+	}
+
+	public synchronized void close() throws IOException {
+		delegate.close();
+	}
+
+}
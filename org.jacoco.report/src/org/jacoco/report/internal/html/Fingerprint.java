@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.html;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.core.analysis.ICoverageNode.CounterEntity;
+
+/**
+ * Builder for a digest over all data a report page is rendered from. Pages with
+ * the same fingerprint have the same content.
+ */
+public class Fingerprint {
+
+	/** Length of a fingerprint in bytes */
+	public static final int LENGTH = 16;
+
+	private final MessageDigest digest;
+
+	/**
+	 * Creates a new empty fingerprint.
+	 */
+	public Fingerprint() {
+		try {
+			digest = MessageDigest.getInstance("MD5");
+		} catch (final NoSuchAlgorithmException e) {
+			// Every Java platform is required to support MD5
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 * Adds the given value.
+	 *
+	 * @param value
+	 *            value to add
+	 * @return this instance
+	 */
+	public Fingerprint add(final int value) {
+		digest.update((byte) (value >>> 24));
+		digest.update((byte) (value >>> 16));
+		digest.update((byte) (value >>> 8));
+		digest.update((byte) value);
+		return this;
+	}
+
+	/**
+	 * Adds the given value.
+	 *
+	 * @param value
+	 *            value to add
+	 * @return this instance
+	 */
+	public Fingerprint add(final boolean value) {
+		digest.update((byte) (value ? 1 : 0));
+		return this;
+	}
+
+	/**
+	 * Adds the given string.
+	 *
+	 * @param value
+	 *            string to add, may be <code>null</code>
+	 * @return this instance
+	 */
+	public Fingerprint add(final String value) {
+		if (value == null) {
+			return add(-1);
+		}
+		final int length = value.length();
+		add(length);
+		for (int i = 0; i < length; i++) {
+			final char c = value.charAt(i);
+			digest.update((byte) (c >>> 8));
+			digest.update((byte) c);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the missed and covered count of the given counter.
+	 *
+	 * @param counter
+	 *            counter to add
+	 * @return this instance
+	 */
+	public Fingerprint add(final ICounter counter) {
+		return add(counter.getMissedCount()).add(counter.getCoveredCount());
+	}
+
+	/**
+	 * Adds name, type and all counters of the given node.
+	 *
+	 * @param node
+	 *            node to add
+	 * @return this instance
+	 */
+	public Fingerprint add(final ICoverageNode node) {
+		add(node.getName());
+		add(node.getElementType().ordinal());
+		for (final CounterEntity entity : CounterEntity.values()) {
+			add(node.getCounter(entity));
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the fingerprint of all values added so far and resets this
+	 * instance.
+	 *
+	 * @return fingerprint with {@link #LENGTH} bytes
+	 */
+	public byte[] get() {
+		return digest.digest();
+	}
+
+}
@@ -80,4 +80,20 @@ public interface IHTMLReportContext {
 	 */
 	Locale getLocale();
 
+	/**
+	 * Returns the number of threads used to render the pages of packages.
+	 *
+	 * @return number of threads, <code>1</code> if all pages are rendered on
+	 *         the calling thread
+	 */
+	int getThreads();
+
+	/**
+	 * Returns the fingerprints of the pages of the previous report generation
+	 * if the report is created incrementally.
+	 *
+	 * @return fingerprints or <code>null</code> if all pages are rendered
+	 */
+	PageFingerprints getFingerprints();
+
 }
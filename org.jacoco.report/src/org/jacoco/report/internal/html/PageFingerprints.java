@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.html;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jacoco.report.IMultiReportOutput;
+
+/**
+ * Fingerprints of the pages of a HTML report in a directory. The fingerprints
+ * of the previous report generation are loaded from a file in the report
+ * directory. A page only needs to be rendered again if its fingerprint has
+ * changed. The file is deleted while loading and only written again after
+ * the report has been completed, so an aborted report generation results in
+ * a full report generation next time. Instances can be used concurrently.
+ */
+public class PageFingerprints {
+
+	/** Name of the file storing the fingerprints in the report directory */
+	public static final String FILE_NAME = ".jacoco-fingerprints";
+
+	private static final int FORMAT_VERSION = 0x1001;
+
+	private final File directory;
+
+	private final String contextKey;
+
+	private final Map<String, byte[]> previous;
+
+	private final Map<String, byte[]> current = new HashMap<String, byte[]>();
+
+	private PageFingerprints(final File directory, final String contextKey,
+			final Map<String, byte[]> previous) {
+		this.directory = directory;
+		this.contextKey = contextKey;
+		this.previous = previous;
+	}
+
+	/**
+	 * Loads the fingerprints of the previous report generation from the given
+	 * report directory. Fingerprints are discarded if they have been created
+	 * with a different context key or can't be read.
+	 *
+	 * @param directory
+	 *            report directory
+	 * @param contextKey
+	 *            key for all settings which affect every page of the report
+	 * @return fingerprints of the previous report generation
+	 */
+	public static PageFingerprints load(final File directory,
+			final String contextKey) {
+		final File file = new File(directory, FILE_NAME);
+		final Map<String, byte[]> previous = new HashMap<String, byte[]>();
+		if (file.isFile()) {
+			try {
+				read(file, contextKey, previous);
+			} catch (final IOException e) {
+				// Fingerprints are only an optimization, a full report is
+				// created in this case
+				previous.clear();
+			}
+			file.delete();
+		}
+		return new PageFingerprints(directory, contextKey, previous);
+	}
+
+	private static void read(final File file, final String contextKey,
+			final Map<String, byte[]> previous) throws IOException {
+		final DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != FORMAT_VERSION
+					|| !contextKey.equals(in.readUTF())) {
+				return;
+			}
+			final int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				final String path = in.readUTF();
+				final byte[] fingerprint = new byte[Fingerprint.LENGTH];
+				in.readFully(fingerprint);
+				previous.put(path, fingerprint);
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Records the fingerprint of the page with the given path and checks
+	 * whether the page needs to be rendered.
+	 *
+	 * @param path
+	 *            path of the page relative to the report directory
+	 * @param fingerprint
+	 *            current fingerprint of the page
+	 * @return <code>true</code> if the fingerprint has changed or the page
+	 *         does not exist
+	 */
+	public synchronized boolean update(final String path,
+			final byte[] fingerprint) {
+		current.put(path, fingerprint);
+		return !Arrays.equals(previous.get(path), fingerprint)
+				|| !new File(directory, path).isFile();
+	}
+
+	/**
+	 * Writes all fingerprints recorded with {@link #update(String, byte[])}
+	 * to the given report output.
+	 *
+	 * @param output
+	 *            output of the report directory
+	 * @throws IOException
+	 *             if the fingerprints can't be written
+	 */
+	public synchronized void save(final IMultiReportOutput output)
+			throws IOException {
+		final DataOutputStream out = new DataOutputStream(
+				output.createFile(FILE_NAME));
+		try {
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(contextKey);
+			out.writeInt(current.size());
+			for (final Map.Entry<String, byte[]> e : current.entrySet()) {
+				out.writeUTF(e.getKey());
+				out.write(e.getValue());
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+}
@@ -20,7 +20,7 @@ import org.jacoco.report.internal.html.ILinkable;
 
 /**
  * An index over all report pages that allows queries according to certain
- * criteria.
+ * criteria. The index can be updated and queried from multiple threads.
  */
 public class ElementIndex implements IIndexUpdate {
 
@@ -46,13 +46,14 @@ public class ElementIndex implements IIndexUpdate {
 	 *            class identifier
 	 * @return Link or null
 	 */
-	public String getLinkToClass(final long classid) {
+	public synchronized String getLinkToClass(final long classid) {
 		return allClasses.get(Long.valueOf(classid));
 	}
 
 	// === IIndexUpdater ===
 
-	public void addClass(final ILinkable link, final long classid) {
+	public synchronized void addClass(final ILinkable link,
+			final long classid) {
 		allClasses.put(Long.valueOf(classid), link.getLink(baseFolder));
 	}
 
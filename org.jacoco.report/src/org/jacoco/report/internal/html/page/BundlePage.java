@@ -13,10 +13,16 @@
 package org.jacoco.report.internal.html.page;
 
 import java.io.IOException;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.jacoco.core.analysis.IBundleCoverage;
 import org.jacoco.core.analysis.ICoverageNode;
 import org.jacoco.core.analysis.IPackageCoverage;
+import org.jacoco.core.internal.ThreadPools;
 import org.jacoco.report.ISourceFileLocator;
 import org.jacoco.report.internal.ReportOutputFolder;
 import org.jacoco.report.internal.html.HTMLElement;
@@ -24,7 +30,10 @@ import org.jacoco.report.internal.html.IHTMLReportContext;
 
 /**
  * Page showing coverage information for a bundle. The page contains a table
- * with all packages of the bundle.
+ * with all packages of the bundle. If the context specifies multiple threads
+ * the pages of the packages are rendered in parallel. Package pages are not
+ * kept once they have been rendered, so that packages of a bundle which are
+ * analyzed on demand can be released one after the other.
  */
 public class BundlePage extends TablePage<ICoverageNode> {
 
@@ -63,18 +72,58 @@ public class BundlePage extends TablePage<ICoverageNode> {
 	}
 
 	private void renderPackages() throws IOException {
-		for (final IPackageCoverage p : bundle.getPackages()) {
-			if (!p.containsCode()) {
-				continue;
+		final ExecutorService executor = createExecutor();
+		// Limit the number of packages which are waiting to be rendered
+		final int window = 2 * context.getThreads();
+		final Queue<Future<Void>> renderings = new LinkedList<Future<Void>>();
+		boolean first = true;
+		try {
+			for (final IPackageCoverage p : bundle.getPackages()) {
+				if (!p.containsCode()) {
+					continue;
+				}
+				final String packagename = p.getName();
+				final String foldername = packagename.length() == 0
+						? "default"
+						: packagename.replace('/', '.');
+				final PackagePage page = new PackagePage(p, this, locator,
+						folder.subFolder(foldername), context);
+				// The first package is always rendered on the calling thread
+				// so that the file names of the parent folders are
+				// normalized in the same order as for sequential rendering
+				if (executor == null || first) {
+					page.render();
+				} else {
+					if (renderings.size() >= window) {
+						ThreadPools.await(renderings.remove(),
+								"rendering report");
+					}
+					renderings.add(executor.submit(new Callable<Void>() {
+						public Void call() throws IOException {
+							page.render();
+							return null;
+						}
+					}));
+				}
+				addItem(new RenderedPageItem(page));
+				first = false;
 			}
-			final String packagename = p.getName();
-			final String foldername = packagename.length() == 0 ? "default"
-					: packagename.replace('/', '.');
-			final PackagePage page = new PackagePage(p, this, locator,
-					folder.subFolder(foldername), context);
-			page.render();
-			addItem(page);
+			while (!renderings.isEmpty()) {
+				ThreadPools.await(renderings.remove(), "rendering report");
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	private ExecutorService createExecutor() {
+		final int threads = context.getThreads();
+		if (threads <= 1) {
+			return null;
 		}
+		return ThreadPools.create(threads, "jacoco-html-report");
 	}
 
 	@Override
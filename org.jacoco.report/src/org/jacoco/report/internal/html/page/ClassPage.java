@@ -17,6 +17,7 @@ import java.io.IOException;
 import org.jacoco.core.analysis.IClassCoverage;
 import org.jacoco.core.analysis.IMethodCoverage;
 import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.html.Fingerprint;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
@@ -67,6 +68,24 @@ public class ClassPage extends TablePage<IClassCoverage> {
 		super.render();
 	}
 
+	@Override
+	protected boolean fingerprint(final Fingerprint fingerprint) {
+		final IClassCoverage node = getNode();
+		fingerprint.add(node);
+		fingerprint.add(node.isNoMatch());
+		fingerprint.add(node.getPackageName());
+		fingerprint.add(node.getSourceFileName());
+		fingerprint.add(sourcePage == null ? null : sourcePage.getLink(folder));
+		for (final IMethodCoverage m : node.getMethods()) {
+			fingerprint.add(m);
+			fingerprint.add(context.getLanguageNames().getMethodName(
+					node.getName(), m.getName(), m.getDesc(),
+					m.getSignature()));
+			fingerprint.add(m.getFirstLine());
+		}
+		return true;
+	}
+
 	@Override
 	protected String getFileName() {
 		final String vmname = getNode().getName();
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.html.page;
+
+import org.jacoco.core.analysis.ICoverageNode;
+import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.html.table.ITableItem;
+
+/**
+ * Table item linking to a page which has already been rendered. In contrast to
+ * the page itself the item only keeps the counters of the node, not its
+ * children.
+ */
+final class RenderedPageItem implements ITableItem {
+
+	private final ReportOutputFolder folder;
+
+	private final String fileName;
+
+	private final String label;
+
+	private final String style;
+
+	private final ICoverageNode node;
+
+	RenderedPageItem(final NodePage<?> page) {
+		this.folder = page.folder;
+		this.fileName = page.getFileName();
+		this.label = page.getLinkLabel();
+		this.style = page.getLinkStyle();
+		this.node = page.getNode().getPlainCopy();
+	}
+
+	public String getLinkLabel() {
+		return label;
+	}
+
+	public String getLinkStyle() {
+		return style;
+	}
+
+	public String getLink(final ReportOutputFolder base) {
+		return folder.getLink(base, fileName);
+	}
+
+	public ICoverageNode getNode() {
+		return node;
+	}
+
+}
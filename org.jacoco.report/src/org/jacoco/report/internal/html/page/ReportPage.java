@@ -16,9 +16,11 @@ import java.io.IOException;
 
 import org.jacoco.core.JaCoCo;
 import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.html.Fingerprint;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.ILinkable;
+import org.jacoco.report.internal.html.PageFingerprints;
 import org.jacoco.report.internal.html.resources.Resources;
 import org.jacoco.report.internal.html.resources.Styles;
 
@@ -71,6 +73,9 @@ public abstract class ReportPage implements ILinkable {
 	 *             if the page can't be written
 	 */
 	public void render() throws IOException {
+		if (!isModified()) {
+			return;
+		}
 		final HTMLElement html = new HTMLElement(
 				folder.createFile(getFileName()), context.getOutputEncoding());
 		html.attr("lang", context.getLocale().getLanguage());
@@ -98,6 +103,48 @@ public abstract class ReportPage implements ILinkable {
 		head.title().text(getLinkLabel());
 	}
 
+	/**
+	 * Checks whether this page needs to be rendered in an incremental report
+	 * generation.
+	 */
+	private boolean isModified() throws IOException {
+		final PageFingerprints fingerprints = context.getFingerprints();
+		if (fingerprints == null) {
+			return true;
+		}
+		final Fingerprint fingerprint = new Fingerprint();
+		if (!fingerprint(fingerprint)) {
+			return true;
+		}
+		fingerprint.add(getLinkLabel());
+		fingerprint.add(getLinkStyle());
+		for (ReportPage p = parent; p != null; p = p.parent) {
+			fingerprint.add(p.getLinkLabel());
+			fingerprint.add(p.getLinkStyle());
+			fingerprint.add(p.getLink(folder));
+		}
+		fingerprint.add(context.getSessionsPage().getLink(folder));
+		return fingerprints.update(folder.getPath(getFileName()),
+				fingerprint.get());
+	}
+
+	/**
+	 * Adds all data the content of this page is created from to the given
+	 * fingerprint. Labels and links of this page and its parents are added
+	 * automatically. Pages which are always rendered, e.g. because they
+	 * aggregate other pages, return <code>false</code>.
+	 *
+	 * @param fingerprint
+	 *            fingerprint to add data to
+	 * @return <code>true</code> if the page supports incremental rendering
+	 * @throws IOException
+	 *             if required data can't be read
+	 */
+	protected boolean fingerprint(final Fingerprint fingerprint)
+			throws IOException {
+		return false;
+	}
+
 	private void body(final HTMLElement body) throws IOException {
 		body.attr("onload", getOnload());
 		final HTMLElement navigation = body.div(Styles.BREADCRUMB);
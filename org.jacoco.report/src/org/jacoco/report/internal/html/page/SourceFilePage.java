@@ -16,9 +16,12 @@ import static java.lang.String.format;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
 
+import org.jacoco.core.analysis.ILine;
 import org.jacoco.core.analysis.ISourceNode;
 import org.jacoco.report.internal.ReportOutputFolder;
+import org.jacoco.report.internal.html.Fingerprint;
 import org.jacoco.report.internal.html.HTMLElement;
 import org.jacoco.report.internal.html.IHTMLReportContext;
 import org.jacoco.report.internal.html.resources.Resources;
@@ -33,6 +36,8 @@ public class SourceFilePage extends NodePage<ISourceNode> {
 
 	private final int tabWidth;
 
+	private String source;
+
 	/**
 	 * Creates a new page with given information.
 	 *
@@ -58,11 +63,52 @@ public class SourceFilePage extends NodePage<ISourceNode> {
 		this.tabWidth = tabWidth;
 	}
 
+	@Override
+	public void render() throws IOException {
+		super.render();
+		source = null;
+	}
+
+	@Override
+	protected boolean fingerprint(final Fingerprint fingerprint)
+			throws IOException {
+		source = readSource();
+		fingerprint.add(source);
+		fingerprint.add(tabWidth);
+		final ISourceNode node = getNode();
+		fingerprint.add(node);
+		final int last = node.getLastLine();
+		for (int nr = node.getFirstLine(); nr <= last; nr++) {
+			final ILine line = node.getLine(nr);
+			fingerprint.add(line.getInstructionCounter());
+			fingerprint.add(line.getBranchCounter());
+		}
+		return true;
+	}
+
+	private String readSource() throws IOException {
+		final StringBuilder sb = new StringBuilder();
+		final char[] buffer = new char[1024];
+		int len;
+		try {
+			while ((len = sourceReader.read(buffer)) != -1) {
+				sb.append(buffer, 0, len);
+			}
+		} finally {
+			sourceReader.close();
+		}
+		return sb.toString();
+	}
+
 	@Override
 	protected void content(final HTMLElement body) throws IOException {
+		// In incremental mode the source has already been read for the
+		// fingerprint
+		final Reader reader = source == null ? sourceReader
+				: new StringReader(source);
 		final SourceHighlighter hl = new SourceHighlighter(context.getLocale());
-		hl.render(body, getNode(), sourceReader);
-		sourceReader.close();
+		hl.render(body, getNode(), reader);
+		reader.close();
 	}
 
 	@Override
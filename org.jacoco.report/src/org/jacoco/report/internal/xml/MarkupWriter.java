@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2009, 2022 Mountainminds GmbH & Co. KG and Contributors
+ * This program and the accompanying materials are made available under
+ * the terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *    Marc R. Hoffmann - initial API and implementation
+ *
+ *******************************************************************************/
+package org.jacoco.report.internal.xml;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Buffered writer for XML content. Text is escaped in bulk: runs of characters
+ * which do not need to be escaped are copied to the buffer at once and the
+ * replacements are looked up in a table. Numbers are written without creating
+ * intermediate strings. Instances are not thread safe.
+ */
+public class MarkupWriter extends Writer {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	/** Replacements for characters which must be escaped, by character */
+	private static final String[] ESCAPES = new String['>' + 1];
+
+	static {
+		ESCAPES['<'] = "&lt;";
+		ESCAPES['>'] = "&gt;";
+		ESCAPES['"'] = "&quot;";
+		ESCAPES['&'] = "&amp;";
+	}
+
+	private final Writer out;
+
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+	private int position;
+
+	/** Space for the decimal representation of any long value */
+	private final char[] digits = new char[20];
+
+	/**
+	 * Creates a new writer for the given output.
+	 *
+	 * @param out
+	 *            writer to write the buffered content to
+	 */
+	public MarkupWriter(final Writer out) {
+		this.out = out;
+	}
+
+	/**
+	 * Writes the given text where the characters <code>&lt;</code>,
+	 * <code>&gt;</code>, <code>&quot;</code> and <code>&amp;</code> are
+	 * replaced by entity references.
+	 *
+	 * @param text
+	 *            text to write
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public void escape(final String text) throws IOException {
+		final int length = text.length();
+		int start = 0;
+		for (int i = 0; i < length; i++) {
+			final char c = text.charAt(i);
+			if (c < ESCAPES.length && ESCAPES[c] != null) {
+				write(text, start, i - start);
+				write(ESCAPES[c]);
+				start = i + 1;
+			}
+		}
+		write(text, start, length - start);
+	}
+
+	/**
+	 * Writes the decimal representation of the given value, as created by
+	 * {@link String#valueOf(long)}.
+	 *
+	 * @param value
+	 *            value to write
+	 * @throws IOException
+	 *             in case of problems with the underlying output
+	 */
+	public void decimal(final long value) throws IOException {
+		// Calculate with negative numbers to support Long.MIN_VALUE
+		long v = value < 0 ? value : -value;
+		int i = digits.length;
+		do {
+			digits[--i] = (char) ('0' - v % 10);
+			v /= 10;
+		} while (v != 0);
+		if (value < 0) {
+			digits[--i] = '-';
+		}
+		write(digits, i, digits.length - i);
+	}
+
+	@Override
+	public void write(final int c) throws IOException {
+		if (position == buffer.length) {
+			flushBuffer();
+		}
+		buffer[position++] = (char) c;
+	}
+
+	@Override
+	public void write(final char[] cbuf, final int off, final int len)
+			throws IOException {
+		if (len > buffer.length - position) {
+			flushBuffer();
+			if (len > buffer.length) {
+				out.write(cbuf, off, len);
+				return;
+			}
+		}
+		System.arraycopy(cbuf, off, buffer, position, len);
+		position += len;
+	}
+
+	@Override
+	public void write(final String str, final int off, final int len)
+			throws IOException {
+		if (len > buffer.length - position) {
+			flushBuffer();
+			if (len > buffer.length) {
+				out.write(str, off, len);
+				return;
+			}
+		}
+		str.getChars(off, off + len, buffer, position);
+		position += len;
+	}
+
+	private void flushBuffer() throws IOException {
+		if (position > 0) {
+			out.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		flushBuffer();
+		out.close();
+	}
+
+}
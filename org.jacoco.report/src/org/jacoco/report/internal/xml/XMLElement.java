@@ -17,7 +17,6 @@ import static java.lang.String.format;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.Writer;
 
 /**
  * Simple API to create well formed XML streams with minimal memory overhead. A
@@ -37,7 +36,7 @@ public class XMLElement {
 	private static final String DOCTYPE = "<!DOCTYPE %s PUBLIC \"%s\" \"%s\">";
 
 	/** Writer for content output */
-	protected final Writer writer;
+	protected final MarkupWriter writer;
 
 	private final String name;
 
@@ -49,7 +48,7 @@ public class XMLElement {
 
 	private final boolean root;
 
-	private XMLElement(final Writer writer, final String name,
+	private XMLElement(final MarkupWriter writer, final String name,
 			final boolean root) throws IOException {
 		this.writer = writer;
 		this.name = name;
@@ -81,7 +80,8 @@ public class XMLElement {
 			final String system, final boolean standalone,
 			final String encoding, final OutputStream output)
 			throws IOException {
-		this(new OutputStreamWriter(output, encoding), name, true);
+		this(new MarkupWriter(new OutputStreamWriter(output, encoding)), name,
+				true);
 		if (standalone) {
 			writer.write(format(HEADER_STANDALONE, encoding));
 		} else {
@@ -132,30 +132,6 @@ public class XMLElement {
 		}
 	}
 
-	private void quote(final String text) throws IOException {
-		final int len = text.length();
-		for (int i = 0; i < len; i++) {
-			final char c = text.charAt(i);
-			switch (c) {
-			case '<':
-				writer.write("&lt;");
-				break;
-			case '>':
-				writer.write("&gt;");
-				break;
-			case '"':
-				writer.write("&quot;");
-				break;
-			case '&':
-				writer.write("&amp;");
-				break;
-			default:
-				writer.write(c);
-				break;
-			}
-		}
-	}
-
 	/**
 	 * Adds an attribute to this element. May only be called before an child
 	 * element is added or this element has been closed. The attribute value
@@ -175,6 +151,12 @@ public class XMLElement {
 		if (value == null) {
 			return;
 		}
+		beginAttr(name);
+		writer.escape(value);
+		writer.write('"');
+	}
+
+	private void beginAttr(final String name) throws IOException {
 		if (closed || openTagDone) {
 			throw new IOException(
 					format("Element %s already closed.", this.name));
@@ -183,8 +165,6 @@ public class XMLElement {
 		writer.write(name);
 		writer.write('=');
 		writer.write('"');
-		quote(value);
-		writer.write('"');
 	}
 
 	/**
@@ -202,7 +182,9 @@ public class XMLElement {
 	 */
 	public final void attr(final String name, final int value)
 			throws IOException {
-		attr(name, String.valueOf(value));
+		beginAttr(name);
+		writer.decimal(value);
+		writer.write('"');
 	}
 
 	/**
@@ -220,7 +202,9 @@ public class XMLElement {
 	 */
 	public final void attr(final String name, final long value)
 			throws IOException {
-		attr(name, String.valueOf(value));
+		beginAttr(name);
+		writer.decimal(value);
+		writer.write('"');
 	}
 
 	/**
@@ -241,7 +225,7 @@ public class XMLElement {
 		if (lastchild != null) {
 			lastchild.close();
 		}
-		quote(text);
+		writer.escape(text);
 	}
 
 	/**